@@ -40,6 +40,8 @@ import java.net.URL;
 import java.util.Properties;
 
 import org.sat4j.core.ASolverFactory;
+import org.sat4j.minisat.core.ProofTracer;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.reader.ParseFormatException;
 import org.sat4j.reader.Reader;
 import org.sat4j.specs.ContradictionException;
@@ -47,9 +49,12 @@ import org.sat4j.specs.ILogAble;
 import org.sat4j.specs.IProblem;
 import org.sat4j.specs.ISolver;
 import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.Lbool;
 import org.sat4j.specs.SearchListener;
 import org.sat4j.specs.TimeoutException;
 import org.sat4j.tools.DotSearchTracing;
+import org.sat4j.tools.DratSearchListener;
+import org.sat4j.tools.LratProofTracer;
 import org.sat4j.tools.ModelIteratorToSATAdapter;
 import org.sat4j.tools.RupSearchListener;
 import org.sat4j.tools.SearchEnumeratorListener;
@@ -200,7 +205,22 @@ public abstract class AbstractLauncher implements Serializable, ILogAble {
             originalProblem = this.solver;
         }
         this.reader = createReader(originalProblem, problemname);
-        IProblem aProblem = this.reader.parseInstance(problemname);
+        String proofFormat = System.getProperty("UNSATPROOF");
+        ProofTracer tracer = null;
+        if ("lrat".equals(proofFormat) || "lrat-binary".equals(proofFormat)) {
+            // the clauses are identified by their position in the input
+            tracer = createProofTracer(problemname + ".lrat",
+                    "lrat-binary".equals(proofFormat));
+        }
+        IProblem aProblem;
+        try {
+            aProblem = this.reader.parseInstance(problemname);
+        } catch (ContradictionException e) {
+            if (tracer != null) {
+                tracer.end(Lbool.FALSE);
+            }
+            throw e;
+        }
         if (this.reader.hasAMapping()) {
             SearchListener<?> listener = this.solver.getSearchListener();
             if (listener instanceof DotSearchTracing) {
@@ -217,10 +237,19 @@ public abstract class AbstractLauncher implements Serializable, ILogAble {
         }
         log("#constraints  " + aProblem.nConstraints()); //$NON-NLS-1$
         aProblem.printInfos(this.out);
-        if (System.getProperty("UNSATPROOF") != null) {
-            String proofFile = problemname + ".rupproof";
-            this.solver.setSearchListener(
-                    new RupSearchListener<ISolverService>(proofFile));
+        if (proofFormat != null && tracer == null) {
+            String proofFile;
+            if ("drat".equals(proofFormat)
+                    || "drat-binary".equals(proofFormat)) {
+                proofFile = problemname + ".drat";
+                this.solver.setSearchListener(
+                        new DratSearchListener<ISolverService>(proofFile,
+                                "drat-binary".equals(proofFormat)));
+            } else {
+                proofFile = problemname + ".rupproof";
+                this.solver.setSearchListener(
+                        new RupSearchListener<ISolverService>(proofFile));
+            }
             if (!this.isSilent()) {
                 System.out.println(this.solver.getLogPrefix()
                         + "Generating unsat proof in file " + proofFile);
@@ -232,6 +261,34 @@ public abstract class AbstractLauncher implements Serializable, ILogAble {
         return aProblem;
     }
 
+    /**
+     * Trace a LRAT proof of unsatisfiability, if the solver supports it.
+     * 
+     * @param proofFile
+     *            the name of the proof file.
+     * @param binary
+     *            true to use the binary LRAT format.
+     * @return the proof tracer, null if the solver cannot trace a proof.
+     */
+    private ProofTracer createProofTracer(String proofFile, boolean binary) {
+        ISolver engine = this.solver.getSolvingEngine();
+        if (engine instanceof Solver<?>) {
+            ProofTracer tracer = new LratProofTracer(proofFile, binary);
+            try {
+                ((Solver<?>) engine).setProofTracer(tracer);
+                if (!this.isSilent()) {
+                    System.out.println(this.solver.getLogPrefix()
+                            + "Generating unsat proof in file " + proofFile);
+                }
+                return tracer;
+            } catch (UnsupportedOperationException e) {
+                log(e.getMessage());
+            }
+        }
+        log("LRAT proofs are not available for that solver, using RUP instead"); //$NON-NLS-1$
+        return null;
+    }
+
     protected abstract Reader createReader(ISolver theSolver,
             String problemname);
 
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.core;
+
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Utility methods for clauses stored one after the other in an array of
+ * Dimacs literals, each clause being terminated by a 0, as in a Dimacs file.
+ * 
+ * <pre>
+ *  1 -2 3 0 -1 2 0 4 0
+ * </pre>
+ * 
+ * @author leberre
+ * @see ISolver#addClauses(int[], int, int)
+ * @since 2.3.6
+ */
+public final class FlatClauses {
+
+    private FlatClauses() {
+        // no instance supposed to be created.
+    }
+
+    /**
+     * Check that a range of literals ends with a complete clause.
+     * 
+     * @throws IllegalArgumentException
+     *             if the last literal of the range is not a 0.
+     */
+    public static void checkTerminated(int[] literals, int from, int to) {
+        if (to > from && literals[to - 1] != 0) {
+            throw new IllegalArgumentException(
+                    "The last clause must be terminated by 0");
+        }
+    }
+
+    /**
+     * Add the clauses one by one to a solver, reusing the same vector for
+     * all of them. This is the way to implement
+     * {@link ISolver#addClauses(int[], int, int)} in the solvers having no
+     * better way to handle them.
+     * 
+     * @param solver
+     *            the solver receiving the clauses
+     * @param literals
+     *            the clauses
+     * @param from
+     *            the index of the first literal of the first clause
+     * @param to
+     *            the index following the 0 of the last clause
+     * @throws ContradictionException
+     *             iff a clause is empty or falsified.
+     */
+    public static void addClauses(ISolver solver, int[] literals, int from,
+            int to) throws ContradictionException {
+        checkTerminated(literals, from, to);
+        IVecInt clause = new VecInt();
+        int p;
+        for (int i = from; i < to; i++) {
+            p = literals[i];
+            if (p == 0) {
+                solver.addClause(clause);
+                clause.clear();
+            } else {
+                clause.push(p);
+            }
+        }
+    }
+
+    /**
+     * Find the end of the last complete clause of a range of literals.
+     * 
+     * @return the index following the last 0 of the range, or from if the
+     *         range contains no 0.
+     */
+    public static int endOfLastClause(int[] literals, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (literals[i] == 0) {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+}
@@ -30,6 +30,7 @@
 package org.sat4j.minisat;
 
 import org.sat4j.core.ASolverFactory;
+import org.sat4j.minisat.constraints.MixedDataStructureArenaWL;
 import org.sat4j.minisat.constraints.MixedDataStructureDanielHT;
 import org.sat4j.minisat.constraints.MixedDataStructureDanielWL;
 import org.sat4j.minisat.constraints.MixedDataStructureDanielWLConciseBinary;
@@ -43,21 +44,27 @@ import org.sat4j.minisat.learning.LimitedLearning;
 import org.sat4j.minisat.learning.MiniSATLearning;
 import org.sat4j.minisat.learning.NoLearningButHeuristics;
 import org.sat4j.minisat.learning.PercentLengthLearning;
+import org.sat4j.minisat.orders.LRBVarOrderHeap;
 import org.sat4j.minisat.orders.PhaseCachingAutoEraseStrategy;
 import org.sat4j.minisat.orders.RSATLastLearnedClausesPhaseSelectionStrategy;
 import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
 import org.sat4j.minisat.orders.RandomWalkDecorator;
+import org.sat4j.minisat.orders.TargetPhaseSelectionStrategy;
+import org.sat4j.minisat.orders.VMTFVarOrder;
 import org.sat4j.minisat.orders.VarOrderHeap;
 import org.sat4j.minisat.restarts.ArminRestarts;
 import org.sat4j.minisat.restarts.Glucose21Restarts;
 import org.sat4j.minisat.restarts.LubyRestarts;
 import org.sat4j.minisat.restarts.MiniSATRestarts;
 import org.sat4j.minisat.restarts.NoRestarts;
+import org.sat4j.minisat.restarts.StableFocusedRestarts;
 import org.sat4j.opt.MinOneDecorator;
 import org.sat4j.specs.ISolver;
+import org.sat4j.tools.CubeAndConquer;
 import org.sat4j.tools.DimacsOutputSolver;
 import org.sat4j.tools.ManyCore;
 import org.sat4j.tools.OptToSatAdapter;
+import org.sat4j.tools.PreprocessingDecorator;
 import org.sat4j.tools.StatisticsSolver;
 
 /**
@@ -379,6 +386,42 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return solver;
     }
 
+    /**
+     * 
+     * @return the default solver with a LCDS keeping the learned clauses in
+     *         three tiers according to their LBD and usage
+     * @since 2.3.6
+     */
+    public static ISolver newThreeTierLCDS() {
+        Solver<?> solver = (Solver<?>) newGlucose21();
+        solver.setLearnedConstraintsDeletionStrategy(solver.tier_based);
+        return solver;
+    }
+
+    /**
+     * 
+     * @return the default solver using a Variable Move To Front heuristics
+     *         instead of VSIDS
+     * @since 2.3.6
+     */
+    public static ISolver newVMTF() {
+        Solver<?> solver = (Solver<?>) newGlucose21();
+        solver.setOrder(new VMTFVarOrder(new RSATPhaseSelectionStrategy()));
+        return solver;
+    }
+
+    /**
+     * 
+     * @return the default solver using a Learning Rate Branching heuristics
+     *         instead of VSIDS
+     * @since 2.3.6
+     */
+    public static ISolver newLRB() {
+        Solver<?> solver = (Solver<?>) newGlucose21();
+        solver.setOrder(new LRBVarOrderHeap(new RSATPhaseSelectionStrategy()));
+        return solver;
+    }
+
     /**
      * Default solver of the SolverFactory. This solver is meant to be used on
      * challenging SAT benchmarks.
@@ -420,6 +463,18 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return new StatisticsSolver();
     }
 
+    /**
+     * Default solver preceded by a SatELite like preprocessing step
+     * (subsumption, self subsuming resolution and variable elimination).
+     * 
+     * @return a preprocessing decorator on top of the default solver.
+     * @see PreprocessingDecorator
+     * @since 2.3.6
+     */
+    public static ISolver newPreprocessed() {
+        return new PreprocessingDecorator<ISolver>(newDefault());
+    }
+
     public static ISolver newParallel() {
         return new ManyCore(newSAT(), newUNSAT(),
                 newMiniLearningHeapRsatExpSimpLuby(),
@@ -428,6 +483,56 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
                 newMiniSATHeapExpSimp(), newMiniSATHeapEZSimp());
     }
 
+    /**
+     * The solvers of {@link #newParallel()} sharing their learned unit
+     * clauses, and their learned clauses of at most 8 literals and 4 decision
+     * levels.
+     * 
+     * @return a parallel solver sharing learned clauses.
+     * @see ManyCore#shareLearnedClauses(int, int)
+     * @since 2.3.6
+     */
+    public static ISolver newParallelSharing() {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(true, newSAT(),
+                newUNSAT(), newMiniLearningHeapRsatExpSimpLuby(),
+                newMiniLearningHeapRsatExpSimp(),
+                newDefaultAutoErasePhaseSaving(), newMiniLearningHeap(),
+                newMiniSATHeapExpSimp(), newMiniSATHeapEZSimp());
+        solver.shareLearnedClauses(8, 4);
+        return solver;
+    }
+
+    /**
+     * The solvers of {@link #newParallelSharing()} exchanging their learned
+     * clauses every 1000 conflicts, for two runs to give the same answer.
+     * 
+     * @return a deterministic parallel solver.
+     * @see ManyCore#setDeterministic(int)
+     * @since 2.3.6
+     */
+    public static ISolver newParallelDeterministic() {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(true, newSAT(),
+                newUNSAT(), newMiniLearningHeapRsatExpSimpLuby(),
+                newMiniLearningHeapRsatExpSimp(),
+                newDefaultAutoErasePhaseSaving(), newMiniLearningHeap(),
+                newMiniSATHeapExpSimp(), newMiniSATHeapEZSimp());
+        solver.shareLearnedClauses(8, 4);
+        solver.setDeterministic(1000);
+        return solver;
+    }
+
+    /**
+     * Cube and conquer solver: the formula is split into cubes by lookahead,
+     * and the cubes are solved by one default solver per available processor.
+     * 
+     * @return a parallel solver splitting the search space.
+     * @see CubeAndConquer
+     * @since 2.3.6
+     */
+    public static ISolver newCubeAndConquer() {
+        return new CubeAndConquer((Solver<?>) newDefault());
+    }
+
     /**
      * Two solvers are running in //: one for solving SAT instances, the other
      * one for solving unsat instances.
@@ -462,10 +567,104 @@ public final class SolverFactory extends ASolverFactory<ISolver> {
         return solver;
     }
 
+    /**
+     * Same configuration as Glucose21, but with binary clauses stored as
+     * implication lists, propagated before the other constraints.
+     * 
+     * @return a solver using a {@link MixedDataStructureDanielWLConciseBinary}
+     *         data structure.
+     */
     public static Solver newConcise() {
         Solver solver = (Solver) newGlucose21();
         solver.setDataStructureFactory(new MixedDataStructureDanielWLConciseBinary());
-        solver.setSimplifier(solver.NO_SIMPLIFICATION);
+        return solver;
+    }
+
+    /**
+     * Same configuration as the default solver, but storing the clauses in a
+     * single arena instead of one object per clause.
+     * 
+     * @return a solver using a {@link MixedDataStructureArenaWL} data
+     *         structure.
+     * @since 2.3.6
+     */
+    public static Solver<DataStructureFactory> newArena() {
+        Solver<DataStructureFactory> solver = newMiniLearningHeap(new MixedDataStructureArenaWL());
+        solver.setSimplifier(solver.EXPENSIVE_SIMPLIFICATION);
+        solver.setOrder(new VarOrderHeap(new RSATPhaseSelectionStrategy()));
+        solver.setRestartStrategy(new Glucose21Restarts());
+        solver.setLearnedConstraintsDeletionStrategy(solver.lbd_based);
+        return solver;
+    }
+
+    /**
+     * Same configuration as Glucose21, with failed literal probing and
+     * equivalent literal substitution performed between restarts. Constraints
+     * cannot be removed from that solver once equivalent literals have been
+     * substituted.
+     * 
+     * @return a solver performing inprocessing.
+     * @since 2.3.6
+     */
+    public static Solver<DataStructureFactory> newInprocessing() {
+        Solver<DataStructureFactory> solver = (Solver<DataStructureFactory>) newGlucose21();
+        solver.setInprocessingBudget(10);
+        return solver;
+    }
+
+    /**
+     * Same configuration as Glucose21, vivifying the best learned clauses at
+     * restart with 10% of the propagations of the search.
+     * 
+     * @return a solver vivifying its learned clauses.
+     * @since 2.3.6
+     */
+    public static Solver<DataStructureFactory> newVivification() {
+        Solver<DataStructureFactory> solver = (Solver<DataStructureFactory>) newGlucose21();
+        solver.setVivificationBudget(10);
+        return solver;
+    }
+
+    /**
+     * Same configuration as Glucose21, backtracking chronologically instead of
+     * backjumping more than 100 decision levels.
+     * 
+     * @return a solver using chronological backtracking.
+     * @since 2.3.6
+     */
+    public static Solver<DataStructureFactory> newChronologicalBacktracking() {
+        Solver<DataStructureFactory> solver = (Solver<DataStructureFactory>) newGlucose21();
+        solver.setChronologicalBacktrackingThreshold(100);
+        return solver;
+    }
+
+    /**
+     * Same configuration as Glucose21, alternating between a focused mode
+     * using Glucose restarts and a stable mode using Luby restarts and target
+     * phases, with periodic rephasing.
+     * 
+     * @return a solver switching between stable and focused modes.
+     * @since 2.3.6
+     */
+    public static Solver<DataStructureFactory> newStableFocused() {
+        Solver<DataStructureFactory> solver = (Solver<DataStructureFactory>) newGlucose21();
+        TargetPhaseSelectionStrategy phases = new TargetPhaseSelectionStrategy();
+        solver.getOrder().setPhaseSelectionStrategy(phases);
+        solver.setRestartStrategy(new StableFocusedRestarts(phases));
+        return solver;
+    }
+
+    /**
+     * Same configuration as Glucose21, running a stochastic local search of
+     * 100000 flips before the first search and then from time to time
+     * between restarts.
+     * 
+     * @return a solver using local search to find models and phases.
+     * @since 2.3.6
+     */
+    public static Solver<DataStructureFactory> newLocalSearch() {
+        Solver<DataStructureFactory> solver = (Solver<DataStructureFactory>) newGlucose21();
+        solver.setLocalSearchFlips(100000);
         return solver;
     }
 
@@ -32,6 +32,8 @@ package org.sat4j.minisat.constraints;
 import java.io.Serializable;
 
 import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
 import org.sat4j.minisat.core.DataStructureFactory;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.minisat.core.Learner;
@@ -109,6 +111,17 @@ public abstract class AbstractDataStructureFactory implements
         this.learner = learner;
     }
 
+    /**
+     * By default, the literals are copied and the clause is created as any
+     * other clause.
+     * 
+     * @since 2.3.6
+     */
+    public Constr createSharedClause(SharedWLClause clause)
+            throws ContradictionException {
+        return createClause(new VecInt(clause.getSharedLiterals().clone()));
+    }
+
     public void reset() {
     }
 
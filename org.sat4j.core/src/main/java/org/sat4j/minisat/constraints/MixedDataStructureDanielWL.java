@@ -36,6 +36,7 @@ import org.sat4j.minisat.constraints.cnf.LearntWLClause;
 import org.sat4j.minisat.constraints.cnf.Lits;
 import org.sat4j.minisat.constraints.cnf.OriginalBinaryClause;
 import org.sat4j.minisat.constraints.cnf.OriginalWLClause;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
 import org.sat4j.minisat.constraints.cnf.UnitClause;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.specs.Constr;
@@ -93,6 +94,16 @@ public class MixedDataStructureDanielWL extends AbstractDataStructureFactory {
         return OriginalWLClause.brandNewClause(this.solver, getVocabulary(), v);
     }
 
+    @Override
+    public Constr createSharedClause(SharedWLClause clause)
+            throws ContradictionException {
+        if (clause.canBeWatchedBy(getVocabulary())) {
+            clause.register(getVocabulary());
+            return clause;
+        }
+        return super.createSharedClause(clause);
+    }
+
     public Constr createUnregisteredClause(IVecInt literals) {
         if (literals.size() == 1) {
             return new UnitClause(literals.last());
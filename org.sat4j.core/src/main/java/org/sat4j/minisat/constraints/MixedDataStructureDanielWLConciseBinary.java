@@ -30,12 +30,12 @@
 package org.sat4j.minisat.constraints;
 
 import org.sat4j.minisat.constraints.card.AtLeast;
-import org.sat4j.minisat.constraints.cnf.BinaryClauses;
 import org.sat4j.minisat.constraints.cnf.Clauses;
-import org.sat4j.minisat.constraints.cnf.LearntBinaryClause;
+import org.sat4j.minisat.constraints.cnf.ImplicitBinaryClause;
 import org.sat4j.minisat.constraints.cnf.LearntWLClause;
 import org.sat4j.minisat.constraints.cnf.Lits;
 import org.sat4j.minisat.constraints.cnf.OriginalWLClause;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
 import org.sat4j.minisat.constraints.cnf.UnitClause;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.specs.Constr;
@@ -43,14 +43,17 @@ import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IVecInt;
 
 /**
+ * Watched literals data structure in which binary clauses are not stored as
+ * objects but as implications in the vocabulary, propagated before the other
+ * constraints.
+ * 
  * @author leberre
  * @since 2.1
+ * @see org.sat4j.minisat.core.BinaryImplications
  */
 public class MixedDataStructureDanielWLConciseBinary extends
         AbstractDataStructureFactory {
 
-    private BinaryClauses[] binaryClauses;
-
     private static final long serialVersionUID = 1L;
 
     /*
@@ -90,38 +93,19 @@ public class MixedDataStructureDanielWLConciseBinary extends
             return new UnitClause(v.last());
         }
         if (v.size() == 2) {
-            // return OriginalBinaryClause.brandNewClause(this.solver,
-            // getVocabulary(), v);
-            return createConciseBinaryClause(v);
+            return ImplicitBinaryClause.brandNewClause(getVocabulary(), v);
         }
         return OriginalWLClause.brandNewClause(this.solver, getVocabulary(), v);
     }
 
-    private Constr createConciseBinaryClause(IVecInt literals) {
-        assert literals.size() == 2;
-        if (binaryClauses == null) {
-            binaryClauses = new BinaryClauses[getVocabulary().nVars() * 2 + 2];
-        } else if (binaryClauses.length < getVocabulary().nVars() * 2) {
-            BinaryClauses[] newBinaryClauses = new BinaryClauses[getVocabulary()
-                    .nVars() * 2 + 2];
-            System.arraycopy(binaryClauses, 0, newBinaryClauses, 0,
-                    binaryClauses.length);
-            binaryClauses = newBinaryClauses;
-        }
-        BinaryClauses first, second;
-        if ((first = binaryClauses[literals.get(0)]) == null) {
-            first = new BinaryClauses(getVocabulary(), literals.get(0));
-            getVocabulary().watch(literals.get(0) ^ 1, first);
-            binaryClauses[literals.get(0)] = first;
-        }
-        if ((second = binaryClauses[literals.get(1)]) == null) {
-            second = new BinaryClauses(getVocabulary(), literals.get(1));
-            getVocabulary().watch(literals.get(1) ^ 1, second);
-            binaryClauses[literals.get(1)] = second;
+    @Override
+    public Constr createSharedClause(SharedWLClause clause)
+            throws ContradictionException {
+        if (clause.canBeWatchedBy(getVocabulary())) {
+            clause.register(getVocabulary());
+            return clause;
         }
-        first.addBinaryClause(literals.get(1));
-        second.addBinaryClause(literals.get(0));
-        return first;
+        return super.createSharedClause(clause);
     }
 
     public Constr createUnregisteredClause(IVecInt literals) {
@@ -129,7 +113,7 @@ public class MixedDataStructureDanielWLConciseBinary extends
             return new UnitClause(literals.last());
         }
         if (literals.size() == 2) {
-            return new LearntBinaryClause(literals, getVocabulary());
+            return new ImplicitBinaryClause(literals, getVocabulary(), true);
         }
         return new LearntWLClause(literals, getVocabulary());
     }
@@ -0,0 +1,359 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MandatoryLiteralListener;
+import org.sat4j.specs.Propagatable;
+import org.sat4j.specs.UnitPropagationListener;
+import org.sat4j.specs.VarMapper;
+
+/**
+ * Watched literals clause stored in a {@link ClauseArena}.
+ * 
+ * The object itself is only a handle on the arena: the literals, the learnt
+ * flag and the activity of the clause are stored in the arena. The same class
+ * is used for both original and learned clauses.
+ *
+ * Keeping one handle per clause rather than addressing the clauses by their
+ * bare int reference is deliberate: watch lists, reasons and listeners deal
+ * with {@link Constr} objects, and the handle gives each clause a stable
+ * identity across compactions of the arena. A clause thus costs one small
+ * object instead of two (the clause and its array of literals).
+ *
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class ArenaClause implements Propagatable, Constr, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int RECLAIMED_ORIGINAL = -1;
+
+    private static final int RECLAIMED_LEARNT = -2;
+
+    private final ClauseArena arena;
+
+    /**
+     * Reference of the clause in the arena. It is updated by the arena when it
+     * is compacted, and negative once the space of the clause has been
+     * reclaimed.
+     */
+    int ref;
+
+    /**
+     * Creates a new clause in the arena.
+     * 
+     * @param arena
+     *            the storage for the clause
+     * @param ps
+     *            the literals of the clause
+     * @param learnt
+     *            true iff the clause is a learned clause
+     */
+    public ArenaClause(ClauseArena arena, IVecInt ps, boolean learnt) {
+        this.arena = arena;
+        this.ref = arena.allocate(this, ps, learnt);
+    }
+
+    /**
+     * Creates a brand new clause, presumably from external data.
+     * 
+     * @param arena
+     *            the storage for the clause
+     * @param literals
+     *            the literals to store in the clause
+     * @return the created clause, watched by the vocabulary.
+     */
+    public static ArenaClause brandNewClause(ClauseArena arena,
+            IVecInt literals) {
+        ArenaClause c = new ArenaClause(arena, literals, false);
+        c.register();
+        return c;
+    }
+
+    void reclaimed(boolean learnt) {
+        this.ref = learnt ? RECLAIMED_LEARNT : RECLAIMED_ORIGINAL;
+    }
+
+    private int first() {
+        return this.ref + ClauseArena.HEADER_SIZE;
+    }
+
+    public boolean propagate(UnitPropagationListener s, int p) {
+        final int[] data = this.arena.data;
+        final ILits voc = this.arena.voc;
+        final int first = first();
+        final int end = first + this.arena.size(this.ref);
+        // data[first + 1] must contain a falsified literal
+        if (data[first] == (p ^ 1)) {
+            data[first] = data[first + 1];
+            data[first + 1] = p ^ 1;
+        }
+        if (voc.isSatisfied(data[first])) {
+            voc.watch(p, this, data[first]);
+            return true;
+        }
+        int previous = p ^ 1, tmp;
+        // look for new literal to watch: applying move to front strategy
+        for (int i = first + 2; i < end; i++) {
+            if (voc.isFalsified(data[i])) {
+                tmp = previous;
+                previous = data[i];
+                data[i] = tmp;
+            } else {
+                data[first + 1] = data[i];
+                data[i] = previous;
+                voc.watch(data[first + 1] ^ 1, this, data[first]);
+                return true;
+            }
+        }
+        // the clause is now either unit or null
+        // move back the literals to their initial position
+        System.arraycopy(data, first + 2, data, first + 1, end - first - 2);
+        data[end - 1] = previous;
+        voc.watch(p, this, data[first]);
+        // propagates first watched literal
+        return s.enqueue(data[first], this);
+    }
+
+    public boolean propagatePI(MandatoryLiteralListener l, int p) {
+        this.arena.voc.watch(p, this);
+        return true;
+    }
+
+    public Constr toConstraint() {
+        return this;
+    }
+
+    public void register() {
+        final int[] data = this.arena.data;
+        final ILits voc = this.arena.voc;
+        final int first = first();
+        final int size = this.arena.size(this.ref);
+        assert size > 1;
+        if (learnt()) {
+            // watch the literal assigned at the highest level as second
+            // literal
+            int maxi = first + 1;
+            int maxlevel = voc.getLevel(data[maxi]);
+            for (int i = first + 2; i < first + size; i++) {
+                int level = voc.getLevel(data[i]);
+                if (level > maxlevel) {
+                    maxi = i;
+                    maxlevel = level;
+                }
+            }
+            int l = data[first + 1];
+            data[first + 1] = data[maxi];
+            data[maxi] = l;
+        }
+        voc.watch(data[first] ^ 1, this, data[first + 1]);
+        voc.watch(data[first + 1] ^ 1, this, data[first]);
+    }
+
+    public void remove(UnitPropagationListener upl) {
+        if (this.ref < 0) {
+            return;
+        }
+        final ILits voc = this.arena.voc;
+        voc.watches(get(0) ^ 1).remove(this);
+        voc.watches(get(1) ^ 1).remove(this);
+        this.arena.free(this.ref);
+    }
+
+    public boolean simplify() {
+        return isSatisfied();
+    }
+
+    public void calcReason(int p, IVecInt outReason) {
+        final int[] data = this.arena.data;
+        final int first = first();
+        final int end = first + this.arena.size(this.ref);
+        for (int i = p == ILits.UNDEFINED ? first : first + 1; i < end; i++) {
+            assert this.arena.voc.isFalsified(data[i]);
+            outReason.push(data[i] ^ 1);
+        }
+    }
+
+    public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
+        calcReason(p, outReason);
+    }
+
+    public boolean learnt() {
+        if (this.ref < 0) {
+            return this.ref == RECLAIMED_LEARNT;
+        }
+        return this.arena.learnt(this.ref);
+    }
+
+    public void setLearnt() {
+        if (this.ref < 0) {
+            this.ref = RECLAIMED_LEARNT;
+            return;
+        }
+        this.arena.setLearnt(this.ref);
+    }
+
+    public int size() {
+        if (this.ref < 0) {
+            return 0;
+        }
+        return this.arena.size(this.ref);
+    }
+
+    /**
+     * Retourne le ieme literal de la clause. Attention, cet ordre change durant
+     * la recherche.
+     * 
+     * @param i
+     *            the index of the literal
+     * @return the literal
+     */
+    public int get(int i) {
+        assert i < size();
+        return this.arena.data[first() + i];
+    }
+
+    public boolean locked() {
+        return this.ref >= 0 && this.arena.voc.getReason(get(0)) == this;
+    }
+
+    public double getActivity() {
+        if (this.ref < 0) {
+            return 0.0;
+        }
+        return this.arena.activity(this.ref);
+    }
+
+    public void setActivity(double d) {
+        if (this.ref < 0) {
+            // the header slot now belongs to another clause
+            return;
+        }
+        this.arena.setActivity(this.ref, d);
+    }
+
+    public void incActivity(double claInc) {
+        if (learnt()) {
+            setActivity(getActivity() + claInc);
+        }
+    }
+
+    public void forwardActivity(double claInc) {
+        if (!learnt()) {
+            setActivity(getActivity() + claInc);
+        }
+    }
+
+    public void rescaleBy(double d) {
+        setActivity(getActivity() * d);
+    }
+
+    public void assertConstraint(UnitPropagationListener s) {
+        boolean ret = s.enqueue(get(0), this);
+        assert ret;
+    }
+
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        if (this.arena.voc.isFalsified(get(1))) {
+            boolean ret = s.enqueue(get(0), this);
+            assert ret;
+        }
+    }
+
+    public boolean canBePropagatedMultipleTimes() {
+        return false;
+    }
+
+    public boolean canBeSatisfiedByCountingLiterals() {
+        return true;
+    }
+
+    public int requiredNumberOfSatisfiedLiterals() {
+        return 1;
+    }
+
+    public boolean isSatisfied() {
+        final int[] data = this.arena.data;
+        final int first = first();
+        final int end = first + size();
+        for (int i = first; i < end; i++) {
+            if (this.arena.voc.isSatisfied(data[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getAssertionLevel(IVecInt trail, int decisionLevel) {
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            if (var(trail.get(i)) == var(get(0))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            stb.append(Lits.toString(get(i)));
+            stb.append("["); //$NON-NLS-1$
+            stb.append(this.arena.voc.valueToString(get(i)));
+            stb.append("]"); //$NON-NLS-1$
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+
+    public String toString(VarMapper mapper) {
+        if (mapper == null) {
+            return toString();
+        }
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            stb.append(mapper.map(LiteralsUtils.toDimacs(get(i))));
+            stb.append("["); //$NON-NLS-1$
+            stb.append(this.arena.voc.valueToString(get(i)));
+            stb.append("]"); //$NON-NLS-1$
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+}
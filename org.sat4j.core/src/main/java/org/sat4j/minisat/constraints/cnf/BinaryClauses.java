@@ -267,13 +267,13 @@ public class BinaryClauses implements Constr, Propagatable, Serializable {
     }
 
     public boolean canBeSatisfiedByCountingLiterals() {
-        // TODO: implement this method !
-        throw new UnsupportedOperationException("Not implemented yet!");
+        // a set of clauses sharing a literal, not a single constraint
+        return false;
     }
 
     public int requiredNumberOfSatisfiedLiterals() {
-        // TODO: implement this method !
-        throw new UnsupportedOperationException("Not implemented yet!");
+        throw new UnsupportedOperationException(
+                "Not a constraint on literals"); //$NON-NLS-1$
     }
 
     public boolean isSatisfied() {
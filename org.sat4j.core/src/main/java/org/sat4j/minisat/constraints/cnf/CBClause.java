@@ -306,13 +306,11 @@ public class CBClause implements Constr, Undoable, Propagatable, Serializable {
     }
 
     public boolean canBeSatisfiedByCountingLiterals() {
-        // TODO: implement this method !
-        throw new UnsupportedOperationException("Not implemented yet!");
+        return true;
     }
 
     public int requiredNumberOfSatisfiedLiterals() {
-        // TODO: implement this method !
-        throw new UnsupportedOperationException("Not implemented yet!");
+        return 1;
     }
 
     public boolean isSatisfied() {
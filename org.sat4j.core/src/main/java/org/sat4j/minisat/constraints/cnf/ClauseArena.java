@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import java.io.Serializable;
+
+import org.sat4j.core.Vec;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Contiguous storage for clauses.
+ * 
+ * All the clauses allocated in an arena share a single growable int array. A
+ * clause is addressed by an int reference to its header, which contains its
+ * size, its learnt and deleted flags and its activity (which is also used to
+ * store the LBD of learned clauses), followed by its literals:
+ * 
+ * <pre>
+ * [size &lt;&lt; 2 | flags][activity (high bits)][activity (low bits)][lit_0]...[lit_size-1]
+ * </pre>
+ * 
+ * The space of deleted clauses is reclaimed by compacting the arena, which
+ * happens on allocation once enough space has been wasted, i.e. on the first
+ * conflict following a reduction of the learned clauses database.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class ClauseArena implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int HEADER_SIZE = 3;
+
+    private static final int LEARNT = 1;
+
+    private static final int DELETED = 2;
+
+    private static final int FLAGS_SHIFT = 2;
+
+    private static final int DEFAULT_INIT_SIZE = 1 << 16;
+
+    /**
+     * The arena itself. Package visibility to allow the clauses to work
+     * directly on it during propagation.
+     */
+    int[] data = new int[DEFAULT_INIT_SIZE];
+
+    private int top = 0;
+
+    private int wasted = 0;
+
+    /**
+     * The clauses living in the arena, in allocation order. The order is the
+     * one of the clauses in the arena, which is preserved by compaction.
+     */
+    private final IVec<ArenaClause> clauses = new Vec<ArenaClause>();
+
+    final ILits voc;
+
+    public ClauseArena(ILits voc) {
+        this.voc = voc;
+    }
+
+    /**
+     * Allocate a new clause in the arena.
+     * 
+     * @param c
+     *            the handle of the clause
+     * @param ps
+     *            the literals of the clause
+     * @param learnt
+     *            true iff the clause is a learned clause
+     * @return the reference of the clause in the arena.
+     */
+    int allocate(ArenaClause c, IVecInt ps, boolean learnt) {
+        if (this.wasted > this.top >> 1) {
+            compact();
+        }
+        int size = ps.size();
+        ensure(this.top + HEADER_SIZE + size);
+        int ref = this.top;
+        this.data[ref] = size << FLAGS_SHIFT | (learnt ? LEARNT : 0);
+        this.data[ref + 1] = 0;
+        this.data[ref + 2] = 0;
+        for (int i = 0; i < size; i++) {
+            this.data[ref + HEADER_SIZE + i] = ps.get(i);
+        }
+        this.top += HEADER_SIZE + size;
+        this.clauses.push(c);
+        return ref;
+    }
+
+    /**
+     * Mark the clause as deleted. Its literals remain available until the next
+     * compaction of the arena.
+     * 
+     * @param ref
+     *            the reference of the clause.
+     */
+    void free(int ref) {
+        if ((this.data[ref] & DELETED) == 0) {
+            this.data[ref] |= DELETED;
+            this.wasted += HEADER_SIZE + size(ref);
+        }
+    }
+
+    boolean isDeleted(int ref) {
+        return (this.data[ref] & DELETED) != 0;
+    }
+
+    int size(int ref) {
+        return this.data[ref] >>> FLAGS_SHIFT;
+    }
+
+    boolean learnt(int ref) {
+        return (this.data[ref] & LEARNT) != 0;
+    }
+
+    void setLearnt(int ref) {
+        this.data[ref] |= LEARNT;
+    }
+
+    double activity(int ref) {
+        long bits = (long) this.data[ref + 1] << 32 | this.data[ref + 2]
+                & 0xFFFFFFFFL;
+        return Double.longBitsToDouble(bits);
+    }
+
+    void setActivity(int ref, double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        this.data[ref + 1] = (int) (bits >>> 32);
+        this.data[ref + 2] = (int) bits;
+    }
+
+    /**
+     * Move all the live clauses at the beginning of the arena, updating the
+     * references stored in their handles.
+     */
+    public void compact() {
+        int to = 0;
+        int j = 0;
+        ArenaClause c;
+        for (int i = 0; i < this.clauses.size(); i++) {
+            c = this.clauses.get(i);
+            if (isDeleted(c.ref)) {
+                c.reclaimed(learnt(c.ref));
+            } else {
+                int length = HEADER_SIZE + size(c.ref);
+                System.arraycopy(this.data, c.ref, this.data, to, length);
+                c.ref = to;
+                to += length;
+                this.clauses.set(j++, c);
+            }
+        }
+        this.clauses.shrinkTo(j);
+        this.top = to;
+        this.wasted = 0;
+    }
+
+    private void ensure(int nsize) {
+        if (nsize > this.data.length) {
+            int[] ndata = new int[Math.max(nsize, this.data.length << 1)];
+            System.arraycopy(this.data, 0, ndata, 0, this.top);
+            this.data = ndata;
+        }
+    }
+
+    /**
+     * Remove all the clauses from the arena.
+     */
+    public void clear() {
+        for (int i = 0; i < this.clauses.size(); i++) {
+            ArenaClause c = this.clauses.get(i);
+            c.reclaimed(learnt(c.ref));
+        }
+        this.clauses.clear();
+        this.top = 0;
+        this.wasted = 0;
+    }
+
+    /**
+     * @return the number of clauses currently stored in the arena.
+     */
+    public int nClauses() {
+        return this.clauses.size();
+    }
+
+    /**
+     * @return the number of ints used in the arena, including the space of
+     *         deleted clauses not reclaimed yet.
+     */
+    public int used() {
+        return this.top;
+    }
+
+    /**
+     * @return the number of ints allocated for the arena.
+     */
+    public int capacity() {
+        return this.data.length;
+    }
+
+    @Override
+    public String toString() {
+        return "Clause arena (" + nClauses() + " clauses, " + used() + "/"
+                + capacity() + " ints used, " + this.wasted + " wasted)";
+    }
+}
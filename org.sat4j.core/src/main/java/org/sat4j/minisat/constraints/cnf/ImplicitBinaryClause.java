@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MandatoryLiteralListener;
+import org.sat4j.specs.UnitPropagationListener;
+
+/**
+ * Binary clause stored in the implication lists of the vocabulary instead of
+ * the watch lists. The object is only a handle used to add or remove the
+ * clause: the propagations are explained by the
+ * {@link org.sat4j.minisat.core.BinaryImplications} of the satisfied literal,
+ * so binary clauses are never locked and never deleted by the learned
+ * constraints deletion strategy.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class ImplicitBinaryClause extends BinaryClause {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean learnt;
+
+    public ImplicitBinaryClause(IVecInt ps, ILits voc, boolean learnt) {
+        super(ps, voc);
+        this.learnt = learnt;
+    }
+
+    /**
+     * Creates a brand new clause, presumably from external data.
+     * 
+     * @param voc
+     *            the vocabulary
+     * @param literals
+     *            the literals to store in the clause
+     * @return the created clause
+     */
+    public static ImplicitBinaryClause brandNewClause(ILits voc,
+            IVecInt literals) {
+        ImplicitBinaryClause c = new ImplicitBinaryClause(literals, voc, false);
+        c.register();
+        return c;
+    }
+
+    @Override
+    public void register() {
+        ILits voc = getVocabulary();
+        voc.binaryImplications(neg(this.head)).addImplied(this.tail);
+        voc.binaryImplications(neg(this.tail)).addImplied(this.head);
+    }
+
+    @Override
+    public void remove(UnitPropagationListener upl) {
+        ILits voc = getVocabulary();
+        voc.binaryImplications(neg(this.head)).removeImplied(this.tail);
+        voc.binaryImplications(neg(this.tail)).removeImplied(this.head);
+    }
+
+    @Override
+    public boolean propagate(UnitPropagationListener s, int p) {
+        throw new UnsupportedOperationException(
+                "Propagated by the solver using implication lists");
+    }
+
+    @Override
+    public boolean propagatePI(MandatoryLiteralListener m, int p) {
+        throw new UnsupportedOperationException(
+                "Propagated by the solver using implication lists");
+    }
+
+    @Override
+    public boolean locked() {
+        return true;
+    }
+
+    @Override
+    public void assertConstraint(UnitPropagationListener s) {
+        boolean ret = s.enqueue(this.head, getVocabulary().binaryImplications(
+                neg(this.tail)));
+        assert ret;
+    }
+
+    @Override
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        if (getVocabulary().isFalsified(this.tail)) {
+            assertConstraint(s);
+        }
+    }
+
+    public boolean learnt() {
+        return this.learnt;
+    }
+
+    public void setLearnt() {
+        // do nothing
+    }
+
+    public void incActivity(double claInc) {
+        if (this.learnt) {
+            this.activity += claInc;
+        }
+    }
+
+    public void forwardActivity(double claInc) {
+        if (!this.learnt) {
+            this.activity += claInc;
+        }
+    }
+
+    public void setActivity(double d) {
+        if (this.learnt) {
+            this.activity = d;
+        }
+    }
+}
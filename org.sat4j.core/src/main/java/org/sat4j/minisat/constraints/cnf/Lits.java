@@ -30,11 +30,14 @@
 package org.sat4j.minisat.constraints.cnf;
 
 import java.io.Serializable;
+import java.util.Map;
 
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.Vec;
+import org.sat4j.minisat.core.BinaryImplications;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.minisat.core.Undoable;
+import org.sat4j.minisat.core.WatchList;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.IVec;
 import org.sat4j.specs.Propagatable;
@@ -54,8 +57,9 @@ public final class Lits implements Serializable, ILits {
 
     private int realnVars = 0;
 
-    @SuppressWarnings("unchecked")
-    private IVec<Propagatable>[] watches = new IVec[0];
+    private WatchList[] watches = new WatchList[0];
+
+    private BinaryImplications[] implications = new BinaryImplications[0];
 
     private int[] level = new int[0];
 
@@ -68,6 +72,10 @@ public final class Lits implements Serializable, ILits {
 
     private boolean[] falsified = new boolean[0];
 
+    private SharedClauses sharedClauses;
+
+    private int[] sharedWatches = new int[0];
+
     public Lits() {
         init(DEFAULT_INIT_SIZE);
     }
@@ -88,10 +96,15 @@ public final class Lits implements Serializable, ILits {
         System.arraycopy(this.level, 0, nlevel, 0, this.level.length);
         this.level = nlevel;
 
-        IVec<Propagatable>[] nwatches = new IVec[2 * nvars];
+        WatchList[] nwatches = new WatchList[2 * nvars];
         System.arraycopy(this.watches, 0, nwatches, 0, this.watches.length);
         this.watches = nwatches;
 
+        BinaryImplications[] nimplications = new BinaryImplications[2 * nvars];
+        System.arraycopy(this.implications, 0, nimplications, 0,
+                this.implications.length);
+        this.implications = nimplications;
+
         IVec<Undoable>[] nundos = new IVec[nvars];
         System.arraycopy(this.undos, 0, nundos, 0, this.undos.length);
         this.undos = nundos;
@@ -120,8 +133,11 @@ public final class Lits implements Serializable, ILits {
         if (!this.pool[var]) {
             this.realnVars++;
             this.pool[var] = true;
-            this.watches[var << 1] = new Vec<Propagatable>();
-            this.watches[var << 1 | 1] = new Vec<Propagatable>();
+            this.watches[var << 1] = new WatchList();
+            this.watches[var << 1 | 1] = new WatchList();
+            this.implications[var << 1] = new BinaryImplications(var << 1);
+            this.implications[var << 1 | 1] = new BinaryImplications(
+                    var << 1 | 1);
             this.undos[var] = new Vec<Undoable>();
             this.level[var] = -1;
             this.falsified[var << 1] = false; // because truthValue[var] is
@@ -148,6 +164,8 @@ public final class Lits implements Serializable, ILits {
         }
         this.maxvarid = 0;
         this.realnVars = 0;
+        this.sharedClauses = null;
+        this.sharedWatches = new int[0];
     }
 
     public void ensurePool(int howmany) {
@@ -218,6 +236,8 @@ public final class Lits implements Serializable, ILits {
     public void reset(int lit) {
         this.watches[lit].clear();
         this.watches[lit ^ 1].clear();
+        this.implications[lit].clearImplied();
+        this.implications[lit ^ 1].clearImplied();
         this.level[lit >> 1] = -1;
         this.reason[lit >> 1] = null;
         this.undos[lit >> 1].clear();
@@ -250,10 +270,112 @@ public final class Lits implements Serializable, ILits {
         this.watches[lit].push(c);
     }
 
+    public void watch(int lit, Propagatable c, int blocker) {
+        this.watches[lit].push(c, blocker);
+    }
+
     public IVec<Propagatable> watches(int lit) {
         return this.watches[lit];
     }
 
+    public BinaryImplications binaryImplications(int lit) {
+        return this.implications[lit];
+    }
+
+    public boolean reserveSharedWatches(SharedClauses group, int id) {
+        if (this.sharedClauses == null) {
+            this.sharedClauses = group;
+        } else if (this.sharedClauses != group) {
+            return false;
+        }
+        if (2 * id + 1 >= this.sharedWatches.length) {
+            int[] nwatches = new int[Math.max(2 * id + 2,
+                    this.sharedWatches.length << 1)];
+            System.arraycopy(this.sharedWatches, 0, nwatches, 0,
+                    this.sharedWatches.length);
+            this.sharedWatches = nwatches;
+        }
+        return true;
+    }
+
+    public int[] sharedWatches() {
+        return this.sharedWatches;
+    }
+
+    /**
+     * Copy that vocabulary into a new one, e.g. the vocabulary of a fork of
+     * the solver. The constraints found in the watch lists and the reasons
+     * are replaced by their copies, except the shared clauses which are kept
+     * as is. The lists of binary implications are copied, and their copies
+     * added to the map of copies.
+     * 
+     * @param target
+     *            a new vocabulary
+     * @param copies
+     *            the copy of each constraint
+     * @return false iff a constraint has no copy or some undos are pending,
+     *         target is then unusable.
+     * @since 2.3.6
+     */
+    @SuppressWarnings("unchecked")
+    public boolean copyTo(Lits target, Map<Constr, Constr> copies) {
+        target.pool = this.pool.clone();
+        target.realnVars = this.realnVars;
+        target.maxvarid = this.maxvarid;
+        target.level = this.level.clone();
+        target.falsified = this.falsified.clone();
+        target.implications = new BinaryImplications[this.implications.length];
+        for (int i = 0; i < this.implications.length; i++) {
+            if (this.implications[i] != null) {
+                target.implications[i] = this.implications[i].copy();
+                copies.put(this.implications[i], target.implications[i]);
+            }
+        }
+        target.undos = new IVec[this.undos.length];
+        for (int i = 0; i < this.undos.length; i++) {
+            if (this.undos[i] != null) {
+                if (!this.undos[i].isEmpty()) {
+                    return false;
+                }
+                target.undos[i] = new Vec<Undoable>();
+            }
+        }
+        target.reason = new Constr[this.reason.length];
+        for (int i = 0; i < this.reason.length; i++) {
+            Constr r = this.reason[i];
+            if (r != null) {
+                target.reason[i] = r instanceof SharedWLClause ? r : copies
+                        .get(r);
+                if (target.reason[i] == null) {
+                    return false;
+                }
+            }
+        }
+        target.watches = new WatchList[this.watches.length];
+        for (int i = 0; i < this.watches.length; i++) {
+            WatchList list = this.watches[i];
+            if (list == null) {
+                continue;
+            }
+            WatchList copy = new WatchList(Math.max(5, list.size()));
+            for (int j = 0; j < list.size(); j++) {
+                Propagatable watcher = list.get(j);
+                if (!(watcher instanceof SharedWLClause)) {
+                    Object c = copies.get(watcher);
+                    if (!(c instanceof Propagatable)) {
+                        return false;
+                    }
+                    watcher = (Propagatable) c;
+                }
+                copy.push(watcher, list.blocker(j));
+            }
+            target.watches[i] = copy;
+        }
+        target.sharedClauses = this.sharedClauses;
+        target.sharedWatches = this.sharedWatches.clone();
+        return true;
+    }
+
     public boolean isImplied(int lit) {
         int var = lit >> 1;
         assert this.reason[var] == null || this.falsified[lit]
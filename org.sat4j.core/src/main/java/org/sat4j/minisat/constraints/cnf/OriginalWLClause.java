@@ -52,8 +52,8 @@ public final class OriginalWLClause extends WLClause {
      */
     public void register() {
         assert this.lits.length > 1;
-        this.voc.watch(this.lits[0] ^ 1, this);
-        this.voc.watch(this.lits[1] ^ 1, this);
+        this.voc.watch(this.lits[0] ^ 1, this, this.lits[1]);
+        this.voc.watch(this.lits[1] ^ 1, this, this.lits[0]);
     }
 
     public boolean learnt() {
@@ -108,8 +108,14 @@ public final class OriginalWLClause extends WLClause {
         }
         // assert mylits[1] == (p ^ 1);
         int previous = p ^ 1;
-        // look for a new satisfied literal to watch
-        for (int i = savedindex; i < mylits.length; i++) {
+        // look for a new satisfied literal to watch, starting from the last
+        // one found. The scan wraps around since savedindex may come from a
+        // previous prime implicant computation.
+        int i = savedindex;
+        for (int n = mylits.length - 2; n > 0; n--, i++) {
+            if (i >= mylits.length) {
+                i = 2;
+            }
             if (this.voc.isSatisfied(mylits[i])) {
                 mylits[1] = mylits[i];
                 mylits[i] = previous;
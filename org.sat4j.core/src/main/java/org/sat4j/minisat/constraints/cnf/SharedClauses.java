@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The original clauses shared by several solvers working on the same formula,
+ * e.g. the members of a parallel portfolio or the forks of a solver.
+ * 
+ * Each clause is given a number in that group, which locates the positions of
+ * its watched literals in the vocabulary of each solver (see
+ * {@link org.sat4j.minisat.core.ILits#sharedWatches()}).
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class SharedClauses implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * Creates a new clause of that group.
+     * 
+     * @param lits
+     *            distinct internal literals, no two of them being
+     *            complementary, at least three of them. That array MUST NOT be
+     *            modified afterwards.
+     * @return a new clause, watched by no solver yet.
+     */
+    public SharedWLClause newClause(int[] lits) {
+        return new SharedWLClause(this, lits, this.nextId.getAndIncrement());
+    }
+
+    /**
+     * @return the number of clauses created in that group.
+     */
+    public int size() {
+        return this.nextId.get();
+    }
+}
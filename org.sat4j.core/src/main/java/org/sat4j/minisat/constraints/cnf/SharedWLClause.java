@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.cnf;
+
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.VocabularyProvider;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MandatoryLiteralListener;
+import org.sat4j.specs.Propagatable;
+import org.sat4j.specs.UnitPropagationListener;
+import org.sat4j.specs.VarMapper;
+
+/**
+ * Original clause using watched literals, shared by several solvers working on
+ * the same formula.
+ * 
+ * The clause object itself is immutable: the same object is registered in the
+ * watch lists of all the solvers of its group (see {@link SharedClauses}). The
+ * positions of the two watched literals are specific to each solver: they are
+ * stored in the vocabulary of the solver, at index 2*id and 2*id+1 of
+ * {@link ILits#sharedWatches()}. The vocabulary is found through the solver
+ * given to the methods that need it, which must be a
+ * {@link VocabularyProvider}. An original clause has no activity.
+ * 
+ * Because the clause does not know which solver it is used by, the methods of
+ * {@link Constr} without solver parameter have a limited meaning: the literals
+ * are seen in their original order, {@link #simplify()} never removes the
+ * clause, {@link #locked()} is always false (an original clause is never
+ * deleted anyway), and {@link #isSatisfied()} is not supported: use
+ * {@link #isSatisfied(ILits)} instead.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class SharedWLClause implements Propagatable, Constr,
+        Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SharedClauses group;
+
+    private final int[] lits;
+
+    /**
+     * Index of the position of the first watched literal in the shared
+     * watches of the vocabularies.
+     */
+    private final int slot;
+
+    /**
+     * Creates a new clause on a shared array of literals.
+     * 
+     * @param group
+     *            the group of the clause
+     * @param lits
+     *            the literals of the clause, that array MUST NOT be modified
+     *            afterwards.
+     * @param id
+     *            the number of the clause in the group
+     * @see SharedClauses#newClause(int[])
+     */
+    SharedWLClause(SharedClauses group, int[] lits, int id) {
+        assert lits.length > 2;
+        this.group = group;
+        this.lits = lits;
+        this.slot = id << 1;
+    }
+
+    /**
+     * Check that a solver can watch that clause directly: none of its literals
+     * must be assigned, else it has to be simplified first, and the vocabulary
+     * must not watch the clauses of another group already.
+     * 
+     * @param voc
+     *            the vocabulary of the solver
+     * @return true iff the clause can be registered in voc.
+     */
+    public boolean canBeWatchedBy(ILits voc) {
+        for (int p : this.lits) {
+            if (!voc.isUnassigned(p)) {
+                return false;
+            }
+        }
+        return voc.reserveSharedWatches(this.group, this.slot >> 1);
+    }
+
+    /**
+     * Watch the clause in a solver, starting with its first two literals.
+     * 
+     * @param voc
+     *            the vocabulary of the solver
+     * @see #canBeWatchedBy(ILits)
+     */
+    public void register(ILits voc) {
+        setWatches(voc, 0, 1);
+        voc.watch(this.lits[0] ^ 1, this, this.lits[1]);
+        voc.watch(this.lits[1] ^ 1, this, this.lits[0]);
+    }
+
+    /**
+     * Set the positions of the watched literals in a solver whose watch lists
+     * already contain that clause, e.g. a copy of another solver.
+     * 
+     * @param voc
+     *            the vocabulary of the solver
+     * @param watch0
+     *            the index of the first watched literal
+     * @param watch1
+     *            the index of the second watched literal
+     * @return false iff the vocabulary watches the clauses of another group.
+     */
+    public boolean setWatches(ILits voc, int watch0, int watch1) {
+        assert watch0 != watch1;
+        if (!voc.reserveSharedWatches(this.group, this.slot >> 1)) {
+            return false;
+        }
+        final int[] watches = voc.sharedWatches();
+        watches[this.slot] = watch0;
+        watches[this.slot + 1] = watch1;
+        return true;
+    }
+
+    /**
+     * The array of literals shared with the other solvers.
+     * 
+     * @return the literals of the clause, in their original order. That array
+     *         MUST NOT be modified.
+     */
+    public int[] getSharedLiterals() {
+        return this.lits;
+    }
+
+    /**
+     * @return the group of the clause.
+     */
+    public SharedClauses getGroup() {
+        return this.group;
+    }
+
+    private static ILits vocabulary(Object solver) {
+        return ((VocabularyProvider) solver).getVocabulary();
+    }
+
+    /**
+     * A shared clause is registered by the data structure factory, which knows
+     * the vocabulary.
+     * 
+     * @throws UnsupportedOperationException
+     *             always
+     * @see #register(ILits)
+     */
+    public void register() {
+        throw new UnsupportedOperationException(
+                "A shared clause must be registered in a given vocabulary"); //$NON-NLS-1$
+    }
+
+    public void remove(UnitPropagationListener upl) {
+        final ILits voc = vocabulary(upl);
+        final int[] watches = voc.sharedWatches();
+        voc.watches(this.lits[watches[this.slot]] ^ 1).remove(this);
+        voc.watches(this.lits[watches[this.slot + 1]] ^ 1).remove(this);
+    }
+
+    public boolean propagate(UnitPropagationListener s, int p) {
+        final ILits voc = vocabulary(s);
+        final int[] watches = voc.sharedWatches();
+        final int[] mylits = this.lits;
+        int watch0 = watches[this.slot];
+        int watch1 = watches[this.slot + 1];
+        // watch1 must point to the falsified literal
+        if (mylits[watch0] == (p ^ 1)) {
+            watch0 = watch1;
+            watch1 = watches[this.slot];
+            watches[this.slot] = watch0;
+            watches[this.slot + 1] = watch1;
+        }
+        final int first = mylits[watch0];
+        if (voc.isSatisfied(first)) {
+            voc.watch(p, this, first);
+            return true;
+        }
+        // look for a new literal to watch
+        for (int i = 0; i < mylits.length; i++) {
+            if (i != watch0 && i != watch1 && !voc.isFalsified(mylits[i])) {
+                watches[this.slot + 1] = i;
+                voc.watch(mylits[i] ^ 1, this, first);
+                return true;
+            }
+        }
+        // the clause is now either unit or null
+        voc.watch(p, this, first);
+        return s.enqueue(first, this);
+    }
+
+    public boolean propagatePI(MandatoryLiteralListener s, int p) {
+        final ILits voc = vocabulary(s);
+        final int[] watches = voc.sharedWatches();
+        final int[] mylits = this.lits;
+        int watch0 = watches[this.slot];
+        int watch1 = watches[this.slot + 1];
+        if (mylits[watch0] == (p ^ 1)) {
+            watch0 = watch1;
+            watch1 = watches[this.slot];
+            watches[this.slot] = watch0;
+            watches[this.slot + 1] = watch1;
+        }
+        // look for a new satisfied literal to watch
+        for (int i = 0; i < mylits.length; i++) {
+            if (i != watch0 && i != watch1 && voc.isSatisfied(mylits[i])) {
+                watches[this.slot + 1] = i;
+                voc.watch(mylits[i] ^ 1, this);
+                return true;
+            }
+        }
+        // the clause is now unit
+        voc.watch(p, this);
+        // first literal is mandatory
+        s.isMandatory(mylits[watch0]);
+        return true;
+    }
+
+    public void calcReason(int p, IVecInt outReason) {
+        for (int q : this.lits) {
+            if (q != p) {
+                outReason.push(q ^ 1);
+            }
+        }
+    }
+
+    public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
+        calcReason(p, outReason);
+    }
+
+    /**
+     * A shared clause is kept even once satisfied at the root level: other
+     * solvers may need it.
+     * 
+     * @return false
+     */
+    public boolean simplify() {
+        return false;
+    }
+
+    /**
+     * The truth value of the clause depends on the solver.
+     * 
+     * @throws UnsupportedOperationException
+     *             always
+     * @see #isSatisfied(ILits)
+     */
+    public boolean isSatisfied() {
+        throw new UnsupportedOperationException(
+                "The vocabulary of the solver is needed"); //$NON-NLS-1$
+    }
+
+    /**
+     * @param voc
+     *            the vocabulary of a solver
+     * @return true iff one of the literals of the clause is satisfied in voc.
+     */
+    public boolean isSatisfied(ILits voc) {
+        for (int p : this.lits) {
+            if (voc.isSatisfied(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean locked() {
+        return false;
+    }
+
+    public boolean learnt() {
+        return false;
+    }
+
+    public void setLearnt() {
+        // do nothing
+    }
+
+    public void incActivity(double claInc) {
+    }
+
+    public void forwardActivity(double claInc) {
+    }
+
+    public double getActivity() {
+        return 0.0;
+    }
+
+    public void setActivity(double d) {
+    }
+
+    public void rescaleBy(double d) {
+    }
+
+    public int size() {
+        return this.lits.length;
+    }
+
+    /**
+     * Retrieve the ith literal of the clause, in the original order.
+     * 
+     * @param i
+     *            the index of the literal
+     * @return the literal
+     */
+    public int get(int i) {
+        return this.lits[i];
+    }
+
+    public void assertConstraint(UnitPropagationListener s) {
+        final ILits voc = vocabulary(s);
+        boolean ret = s.enqueue(this.lits[voc.sharedWatches()[this.slot]],
+                this);
+        assert ret;
+    }
+
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        final ILits voc = vocabulary(s);
+        final int[] watches = voc.sharedWatches();
+        if (voc.isFalsified(this.lits[watches[this.slot + 1]])) {
+            boolean ret = s.enqueue(this.lits[watches[this.slot]], this);
+            assert ret;
+        }
+    }
+
+    public boolean canBePropagatedMultipleTimes() {
+        return false;
+    }
+
+    public Constr toConstraint() {
+        return this;
+    }
+
+    public boolean canBeSatisfiedByCountingLiterals() {
+        return true;
+    }
+
+    public int requiredNumberOfSatisfiedLiterals() {
+        return 1;
+    }
+
+    /**
+     * The propagated literal is the one assigned last.
+     */
+    public int getAssertionLevel(IVecInt trail, int decisionLevel) {
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            int v = var(trail.get(i));
+            for (int p : this.lits) {
+                if (var(p) == v) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        for (int lit : this.lits) {
+            stb.append(Lits.toString(lit));
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+
+    public String toString(VarMapper mapper) {
+        if (mapper == null) {
+            return toString();
+        }
+        StringBuilder stb = new StringBuilder();
+        for (int lit : this.lits) {
+            stb.append(mapper.map(LiteralsUtils.toDimacs(lit)));
+            stb.append(" "); //$NON-NLS-1$
+        }
+        return stb.toString();
+    }
+}
@@ -29,6 +29,8 @@
  *******************************************************************************/
 package org.sat4j.minisat.constraints.cnf;
 
+import java.io.Serializable;
+
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.specs.Constr;
@@ -42,7 +44,9 @@ import org.sat4j.specs.VarMapper;
  * @author daniel
  * @since 2.1
  */
-public class UnitClause implements Constr {
+public class UnitClause implements Constr, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected final int literal;
     protected double activity;
@@ -29,6 +29,8 @@
  *******************************************************************************/
 package org.sat4j.minisat.constraints.cnf;
 
+import java.io.Serializable;
+
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.MandatoryLiteralListener;
@@ -38,7 +40,9 @@ import org.sat4j.specs.VarMapper;
 /**
  * @since 2.1
  */
-public class UnitClauses implements Constr {
+public class UnitClauses implements Constr, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected final int[] literals;
 
@@ -133,11 +137,11 @@ public class UnitClauses implements Constr {
     }
 
     public boolean canBeSatisfiedByCountingLiterals() {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        return true;
     }
 
     public int requiredNumberOfSatisfiedLiterals() {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        return this.literals.length;
     }
 
     public boolean isSatisfied() {
@@ -122,7 +122,7 @@ public abstract class WLClause implements Propagatable, Constr, Serializable {
         }
         // assert mylits[1] == (p ^ 1);
         if (this.voc.isSatisfied(mylits[0])) {
-            this.voc.watch(p, this);
+            this.voc.watch(p, this, mylits[0]);
             return true;
         }
         int previous = p ^ 1, tmp;
@@ -135,7 +135,7 @@ public abstract class WLClause implements Propagatable, Constr, Serializable {
             } else {
                 mylits[1] = mylits[i];
                 mylits[i] = previous;
-                this.voc.watch(mylits[1] ^ 1, this);
+                this.voc.watch(mylits[1] ^ 1, this, mylits[0]);
                 return true;
             }
         }
@@ -144,7 +144,7 @@ public abstract class WLClause implements Propagatable, Constr, Serializable {
         // move back the literals to their initial position
         System.arraycopy(mylits, 2, mylits, 1, mylits.length - 2);
         mylits[mylits.length - 1] = previous;
-        this.voc.watch(p, this);
+        this.voc.watch(p, this, mylits[0]);
         // propagates first watched literal
         return s.enqueue(mylits[0], this);
     }
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.xor;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.sat4j.core.Vec;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.SolverStats;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.UnitPropagationListener;
+
+/**
+ * Gauss-Jordan elimination over the parity constraints of a solver.
+ * 
+ * The parity constraints are split into independent sets, which do not share
+ * any variable, and each set is propagated as a whole by a {@link XorMatrix}.
+ * The matrices are built again at the root level before a search whenever
+ * the parity constraints have changed. The sets of parity constraints too
+ * large for a matrix are propagated one constraint at a time, by the watched
+ * literals of {@link Xor}.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class GaussianElimination implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Default maximum number of 64 bits words of a matrix (64MB).
+     */
+    public static final int DEFAULT_MAX_MATRIX_WORDS = 1 << 23;
+
+    private final SolverStats stats;
+
+    private final IVec<Xor> xors = new Vec<Xor>();
+
+    private final IVec<XorMatrix> matrices = new Vec<XorMatrix>();
+
+    private final IVec<Xor> watched = new Vec<Xor>();
+
+    private final IVec<Xor> units = new Vec<Xor>();
+
+    private int maxMatrixWords = DEFAULT_MAX_MATRIX_WORDS;
+
+    private boolean changed;
+
+    private boolean inconsistent;
+
+    public GaussianElimination(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Add a parity constraint, taken into account by the next call to
+     * {@link #prepare(ILits, UnitPropagationListener)}.
+     * 
+     * @param xor
+     *            a parity constraint, not registered.
+     */
+    public void add(Xor xor) {
+        this.xors.push(xor);
+        this.changed = true;
+    }
+
+    /**
+     * Remove a parity constraint.
+     * 
+     * @param c
+     *            a constraint of the solver
+     * @return true iff c was a parity constraint.
+     */
+    public boolean remove(Constr c) {
+        for (int i = this.xors.size() - 1; i >= 0; i--) {
+            if (this.xors.get(i) == c) {
+                this.xors.remove(this.xors.get(i));
+                this.changed = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forget all the parity constraints.
+     */
+    public void reset() {
+        detach();
+        this.xors.clear();
+        this.changed = false;
+        this.inconsistent = false;
+    }
+
+    /**
+     * Set the maximum size of a matrix, in 64 bits words.
+     * 
+     * @param words
+     *            the number of rows times the number of 64 bits words needed
+     *            for a row.
+     */
+    public void setMaxMatrixWords(int words) {
+        if (words < 0) {
+            throw new IllegalArgumentException(
+                    "The maximum size of a matrix cannot be negative");
+        }
+        this.maxMatrixWords = words;
+        this.changed = true;
+    }
+
+    public int getMaxMatrixWords() {
+        return this.maxMatrixWords;
+    }
+
+    /**
+     * 
+     * @return the number of matrices built so far.
+     */
+    public int nbMatrices() {
+        return this.matrices.size();
+    }
+
+    /**
+     * Build the matrices if needed, and propagate their rows reduced to a
+     * single variable. Must be called at the root level, before the
+     * propagation of the literals of the trail.
+     * 
+     * @param voc
+     *            the vocabulary of the solver
+     * @param s
+     *            the solver
+     * @return a conflict, or null.
+     */
+    public Constr prepare(ILits voc, UnitPropagationListener s) {
+        if (this.changed) {
+            build(voc);
+            this.changed = false;
+        }
+        if (this.inconsistent) {
+            return new XorReason(new int[0]);
+        }
+        for (int i = 0; i < this.units.size(); i++) {
+            Xor xor = this.units.get(i);
+            int p = xor.isEven() ? xor.get(0) ^ 1 : xor.get(0);
+            if (!s.enqueue(p, xor)) {
+                return xor;
+            }
+        }
+        for (int i = 0; i < this.matrices.size(); i++) {
+            Constr confl = this.matrices.get(i).assertUnits(s);
+            if (confl != null) {
+                return confl;
+            }
+        }
+        return null;
+    }
+
+    private void detach() {
+        for (int i = 0; i < this.matrices.size(); i++) {
+            this.matrices.get(i).detach();
+        }
+        this.matrices.clear();
+        for (int i = 0; i < this.watched.size(); i++) {
+            this.watched.get(i).remove(null);
+        }
+        this.watched.clear();
+        this.units.clear();
+    }
+
+    private void build(ILits voc) {
+        detach();
+        this.inconsistent = false;
+        int nbVars = voc.nVars();
+        // union-find of the variables sharing a parity constraint
+        int[] parent = new int[nbVars + 1];
+        for (int v = 0; v <= nbVars; v++) {
+            parent[v] = v;
+        }
+        for (int i = 0; i < this.xors.size(); i++) {
+            Xor xor = this.xors.get(i);
+            if (xor.size() == 0) {
+                this.inconsistent |= !xor.isEven();
+                continue;
+            }
+            int root = find(parent, xor.get(0) >> 1);
+            for (int j = 1; j < xor.size(); j++) {
+                int other = find(parent, xor.get(j) >> 1);
+                if (other != root) {
+                    parent[other] = root;
+                }
+            }
+        }
+        Map<Integer, IVec<Xor>> sets = new LinkedHashMap<Integer, IVec<Xor>>();
+        for (int i = 0; i < this.xors.size(); i++) {
+            Xor xor = this.xors.get(i);
+            if (xor.size() == 0) {
+                continue;
+            }
+            Integer root = find(parent, xor.get(0) >> 1);
+            IVec<Xor> set = sets.get(root);
+            if (set == null) {
+                set = new Vec<Xor>();
+                sets.put(root, set);
+            }
+            set.push(xor);
+        }
+        int[] columns = new int[nbVars + 1];
+        int[] stamps = new int[nbVars + 1];
+        int stamp = 0;
+        for (IVec<Xor> set : sets.values()) {
+            stamp++;
+            int nbColumns = 0;
+            for (int i = 0; i < set.size(); i++) {
+                Xor xor = set.get(i);
+                for (int j = 0; j < xor.size(); j++) {
+                    int v = xor.get(j) >> 1;
+                    if (stamps[v] != stamp) {
+                        stamps[v] = stamp;
+                        nbColumns++;
+                    }
+                }
+            }
+            long words = (long) set.size() * ((nbColumns + 63) >>> 6);
+            if (words > this.maxMatrixWords) {
+                for (int i = 0; i < set.size(); i++) {
+                    Xor xor = set.get(i);
+                    if (xor.size() == 1) {
+                        this.units.push(xor);
+                    } else {
+                        xor.register();
+                        this.watched.push(xor);
+                    }
+                }
+                continue;
+            }
+            XorMatrix matrix = newMatrix(voc, set, stamps, stamp, nbColumns,
+                    columns);
+            matrix.attach();
+            this.matrices.push(matrix);
+        }
+    }
+
+    private XorMatrix newMatrix(ILits voc, IVec<Xor> set, int[] stamps,
+            int stamp, int nbColumns, int[] columns) {
+        int[] vars = new int[nbColumns];
+        int n = 0;
+        for (int i = 0; i < set.size(); i++) {
+            Xor xor = set.get(i);
+            for (int j = 0; j < xor.size(); j++) {
+                int v = xor.get(j) >> 1;
+                if (stamps[v] == stamp) {
+                    stamps[v] = -stamp;
+                    vars[n++] = v;
+                }
+            }
+        }
+        Arrays.sort(vars);
+        return new XorMatrix(voc, this.stats, set, vars, columns);
+    }
+
+    private static int find(int[] parent, int v) {
+        int root = v;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[v] != root) {
+            int next = parent[v];
+            parent[v] = root;
+            v = next;
+        }
+        return root;
+    }
+}
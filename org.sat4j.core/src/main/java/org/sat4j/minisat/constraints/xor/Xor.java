@@ -1,5 +1,8 @@
 package org.sat4j.minisat.constraints.xor;
 
+import java.io.Serializable;
+import java.util.Arrays;
+
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.minisat.core.ILits;
 import org.sat4j.specs.Constr;
@@ -22,6 +25,10 @@ import org.sat4j.specs.VarMapper;
  * encoding), so think about that implementation as a lazy clause generation of
  * the full CNF encoding.
  *
+ * When added to a solver, the parity constraints are rather handled together
+ * by a {@link GaussianElimination}, which only relies on those watched
+ * literals for the constraints too large to fit in a matrix.
+ *
  * The normalized for of the constraint is:
  * 
  * v1 xor v2 xor v3 xor ... xor vn = (true | false)
@@ -34,30 +41,73 @@ import org.sat4j.specs.VarMapper;
  * @author leberre
  * @since 2.3.6
  */
-public class Xor implements Constr, Propagatable {
+public class Xor implements Constr, Propagatable, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final int[] lits;
     private final boolean parity;
     private final ILits voc;
 
+    private boolean registered;
+
+    private boolean learnt;
+
     public static Xor createParityConstraint(IVecInt lits, boolean parity,
             ILits voc) {
-        // TODO ensure normal form
         Xor xor = new Xor(lits, parity, voc);
-        xor.register();
+        if (xor.size() > 1) {
+            xor.register();
+        }
         return xor;
     }
 
+    /**
+     * Create the parity constraint in normal form: each variable appears at
+     * most once, as a positive literal.
+     * 
+     * @param lits
+     *            literals in internal representation
+     * @param parity
+     *            true iff an even number of literals must be satisfied.
+     * @param voc
+     *            the vocabulary of the solver.
+     */
     public Xor(IVecInt lits, boolean parity, ILits voc) {
-        this.lits = new int[lits.size()];
-        lits.copyTo(this.lits);
-        this.parity = parity;
+        int[] sorted = new int[lits.size()];
+        lits.copyTo(sorted);
+        Arrays.sort(sorted);
+        boolean even = parity;
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if ((sorted[i] & 1) == 1) {
+                // a negative literal is satisfied iff its variable is false
+                even = !even;
+            }
+            int p = sorted[i] & ~1;
+            if (n > 0 && sorted[n - 1] == p) {
+                // x xor x is always false
+                n--;
+            } else {
+                sorted[n++] = p;
+            }
+        }
+        this.lits = Arrays.copyOf(sorted, n);
+        this.parity = even;
         this.voc = voc;
     }
 
+    /**
+     * 
+     * @return true iff an even number of literals must be satisfied.
+     */
+    public boolean isEven() {
+        return this.parity;
+    }
+
     @Override
     public boolean learnt() {
-        return false;
+        return this.learnt;
     }
 
     @Override
@@ -72,18 +122,33 @@ public class Xor implements Constr, Propagatable {
 
     @Override
     public double getActivity() {
-        // TODO: implement this method !
-        throw new UnsupportedOperationException("Not implemented yet!");
+        return 0.0;
     }
 
     @Override
     public boolean canBePropagatedMultipleTimes() {
-        return false;
+        // the literals of the constraint are not those of its reasons: the
+        // simplification of the learned clauses must not rely on them
+        return true;
     }
 
     @Override
     public String toString(VarMapper mapper) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < lits.length; i++) {
+            if (i > 0) {
+                stb.append(" xor "); //$NON-NLS-1$
+            }
+            int p = LiteralsUtils.toDimacs(lits[i]);
+            stb.append(mapper == null ? Integer.toString(p) : mapper.map(p));
+        }
+        stb.append(parity ? " (even)" : " (odd)"); //$NON-NLS-1$ //$NON-NLS-2$
+        return stb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toString(null);
     }
 
     @Override
@@ -124,7 +189,13 @@ public class Xor implements Constr, Propagatable {
 
     @Override
     public boolean propagatePI(MandatoryLiteralListener l, int p) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        this.voc.watch(p, this);
+        // the constraint is only satisfied by a complete assignment of its
+        // variables
+        for (int q : this.lits) {
+            l.isMandatory(this.voc.isSatisfied(q) ? q : q ^ 1);
+        }
+        return true;
     }
 
     @Override
@@ -134,6 +205,11 @@ public class Xor implements Constr, Propagatable {
 
     @Override
     public void remove(UnitPropagationListener upl) {
+        if (!this.registered) {
+            // the constraint is handled by a matrix
+            return;
+        }
+        this.registered = false;
         this.voc.watches(this.lits[0]).remove(this);
         this.voc.watches(this.lits[0] ^ 1).remove(this);
         this.voc.watches(this.lits[1]).remove(this);
@@ -147,7 +223,12 @@ public class Xor implements Constr, Propagatable {
 
     @Override
     public void calcReason(int p, IVecInt outReason) {
-        for (int i = p == ILits.UNDEFINED ? 0 : 1; i < lits.length; i++) {
+        // the watched literals may have been swapped since the propagation
+        // of p
+        for (int i = 0; i < lits.length; i++) {
+            if (p != ILits.UNDEFINED && lits[i] >> 1 == p >> 1) {
+                continue;
+            }
             if (this.voc.isFalsified(lits[i])) {
                 outReason.push(lits[i] ^ 1);
             } else {
@@ -159,31 +240,32 @@ public class Xor implements Constr, Propagatable {
 
     @Override
     public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        calcReason(p, outReason);
     }
 
     @Override
     public void incActivity(double claInc) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        // original constraints are not subject to deletion
     }
 
     @Override
     public void forwardActivity(double claInc) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        // original constraints are not subject to deletion
     }
 
     @Override
     public boolean locked() {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        return false;
     }
 
     @Override
     public void setLearnt() {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        this.learnt = true;
     }
 
     @Override
     public void register() {
+        this.registered = true;
         this.voc.watch(this.lits[0], this);
         this.voc.watch(this.lits[0] ^ 1, this);
         this.voc.watch(this.lits[1], this);
@@ -192,42 +274,94 @@ public class Xor implements Constr, Propagatable {
 
     @Override
     public void rescaleBy(double d) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        // original constraints are not subject to deletion
     }
 
     @Override
     public void setActivity(double d) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        // original constraints are not subject to deletion
+    }
+
+    /**
+     * 
+     * @return the literal implied by the constraint if exactly one of its
+     *         literals is unassigned, else {@link ILits#UNDEFINED}.
+     */
+    private int impliedLiteral() {
+        int unassigned = ILits.UNDEFINED;
+        boolean even = true;
+        for (int p : this.lits) {
+            if (this.voc.isUnassigned(p)) {
+                if (unassigned != ILits.UNDEFINED) {
+                    return ILits.UNDEFINED;
+                }
+                unassigned = p;
+            } else if (this.voc.isSatisfied(p)) {
+                even = !even;
+            }
+        }
+        if (unassigned == ILits.UNDEFINED) {
+            return ILits.UNDEFINED;
+        }
+        return even == this.parity ? unassigned ^ 1 : unassigned;
     }
 
     @Override
     public void assertConstraint(UnitPropagationListener s) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        int p = impliedLiteral();
+        assert p != ILits.UNDEFINED;
+        boolean ret = s.enqueue(p, this);
+        assert ret;
     }
 
     @Override
     public void assertConstraintIfNeeded(UnitPropagationListener s) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        int p = impliedLiteral();
+        if (p != ILits.UNDEFINED) {
+            boolean ret = s.enqueue(p, this);
+            assert ret;
+        }
     }
 
     @Override
     public boolean canBeSatisfiedByCountingLiterals() {
-        return true;
+        return false;
     }
 
     @Override
     public int requiredNumberOfSatisfiedLiterals() {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        throw new UnsupportedOperationException(
+                "Not applicable for parity constraints");
     }
 
     @Override
     public boolean isSatisfied() {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        boolean even = true;
+        for (int p : lits) {
+            if (this.voc.isUnassigned(p)) {
+                return false;
+            }
+            if (this.voc.isSatisfied(p)) {
+                even = !even;
+            }
+        }
+        return even == parity;
     }
 
+    /**
+     * The constraint is assertive before its last assigned variable.
+     */
     @Override
     public int getAssertionLevel(IVecInt trail, int decisionLevel) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            int v = trail.get(i) >> 1;
+            for (int p : this.lits) {
+                if (p >> 1 == v) {
+                    return i;
+                }
+            }
+        }
+        return -1;
     }
 
 }
@@ -0,0 +1,472 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.xor;
+
+import java.io.Serializable;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.SolverStats;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MandatoryLiteralListener;
+import org.sat4j.specs.Propagatable;
+import org.sat4j.specs.UnitPropagationListener;
+
+/**
+ * A set of parity constraints sharing variables, kept in reduced row echelon
+ * form by Gauss-Jordan elimination.
+ * 
+ * Each row is a bit vector over the variables of the matrix (the columns)
+ * together with its right hand side: the xor of the variables of the row must
+ * be equal to it. Each row has a basic column, which does not appear in any
+ * other row, and a second watched column. While a row contains at least two
+ * unassigned columns, both its watched columns are unassigned.
+ * 
+ * When the basic column of a row gets assigned, another unassigned column of
+ * the row becomes basic, and is eliminated from the other rows: the matrix
+ * stays in reduced row echelon form over the unassigned variables, so the
+ * implications of the combination of several parity constraints are found.
+ * Those row operations are equivalences, so nothing needs to be undone on
+ * backtracking.
+ * 
+ * A row with a single unassigned column propagates it, a row without
+ * unassigned column whose parity is wrong is a conflict. The row is copied as
+ * a clause to explain the propagation or the conflict, see {@link XorReason}.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class XorMatrix implements Propagatable, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ILits voc;
+
+    private final SolverStats stats;
+
+    /**
+     * the variable of each column.
+     */
+    private final int[] vars;
+
+    /**
+     * the column of each variable, shared by all the matrices.
+     */
+    private final int[] columns;
+
+    private final long[][] rows;
+
+    private final boolean[] rhs;
+
+    private final int[] basic;
+
+    private final int[] watch;
+
+    private int nbRows;
+
+    private boolean inconsistent;
+
+    /**
+     * the rows watching each column.
+     */
+    private final IVecInt[] watchers;
+
+    private final int[] marks;
+
+    private int stamp;
+
+    private final IVecInt pending = new VecInt();
+
+    private final IVecInt modified = new VecInt();
+
+    private Constr conflict;
+
+    /**
+     * Build the matrix in reduced row echelon form, regardless of the current
+     * assignment.
+     * 
+     * @param voc
+     *            the vocabulary of the solver
+     * @param stats
+     *            the statistics of the solver
+     * @param xors
+     *            the parity constraints
+     * @param vars
+     *            the variables of those constraints, in increasing order
+     * @param columns
+     *            an array mapping the variables to their column, updated for
+     *            the variables of the matrix.
+     */
+    XorMatrix(ILits voc, SolverStats stats, IVec<Xor> xors, int[] vars,
+            int[] columns) {
+        this.voc = voc;
+        this.stats = stats;
+        this.vars = vars;
+        this.columns = columns;
+        for (int i = 0; i < vars.length; i++) {
+            columns[vars[i]] = i;
+        }
+        int nbWords = (vars.length + 63) >>> 6;
+        int size = xors.size();
+        this.rows = new long[size][];
+        this.rhs = new boolean[size];
+        this.basic = new int[size];
+        this.watch = new int[size];
+        this.marks = new int[size];
+        long[] pivots = new long[nbWords];
+        int[] pivotRow = new int[vars.length];
+        for (int i = 0; i < size; i++) {
+            Xor xor = xors.get(i);
+            long[] row = new long[nbWords];
+            boolean value = !xor.isEven();
+            for (int j = 0; j < xor.size(); j++) {
+                int p = xor.get(j);
+                int col = columns[p >> 1];
+                row[col >>> 6] ^= 1L << col;
+                if ((p & 1) == 1) {
+                    value = !value;
+                }
+            }
+            // the pivot rows only contain their own pivot column
+            long bits;
+            for (int w = 0; w < nbWords; w++) {
+                while ((bits = row[w] & pivots[w]) != 0) {
+                    int k = pivotRow[(w << 6)
+                            + Long.numberOfTrailingZeros(bits)];
+                    xorInto(row, this.rows[k]);
+                    value ^= this.rhs[k];
+                }
+            }
+            int col = nextColumn(row, 0);
+            if (col < 0) {
+                // redundant or inconsistent constraint
+                this.inconsistent |= value;
+                continue;
+            }
+            for (int k = 0; k < this.nbRows; k++) {
+                if (contains(this.rows[k], col)) {
+                    xorInto(this.rows[k], row);
+                    this.rhs[k] ^= value;
+                }
+            }
+            pivots[col >>> 6] |= 1L << col;
+            pivotRow[col] = this.nbRows;
+            this.rows[this.nbRows] = row;
+            this.rhs[this.nbRows] = value;
+            this.basic[this.nbRows] = col;
+            this.nbRows++;
+        }
+        this.watchers = new IVecInt[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            this.watchers[i] = new VecInt();
+        }
+        for (int r = 0; r < this.nbRows; r++) {
+            this.watchers[this.basic[r]].push(r);
+            this.watch[r] = -1;
+            for (int col = nextColumn(this.rows[r], 0); col >= 0; col = nextColumn(
+                    this.rows[r], col + 1)) {
+                if (col != this.basic[r]) {
+                    setWatch(r, col);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void xorInto(long[] row, long[] other) {
+        for (int w = 0; w < row.length; w++) {
+            row[w] ^= other[w];
+        }
+    }
+
+    private static boolean contains(long[] row, int col) {
+        return (row[col >>> 6] & 1L << col) != 0;
+    }
+
+    /**
+     * 
+     * @return the first column of the row starting from col, -1 if none.
+     */
+    private static int nextColumn(long[] row, int col) {
+        int w = col >>> 6;
+        if (w >= row.length) {
+            return -1;
+        }
+        long bits = row[w] & -1L << col;
+        while (bits == 0) {
+            if (++w == row.length) {
+                return -1;
+            }
+            bits = row[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    int nbRows() {
+        return this.nbRows;
+    }
+
+    int nbColumns() {
+        return this.vars.length;
+    }
+
+    void attach() {
+        for (int v : this.vars) {
+            this.voc.watch(v << 1, this);
+            this.voc.watch(v << 1 ^ 1, this);
+        }
+    }
+
+    void detach() {
+        for (int v : this.vars) {
+            this.voc.watches(v << 1).remove(this);
+            this.voc.watches(v << 1 ^ 1).remove(this);
+        }
+    }
+
+    /**
+     * Propagate the rows reduced to a single column, at the root level.
+     * 
+     * @param s
+     *            the solver
+     * @return a conflict, or null.
+     */
+    Constr assertUnits(UnitPropagationListener s) {
+        if (this.inconsistent) {
+            return new XorReason(new int[0]);
+        }
+        for (int r = 0; r < this.nbRows; r++) {
+            if (this.watch[r] < 0) {
+                int p = this.vars[this.basic[r]] << 1 | (this.rhs[r] ? 0 : 1);
+                Constr reason = new XorReason(new int[] { p });
+                if (!s.enqueue(p, reason)) {
+                    return reason;
+                }
+            }
+        }
+        return null;
+    }
+
+    public boolean propagate(UnitPropagationListener s, int p) {
+        this.voc.watch(p, this);
+        int col = this.columns[p >> 1];
+        IVecInt rowsWatching = this.watchers[col];
+        if (rowsWatching.isEmpty()) {
+            return true;
+        }
+        if (++this.stamp == Integer.MAX_VALUE) {
+            for (int r = 0; r < this.nbRows; r++) {
+                this.marks[r] = 0;
+            }
+            this.stamp = 1;
+        }
+        this.conflict = null;
+        rowsWatching.moveTo(this.pending);
+        boolean ok = true;
+        for (int i = 0; i < this.pending.size(); i++) {
+            int r = this.pending.get(i);
+            // rows are not removed from the watchers when they stop watching
+            // a column
+            if (this.marks[r] == this.stamp
+                    || this.basic[r] != col && this.watch[r] != col) {
+                continue;
+            }
+            this.marks[r] = this.stamp;
+            if (ok) {
+                ok = this.basic[r] == col ? basicAssigned(s, r)
+                        : evaluate(s, r);
+            }
+            if (this.basic[r] == col || this.watch[r] == col) {
+                rowsWatching.push(r);
+            }
+        }
+        this.pending.clear();
+        return ok;
+    }
+
+    /**
+     * The basic column of row r is assigned: another unassigned column
+     * becomes basic if possible.
+     */
+    private boolean basicAssigned(UnitPropagationListener s, int r) {
+        long[] row = this.rows[r];
+        boolean ok = true;
+        for (int col = nextColumn(row, 0); col >= 0; col = nextColumn(row,
+                col + 1)) {
+            if (col != this.basic[r] && col != this.watch[r]
+                    && this.voc.isUnassigned(this.vars[col] << 1)) {
+                ok = pivot(s, r, col);
+                break;
+            }
+        }
+        return evaluate(s, r) && ok;
+    }
+
+    /**
+     * Make col the basic column of row r, and eliminate it from the other
+     * rows.
+     */
+    private boolean pivot(UnitPropagationListener s, int r, int col) {
+        this.stats.gaussPivots++;
+        this.basic[r] = col;
+        this.watchers[col].push(r);
+        long[] row = this.rows[r];
+        int w = col >>> 6;
+        long mask = 1L << col;
+        this.modified.clear();
+        for (int k = 0; k < this.nbRows; k++) {
+            if (k != r && (this.rows[k][w] & mask) != 0) {
+                xorInto(this.rows[k], row);
+                this.rhs[k] ^= this.rhs[r];
+                this.modified.push(k);
+            }
+        }
+        // all the modified rows must get valid watches, even after a conflict
+        boolean ok = true;
+        for (int i = 0; i < this.modified.size(); i++) {
+            ok = evaluate(s, this.modified.get(i)) && ok;
+        }
+        return ok;
+    }
+
+    /**
+     * Update the watched column of row r, propagate its last unassigned
+     * column or check its parity when it is fully assigned.
+     * 
+     * @return false iff the row is falsified.
+     */
+    private boolean evaluate(UnitPropagationListener s, int r) {
+        long[] row = this.rows[r];
+        int b = this.basic[r];
+        int w = this.watch[r];
+        if (w >= 0 && contains(row, w)
+                && this.voc.isUnassigned(this.vars[w] << 1)
+                && this.voc.isUnassigned(this.vars[b] << 1)) {
+            return true;
+        }
+        int nbUnassigned = 0;
+        int unassigned = -1;
+        int other = -1;
+        int highest = -1;
+        int highestLevel = -1;
+        boolean value = this.rhs[r];
+        for (int col = nextColumn(row, 0); col >= 0; col = nextColumn(row,
+                col + 1)) {
+            int p = this.vars[col] << 1;
+            if (this.voc.isUnassigned(p)) {
+                nbUnassigned++;
+                unassigned = col;
+                if (col != b && (other < 0 || col == w)) {
+                    other = col;
+                }
+            } else {
+                if (this.voc.isSatisfied(p)) {
+                    value = !value;
+                }
+                if (col != b && this.voc.getLevel(p) > highestLevel) {
+                    highestLevel = this.voc.getLevel(p);
+                    highest = col;
+                }
+            }
+        }
+        if (nbUnassigned >= 2) {
+            setWatch(r, other);
+            return true;
+        }
+        if (nbUnassigned == 1) {
+            // when the basic column is assigned, the propagated column is the
+            // highest one
+            if (unassigned != b) {
+                setWatch(r, unassigned);
+            } else if (highest >= 0) {
+                setWatch(r, highest);
+            }
+            int p = this.vars[unassigned] << 1 | (value ? 0 : 1);
+            this.stats.gaussPropagations++;
+            return s.enqueue(p, reason(r, unassigned, p));
+        }
+        if (highest >= 0) {
+            setWatch(r, highest);
+        }
+        if (value) {
+            this.stats.gaussConflicts++;
+            if (this.conflict == null) {
+                this.conflict = reason(r, -1, 0);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void setWatch(int r, int col) {
+        if (this.watch[r] != col) {
+            this.watch[r] = col;
+            this.watchers[col].push(r);
+        }
+    }
+
+    /**
+     * Copy row r as a clause whose literals are falsified, except the
+     * propagated literal p of column col if col is not -1.
+     */
+    private Constr reason(int r, int col, int p) {
+        long[] row = this.rows[r];
+        int size = 0;
+        for (int w = 0; w < row.length; w++) {
+            size += Long.bitCount(row[w]);
+        }
+        int[] lits = new int[size];
+        int i = 0;
+        if (col >= 0) {
+            lits[i++] = p;
+        }
+        for (int c = nextColumn(row, 0); c >= 0; c = nextColumn(row, c + 1)) {
+            if (c != col) {
+                int q = this.vars[c] << 1;
+                lits[i++] = this.voc.isSatisfied(q) ? q ^ 1 : q;
+            }
+        }
+        return new XorReason(lits);
+    }
+
+    public boolean propagatePI(MandatoryLiteralListener l, int p) {
+        this.voc.watch(p, this);
+        // parity constraints are only satisfied by a complete assignment of
+        // their variables, and both literals of each variable are watched
+        l.isMandatory(p);
+        return true;
+    }
+
+    public Constr toConstraint() {
+        return this.conflict;
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints.xor;
+
+import java.io.Serializable;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.UnitPropagationListener;
+import org.sat4j.specs.VarMapper;
+
+/**
+ * The clause explaining a propagation or a conflict of a {@link XorMatrix}.
+ * 
+ * The rows of the matrix change during the search, so the row responsible for
+ * a propagation is copied as a clause at the time of the propagation: its first
+ * literal is the propagated one, the other ones are falsified. The clause
+ * explaining a conflict only contains falsified literals.
+ * 
+ * Those clauses do not belong to the constraints of the solver: they are only
+ * reachable from the reasons of the literals.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class XorReason implements Constr, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] lits;
+
+    /**
+     * 
+     * @param lits
+     *            the literals of the clause, in internal representation.
+     */
+    XorReason(int[] lits) {
+        this.lits = lits;
+    }
+
+    public void calcReason(int p, IVecInt outReason) {
+        for (int i = p == ILits.UNDEFINED ? 0 : 1; i < this.lits.length; i++) {
+            outReason.push(this.lits[i] ^ 1);
+        }
+    }
+
+    public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
+        calcReason(p, outReason);
+    }
+
+    public boolean learnt() {
+        return false;
+    }
+
+    public int size() {
+        return this.lits.length;
+    }
+
+    public int get(int i) {
+        return this.lits[i];
+    }
+
+    public double getActivity() {
+        return 0;
+    }
+
+    public boolean canBePropagatedMultipleTimes() {
+        return false;
+    }
+
+    public void remove(UnitPropagationListener upl) {
+        // the clause is not registered
+    }
+
+    public boolean simplify() {
+        return false;
+    }
+
+    public void incActivity(double claInc) {
+        // reasons of the matrix are not subject to deletion
+    }
+
+    public void forwardActivity(double claInc) {
+        // reasons of the matrix are not subject to deletion
+    }
+
+    public boolean locked() {
+        return true;
+    }
+
+    public void setLearnt() {
+        throw new UnsupportedOperationException(
+                "Reasons of a parity matrix are never learned");
+    }
+
+    public void register() {
+        throw new UnsupportedOperationException(
+                "Reasons of a parity matrix are not watched");
+    }
+
+    public void rescaleBy(double d) {
+        // reasons of the matrix are not subject to deletion
+    }
+
+    public void setActivity(double d) {
+        // reasons of the matrix are not subject to deletion
+    }
+
+    public void assertConstraint(UnitPropagationListener s) {
+        throw new UnsupportedOperationException(
+                "Reasons of a parity matrix are not watched");
+    }
+
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        throw new UnsupportedOperationException(
+                "Reasons of a parity matrix are not watched");
+    }
+
+    public boolean canBeSatisfiedByCountingLiterals() {
+        return true;
+    }
+
+    public int requiredNumberOfSatisfiedLiterals() {
+        return 1;
+    }
+
+    public boolean isSatisfied() {
+        throw new UnsupportedOperationException(
+                "Reasons of a parity matrix are falsified or propagating");
+    }
+
+    public int getAssertionLevel(IVecInt trail, int decisionLevel) {
+        throw new UnsupportedOperationException(
+                "Reasons of a parity matrix are not watched");
+    }
+
+    @Override
+    public String toString() {
+        return toString(null);
+    }
+
+    public String toString(VarMapper mapper) {
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < this.lits.length; i++) {
+            if (i > 0) {
+                stb.append(" "); //$NON-NLS-1$
+            }
+            int p = LiteralsUtils.toDimacs(this.lits[i]);
+            stb.append(mapper == null ? Integer.toString(p) : mapper.map(p));
+        }
+        return stb.toString();
+    }
+}
@@ -52,9 +52,10 @@ final class ActivityLCDS implements LearnedConstraintsDeletionStrategy {
                 solver.learnts.set(j++, solver.learnts.get(i));
             } else {
                 c.remove(solver);
-                solver.slistener.delete(c);
+                solver.learntDeleted(c);
             }
         }
+        int mostActive = j;
         for (; i < solver.learnts.size(); i++) {
             solver.learnts.set(j++, solver.learnts.get(i));
         }
@@ -65,6 +66,7 @@ final class ActivityLCDS implements LearnedConstraintsDeletionStrategy {
             // out.flush();
         }
         solver.learnts.shrinkTo(j);
+        solver.vivifyAtNextRestart(solver.learnts, mostActive, j);
     }
 
     public ConflictTimer getTimer() {
@@ -86,6 +88,11 @@ final class ActivityLCDS implements LearnedConstraintsDeletionStrategy {
 
     }
 
+    public void onClauseImported(Constr imported, int lbd) {
+        // as active as a clause which has just been used
+        solver.claBumpActivity(imported);
+    }
+
     public void onConflictAnalysis(Constr reason) {
         if (reason.learnt()) {
             solver.claBumpActivity(reason);
@@ -57,7 +57,7 @@ final class AgeLCDS implements LearnedConstraintsDeletionStrategy {
                 solver.learnts.set(j++, solver.learnts.get(i));
             } else {
                 c.remove(solver);
-                solver.slistener.delete(c);
+                solver.learntDeleted(c);
             }
         }
         for (; i < solver.learnts.size(); i++) {
@@ -91,6 +91,10 @@ final class AgeLCDS implements LearnedConstraintsDeletionStrategy {
 
     }
 
+    public void onClauseImported(Constr imported, int lbd) {
+        // do nothing
+    }
+
     public void onConflictAnalysis(Constr reason) {
         // do nothing
     }
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.UnitPropagationListener;
+import org.sat4j.specs.VarMapper;
+
+/**
+ * The binary clauses of the form <code>-p v q</code>, stored as a plain list
+ * of the literals q implied by a given literal p.
+ * 
+ * Those lists are propagated by the solver in a dedicated loop, before the
+ * watches of p. The object is also the reason of all the literals it implies:
+ * no clause object is needed to explain those propagations. As a consequence,
+ * the implied literal is not known by the reason: when viewed as a clause,
+ * its first literal is p, which is satisfied like the implied literal, and
+ * its second literal is -p, the falsified one.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class BinaryImplications implements Constr, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int lit;
+
+    int[] implied = EMPTY;
+
+    int nbImplied;
+
+    private int conflictingLiteral = ILits.UNDEFINED;
+
+    /**
+     * 
+     * @param p
+     *            a literal in internal representation
+     */
+    public BinaryImplications(int p) {
+        this.lit = p;
+    }
+
+    /**
+     * 
+     * @return the literal, in internal representation, whose satisfaction
+     *         implies the literals of that list.
+     */
+    public int getLiteral() {
+        return this.lit;
+    }
+
+    /**
+     * Record the binary clause <code>-p v q</code>.
+     * 
+     * @param q
+     *            a literal in internal representation.
+     */
+    public void addImplied(int q) {
+        if (this.nbImplied == this.implied.length) {
+            int[] nimplied = new int[Math.max(4, this.nbImplied * 2)];
+            System.arraycopy(this.implied, 0, nimplied, 0, this.nbImplied);
+            this.implied = nimplied;
+        }
+        this.implied[this.nbImplied++] = q;
+    }
+
+    /**
+     * Remove the binary clause <code>-p v q</code>. The last implied literal
+     * takes the place of q.
+     * 
+     * @param q
+     *            a literal in internal representation.
+     */
+    public void removeImplied(int q) {
+        for (int i = 0; i < this.nbImplied; i++) {
+            if (this.implied[i] == q) {
+                this.implied[i] = this.implied[--this.nbImplied];
+                return;
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Copy that list, e.g. for the vocabulary of a fork of the solver.
+     * 
+     * @return a new list with the same implied literals.
+     */
+    public BinaryImplications copy() {
+        BinaryImplications copy = new BinaryImplications(this.lit);
+        if (this.nbImplied > 0) {
+            copy.implied = new int[this.nbImplied];
+            System.arraycopy(this.implied, 0, copy.implied, 0,
+                    this.nbImplied);
+            copy.nbImplied = this.nbImplied;
+        }
+        copy.conflictingLiteral = this.conflictingLiteral;
+        return copy;
+    }
+
+    public int nbImplied() {
+        return this.nbImplied;
+    }
+
+    public int getImplied(int i) {
+        return this.implied[i];
+    }
+
+    public void clearImplied() {
+        this.nbImplied = 0;
+    }
+
+    /**
+     * Remember that the binary clause <code>-p v q</code> is falsified, in
+     * order to explain the conflict.
+     * 
+     * @param q
+     *            the falsified implied literal
+     */
+    void conflictsWith(int q) {
+        this.conflictingLiteral = q;
+    }
+
+    public void calcReason(int p, IVecInt outReason) {
+        outReason.push(this.lit);
+        if (p == ILits.UNDEFINED) {
+            assert this.conflictingLiteral != ILits.UNDEFINED;
+            outReason.push(this.conflictingLiteral ^ 1);
+        }
+    }
+
+    public void calcReasonOnTheFly(int p, IVecInt trail, IVecInt outReason) {
+        calcReason(p, outReason);
+    }
+
+    public boolean learnt() {
+        return false;
+    }
+
+    public int size() {
+        return 2;
+    }
+
+    public int get(int i) {
+        if (i == 0) {
+            return this.lit;
+        }
+        assert i == 1;
+        return this.lit ^ 1;
+    }
+
+    public double getActivity() {
+        return 0;
+    }
+
+    public boolean canBePropagatedMultipleTimes() {
+        return false;
+    }
+
+    public void remove(UnitPropagationListener upl) {
+        throw new UnsupportedOperationException(
+                "Remove the binary clauses one by one!");
+    }
+
+    public boolean simplify() {
+        return false;
+    }
+
+    public void incActivity(double claInc) {
+        // binary implications are not subject to deletion
+    }
+
+    public void forwardActivity(double claInc) {
+        // binary implications are not subject to deletion
+    }
+
+    public boolean locked() {
+        return true;
+    }
+
+    public void setLearnt() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void register() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void rescaleBy(double d) {
+        // binary implications are not subject to deletion
+    }
+
+    public void setActivity(double d) {
+        // binary implications are not subject to deletion
+    }
+
+    public void assertConstraint(UnitPropagationListener s) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void assertConstraintIfNeeded(UnitPropagationListener s) {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean canBeSatisfiedByCountingLiterals() {
+        return true;
+    }
+
+    public int requiredNumberOfSatisfiedLiterals() {
+        return 1;
+    }
+
+    public boolean isSatisfied() {
+        throw new UnsupportedOperationException();
+    }
+
+    public int getAssertionLevel(IVecInt trail, int decisionLevel) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        stb.append(LiteralsUtils.toDimacs(this.lit));
+        stb.append(" ->"); //$NON-NLS-1$
+        for (int i = 0; i < this.nbImplied; i++) {
+            stb.append(" "); //$NON-NLS-1$
+            stb.append(LiteralsUtils.toDimacs(this.implied[i]));
+        }
+        return stb.toString();
+    }
+
+    public String toString(VarMapper mapper) {
+        if (mapper == null) {
+            return toString();
+        }
+        StringBuilder stb = new StringBuilder();
+        stb.append(mapper.map(LiteralsUtils.toDimacs(this.lit)));
+        stb.append(" ->"); //$NON-NLS-1$
+        for (int i = 0; i < this.nbImplied; i++) {
+            stb.append(" "); //$NON-NLS-1$
+            stb.append(mapper.map(LiteralsUtils.toDimacs(this.implied[i])));
+        }
+        return stb.toString();
+    }
+}
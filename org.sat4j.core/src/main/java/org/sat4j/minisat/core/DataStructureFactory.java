@@ -29,6 +29,7 @@
  *******************************************************************************/
 package org.sat4j.minisat.core;
 
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IVec;
@@ -58,6 +59,21 @@ public interface DataStructureFactory {
 
     Constr createUnregisteredClause(IVecInt literals);
 
+    /**
+     * Create an original clause shared with other solvers working on the same
+     * formula, e.g. the members of a parallel portfolio. The factory may
+     * register that very clause instead of creating its own copy.
+     * 
+     * @param clause
+     *            a clause shared by several solvers.
+     * @return null if the constraint is a tautology.
+     * @throws ContradictionException
+     *             the constraint is trivially unsatisfiable.
+     * @since 2.3.6
+     */
+    Constr createSharedClause(SharedWLClause clause)
+            throws ContradictionException;
+
     void learnConstraint(Constr constr);
 
     /**
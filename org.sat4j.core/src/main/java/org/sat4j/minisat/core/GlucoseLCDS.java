@@ -60,7 +60,7 @@ class GlucoseLCDS<D extends DataStructureFactory> implements
                 learnedConstrs.set(j++, solver.learnts.get(i));
             } else {
                 c.remove(solver);
-                solver.slistener.delete(c);
+                solver.learntDeleted(c);
             }
         }
         if (solver.isVerbose()) {
@@ -70,8 +70,10 @@ class GlucoseLCDS<D extends DataStructureFactory> implements
                             + " clauses out of " + learnedConstrs.size() + " with flag " + this.flag + "/" + solver.stats.conflicts); //$NON-NLS-1$ //$NON-NLS-2$
             // out.flush();
         }
+        // the first half contains the clauses with the best LBD
+        solver.vivifyAtNextRestart(learnedConstrs, 0,
+                learnedConstrs.size() / 2);
         solver.learnts.shrinkTo(j);
-
     }
 
     public ConflictTimer getTimer() {
@@ -99,6 +101,11 @@ class GlucoseLCDS<D extends DataStructureFactory> implements
         constr.incActivity(nblevel);
     }
 
+    public void onClauseImported(Constr imported, int lbd) {
+        // the activity of a clause is its LBD
+        imported.setActivity(lbd);
+    }
+
     protected int computeLBD(Constr constr) {
         int nblevel = 1;
         this.flag++;
@@ -121,6 +121,20 @@ public final class Heap implements Serializable {
         percolateUp(this.indices.get(n));
     }
 
+    /**
+     * To be called when the variable n became less preferred according to the
+     * comparator.
+     * 
+     * @param n
+     *            a variable in the heap
+     * @since 2.3.6
+     */
+    public void decrease(int n) {
+        assert ok(n);
+        assert inHeap(n);
+        percolateDown(this.indices.get(n));
+    }
+
     public boolean empty() {
         return this.heap.size() == 1;
     }
@@ -43,7 +43,8 @@ import org.sat4j.specs.UnitPropagationListener;
  * @param <D>
  */
 public interface ICDCL<D extends DataStructureFactory> extends ISolver,
-        UnitPropagationListener, ActivityListener, Learner {
+        UnitPropagationListener, ActivityListener, Learner,
+        VocabularyProvider {
 
     /**
      * Change the internal representation of the constraints. Note that the
@@ -29,6 +29,7 @@
  *******************************************************************************/
 package org.sat4j.minisat.core;
 
+import org.sat4j.minisat.constraints.cnf.SharedClauses;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.IVec;
 import org.sat4j.specs.Propagatable;
@@ -246,6 +247,21 @@ public interface ILits {
      */
     void watch(int lit, Propagatable c);
 
+    /**
+     * Record a new constraint to watch when a literal is satisfied, together
+     * with a literal of that constraint that can be checked cheaply during
+     * propagation: if that blocker is satisfied, the constraint is not visited.
+     * 
+     * @param lit
+     *            a literal in internal representation.
+     * @param c
+     *            a constraint that contains the negation of that literal.
+     * @param blocker
+     *            another literal of c, in internal representation.
+     * @since 2.3.6
+     */
+    void watch(int lit, Propagatable c, int blocker);
+
     /**
      * @param lit
      *            a literal in internal representation.
@@ -253,6 +269,41 @@ public interface ILits {
      */
     IVec<Propagatable> watches(int lit);
 
+    /**
+     * @param lit
+     *            a literal in internal representation.
+     * @return the literals that must be satisfied when lit is satisfied,
+     *         because of binary clauses stored as implications.
+     * @since 2.3.6
+     */
+    BinaryImplications binaryImplications(int lit);
+
+    /**
+     * Make room for the positions of the two watched literals of a clause
+     * shared with other solvers. Those positions are specific to each solver,
+     * so they are kept in the vocabulary rather than in the shared clause. A
+     * vocabulary only watches the shared clauses of a single group.
+     * 
+     * @param group
+     *            the group of the shared clause
+     * @param id
+     *            the number of the clause in that group
+     * @return false iff the vocabulary already watches the clauses of another
+     *         group.
+     * @since 2.3.6
+     */
+    boolean reserveSharedWatches(SharedClauses group, int id);
+
+    /**
+     * The positions of the watched literals of the shared clauses: those of
+     * the clause number id are found at index 2*id and 2*id+1.
+     * 
+     * @return the positions of the watched literals of the shared clauses.
+     * @see #reserveSharedWatches(SharedClauses, int)
+     * @since 2.3.6
+     */
+    int[] sharedWatches();
+
     /**
      * Returns a textual representation of the truth value of that literal.
      * 
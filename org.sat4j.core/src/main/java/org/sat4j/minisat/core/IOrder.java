@@ -59,6 +59,18 @@ public interface IOrder {
      */
     int select();
 
+    /**
+     * Look at the next "best" unassigned variable, without selecting it.
+     * 
+     * The solver uses it to find out which decisions would be made again
+     * after a restart.
+     * 
+     * @return the variable {@link #select()} would branch on if it was called
+     *         now, or {@link ILits#UNDEFINED} if it is not known.
+     * @since 2.3.6
+     */
+    int peek();
+
     /**
      * Method called when a variable is unassigned.
      * 
@@ -150,4 +162,17 @@ public interface IOrder {
      * @since 2.3.2
      */
     double[] getVariableHeuristics();
+
+    /**
+     * Give a value to the heuristics of each variable, e.g. to warm start
+     * the search with the heuristics of a previous run. That method is
+     * supposed to be called AFTER init(). The higher the value, the sooner
+     * the variable should be selected.
+     * 
+     * @param heuristics
+     *            the value of the heuristics for each variable (using Dimacs
+     *            index), as returned by {@link #getVariableHeuristics()}.
+     * @since 2.3.6
+     */
+    void setVariableHeuristics(double[] heuristics);
 }
@@ -0,0 +1,639 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MaskedSearchListener;
+
+/**
+ * Inprocessing performed at decision level 0 between two restarts: failed
+ * literal probing and equivalent literal substitution.
+ * 
+ * The roots of the binary implication graph are probed in both polarities. A
+ * failed literal is falsified at decision level 0, the literals implied by
+ * both polarities are satisfied at decision level 0 (double lookahead), and a
+ * literal q implied by p whose negation is implied by -p is equivalent to p.
+ * 
+ * The strongly connected components of the binary implication graph, plus
+ * the equivalences found by probing, define for each literal a
+ * representative. Each clause (original or learned) containing a literal
+ * which is not its own representative is replaced by a clause over the
+ * representatives. The substituted variables are only kept linked to their
+ * representative by two binary clauses, so they are assigned by propagation
+ * and the models found by the solver remain models of the original formula.
+ * 
+ * Since original constraints are replaced, constraints cannot be removed
+ * from the solver once a substitution has been performed.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class Inprocessor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of conflicts between the first two inprocessing rounds. That
+     * interval grows arithmetically with the number of rounds.
+     */
+    private static final int INTERVAL = 2000;
+
+    private final Solver<? extends DataStructureFactory> solver;
+
+    private int budget = 0;
+
+    private int rounds;
+
+    private long nextRound;
+
+    private long propagationsAtLastRound;
+
+    private int nextProbe = 1;
+
+    /**
+     * literals of the binary clauses, two by two.
+     */
+    private final IVecInt binaries = new VecInt();
+
+    /**
+     * pairs of equivalent literals found by probing.
+     */
+    private final IVecInt equivalents = new VecInt();
+
+    private final IVecInt units = new VecInt();
+
+    private int[] marks = new int[0];
+
+    private int mark;
+
+    /**
+     * representative of each literal, computed by the last round.
+     */
+    private int[] representative = new int[0];
+
+    /**
+     * literal to which each variable has been linked by equivalence clauses,
+     * or 0.
+     */
+    private int[] linkedTo = new int[0];
+
+    /**
+     * binary clauses linking the substituted variables to their
+     * representative.
+     */
+    private final Set<Constr> links = Collections
+            .newSetFromMap(new IdentityHashMap<Constr, Boolean>());
+
+    private boolean substitutedOriginalConstraints;
+
+    Inprocessor(Solver<? extends DataStructureFactory> solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * 
+     * @param percent
+     *            percentage of the propagations of the search devoted to
+     *            probing, 0 to disable inprocessing.
+     */
+    void setBudget(int percent) {
+        this.budget = percent;
+    }
+
+    int getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * 
+     * @return true iff some original constraints have been replaced.
+     */
+    boolean hasSubstitutedOriginalConstraints() {
+        return this.substitutedOriginalConstraints;
+    }
+
+    void reset() {
+        this.rounds = 0;
+        this.nextRound = 0;
+        this.propagationsAtLastRound = 0;
+        this.nextProbe = 1;
+        this.representative = new int[0];
+        this.linkedTo = new int[0];
+        this.links.clear();
+        this.substitutedOriginalConstraints = false;
+    }
+
+    /**
+     * @return true iff the next call to {@link #inprocess()} will perform an
+     *         inprocessing round.
+     */
+    boolean isDue() {
+        return this.budget != 0
+                && this.solver.stats.conflicts >= this.nextRound;
+    }
+
+    /**
+     * Perform an inprocessing round if enough conflicts occurred since the
+     * previous one. Must be called at decision level 0 with an empty
+     * propagation queue.
+     * 
+     * @return false iff the formula is found inconsistent.
+     */
+    boolean inprocess() {
+        if (!isDue()) {
+            return true;
+        }
+        assert this.solver.decisionLevel() == 0;
+        this.rounds++;
+        this.nextRound = this.solver.stats.conflicts + (long) INTERVAL
+                * this.rounds;
+        SolverStats stats = this.solver.stats;
+        stats.inprocessings++;
+        long before = stats.propagations;
+        int nVars = this.solver.voc.nVars();
+        long limit = before
+                + Math.max((before - this.propagationsAtLastRound)
+                        * this.budget / 100, 10L * nVars);
+        ensureCapacity(nVars);
+        collectBinaryClauses();
+        this.equivalents.clear();
+        boolean consistent = probe(nVars, limit)
+                && substituteEquivalentLiterals(nVars);
+        stats.probingPropagations += stats.propagations - before;
+        this.propagationsAtLastRound = stats.propagations;
+        return consistent;
+    }
+
+    private void ensureCapacity(int nVars) {
+        int nLits = 2 * (nVars + 1);
+        if (this.marks.length < nLits) {
+            this.marks = new int[nLits];
+            this.mark = 0;
+            this.representative = new int[nLits];
+            int[] nlinkedTo = new int[nVars + 1];
+            System.arraycopy(this.linkedTo, 0, nlinkedTo, 0,
+                    this.linkedTo.length);
+            this.linkedTo = nlinkedTo;
+        }
+    }
+
+    private void collectBinaryClauses() {
+        this.binaries.clear();
+        collectBinaryClauses(this.solver.constrs);
+        collectBinaryClauses(this.solver.learnts);
+    }
+
+    private void collectBinaryClauses(IVec<Constr> constrs) {
+        ILits voc = this.solver.voc;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            if (c.size() == 2 && Solver.isClause(c)
+                    && voc.isUnassigned(c.get(0))
+                    && voc.isUnassigned(c.get(1))) {
+                this.binaries.push(c.get(0)).push(c.get(1));
+            }
+        }
+    }
+
+    /**
+     * Probe the roots of the binary implication graph, i.e. the literals
+     * implying some literals but implied by none, until the propagation limit
+     * is reached. The next round starts where this one stopped.
+     * 
+     * @return false iff the formula is found inconsistent.
+     */
+    private boolean probe(int nVars, long limit) {
+        int[] outDegree = new int[2 * (nVars + 1)];
+        for (int i = 0; i < this.binaries.size(); i++) {
+            // the clause a v b gives -a -> b and -b -> a
+            outDegree[neg(this.binaries.get(i))]++;
+        }
+        ILits voc = this.solver.voc;
+        int start = this.nextProbe > nVars ? 1 : this.nextProbe;
+        int v = start;
+        do {
+            if (this.solver.stats.propagations >= limit) {
+                this.nextProbe = v;
+                return true;
+            }
+            for (int p = v << 1; p <= (v << 1 | 1); p++) {
+                if (voc.isUnassigned(p) && outDegree[p] > 0
+                        && outDegree[neg(p)] == 0 && !probe(p)) {
+                    return false;
+                }
+            }
+            v = v == nVars ? 1 : v + 1;
+        } while (v != start);
+        return true;
+    }
+
+    /**
+     * Probe both polarities of a literal.
+     * 
+     * @return false iff the formula is found inconsistent.
+     */
+    private boolean probe(int p) {
+        SolverStats stats = this.solver.stats;
+        if (!lookahead(p)) {
+            stats.failedLiterals++;
+            return fix(neg(p));
+        }
+        // double lookahead: compare the literals implied by both polarities
+        IVecInt trail = this.solver.trail;
+        this.solver.assume(neg(p));
+        if (this.solver.propagate() != null) {
+            this.solver.cancelUntil(0);
+            stats.failedLiterals++;
+            return fix(p);
+        }
+        this.units.clear();
+        for (int i = this.solver.trailLim.get(0) + 1; i < trail.size(); i++) {
+            int q = trail.get(i);
+            if (this.marks[q] == this.mark) {
+                this.units.push(q);
+            } else if (this.marks[neg(q)] == this.mark) {
+                // p -> -q and -p -> q
+                this.equivalents.push(p).push(neg(q));
+            }
+        }
+        this.solver.cancelUntil(0);
+        for (int i = 0; i < this.units.size(); i++) {
+            stats.necessaryAssignments++;
+            if (!fix(this.units.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Propagate a literal at decision level 1, marking the implied literals.
+     * 
+     * @return false iff p is a failed literal.
+     */
+    private boolean lookahead(int p) {
+        IVecInt trail = this.solver.trail;
+        this.mark++;
+        this.solver.assume(p);
+        boolean failed = this.solver.propagate() != null;
+        if (!failed) {
+            for (int i = this.solver.trailLim.get(0) + 1; i < trail
+                    .size(); i++) {
+                this.marks[trail.get(i)] = this.mark;
+            }
+        }
+        this.solver.cancelUntil(0);
+        return !failed;
+    }
+
+    /**
+     * Satisfy a literal at decision level 0 and propagate it.
+     * 
+     * @return false iff the formula is found inconsistent.
+     */
+    private boolean fix(int p) {
+        if (this.solver.voc.isSatisfied(p)) {
+            return true;
+        }
+        if ((this.solver.eventMask & MaskedSearchListener.LEARNING) != 0) {
+            this.solver.slistener.learnUnit(LiteralsUtils.toDimacs(p));
+        }
+        return this.solver.enqueue(p) && this.solver.propagate() == null;
+    }
+
+    /**
+     * Compute the strongly connected components of the binary implication
+     * graph and replace the literals by their representative, the literal of
+     * the smallest variable of its component.
+     * 
+     * @return false iff the formula is found inconsistent.
+     */
+    private boolean substituteEquivalentLiterals(int nVars) {
+        ILits voc = this.solver.voc;
+        int nLits = 2 * (nVars + 1);
+        // adjacency lists in compressed form
+        int[] start = new int[nLits + 1];
+        for (int i = 0; i < this.binaries.size(); i += 2) {
+            int a = this.binaries.get(i);
+            int b = this.binaries.get(i + 1);
+            if (voc.isUnassigned(a) && voc.isUnassigned(b)) {
+                start[neg(a) + 1]++;
+                start[neg(b) + 1]++;
+            }
+        }
+        for (int i = 0; i < this.equivalents.size(); i += 2) {
+            int a = this.equivalents.get(i);
+            int b = this.equivalents.get(i + 1);
+            if (voc.isUnassigned(a) && voc.isUnassigned(b)) {
+                start[a + 1]++;
+                start[b + 1]++;
+                start[neg(a) + 1]++;
+                start[neg(b) + 1]++;
+            }
+        }
+        for (int i = 1; i <= nLits; i++) {
+            start[i] += start[i - 1];
+        }
+        int[] edges = new int[start[nLits]];
+        int[] fill = new int[nLits];
+        System.arraycopy(start, 0, fill, 0, nLits);
+        for (int i = 0; i < this.binaries.size(); i += 2) {
+            int a = this.binaries.get(i);
+            int b = this.binaries.get(i + 1);
+            if (voc.isUnassigned(a) && voc.isUnassigned(b)) {
+                edges[fill[neg(a)]++] = b;
+                edges[fill[neg(b)]++] = a;
+            }
+        }
+        for (int i = 0; i < this.equivalents.size(); i += 2) {
+            int a = this.equivalents.get(i);
+            int b = this.equivalents.get(i + 1);
+            if (voc.isUnassigned(a) && voc.isUnassigned(b)) {
+                edges[fill[a]++] = b;
+                edges[fill[b]++] = a;
+                edges[fill[neg(a)]++] = neg(b);
+                edges[fill[neg(b)]++] = neg(a);
+            }
+        }
+        int[] component = stronglyConnectedComponents(nLits, start, edges);
+        // the literals are scanned in increasing order, so the first literal
+        // met in a component is the one of the smallest variable.
+        int[] componentRepresentative = new int[nLits];
+        boolean substitution = false;
+        for (int p = 2; p < nLits; p++) {
+            this.representative[p] = p;
+            if (component[p] == 0) {
+                continue;
+            }
+            if (component[p] == component[neg(p)]) {
+                // p implies -p and -p implies p
+                return false;
+            }
+            if (componentRepresentative[component[p]] == 0) {
+                componentRepresentative[component[p]] = p;
+            } else {
+                this.representative[p] = componentRepresentative[component[p]];
+                substitution = true;
+            }
+        }
+        if (!substitution) {
+            return true;
+        }
+        // all the clauses are created before being propagated, so none of
+        // their literals is falsified.
+        IVec<IVecInt> originals = new Vec<IVecInt>();
+        substitute(this.solver.constrs, originals, null);
+        IVec<IVecInt> learned = new Vec<IVecInt>();
+        IVec<Constr> replaced = new Vec<Constr>();
+        substitute(this.solver.learnts, learned, replaced);
+        this.units.clear();
+        for (int i = 0; i < originals.size(); i++) {
+            IVecInt literals = originals.get(i);
+            if (literals.size() == 1) {
+                this.units.push(literals.get(0));
+            } else {
+                this.solver.addConstr(createClause(literals));
+            }
+        }
+        for (int i = 0; i < learned.size(); i++) {
+            IVecInt literals = learned.get(i);
+            if (literals.size() == 1) {
+                this.units.push(literals.get(0));
+            } else {
+                Constr c = this.solver.dsfactory
+                        .createUnregisteredClause(literals);
+                c.setLearnt();
+                c.register();
+                c.setActivity(replaced.get(i).getActivity());
+                if ((this.solver.eventMask
+                        & MaskedSearchListener.LEARNING) != 0) {
+                    this.solver.slistener.learn(c);
+                }
+                this.solver.learnts.push(c);
+            }
+        }
+        linkSubstitutedVariables(nVars);
+        for (int i = 0; i < this.units.size(); i++) {
+            if (!fix(this.units.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tarjan's algorithm, iterative version.
+     * 
+     * @return for each literal the index, starting at 1, of its strongly
+     *         connected component, 0 for the literals without edges.
+     */
+    private static int[] stronglyConnectedComponents(int nLits, int[] start,
+            int[] edges) {
+        int[] component = new int[nLits];
+        int[] index = new int[nLits];
+        int[] lowlink = new int[nLits];
+        int[] next = new int[nLits];
+        boolean[] onStack = new boolean[nLits];
+        int[] stack = new int[nLits];
+        int[] calls = new int[nLits];
+        int top = 0;
+        int counter = 0;
+        int nbComponents = 0;
+        for (int root = 2; root < nLits; root++) {
+            if (index[root] != 0 || start[root] == start[root + 1]) {
+                continue;
+            }
+            int nbCalls = 0;
+            calls[nbCalls++] = root;
+            index[root] = lowlink[root] = ++counter;
+            next[root] = start[root];
+            stack[top++] = root;
+            onStack[root] = true;
+            while (nbCalls > 0) {
+                int u = calls[nbCalls - 1];
+                if (next[u] < start[u + 1]) {
+                    int w = edges[next[u]++];
+                    if (index[w] == 0) {
+                        index[w] = lowlink[w] = ++counter;
+                        next[w] = start[w];
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        calls[nbCalls++] = w;
+                    } else if (onStack[w] && index[w] < lowlink[u]) {
+                        lowlink[u] = index[w];
+                    }
+                } else {
+                    nbCalls--;
+                    if (lowlink[u] == index[u]) {
+                        nbComponents++;
+                        int w;
+                        do {
+                            w = stack[--top];
+                            onStack[w] = false;
+                            component[w] = nbComponents;
+                        } while (w != u);
+                    }
+                    if (nbCalls > 0) {
+                        int parent = calls[nbCalls - 1];
+                        if (lowlink[u] < lowlink[parent]) {
+                            lowlink[parent] = lowlink[u];
+                        }
+                    }
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Remove the clauses containing substituted literals.
+     * 
+     * @param constrs
+     *            the original or the learned constraints
+     * @param replacements
+     *            the literals of the clauses replacing the removed ones
+     * @param replaced
+     *            the learned clauses replaced, null for the original
+     *            constraints
+     */
+    private void substitute(IVec<Constr> constrs, IVec<IVecInt> replacements,
+            IVec<Constr> replaced) {
+        int j = 0;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            if (!needsSubstitution(c)) {
+                constrs.set(j++, c);
+                continue;
+            }
+            this.solver.stats.substitutedClauses++;
+            c.remove(this.solver);
+            if (replaced == null) {
+                this.solver.constrRemoved(c);
+                this.substitutedOriginalConstraints = true;
+            } else {
+                this.solver.learntDeleted(c);
+            }
+            IVecInt literals = new VecInt(c.size());
+            boolean tautology = false;
+            for (int k = 0; k < c.size() && !tautology; k++) {
+                int p = this.representative[c.get(k)];
+                if (this.solver.voc.isFalsified(p) || literals.contains(p)) {
+                    continue;
+                }
+                tautology = literals.contains(neg(p));
+                literals.push(p);
+            }
+            assert !literals.isEmpty();
+            if (!tautology) {
+                replacements.push(literals);
+                if (replaced != null) {
+                    replaced.push(c);
+                }
+            }
+        }
+        constrs.shrinkTo(j);
+    }
+
+    /**
+     * 
+     * @param c
+     *            a constraint
+     * @return true iff c is a clause, not satisfied at decision level 0, with
+     *         some substituted literals.
+     */
+    private boolean needsSubstitution(Constr c) {
+        if (this.links.contains(c) || !Solver.isClause(c)) {
+            return false;
+        }
+        ILits voc = this.solver.voc;
+        boolean substituted = false;
+        for (int k = 0; k < c.size(); k++) {
+            int p = c.get(k);
+            if (voc.isSatisfied(p)) {
+                return false;
+            }
+            substituted = substituted || this.representative[p] != p;
+        }
+        return substituted;
+    }
+
+    private Constr createClause(IVecInt literals) {
+        try {
+            return this.solver.dsfactory.createClause(literals);
+        } catch (ContradictionException e) {
+            // cannot happen: the literals are unassigned
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Add the binary clauses linking the newly substituted variables to their
+     * representative.
+     */
+    private void linkSubstitutedVariables(int nVars) {
+        IVecInt literals = new VecInt(2);
+        for (int v = 1; v <= nVars; v++) {
+            int p = LiteralsUtils.posLit(v);
+            int r = this.representative[p];
+            if (r == p || this.linkedTo[v] != 0) {
+                continue;
+            }
+            assert var(r) < v;
+            this.linkedTo[v] = r;
+            this.solver.stats.equivalentLiterals++;
+            // p -> r
+            literals.clear();
+            literals.push(neg(p)).push(r);
+            Constr c = createClause(literals);
+            this.links.add(c);
+            this.solver.addConstr(c);
+            // r -> p
+            literals.clear();
+            literals.push(p).push(neg(r));
+            c = createClause(literals);
+            this.links.add(c);
+            this.solver.addConstr(c);
+        }
+    }
+}
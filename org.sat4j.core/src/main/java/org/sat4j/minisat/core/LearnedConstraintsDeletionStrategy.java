@@ -65,6 +65,19 @@ public interface LearnedConstraintsDeletionStrategy extends Serializable {
      */
     void onClauseLearning(Constr outLearnt);
 
+    /**
+     * Hook method called when a clause learned by another solver has just
+     * been added to the learned constraints, so that the strategy ranks it in
+     * the same way as the clauses learned by the solver.
+     * 
+     * @param imported
+     *            the imported clause
+     * @param lbd
+     *            the LBD of the clause in the solver which learned it
+     * @since 2.3.6
+     */
+    void onClauseImported(Constr imported, int lbd);
+
     /**
      * Hook method called on constraints participating to the conflict analysis.
      * 
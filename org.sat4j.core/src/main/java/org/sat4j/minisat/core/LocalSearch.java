@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.negLit;
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+
+/**
+ * ProbSAT like stochastic local search performed between two restarts on the
+ * original clauses of the solver, simplified by the assignments of the root
+ * level.
+ * 
+ * The clauses are stored in flat arrays, with for each clause the number of
+ * true literals and the xor of the true variables, so that the only true
+ * variable of a clause is known without looking at the clause, and for each
+ * variable the number of clauses it is the only one to satisfy (its break
+ * count). An unsatisfied clause is picked at random, and one of its variables
+ * is flipped with a probability decreasing polynomially with its break count.
+ * 
+ * The search starts from the phases of the phase selection strategy and the
+ * best assignment found is fed back into that strategy. When that assignment
+ * satisfies all the clauses, it can be used directly as a model.
+ * 
+ * The local search is not used when the solver contains constraints which
+ * are not clauses.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class LocalSearch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of conflicts between the first two local search rounds. That
+     * interval grows arithmetically with the number of rounds.
+     */
+    private static final int INTERVAL = 5000;
+
+    private static final int MAX_BREAK = 64;
+
+    private final Solver<? extends DataStructureFactory> solver;
+
+    private final Random rand = new Random(123456789);
+
+    private int flips = 0;
+
+    private int rounds;
+
+    private long nextRound;
+
+    private int nVars;
+
+    private int nClauses;
+
+    /**
+     * literals of the clauses, clause after clause.
+     */
+    private int[] literals = new int[0];
+
+    private int[] clauseStart = new int[1];
+
+    /**
+     * clauses containing each literal.
+     */
+    private int[] occurrences = new int[0];
+
+    private int[] occurrenceStart = new int[0];
+
+    private int[] numTrue = new int[0];
+
+    private int[] trueVars = new int[0];
+
+    private int[] breakCount = new int[0];
+
+    private int[] unsat = new int[0];
+
+    private int[] unsatPosition = new int[0];
+
+    private int nUnsat;
+
+    /**
+     * current value of each variable: true iff the positive literal is
+     * satisfied.
+     */
+    private boolean[] value = new boolean[0];
+
+    private boolean[] best = new boolean[0];
+
+    private boolean[] free = new boolean[0];
+
+    private final double[] probabilities = new double[MAX_BREAK + 1];
+
+    private double[] scores = new double[0];
+
+    LocalSearch(Solver<? extends DataStructureFactory> solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * 
+     * @param flips
+     *            the number of flips of each round, 0 to disable local
+     *            search.
+     */
+    void setFlips(int flips) {
+        this.flips = flips;
+    }
+
+    int getFlips() {
+        return this.flips;
+    }
+
+    void reset() {
+        this.rounds = 0;
+        this.nextRound = 0;
+    }
+
+    /**
+     * @return true iff a local search round should be performed now.
+     */
+    boolean isDue() {
+        return this.flips > 0
+                && this.solver.stats.conflicts >= this.nextRound;
+    }
+
+    /**
+     * Perform a local search round. Must be called with an empty propagation
+     * queue, the assignments of the solver being considered fixed.
+     * 
+     * @return true iff the best assignment found satisfies all the clauses.
+     */
+    boolean search() {
+        this.rounds++;
+        this.nextRound = this.solver.stats.conflicts + (long) INTERVAL
+                * this.rounds;
+        if (!load(this.solver.constrs)) {
+            // not a CNF, or nothing to do
+            return false;
+        }
+        SolverStats stats = this.solver.stats;
+        stats.localSearches++;
+        IPhaseSelectionStrategy phases = this.solver.getOrder()
+                .getPhaseSelectionStrategy();
+        ILits voc = this.solver.voc;
+        for (int v = 1; v <= this.nVars; v++) {
+            if (voc.isUnassigned(posLit(v))) {
+                this.value[v] = phases.select(v) == posLit(v);
+            }
+        }
+        initCounters();
+        int bestUnsat = this.nUnsat;
+        System.arraycopy(this.value, 0, this.best, 0, this.nVars + 1);
+        int flip = 0;
+        while (this.nUnsat > 0 && flip < this.flips) {
+            flip(pickVar(this.unsat[this.rand.nextInt(this.nUnsat)]));
+            flip++;
+            if (this.nUnsat < bestUnsat) {
+                bestUnsat = this.nUnsat;
+                System.arraycopy(this.value, 0, this.best, 0, this.nVars + 1);
+            }
+        }
+        stats.localSearchFlips += flip;
+        for (int v = 1; v <= this.nVars; v++) {
+            if (this.free[v]) {
+                phases.init(v, literal(v));
+            }
+        }
+        if (bestUnsat == 0) {
+            stats.localSearchModels++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param v
+     *            a variable unassigned in the solver during the last round.
+     * @return the literal of v satisfied by the best assignment found.
+     */
+    int literal(int v) {
+        return this.best[v] ? posLit(v) : negLit(v);
+    }
+
+    /**
+     * Build the flat representation of the clauses not satisfied by the
+     * assignments of the solver.
+     * 
+     * @return false iff some constraints are not clauses or all the clauses
+     *         are satisfied.
+     */
+    private boolean load(IVec<Constr> constrs) {
+        ILits voc = this.solver.voc;
+        this.nVars = voc.nVars();
+        if (this.value.length <= this.nVars) {
+            int size = this.nVars + 1;
+            this.value = new boolean[size];
+            this.best = new boolean[size];
+            this.free = new boolean[size];
+            this.breakCount = new int[size];
+            this.occurrenceStart = new int[2 * size + 1];
+        }
+        int nbLiterals = 0;
+        int maxSize = 0;
+        this.nClauses = 0;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            if (!Solver.isClause(c)) {
+                return false;
+            }
+            if (satisfied(voc, c)) {
+                continue;
+            }
+            this.nClauses++;
+            int size = 0;
+            for (int j = 0; j < c.size(); j++) {
+                if (voc.isUnassigned(c.get(j))) {
+                    size++;
+                }
+            }
+            nbLiterals += size;
+            maxSize = Math.max(maxSize, size);
+        }
+        if (this.nClauses == 0) {
+            return false;
+        }
+        if (this.literals.length < nbLiterals) {
+            this.literals = new int[nbLiterals];
+            this.occurrences = new int[nbLiterals];
+        }
+        if (this.clauseStart.length <= this.nClauses) {
+            this.clauseStart = new int[this.nClauses + 1];
+            this.numTrue = new int[this.nClauses];
+            this.trueVars = new int[this.nClauses];
+            this.unsat = new int[this.nClauses];
+            this.unsatPosition = new int[this.nClauses];
+        }
+        Arrays.fill(this.free, false);
+        Arrays.fill(this.occurrenceStart, 0);
+        int k = 0;
+        int n = 0;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            if (satisfied(voc, c)) {
+                continue;
+            }
+            this.clauseStart[n++] = k;
+            for (int j = 0; j < c.size(); j++) {
+                int p = c.get(j);
+                if (voc.isUnassigned(p)) {
+                    this.literals[k++] = p;
+                    this.free[var(p)] = true;
+                    this.occurrenceStart[p + 1]++;
+                }
+            }
+        }
+        this.clauseStart[n] = k;
+        // occurrence lists
+        int nbLits = 2 * (this.nVars + 1);
+        for (int p = 0; p < nbLits; p++) {
+            this.occurrenceStart[p + 1] += this.occurrenceStart[p];
+        }
+        int[] next = Arrays.copyOf(this.occurrenceStart, nbLits);
+        for (int c = 0; c < this.nClauses; c++) {
+            for (int j = this.clauseStart[c], end = this.clauseStart[c
+                    + 1]; j < end; j++) {
+                this.occurrences[next[this.literals[j]]++] = c;
+            }
+        }
+        // polynomial break only probability distribution of probSAT
+        double cb = maxSize <= 3 ? 2.38 : maxSize <= 4 ? 3.0
+                : maxSize <= 5 ? 3.7 : maxSize <= 6 ? 5.1 : 5.4;
+        for (int b = 0; b <= MAX_BREAK; b++) {
+            this.probabilities[b] = Math.pow(1.0 + b, -cb);
+        }
+        if (this.scores.length < maxSize) {
+            this.scores = new double[maxSize];
+        }
+        return true;
+    }
+
+    private static boolean satisfied(ILits voc, Constr c) {
+        for (int j = 0; j < c.size(); j++) {
+            if (voc.isSatisfied(c.get(j))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTrue(int p) {
+        return this.value[var(p)] == ((p & 1) == 0);
+    }
+
+    private void initCounters() {
+        Arrays.fill(this.breakCount, 0);
+        this.nUnsat = 0;
+        for (int c = 0; c < this.nClauses; c++) {
+            int count = 0;
+            int vars = 0;
+            for (int j = this.clauseStart[c], end = this.clauseStart[c
+                    + 1]; j < end; j++) {
+                int p = this.literals[j];
+                if (isTrue(p)) {
+                    count++;
+                    vars ^= var(p);
+                }
+            }
+            this.numTrue[c] = count;
+            this.trueVars[c] = vars;
+            if (count == 0) {
+                addUnsat(c);
+            } else if (count == 1) {
+                this.breakCount[vars]++;
+            }
+        }
+    }
+
+    private void addUnsat(int c) {
+        this.unsatPosition[c] = this.nUnsat;
+        this.unsat[this.nUnsat++] = c;
+    }
+
+    private void removeUnsat(int c) {
+        int last = this.unsat[--this.nUnsat];
+        int pos = this.unsatPosition[c];
+        this.unsat[pos] = last;
+        this.unsatPosition[last] = pos;
+    }
+
+    private int pickVar(int c) {
+        int from = this.clauseStart[c];
+        int size = this.clauseStart[c + 1] - from;
+        double sum = 0.0;
+        for (int j = 0; j < size; j++) {
+            int b = this.breakCount[var(this.literals[from + j])];
+            sum += this.probabilities[b > MAX_BREAK ? MAX_BREAK : b];
+            this.scores[j] = sum;
+        }
+        double r = this.rand.nextDouble() * sum;
+        int j = 0;
+        while (j < size - 1 && this.scores[j] <= r) {
+            j++;
+        }
+        return var(this.literals[from + j]);
+    }
+
+    private void flip(int v) {
+        // q becomes true, p becomes false
+        int q = this.value[v] ? negLit(v) : posLit(v);
+        int p = q ^ 1;
+        this.value[v] = !this.value[v];
+        for (int i = this.occurrenceStart[q], end = this.occurrenceStart[q
+                + 1]; i < end; i++) {
+            int c = this.occurrences[i];
+            if (this.numTrue[c] == 0) {
+                removeUnsat(c);
+                this.breakCount[v]++;
+            } else if (this.numTrue[c] == 1) {
+                this.breakCount[this.trueVars[c]]--;
+            }
+            this.numTrue[c]++;
+            this.trueVars[c] ^= v;
+        }
+        for (int i = this.occurrenceStart[p], end = this.occurrenceStart[p
+                + 1]; i < end; i++) {
+            int c = this.occurrences[i];
+            this.numTrue[c]--;
+            this.trueVars[c] ^= v;
+            if (this.numTrue[c] == 0) {
+                addUnsat(c);
+                this.breakCount[v]--;
+            } else if (this.numTrue[c] == 1) {
+                this.breakCount[this.trueVars[c]]++;
+            }
+        }
+    }
+}
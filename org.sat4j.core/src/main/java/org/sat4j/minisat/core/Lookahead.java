@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IteratorInt;
+
+/**
+ * Lookahead procedure used to split a formula into cubes, in the spirit of
+ * march: both polarities of the most promising variables are propagated
+ * under the cube, and the variable whose two polarities both imply many
+ * literals is selected. The most promising variables are the unassigned
+ * ones having the highest heuristics in the variable order of the solver.
+ * 
+ * Failed literals found on the way are negated and added to the cube.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class Lookahead {
+
+    /**
+     * Weight of the product of the number of implied literals in the score
+     * of a variable, the sum being used to break ties.
+     */
+    private static final long PRODUCT_WEIGHT = 1024L;
+
+    private final Solver<? extends DataStructureFactory> solver;
+
+    Lookahead(Solver<? extends DataStructureFactory> solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Find the variable to split the formula on, the solver being at
+     * decision level 0 with its facts propagated.
+     * 
+     * @see Solver#lookahead(IVecInt, int)
+     */
+    int split(IVecInt cube, int candidates) throws ContradictionException {
+        ILits voc = this.solver.voc;
+        for (IteratorInt it = cube.iterator(); it.hasNext();) {
+            int p = voc.getFromPool(it.next());
+            if (!voc.isSatisfied(p)) {
+                assign(p);
+            }
+        }
+        int[] vars = candidates(candidates);
+        int best = 0;
+        long bestScore = -1;
+        for (int var : vars) {
+            if (var == 0) {
+                break;
+            }
+            int p = var << 1;
+            if (!voc.isUnassigned(p)) {
+                // assigned by a necessary literal found meanwhile
+                continue;
+            }
+            int positive = implied(p);
+            int negative = implied(neg(p));
+            if (positive < 0 || negative < 0) {
+                if (positive < 0 && negative < 0) {
+                    throw new ContradictionException();
+                }
+                int necessary = positive < 0 ? neg(p) : p;
+                cube.push(toDimacs(necessary));
+                assign(necessary);
+                continue;
+            }
+            long score = PRODUCT_WEIGHT * positive * negative + positive
+                    + negative;
+            if (score > bestScore) {
+                bestScore = score;
+                best = var;
+            }
+        }
+        if (best == 0) {
+            // every candidate has been assigned by a necessary literal
+            int[] others = candidates(1);
+            best = others.length == 0 ? 0 : others[0];
+        }
+        return best;
+    }
+
+    /**
+     * Assume a literal in a new decision level and propagate it.
+     */
+    private void assign(int p) throws ContradictionException {
+        if (!this.solver.assume(p) || this.solver.propagate() != null) {
+            throw new ContradictionException();
+        }
+    }
+
+    /**
+     * Count the literals implied by a literal under the current assignment.
+     * 
+     * @return the number of literals implied by p, including itself, -1 if p
+     *         is a failed literal.
+     */
+    private int implied(int p) {
+        int level = this.solver.decisionLevel();
+        int before = this.solver.trail.size();
+        boolean failed = !this.solver.assume(p)
+                || this.solver.propagate() != null;
+        int implied = this.solver.trail.size() - before;
+        this.solver.cancelUntil(level);
+        return failed ? -1 : implied;
+    }
+
+    /**
+     * Select the unassigned variables having the highest heuristics.
+     * 
+     * @return at most howmany variables, by decreasing heuristics, followed
+     *         by zeros if there are not enough unassigned variables.
+     */
+    private int[] candidates(int howmany) {
+        ILits voc = this.solver.voc;
+        double[] heuristics = this.solver.getVariableHeuristics();
+        int[] selected = new int[howmany];
+        int size = 0;
+        for (int var = 1; var <= voc.nVars(); var++) {
+            if (!voc.belongsToPool(var) || !voc.isUnassigned(var << 1)) {
+                continue;
+            }
+            double h = heuristic(heuristics, var);
+            if (size == howmany && h <= heuristic(heuristics,
+                    selected[howmany - 1])) {
+                continue;
+            }
+            // insertion in the selected variables, sorted by heuristics
+            int i = size == howmany ? howmany - 1 : size++;
+            while (i > 0 && heuristic(heuristics, selected[i - 1]) < h) {
+                selected[i] = selected[i - 1];
+                i--;
+            }
+            selected[i] = var;
+        }
+        if (size == 0) {
+            return new int[0];
+        }
+        return selected;
+    }
+
+    private static double heuristic(double[] heuristics, int var) {
+        return var < heuristics.length ? heuristics[var] : 0.0;
+    }
+}
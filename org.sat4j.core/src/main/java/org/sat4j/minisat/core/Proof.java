@@ -0,0 +1,507 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.Lbool;
+
+/**
+ * Identifiers of the clauses of the solver, and hints of the clauses it
+ * derives, for a {@link ProofTracer}.
+ * 
+ * Each literal satisfied at decision level 0 gets its own unit clause, so
+ * that the literals falsified at decision level 0 can be ignored by the
+ * conflict analysis as usual. The hints of a learned clause are the reasons
+ * met by the conflict analysis, plus the reasons of the literals removed by
+ * the minimization of the clause. They are ordered so that each reason
+ * follows the reasons of its own falsified literals.
+ * 
+ * The clauses derived while the input formula is read, i.e. the input clauses
+ * containing duplicated or falsified literals, are only traced once the whole
+ * formula is known, since their identifiers must follow those of the input
+ * clauses.
+ * 
+ * Only clauses can be traced: the proof is broken as soon as a constraint
+ * which has no identifier takes part in a derivation.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class Proof implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Solver<? extends DataStructureFactory> solver;
+
+    private final ProofTracer tracer;
+
+    private final Map<Constr, Integer> ids = new IdentityHashMap<Constr, Integer>();
+
+    private int lastId;
+
+    /**
+     * Identifier of the unit clause of each literal satisfied at decision
+     * level 0, 0 if there is none.
+     */
+    private int[] units = new int[0];
+
+    /**
+     * The constraints whose reason has been computed during the last
+     * conflict analysis, starting from the conflict.
+     */
+    private final IVec<Constr> antecedents = new Vec<Constr>();
+
+    private final IVecInt hints = new VecInt();
+
+    private final IVecInt unitHints = new VecInt();
+
+    private final IVecInt literals = new VecInt();
+
+    private final IVecInt stack = new VecInt();
+
+    private final IVecInt positions = new VecInt();
+
+    private int[] marks = new int[0];
+
+    private int stamp;
+
+    private int inClause;
+
+    private int visited;
+
+    private boolean refuted;
+
+    /**
+     * Number of input clauses announced, 0 if unknown.
+     */
+    private int expectedOriginals;
+
+    /**
+     * True until the first clause is derived after the input formula.
+     */
+    private boolean reading = true;
+
+    /**
+     * The clauses derived while reading the input formula. Their hints refer
+     * to the previous pending clauses using negative numbers.
+     */
+    private final IVec<Constr> pendingClauses = new Vec<Constr>();
+
+    private final IVec<IVecInt> pendingLiterals = new Vec<IVecInt>();
+
+    private final IVec<IVecInt> pendingHints = new Vec<IVecInt>();
+
+    Proof(Solver<? extends DataStructureFactory> solver, ProofTracer tracer) {
+        this.solver = solver;
+        this.tracer = tracer;
+    }
+
+    ProofTracer getTracer() {
+        return this.tracer;
+    }
+
+    private void ensureCapacity() {
+        int nVars = this.solver.voc.nVars();
+        if (this.marks.length <= nVars) {
+            int[] newMarks = new int[nVars + 1];
+            System.arraycopy(this.marks, 0, newMarks, 0, this.marks.length);
+            this.marks = newMarks;
+            int[] newUnits = new int[2 * (nVars + 1)];
+            System.arraycopy(this.units, 0, newUnits, 0, this.units.length);
+            this.units = newUnits;
+        }
+    }
+
+    boolean isTraced(Constr constr) {
+        if (this.ids.containsKey(constr)) {
+            return true;
+        }
+        for (int i = 0; i < this.pendingClauses.size(); i++) {
+            if (this.pendingClauses.get(i) == constr) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int id(Constr constr) {
+        Integer id = this.ids.get(constr);
+        if (id == null) {
+            throw new IllegalStateException(
+                    "Cannot trace a derivation using " + constr);
+        }
+        return id;
+    }
+
+    void expectOriginals(int nb) {
+        this.expectedOriginals = nb;
+    }
+
+    /**
+     * Trace the clauses derived while reading the input formula.
+     */
+    private void endOfInput() {
+        if (!this.reading) {
+            return;
+        }
+        this.reading = false;
+        this.lastId = Math.max(this.lastId, this.expectedOriginals);
+        int[] pendingIds = new int[this.pendingClauses.size()];
+        for (int i = 0; i < pendingIds.length; i++) {
+            IVecInt someHints = this.pendingHints.get(i);
+            for (int j = 0; j < someHints.size(); j++) {
+                if (someHints.get(j) < 0) {
+                    someHints.set(j, pendingIds[-someHints.get(j) - 1]);
+                }
+            }
+            pendingIds[i] = ++this.lastId;
+            this.tracer.add(pendingIds[i], this.pendingLiterals.get(i),
+                    someHints);
+            Constr constr = this.pendingClauses.get(i);
+            if (constr != null) {
+                this.ids.put(constr, pendingIds[i]);
+            }
+        }
+        for (int i = 0; i < this.units.length; i++) {
+            if (this.units[i] < 0) {
+                this.units[i] = pendingIds[-this.units[i] - 1];
+            }
+        }
+        this.pendingClauses.clear();
+        this.pendingLiterals.clear();
+        this.pendingHints.clear();
+    }
+
+    /**
+     * Derive a clause while reading the input formula.
+     * 
+     * @return a negative number standing for the identifier of the clause.
+     */
+    private int addPending(Constr constr, IVecInt someHints) {
+        IVecInt clause = new VecInt();
+        if (constr != null) {
+            for (int i = 0; i < constr.size(); i++) {
+                clause.push(toDimacs(constr.get(i)));
+            }
+        }
+        IVecInt copy = new VecInt(someHints.size());
+        someHints.copyTo(copy);
+        this.pendingClauses.push(constr);
+        this.pendingLiterals.push(clause);
+        this.pendingHints.push(copy);
+        return -this.pendingClauses.size();
+    }
+
+    private int add(Constr constr, IVecInt someHints) {
+        endOfInput();
+        this.literals.clear();
+        if (constr != null) {
+            for (int i = 0; i < constr.size(); i++) {
+                this.literals.push(toDimacs(constr.get(i)));
+            }
+        }
+        int id = ++this.lastId;
+        this.tracer.add(id, this.literals, someHints);
+        return id;
+    }
+
+    /**
+     * Create a clause of the input formula.
+     * 
+     * @param clause
+     *            the literals of the clause, in internal representation.
+     * @return the clause created by the data structure factory.
+     * @throws ContradictionException
+     *             if the clause is falsified at decision level 0.
+     */
+    Constr createClause(IVecInt clause) throws ContradictionException {
+        ensureCapacity();
+        int id = ++this.lastId;
+        IVecInt original = new VecInt(clause.size());
+        clause.copyTo(original);
+        Constr constr;
+        try {
+            constr = this.solver.dsfactory.createClause(clause);
+        } catch (ContradictionException e) {
+            // all the literals are falsified by unit clauses
+            endOfInput();
+            unitsOfFalsifiedLiterals(original, this.hints);
+            this.hints.push(id);
+            add(null, this.hints);
+            this.refuted = true;
+            throw e;
+        }
+        if (constr == null) {
+            // satisfied or tautological clause
+            return null;
+        }
+        if (constr.canBePropagatedMultipleTimes()) {
+            throw new UnsupportedOperationException(
+                    "Cannot trace a proof with " + constr);
+        }
+        if (constr.size() < original.size()) {
+            // duplicated or falsified literals have been removed
+            unitsOfFalsifiedLiterals(original, this.hints);
+            this.hints.push(id);
+            if (this.reading) {
+                id = addPending(constr, this.hints);
+            } else {
+                id = add(constr, this.hints);
+            }
+        }
+        if (id > 0) {
+            this.ids.put(constr, id);
+        }
+        if (constr.size() == 1 && this.units[constr.get(0)] == 0) {
+            this.units[constr.get(0)] = id;
+        }
+        return constr;
+    }
+
+    private void unitsOfFalsifiedLiterals(IVecInt clause, IVecInt someHints) {
+        someHints.clear();
+        int p;
+        for (int i = 0; i < clause.size(); i++) {
+            p = clause.get(i);
+            if (this.solver.voc.isFalsified(p)) {
+                int unit = this.units[p ^ 1];
+                if (!someHints.contains(unit)) {
+                    someHints.push(unit);
+                }
+            }
+        }
+    }
+
+    /**
+     * A literal is satisfied at decision level 0: derive its unit clause.
+     * 
+     * @param p
+     *            the literal.
+     * @param from
+     *            its reason, null if it comes from a unit clause.
+     */
+    void unit(int p, Constr from) {
+        ensureCapacity();
+        if (from == null || this.units[p] != 0) {
+            return;
+        }
+        endOfInput();
+        this.unitHints.clear();
+        int q;
+        for (int i = 0; i < from.size(); i++) {
+            q = from.get(i);
+            if (q != p) {
+                this.unitHints.push(this.units[q ^ 1]);
+            }
+        }
+        this.unitHints.push(id(from));
+        int id = ++this.lastId;
+        this.literals.clear();
+        this.literals.push(toDimacs(p));
+        this.tracer.add(id, this.literals, this.unitHints);
+        this.units[p] = id;
+    }
+
+    /**
+     * A conflict analysis starts.
+     */
+    void analyzing() {
+        this.antecedents.clear();
+    }
+
+    /**
+     * The conflict analysis uses the reason of a constraint.
+     * 
+     * @param constr
+     *            the conflict, or the reason of a literal assigned at the
+     *            conflict level.
+     */
+    void antecedent(Constr constr) {
+        this.antecedents.push(constr);
+    }
+
+    /**
+     * Compute the hints of a learned clause. The literals assigned at the
+     * conflict level are already unassigned, or still assigned at that level
+     * when the literals may be assigned out of order.
+     * 
+     * @param learned
+     *            the literals of the learned clause, once minimized.
+     */
+    void analyzed(IVecInt learned) {
+        endOfInput();
+        ensureCapacity();
+        this.hints.clear();
+        this.inClause = ++this.stamp;
+        this.visited = ++this.stamp;
+        for (int i = 0; i < learned.size(); i++) {
+            this.marks[var(learned.get(i))] = this.inClause;
+        }
+        Constr constr;
+        int p;
+        for (int i = this.antecedents.size() - 1; i >= 0; i--) {
+            constr = this.antecedents.get(i);
+            for (int j = 0; j < constr.size(); j++) {
+                p = constr.get(j);
+                if (!this.solver.voc.isUnassigned(p) && this.solver.voc
+                        .getLevel(p) < this.solver.decisionLevel()) {
+                    // falsified literal which is not resolved
+                    explain(p);
+                }
+            }
+            this.hints.push(id(constr));
+        }
+        this.antecedents.clear();
+    }
+
+    /**
+     * Add the hints needed to falsify a literal of a lower decision level
+     * which is not part of the learned clause, in post order.
+     */
+    private void explain(int p) {
+        if (this.marks[var(p)] == this.inClause
+                || this.marks[var(p)] == this.visited) {
+            return;
+        }
+        this.marks[var(p)] = this.visited;
+        if (this.solver.voc.getLevel(p) == 0) {
+            this.hints.push(this.units[p ^ 1]);
+            return;
+        }
+        this.stack.clear();
+        this.positions.clear();
+        this.stack.push(p);
+        this.positions.push(0);
+        Constr reason;
+        int q;
+        int child;
+        int i;
+        while (!this.stack.isEmpty()) {
+            reason = this.solver.voc.getReason(this.stack.last());
+            if (reason == null) {
+                throw new IllegalStateException(
+                        "Cannot trace the removal of a decision");
+            }
+            child = 0;
+            i = this.positions.last();
+            while (i < reason.size()) {
+                q = reason.get(i++);
+                if (this.solver.voc.isFalsified(q)
+                        && this.marks[var(q)] != this.inClause
+                        && this.marks[var(q)] != this.visited) {
+                    this.marks[var(q)] = this.visited;
+                    if (this.solver.voc.getLevel(q) == 0) {
+                        this.hints.push(this.units[q ^ 1]);
+                    } else {
+                        child = q;
+                        break;
+                    }
+                }
+            }
+            if (child != 0) {
+                // the reason of child must be given first
+                this.positions.set(this.positions.size() - 1, i);
+                this.stack.push(child);
+                this.positions.push(0);
+            } else {
+                this.hints.push(id(reason));
+                this.stack.pop();
+                this.positions.pop();
+            }
+        }
+    }
+
+    /**
+     * A clause is learned from the last conflict analysis.
+     * 
+     * @param constr
+     *            the learned clause.
+     */
+    void learned(Constr constr) {
+        int id = add(constr, this.hints);
+        this.ids.put(constr, id);
+        if (constr.size() == 1) {
+            this.units[constr.get(0)] = id;
+        }
+    }
+
+    /**
+     * A conflict occurs at decision level 0: derive the empty clause.
+     * 
+     * @param conflict
+     *            the falsified constraint.
+     */
+    void refute(Constr conflict) {
+        endOfInput();
+        this.literals.clear();
+        for (int i = 0; i < conflict.size(); i++) {
+            this.literals.push(conflict.get(i));
+        }
+        unitsOfFalsifiedLiterals(this.literals, this.hints);
+        this.hints.push(id(conflict));
+        add(null, this.hints);
+        this.refuted = true;
+    }
+
+    /**
+     * A learned constraint is removed from the solver.
+     * 
+     * @param constr
+     *            the removed constraint.
+     */
+    void deleted(Constr constr) {
+        Integer id = this.ids.remove(constr);
+        if (id != null) {
+            this.tracer.delete(id);
+        }
+    }
+
+    void end(Lbool result) {
+        endOfInput();
+        if (result == Lbool.FALSE && !this.refuted) {
+            // unsatisfiable under the assumptions only
+            this.tracer.end(Lbool.UNDEFINED);
+        } else {
+            this.tracer.end(result);
+        }
+    }
+}
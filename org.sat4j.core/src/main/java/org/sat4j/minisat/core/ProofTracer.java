@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.Lbool;
+
+/**
+ * Receives the clausal derivations of the solver, with the information
+ * needed to check each of them efficiently, as in the LRAT format.
+ * 
+ * The clauses are identified by consecutive numbers: the clauses of the input
+ * formula are numbered from 1 in the order they are given to the solver,
+ * then each derived clause gets the next number. Each derived clause is
+ * implied by reverse unit propagation: once all its literals are falsified,
+ * the clauses given as hints become unit in that order, and the last one is
+ * falsified.
+ * 
+ * @author leberre
+ * @see Solver#setProofTracer(ProofTracer)
+ * @since 2.3.6
+ */
+public interface ProofTracer {
+
+    /**
+     * A new clause is derived.
+     * 
+     * @param id
+     *            the identifier of that clause.
+     * @param literals
+     *            the literals of the clause, in Dimacs format. The empty
+     *            clause ends a refutation.
+     * @param hints
+     *            the identifiers of the clauses used to derive it.
+     */
+    void add(int id, IVecInt literals, IVecInt hints);
+
+    /**
+     * A clause is no longer needed.
+     * 
+     * @param id
+     *            the identifier of that clause.
+     */
+    void delete(int id);
+
+    /**
+     * A call to the solver is over.
+     * 
+     * @param result
+     *            {@link Lbool#FALSE} if the empty clause has been derived,
+     *            {@link Lbool#TRUE} if a model has been found,
+     *            {@link Lbool#UNDEFINED} otherwise, including when the
+     *            formula is unsatisfiable under the assumptions only.
+     */
+    void end(Lbool result);
+}
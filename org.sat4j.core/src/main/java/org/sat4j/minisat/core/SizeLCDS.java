@@ -55,7 +55,7 @@ final class SizeLCDS implements LearnedConstraintsDeletionStrategy {
                 learnedConstrs.set(j++, solver.learnts.get(i));
             } else {
                 c.remove(solver);
-                solver.slistener.delete(c);
+                solver.learntDeleted(c);
             }
         }
         if (solver.isVerbose()) {
@@ -86,6 +86,10 @@ final class SizeLCDS implements LearnedConstraintsDeletionStrategy {
 
     }
 
+    public void onClauseImported(Constr imported, int lbd) {
+        // do nothing
+    }
+
     public void onConflictAnalysis(Constr reason) {
         if (reason.learnt()) {
             solver.claBumpActivity(reason);
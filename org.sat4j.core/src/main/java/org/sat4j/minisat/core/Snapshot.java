@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.xor.Xor;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * What the solver learned about a formula, saved in a binary file in order to
+ * warm start another solver on the same formula.
+ * 
+ * The file contains, using big endian numbers:
+ * <ul>
+ * <li>a header: the magic number, the version of the format, the number of
+ * variables and a fingerprint of the original constraints,</li>
+ * <li>the heuristics of each variable, scaled to at most 1,</li>
+ * <li>the phase of each variable: 1 for positive, 2 for negative, 0 if
+ * unknown,</li>
+ * <li>the literals satisfied at decision level 0,</li>
+ * <li>the learned clauses, each one with its activity.</li>
+ * </ul>
+ * Since the learned clauses and the facts are only implied by the formula
+ * they come from, they are only restored if the fingerprint of the original
+ * constraints matches. The fingerprint only identifies clauses, cardinality
+ * and parity constraints: they are never restored for a formula containing
+ * other constraints, such as pseudo boolean ones. The heuristics and the
+ * phases are always restored.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class Snapshot {
+
+    private static final int MAGIC = 0x53344A53;
+
+    private static final int VERSION = 1;
+
+    private static final byte UNKNOWN_PHASE = 0;
+
+    private static final byte POSITIVE_PHASE = 1;
+
+    private static final byte NEGATIVE_PHASE = 2;
+
+    private final int nVars;
+
+    private final long fingerprint;
+
+    private final double[] heuristics;
+
+    private final byte[] phases;
+
+    private final IVecInt units;
+
+    private final ByteBuffer learnts;
+
+    private final int nLearnts;
+
+    private Snapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a snapshot of a SAT4J solver");
+        }
+        this.nVars = buffer.getInt();
+        this.fingerprint = buffer.getLong();
+        this.heuristics = new double[this.nVars + 1];
+        for (int i = 1; i <= this.nVars; i++) {
+            this.heuristics[i] = buffer.getDouble();
+        }
+        this.phases = new byte[this.nVars + 1];
+        buffer.get(this.phases, 1, this.nVars);
+        int nUnits = buffer.getInt();
+        this.units = new VecInt(nUnits);
+        for (int i = 0; i < nUnits; i++) {
+            this.units.push(buffer.getInt());
+        }
+        this.nLearnts = buffer.getInt();
+        // the learned clauses are read from the mapped file when restored
+        this.learnts = buffer.slice();
+    }
+
+    /**
+     * Read a snapshot, mapping the file in memory.
+     * 
+     * @param file
+     *            a snapshot file written by {@link #write(Solver, File)}.
+     * @return the snapshot.
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot.
+     */
+    static Snapshot read(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            try {
+                return new Snapshot(channel.map(FileChannel.MapMode.READ_ONLY,
+                        0, channel.size()));
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot file " + file);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Write a snapshot of the solver.
+     * 
+     * @param solver
+     *            a solver, whose trail is at decision level 0 or contains
+     *            assumptions only.
+     * @param file
+     *            the file to write.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    static void write(Solver<? extends DataStructureFactory> solver,
+            File file) throws IOException {
+        ILits voc = solver.voc;
+        int nVars = voc.nVars();
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nVars);
+            out.writeLong(fingerprint(solver));
+            boolean launched = solver.isLaunched();
+            double[] values = solver.getOrder().getVariableHeuristics();
+            double max = 0.0;
+            for (int i = 1; launched && i < values.length && i <= nVars; i++) {
+                max = Math.max(max, values[i]);
+            }
+            for (int i = 1; i <= nVars; i++) {
+                if (max > 0.0 && i < values.length) {
+                    out.writeDouble(values[i] / max);
+                } else {
+                    out.writeDouble(0.0);
+                }
+            }
+            IPhaseSelectionStrategy phaseStrategy = solver.getOrder()
+                    .getPhaseSelectionStrategy();
+            for (int i = 1; i <= nVars; i++) {
+                if (!launched || !voc.belongsToPool(i)) {
+                    out.writeByte(UNKNOWN_PHASE);
+                } else if ((phaseStrategy.select(i) & 1) == 0) {
+                    out.writeByte(POSITIVE_PHASE);
+                } else {
+                    out.writeByte(NEGATIVE_PHASE);
+                }
+            }
+            IVecInt facts = new VecInt();
+            for (int i = 0; i < solver.trail.size(); i++) {
+                int p = solver.trail.get(i);
+                if (voc.getLevel(p) == 0) {
+                    facts.push(toDimacs(p));
+                }
+            }
+            for (int i = 0; i < solver.learnedLiterals.size(); i++) {
+                int p = solver.learnedLiterals.get(i);
+                if (!voc.isSatisfied(p) || voc.getLevel(p) != 0) {
+                    facts.push(toDimacs(p));
+                }
+            }
+            out.writeInt(facts.size());
+            for (int i = 0; i < facts.size(); i++) {
+                out.writeInt(facts.get(i));
+            }
+            IVec<Constr> learned = solver.getLearnedConstraints();
+            int nClauses = 0;
+            for (int i = 0; i < learned.size(); i++) {
+                if (Solver.isClause(learned.get(i))) {
+                    nClauses++;
+                }
+            }
+            out.writeInt(nClauses);
+            for (int i = 0; i < learned.size(); i++) {
+                Constr c = learned.get(i);
+                if (Solver.isClause(c)) {
+                    out.writeInt(c.size());
+                    out.writeDouble(c.getActivity());
+                    for (int j = 0; j < c.size(); j++) {
+                        out.writeInt(toDimacs(c.get(j)));
+                    }
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * A fingerprint of the original constraints, which does not depend on the
+     * order of the constraints nor on the order of their literals. It takes
+     * into account the degree of cardinality constraints and the parity of
+     * parity constraints.
+     */
+    static long fingerprint(Solver<? extends DataStructureFactory> solver) {
+        long hash = solver.voc.nVars();
+        IVec<Constr> constrs = solver.constrs;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            long h = c.size() * 0x9E3779B97F4A7C15L;
+            if (c.canBeSatisfiedByCountingLiterals()) {
+                h += c.requiredNumberOfSatisfiedLiterals();
+            } else if (c instanceof Xor) {
+                h += ((Xor) c).isEven() ? 0x5851F42D4C957F2DL
+                        : 0x14057B7EF767814FL;
+            }
+            for (int j = 0; j < c.size(); j++) {
+                h += mix(c.get(j));
+            }
+            hash += mix(h);
+        }
+        return hash * 31 + constrs.size();
+    }
+
+    private static long mix(long x) {
+        long z = x * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 31)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 29);
+    }
+
+    /**
+     * @return true iff the fingerprint identifies each original constraint of
+     *         the solver, i.e. they are all clauses, cardinality or parity
+     *         constraints.
+     */
+    static boolean identifiable(Solver<? extends DataStructureFactory> solver) {
+        IVec<Constr> constrs = solver.constrs;
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            if (!c.canBeSatisfiedByCountingLiterals() && !(c instanceof Xor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true iff the snapshot comes from the formula of the solver.
+     */
+    boolean matches(Solver<? extends DataStructureFactory> solver) {
+        return this.nVars == solver.voc.nVars() && identifiable(solver)
+                && this.fingerprint == fingerprint(solver);
+    }
+
+    /**
+     * Give the saved heuristics and phases to the variable order. That
+     * method is supposed to be called after the initialization of the order.
+     */
+    void restoreHeuristics(IOrder order, ILits voc) {
+        int n = Math.min(this.nVars, voc.nVars());
+        double[] values = new double[n + 1];
+        System.arraycopy(this.heuristics, 0, values, 0, n + 1);
+        order.setVariableHeuristics(values);
+        IPhaseSelectionStrategy phaseStrategy = order
+                .getPhaseSelectionStrategy();
+        for (int i = 1; i <= n; i++) {
+            if (this.phases[i] == POSITIVE_PHASE) {
+                phaseStrategy.init(i, i << 1);
+            } else if (this.phases[i] == NEGATIVE_PHASE) {
+                phaseStrategy.init(i, i << 1 ^ 1);
+            }
+        }
+    }
+
+    /**
+     * Add the learned clauses and the facts of the snapshot to the solver.
+     * The facts are propagated at the beginning of the next search.
+     * 
+     * @param solver
+     *            a solver for the formula of the snapshot, at decision level
+     *            0.
+     */
+    void restoreLearnts(Solver<? extends DataStructureFactory> solver) {
+        for (int i = 0; i < this.units.size(); i++) {
+            solver.learnedLiterals.push(solver.voc.getFromPool(this.units
+                    .get(i)));
+        }
+        ByteBuffer buffer = this.learnts.duplicate();
+        IVecInt literals = new VecInt();
+        for (int i = 0; i < this.nLearnts; i++) {
+            int size = buffer.getInt();
+            double activity = buffer.getDouble();
+            literals.clear();
+            for (int j = 0; j < size; j++) {
+                literals.push(solver.voc.getFromPool(buffer.getInt()));
+            }
+            if (size == 1) {
+                solver.learnedLiterals.push(literals.get(0));
+            } else if (size > 1) {
+                Constr c = solver.dsfactory.createUnregisteredClause(literals);
+                c.setLearnt();
+                c.register();
+                c.setActivity(activity);
+                solver.learnts.push(c);
+            }
+        }
+    }
+
+    /**
+     * @return the number of learned clauses in the snapshot.
+     */
+    int nLearnts() {
+        return this.nLearnts;
+    }
+}
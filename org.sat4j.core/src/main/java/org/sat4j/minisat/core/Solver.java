@@ -33,6 +33,8 @@ import static org.sat4j.core.LiteralsUtils.toDimacs;
 import static org.sat4j.core.LiteralsUtils.toInternal;
 import static org.sat4j.core.LiteralsUtils.var;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
@@ -41,6 +43,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -51,9 +54,17 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.sat4j.core.ConstrGroup;
+import org.sat4j.core.FlatClauses;
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.MixedDataStructureDanielWLConciseBinary;
+import org.sat4j.minisat.constraints.cnf.ArenaClause;
+import org.sat4j.minisat.constraints.cnf.BinaryClause;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
+import org.sat4j.minisat.constraints.cnf.UnitClause;
+import org.sat4j.minisat.constraints.cnf.WLClause;
+import org.sat4j.minisat.constraints.xor.GaussianElimination;
 import org.sat4j.minisat.constraints.xor.Xor;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
@@ -65,6 +76,7 @@ import org.sat4j.specs.IVec;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.IteratorInt;
 import org.sat4j.specs.Lbool;
+import org.sat4j.specs.MaskedSearchListener;
 import org.sat4j.specs.Propagatable;
 import org.sat4j.specs.SearchListener;
 import org.sat4j.specs.TimeoutException;
@@ -155,6 +167,13 @@ public class Solver<D extends DataStructureFactory>
 
     protected SearchListener slistener = new VoidTracing();
 
+    /**
+     * The categories of events needed by the search listener, as defined in
+     * {@link MaskedSearchListener}. The events of the other categories are
+     * not notified at all.
+     */
+    protected int eventMask = MaskedSearchListener.NONE;
+
     private RestartStrategy restarter;
 
     private final Map<String, Counter> constrTypes = new HashMap<String, Counter>();
@@ -163,6 +182,97 @@ public class Solver<D extends DataStructureFactory>
 
     final IVecInt learnedLiterals = new VecInt();
 
+    /**
+     * Learned clauses selected by the learned constraints deletion strategy to
+     * be vivified at the next restart.
+     */
+    private Set<Constr> toVivify = Collections
+            .newSetFromMap(new IdentityHashMap<Constr, Boolean>());
+
+    /**
+     * Learned clauses already vivified without success.
+     */
+    private Set<Constr> vivified = Collections
+            .newSetFromMap(new IdentityHashMap<Constr, Boolean>());
+
+    private int vivificationBudget = 0;
+
+    private long propagationsAtLastVivification;
+
+    private final Inprocessor inprocessor = new Inprocessor(this);
+
+    private final LocalSearch localSearch = new LocalSearch(this);
+
+    /**
+     * Gauss-Jordan elimination over the parity constraints.
+     */
+    private final GaussianElimination gauss = new GaussianElimination(
+            this.stats);
+
+    /**
+     * Backjumps of more than that number of levels are replaced by a
+     * chronological backtrack. Disabled by default.
+     */
+    private int chronoBacktrackingThreshold = Integer.MAX_VALUE;
+
+    /**
+     * True iff the literals may be assigned out of order on the trail: the
+     * level of a propagated literal is then the highest level of its reason,
+     * and the literals of the lower levels are kept when backtracking. Set at
+     * the beginning of each call to isSatisfiable() when chronological
+     * backtracking is enabled and supported.
+     */
+    private boolean outOfOrderLevels = false;
+
+    /**
+     * Level of the literal being propagated when the literals may be assigned
+     * out of order, -1 outside of propagation.
+     */
+    private int propagatingLevel = -1;
+
+    private final IVecInt levelReason = new VecInt();
+
+    private final IVecInt keptLiterals = new VecInt();
+
+    private boolean trailReuse = false;
+
+    private boolean assumptionsReuse = true;
+
+    /**
+     * Number of decision levels of assumptions left on the trail by the last
+     * satisfiable call to isSatisfiable(), 0 if the trail was fully cancelled.
+     */
+    private int keptAssumptionLevels;
+
+    /**
+     * Size of the trail before the call that kept its assumption levels
+     * pushed the previously learned literals again.
+     */
+    private int keptLearnedLiteralsLimit;
+
+    /**
+     * Identifiers and hints of the clauses for the proof tracer, null when
+     * no proof is traced.
+     */
+    private Proof proof;
+
+    /**
+     * Heuristics and phases to restore once the variable order is
+     * initialized, null if there is none.
+     */
+    private transient Snapshot warmStart;
+
+    /**
+     * The literals of the original clauses shared with the forks of that
+     * solver, null if it has never been forked.
+     */
+    private transient SolverFork forks;
+
+    /**
+     * Incremented each time the formula or the vocabulary is modified.
+     */
+    private int formulaVersion;
+
     boolean verbose = false;
 
     private boolean keepHot = false;
@@ -186,6 +296,7 @@ public class Solver<D extends DataStructureFactory>
      * @since 2.3.6
      */
     public IVecInt dimacs2internal(IVecInt in) {
+        releaseAssumptionLevels();
         this.__dimacs_out.clear();
         this.__dimacs_out.ensure(in.size());
         int p;
@@ -240,6 +351,11 @@ public class Solver<D extends DataStructureFactory>
      * @see org.sat4j.minisat.core.ICDCL#setDataStructureFactory(D)
      */
     public final void setDataStructureFactory(D dsf) {
+        if (this.proof != null) {
+            checkTraceable(dsf);
+        }
+        releaseAssumptionLevels();
+        this.formulaVersion++;
         this.dsfactory = dsf;
         this.dsfactory.setUnitPropagationListener(this);
         this.dsfactory.setLearner(this);
@@ -271,6 +387,83 @@ public class Solver<D extends DataStructureFactory>
     public <S extends ISolverService> void setSearchListener(
             SearchListener<S> sl) {
         this.slistener = sl;
+        if (sl instanceof MaskedSearchListener<?>) {
+            this.eventMask = ((MaskedSearchListener<S>) sl).getEventMask();
+        } else {
+            this.eventMask = MaskedSearchListener.ALL;
+        }
+    }
+
+    /**
+     * Trace the clausal derivations of the solver with their hints, as needed
+     * for a LRAT proof. The tracer must be set before the first constraint
+     * is added to the solver, since the clauses are identified by their
+     * position in the input. Only clauses can be traced: adding cardinality
+     * or parity constraints is no longer supported, and vivification and
+     * inprocessing are disabled. The data structures storing binary clauses as
+     * implications in the vocabulary are not supported either, since a single
+     * reason stands for all the binary clauses of a literal.
+     * 
+     * @param tracer
+     *            a proof tracer, or null to stop tracing the derivations.
+     * @since 2.3.6
+     */
+    public void setProofTracer(ProofTracer tracer) {
+        if (tracer == null) {
+            this.proof = null;
+            return;
+        }
+        if (!this.constrs.isEmpty() || !this.trail.isEmpty()) {
+            throw new IllegalStateException(
+                    "The proof tracer must be set before adding constraints");
+        }
+        checkTraceable(this.dsfactory);
+        this.proof = new Proof(this, tracer);
+        this.vivificationBudget = 0;
+        this.inprocessor.setBudget(0);
+    }
+
+    /**
+     * @return the current proof tracer, null if no proof is traced.
+     * @since 2.3.6
+     */
+    public ProofTracer getProofTracer() {
+        return this.proof == null ? null : this.proof.getTracer();
+    }
+
+    /**
+     * 
+     * @param c
+     *            a constraint
+     * @return true iff c is a clause.
+     */
+    static boolean isClause(Constr c) {
+        return c.canBeSatisfiedByCountingLiterals()
+                && c.requiredNumberOfSatisfiedLiterals() == 1;
+    }
+
+    /**
+     * A shared clause does not know the vocabulary it is checked against.
+     */
+    private boolean isSatisfied(Constr c) {
+        if (c instanceof SharedWLClause) {
+            return ((SharedWLClause) c).isSatisfied(this.voc);
+        }
+        return c.isSatisfied();
+    }
+
+    private static void checkTraceable(DataStructureFactory dsf) {
+        if (dsf instanceof MixedDataStructureDanielWLConciseBinary) {
+            throw new UnsupportedOperationException(
+                    "Cannot trace a proof with implicit binary clauses");
+        }
+    }
+
+    private void checkNoProof(String what) {
+        if (this.proof != null) {
+            throw new UnsupportedOperationException(
+                    "Cannot trace a proof with " + what);
+        }
     }
 
     /*
@@ -382,7 +575,9 @@ public class Solver<D extends DataStructureFactory>
     }
 
     public void learn(Constr c) {
-        this.slistener.learn(c);
+        if ((this.eventMask & MaskedSearchListener.LEARNING) != 0) {
+            this.slistener.learn(c);
+        }
         this.learnts.push(c);
         c.setLearnt();
         c.register();
@@ -399,12 +594,75 @@ public class Solver<D extends DataStructureFactory>
         }
     }
 
+    /**
+     * Add a clause learned by another solver working on the same formula, as
+     * done in a parallel portfolio. The clause must be implied by the
+     * constraints of the solver. It is expected to be imported between two
+     * searches: a clause satisfied at decision level 0 or containing a literal
+     * assigned above decision level 0 is ignored, the literals falsified at
+     * decision level 0 are removed.
+     * 
+     * @param literals
+     *            the literals of the clause, in Dimacs format.
+     * @param lbd
+     *            the literal block distance of the clause in the solver which
+     *            learned it, given to the learned constraints deletion
+     *            strategy to rank the clause.
+     * @return true iff the clause was added to the learned constraints.
+     * @since 2.3.6
+     */
+    public boolean importLearnt(IVecInt literals, int lbd) {
+        if (this.proof != null) {
+            // the clause cannot be justified in the proof of that solver
+            return false;
+        }
+        IVecInt clause = new VecInt(literals.size());
+        int p;
+        for (int i = 0; i < literals.size(); i++) {
+            p = this.voc.getFromPool(literals.get(i));
+            if (!this.voc.isUnassigned(p)) {
+                if (this.voc.getLevel(p) > 0 || this.voc.isSatisfied(p)) {
+                    return false;
+                }
+            } else {
+                clause.push(p);
+            }
+        }
+        if (clause.size() < 2) {
+            // units are shared by the unit clause provider
+            return false;
+        }
+        Constr c = this.dsfactory.createUnregisteredClause(clause);
+        this.learnts.push(c);
+        c.setLearnt();
+        c.register();
+        this.learnedConstraintsDeletionStrategy.onClauseImported(c, lbd);
+        this.stats.importedClauses++;
+        return true;
+    }
+
+    /**
+     * A learned constraint is removed from the solver.
+     * 
+     * @param c
+     *            the removed constraint.
+     */
+    void learntDeleted(Constr c) {
+        if ((this.eventMask & MaskedSearchListener.LEARNING) != 0) {
+            this.slistener.delete(c);
+        }
+        if (this.proof != null) {
+            this.proof.deleted(c);
+        }
+    }
+
     public final int decisionLevel() {
         return this.trailLim.size();
     }
 
     @Deprecated
     public int newVar() {
+        this.formulaVersion++;
         int index = this.voc.nVars() + 1;
         this.voc.ensurePool(index);
         return index;
@@ -416,6 +674,7 @@ public class Solver<D extends DataStructureFactory>
             throw new IllegalStateException(
                     "Caution, you are making solver's internal var id public with uncontrolled consequences with features requiring internal/hidden variables.");
         }
+        this.formulaVersion++;
         this.voc.ensurePool(howmany);
         this.declaredMaxVarId = howmany;
         return howmany;
@@ -423,16 +682,50 @@ public class Solver<D extends DataStructureFactory>
 
     public IConstr addClause(IVecInt literals) throws ContradictionException {
         IVecInt vlits = dimacs2internal(literals);
+        if (this.proof != null) {
+            return addConstr(this.proof.createClause(vlits));
+        }
         return addConstr(this.dsfactory.createClause(vlits));
     }
 
+    /**
+     * Add an original clause shared with other solvers working on the same
+     * formula, as done by {@link org.sat4j.tools.ManyCore}: the data structure
+     * factory may register that very clause instead of its own copy.
+     * 
+     * @param clause
+     *            a clause of a
+     *            {@link org.sat4j.minisat.constraints.cnf.SharedClauses} group.
+     * @return a reference to the constraint added in the solver
+     * @throws ContradictionException
+     *             iff the clause is trivially unsatisfiable.
+     * @since 2.3.6
+     */
+    public IConstr addSharedClause(SharedWLClause clause)
+            throws ContradictionException {
+        releaseAssumptionLevels();
+        int[] literals = clause.getSharedLiterals();
+        for (int p : literals) {
+            this.voc.getFromPool(toDimacs(p));
+        }
+        if (this.proof != null) {
+            return addConstr(this.proof.createClause(new VecInt(literals
+                    .clone())));
+        }
+        return addConstr(this.dsfactory.createSharedClause(clause));
+    }
+
     public boolean removeConstr(IConstr co) {
         if (co == null) {
             throw new IllegalArgumentException(
                     "Reference to the constraint to remove needed!"); //$NON-NLS-1$
         }
+        checkNoSubstitution();
+        releaseAssumptionLevels();
+        this.formulaVersion++;
         Constr c = (Constr) co;
         c.remove(this);
+        this.gauss.remove(c);
         this.constrs.removeFromLast(c);
         clearLearntClauses();
         String type = c.getClass().getName();
@@ -452,14 +745,36 @@ public class Solver<D extends DataStructureFactory>
             throw new IllegalArgumentException(
                     "Can only remove latest added constraint!!!"); //$NON-NLS-1$
         }
+        checkNoSubstitution();
+        releaseAssumptionLevels();
+        this.formulaVersion++;
         Constr c = (Constr) co;
         c.remove(this);
+        this.gauss.remove(c);
         this.constrs.pop();
         String type = c.getClass().getName();
         this.constrTypes.get(type).dec();
         return true;
     }
 
+    private void checkNoSubstitution() {
+        if (this.inprocessor.hasSubstitutedOriginalConstraints()) {
+            throw new UnsupportedOperationException(
+                    "Cannot remove constraints once equivalent literals have been substituted by inprocessing"); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Update the statistics when an original constraint is removed by
+     * inprocessing.
+     * 
+     * @param c
+     *            a constraint no longer in the constraints of the solver.
+     */
+    void constrRemoved(Constr c) {
+        this.constrTypes.get(c.getClass().getName()).dec();
+    }
+
     public void addAllClauses(IVec<IVecInt> clauses)
             throws ContradictionException {
         for (Iterator<IVecInt> iterator = clauses.iterator(); iterator
@@ -468,6 +783,34 @@ public class Solver<D extends DataStructureFactory>
         }
     }
 
+    /**
+     * Translate each clause directly into the internal vector used by
+     * {@link #addClause(IVecInt)}: no vector is created for the clauses.
+     * 
+     * @since 2.3.6
+     */
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        FlatClauses.checkTerminated(literals, from, to);
+        releaseAssumptionLevels();
+        IVecInt vlits = this.__dimacs_out;
+        vlits.clear();
+        int p;
+        for (int i = from; i < to; i++) {
+            p = literals[i];
+            if (p == 0) {
+                if (this.proof != null) {
+                    addConstr(this.proof.createClause(vlits));
+                } else {
+                    addConstr(this.dsfactory.createClause(vlits));
+                }
+                vlits.clear();
+            } else {
+                vlits.push(this.voc.getFromPool(p));
+            }
+        }
+    }
+
     public IConstr addAtMost(IVecInt literals, int degree)
             throws ContradictionException {
         int n = literals.size();
@@ -480,6 +823,7 @@ public class Solver<D extends DataStructureFactory>
 
     public IConstr addAtLeast(IVecInt literals, int degree)
             throws ContradictionException {
+        checkNoProof("cardinality constraints");
         IVecInt vlits = dimacs2internal(literals);
         return addConstr(
                 this.dsfactory.createCardinalityConstraint(vlits, degree));
@@ -494,8 +838,11 @@ public class Solver<D extends DataStructureFactory>
     }
 
     public IConstr addParity(IVecInt literals, boolean even) {
+        checkNoProof("parity constraints");
         IVecInt vlits = dimacs2internal(literals);
-        return addConstr(Xor.createParityConstraint(vlits, even, voc));
+        Xor xor = new Xor(vlits, even, this.voc);
+        this.gauss.add(xor);
+        return addConstr(xor);
     }
 
     @SuppressWarnings("unchecked")
@@ -558,18 +905,50 @@ public class Solver<D extends DataStructureFactory>
             // conflicting enqueued assignment
             return false;
         }
-        this.slistener.enqueueing(toDimacs(p), from);
+        if ((this.eventMask & MaskedSearchListener.PROPAGATION) != 0) {
+            this.slistener.enqueueing(toDimacs(p), from);
+        }
         // new fact, store it
         this.voc.satisfies(p);
-        this.voc.setLevel(p, decisionLevel());
+        int level = decisionLevel();
+        if (this.outOfOrderLevels && from != null
+                && this.propagatingLevel < level) {
+            // the reason contains the literal being propagated: only a
+            // literal of a lower level may imply literals below the current
+            // decision level
+            level = highestLevel(p, from);
+        }
+        this.voc.setLevel(p, level);
         this.voc.setReason(p, from);
         this.trail.push(p);
+        if (this.proof != null && level == 0) {
+            this.proof.unit(p, from);
+        }
         if (from != null && from.learnt()) {
             this.learnedConstraintsDeletionStrategy.onPropagation(from);
         }
         return true;
     }
 
+    /**
+     * @param p
+     *            the literal propagated by the constraint, or
+     *            {@link ILits#UNDEFINED} if the constraint is conflicting.
+     * @param constr
+     *            a propagating or conflicting constraint.
+     * @return the highest level of the falsified literals of the constraint.
+     */
+    private int highestLevel(int p, Constr constr) {
+        final IVecInt reason = this.levelReason;
+        reason.clear();
+        constr.calcReason(p, reason);
+        int level = 0;
+        for (int i = 0; i < reason.size(); i++) {
+            level = Math.max(level, this.voc.getLevel(reason.get(i)));
+        }
+        return level;
+    }
+
     private boolean[] mseen = new boolean[0];
 
     private final IVecInt mpreason = new VecInt();
@@ -595,11 +974,15 @@ public class Solver<D extends DataStructureFactory>
 
         int counter = 0;
         int p = ILits.UNDEFINED;
+        int index = this.trail.size();
 
         outLearnt.push(ILits.UNDEFINED);
         // reserve de la place pour le litteral falsifie
         int outBtlevel = 0;
         IConstr prevConfl = null;
+        if (this.proof != null) {
+            this.proof.analyzing();
+        }
 
         do {
             preason.clear();
@@ -608,6 +991,9 @@ public class Solver<D extends DataStructureFactory>
                 confl.calcReason(p, preason);
                 this.learnedConstraintsDeletionStrategy
                         .onConflictAnalysis(confl);
+                if (this.proof != null) {
+                    this.proof.antecedent(confl);
+                }
                 // Trace reason for p
                 for (int j = 0; j < preason.size(); j++) {
                     int q = preason.get(j);
@@ -630,17 +1016,30 @@ public class Solver<D extends DataStructureFactory>
             }
             prevConfl = confl;
             // select next reason to look at
-            do {
-                p = this.trail.last();
-                confl = this.voc.getReason(p);
-                undoOne();
-            } while (!seen[p >> 1]);
+            if (this.outOfOrderLevels) {
+                // literals of lower levels may lie on top of the trail: they
+                // are skipped, and kept until the backjump
+                do {
+                    p = this.trail.get(--index);
+                    confl = this.voc.getReason(p);
+                } while (!seen[p >> 1]
+                        || this.voc.getLevel(p) != decisionLevel());
+            } else {
+                do {
+                    p = this.trail.last();
+                    confl = this.voc.getReason(p);
+                    undoOne();
+                } while (!seen[p >> 1]);
+            }
             // seen[p.var] indique que p se trouve dans outLearnt ou dans
             // le dernier niveau de d?cision
         } while (--counter > 0);
 
         outLearnt.set(0, p ^ 1);
         this.simplifier.simplify(outLearnt);
+        if (this.proof != null) {
+            this.proof.analyzed(outLearnt);
+        }
 
         Constr c = this.dsfactory.createUnregisteredClause(outLearnt);
         this.learnedConstraintsDeletionStrategy.onClauseLearning(c);
@@ -990,8 +1389,13 @@ public class Solver<D extends DataStructureFactory>
             assert this.voc.getReason(q) != null;
             Constr c = this.voc.getReason(q);
             this.analyzestack.pop();
-            for (int i = 1; i < c.size(); i++) {
+            // the propagated literal is not always the first one, e.g. in
+            // binary clauses
+            for (int i = 0; i < c.size(); i++) {
                 int l = c.get(i);
+                if (l == (q ^ 1)) {
+                    continue;
+                }
                 if (!seen[var(l)] && this.voc.getLevel(l) != 0) {
                     if (this.voc.getReason(l) == null) {
                         for (int j = top; j < this.analyzetoclear.size(); j++) {
@@ -1067,7 +1471,7 @@ public class Solver<D extends DataStructureFactory>
         this.claInc *= CLAUSE_RESCALE_FACTOR;
     }
 
-    final IVec<Propagatable> watched = new Vec<Propagatable>();
+    final WatchList watched = new WatchList();
 
     /**
      * @return null if not conflict is found, else a conflicting constraint.
@@ -1077,18 +1481,52 @@ public class Solver<D extends DataStructureFactory>
         SolverStats lstats = this.stats;
         IOrder lorder = this.order;
         SearchListener lslistener = this.slistener;
+        boolean propagationEvents = (this.eventMask
+                & MaskedSearchListener.PROPAGATION) != 0;
+        boolean levels = this.outOfOrderLevels;
         // ltrail.size() changes due to propagation
         // cannot cache that value.
         while (this.qhead < ltrail.size()) {
             lstats.propagations++;
             int p = ltrail.get(this.qhead++);
-            lslistener.propagating(toDimacs(p));
+            if (propagationEvents) {
+                lslistener.propagating(toDimacs(p));
+            }
+            if (levels) {
+                this.propagatingLevel = this.voc.getLevel(p);
+            }
             lorder.assignLiteral(p);
-            Constr confl = reduceClausesContainingTheNegationOf(p);
+            Constr confl = propagateBinaryImplications(p);
+            if (confl == null) {
+                confl = reduceClausesContainingTheNegationOf(p);
+            }
             if (confl != null) {
+                this.propagatingLevel = -1;
                 return confl;
             }
         }
+        this.propagatingLevel = -1;
+        return null;
+    }
+
+    private Constr propagateBinaryImplications(int p) {
+        // binary clauses stored as implications are propagated first,
+        // without looking at any constraint.
+        final BinaryImplications implications = this.voc
+                .binaryImplications(p);
+        final int size = implications.nbImplied;
+        if (size == 0) {
+            return null;
+        }
+        this.stats.binaryInspects += size;
+        final int[] implied = implications.implied;
+        for (int i = 0; i < size; i++) {
+            if (!enqueue(implied[i], implications)) {
+                implications.conflictsWith(implied[i]);
+                this.qhead = this.trail.size();
+                return implications;
+            }
+        }
         return null;
     }
 
@@ -1097,27 +1535,27 @@ public class Solver<D extends DataStructureFactory>
         // Moved original MiniSAT code to dsfactory to avoid
         // watches manipulation in counter Based clauses for instance.
         assert p > 1;
-        IVec<Propagatable> lwatched = this.watched;
+        final WatchList lwatched = this.watched;
         lwatched.clear();
         this.voc.watches(p).moveTo(lwatched);
         final int size = lwatched.size();
+        int blocker;
         for (int i = 0; i < size; i++) {
-            this.stats.inspects++;
             // try shortcut
-            // shortcut = shortcuts.get(i);
-            // if (shortcut != ILits.UNDEFINED && voc.isSatisfied(shortcut))
-            // {
-            // voc.watch(p, watched.get(i), shortcut);
-            // stats.shortcuts++;
-            // continue;
-            // }
+            blocker = lwatched.blocker(i);
+            if (blocker != ILits.UNDEFINED && this.voc.isSatisfied(blocker)) {
+                this.voc.watch(p, lwatched.get(i), blocker);
+                this.stats.shortcuts++;
+                continue;
+            }
+            this.stats.inspects++;
             if (!lwatched.get(i).propagate(this, p)) {
                 // Constraint is conflicting: copy remaining watches to
                 // watches[p]
                 // and return constraint
                 final int sizew = lwatched.size();
                 for (int j = i + 1; j < sizew; j++) {
-                    this.voc.watch(p, lwatched.get(j));
+                    this.voc.watch(p, lwatched.get(j), lwatched.blocker(j));
                 }
                 this.qhead = this.trail.size(); // propQ.clear();
                 return lwatched.get(i).toConstraint();
@@ -1127,12 +1565,21 @@ public class Solver<D extends DataStructureFactory>
     }
 
     void record(Constr constr) {
+        if (this.proof != null) {
+            // the clause must be known before it propagates
+            this.proof.learned(constr);
+        }
         constr.assertConstraint(this);
-        int p = toDimacs(constr.get(0));
-        this.slistener.adding(p);
+        boolean learningEvents = (this.eventMask
+                & MaskedSearchListener.LEARNING) != 0;
+        if (learningEvents) {
+            this.slistener.adding(toDimacs(constr.get(0)));
+        }
         if (constr.size() == 1) {
             this.stats.learnedliterals++;
-            this.slistener.learnUnit(p);
+            if (learningEvents) {
+                this.slistener.learnUnit(toDimacs(constr.get(0)));
+            }
         } else {
             this.learner.learns(constr);
         }
@@ -1154,9 +1601,15 @@ public class Solver<D extends DataStructureFactory>
      * Revert to the state before the last assume()
      */
     void cancel() {
+        if (this.outOfOrderLevels) {
+            cancelKeepingLowerLevels(decisionLevel() - 1);
+            return;
+        }
         // assert trail.size() == qhead || !undertimeout;
-        int decisionvar = this.trail.unsafeGet(this.trailLim.last());
-        this.slistener.backtracking(toDimacs(decisionvar));
+        if ((this.eventMask & MaskedSearchListener.DECISIONS) != 0) {
+            int decisionvar = this.trail.unsafeGet(this.trailLim.last());
+            this.slistener.backtracking(toDimacs(decisionvar));
+        }
         for (int c = this.trail.size() - this.trailLim.last(); c > 0; c--) {
             undoOne();
         }
@@ -1184,11 +1637,52 @@ public class Solver<D extends DataStructureFactory>
      * @param level
      */
     protected void cancelUntil(int level) {
+        if (this.outOfOrderLevels) {
+            if (decisionLevel() > level) {
+                cancelKeepingLowerLevels(level);
+            }
+            return;
+        }
         while (decisionLevel() > level) {
             cancel();
         }
     }
 
+    /**
+     * Cancel several levels of assumptions when the literals may be assigned
+     * out of order: the literals of the levels above are undone, those
+     * assigned at a lower level are kept, in the same order, and propagated
+     * again.
+     * 
+     * @param level
+     *            the decision level to backtrack to.
+     */
+    private void cancelKeepingLowerLevels(int level) {
+        final int start = this.trailLim.get(level);
+        if ((this.eventMask & MaskedSearchListener.DECISIONS) != 0) {
+            for (int i = decisionLevel() - 1; i >= level; i--) {
+                this.slistener.backtracking(
+                        toDimacs(this.trail.get(this.trailLim.get(i))));
+            }
+        }
+        final IVecInt kept = this.keptLiterals;
+        kept.clear();
+        while (this.trail.size() > start) {
+            int p = this.trail.last();
+            if (this.voc.getLevel(p) <= level) {
+                kept.push(p);
+                this.trail.pop();
+            } else {
+                undoOne();
+            }
+        }
+        this.trailLim.shrinkTo(level);
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            this.trail.push(kept.get(i));
+        }
+        this.qhead = start;
+    }
+
     protected void cancelUntilTrailLevel(int level) {
         while (!trail.isEmpty() && trail.size() > level) {
             undoOne();
@@ -1210,12 +1704,45 @@ public class Solver<D extends DataStructureFactory>
         this.stats.starts++;
         int backjumpLevel;
 
+        if (this.rootLevel == 0 && decisionLevel() == 0
+                && this.qhead == this.trail.size()) {
+            if (!this.inprocessor.inprocess()) {
+                // inconsistency found at root level
+                this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
+                        null, assumps, ILits.UNDEFINED);
+                return Lbool.FALSE;
+            }
+            if (!this.toVivify.isEmpty()) {
+                vivifyLearnedClauses();
+            }
+        }
+        if (this.qhead == this.trail.size() && this.localSearch.isDue()
+                && this.localSearch.search()) {
+            // the assignment found by local search is a model: follow it
+            for (int v = 1; v <= this.voc.nVars(); v++) {
+                int p = this.localSearch.literal(v);
+                if (this.voc.belongsToPool(v) && this.voc.isUnassigned(p)) {
+                    assume(p);
+                    if (propagate() != null) {
+                        cancelUntil(this.rootLevel);
+                        break;
+                    }
+                }
+            }
+        }
+
         // varDecay = 1 / params.varDecay;
         this.order.setVarDecay(1 / this.params.getVarDecay());
         this.claDecay = 1 / this.params.getClaDecay();
 
+        boolean decisionEvents = (this.eventMask
+                & MaskedSearchListener.DECISIONS) != 0;
+        boolean conflictEvents = (this.eventMask
+                & MaskedSearchListener.CONFLICTS) != 0;
         do {
-            this.slistener.beginLoop();
+            if (decisionEvents) {
+                this.slistener.beginLoop();
+            }
             // propagate unit clauses and other constraints
             Constr confl = propagate();
             assert this.trail.size() == this.qhead;
@@ -1253,6 +1780,19 @@ public class Solver<D extends DataStructureFactory>
                     }
                 } else {
                     if (this.restarter.shouldRestart()) {
+                        int level = reusableTrailLevel();
+                        if (level > this.rootLevel) {
+                            // partial restart, the decisions up to level
+                            // would be made again
+                            this.stats.partialRestarts++;
+                            cancelUntil(level);
+                            this.stats.reusedTrailLiterals += this.trail.size()
+                                    - this.trailLim.get(this.rootLevel);
+                            this.stats.starts++;
+                            this.restarter.onRestart();
+                            this.slistener.restarting();
+                            continue;
+                        }
                         cancelUntil(this.rootLevel);
                         return Lbool.UNDEFINED;
                     }
@@ -1269,7 +1809,7 @@ public class Solver<D extends DataStructureFactory>
                             // satisfied
                             boolean allsat = true;
                             for (int i = 0; i < this.constrs.size(); i++) {
-                                if (!this.constrs.get(i).isSatisfied()) {
+                                if (!isSatisfied(this.constrs.get(i))) {
                                     allsat = false;
                                     break;
                                 }
@@ -1287,7 +1827,9 @@ public class Solver<D extends DataStructureFactory>
                             }
                         } else {
                             assert p > 1;
-                            this.slistener.assuming(toDimacs(p));
+                            if (decisionEvents) {
+                                this.slistener.assuming(toDimacs(p));
+                            }
                             boolean ret = assume(p);
                             assert ret;
                         }
@@ -1298,15 +1840,35 @@ public class Solver<D extends DataStructureFactory>
                 }
             }
             if (confl != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // cooperative cancellation, e.g. of the solvers losing
+                    // the race in a parallel portfolio
+                    this.undertimeout = false;
+                    return Lbool.UNDEFINED;
+                }
                 // conflict found
                 this.stats.conflicts++;
-                this.slistener.conflictFound(confl, decisionLevel(),
-                        this.trail.size());
+                if (conflictEvents) {
+                    this.slistener.conflictFound(confl, decisionLevel(),
+                            this.trail.size());
+                }
                 this.conflictCount.newConflict();
 
+                if (this.outOfOrderLevels) {
+                    // the conflict may only involve literals of lower levels
+                    int conflictLevel = Math.max(
+                            highestLevel(ILits.UNDEFINED, confl),
+                            this.rootLevel);
+                    if (conflictLevel < decisionLevel()) {
+                        cancelUntil(conflictLevel);
+                    }
+                }
                 if (decisionLevel() == this.rootLevel) {
                     if (this.lastConflictMeansUnsat) {
                         // conflict at root level, the formula is inconsistent
+                        if (this.proof != null && this.rootLevel == 0) {
+                            this.proof.refute(confl);
+                        }
                         this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
                                 confl, assumps, ILits.UNDEFINED);
                         return Lbool.FALSE;
@@ -1325,7 +1887,16 @@ public class Solver<D extends DataStructureFactory>
                 backjumpLevel = Math.max(
                         this.analysisResult.getBacktrackLevel(),
                         this.rootLevel);
-                this.slistener.backjump(backjumpLevel);
+                if (this.outOfOrderLevels && decisionLevel()
+                        - backjumpLevel > this.chronoBacktrackingThreshold) {
+                    // keep the trail, the asserting literal is assigned at
+                    // its assertion level on top of it
+                    backjumpLevel = decisionLevel() - 1;
+                    this.stats.chronoBacktracks++;
+                }
+                if (conflictEvents) {
+                    this.slistener.backjump(backjumpLevel);
+                }
                 cancelUntil(backjumpLevel);
                 if (backjumpLevel == this.rootLevel) {
                     this.restarter.onBackjumpToRootLevel();
@@ -1346,6 +1917,35 @@ public class Solver<D extends DataStructureFactory>
         return Lbool.UNDEFINED; // timeout occured
     }
 
+    /**
+     * Compute the decision level up to which the decisions would be made
+     * again after a restart: the decision variables of those levels are
+     * preferred by the heuristics to the next variable to branch on.
+     * 
+     * @return a decision level between the root level and the current
+     *         decision level.
+     */
+    private int reusableTrailLevel() {
+        if (!this.trailReuse
+                || this.unitClauseProvider != UnitClauseProvider.VOID
+                || !this.toVivify.isEmpty() || this.inprocessor.isDue()
+                || this.localSearch.isDue()) {
+            // something has to be done at the root level
+            return this.rootLevel;
+        }
+        int next = this.order.peek();
+        if (next == ILits.UNDEFINED) {
+            return this.rootLevel;
+        }
+        double activity = this.order.varActivity(next << 1);
+        int level = this.rootLevel;
+        while (level < decisionLevel() && this.order.varActivity(
+                this.trail.get(this.trailLim.get(level))) > activity) {
+            level++;
+        }
+        return level;
+    }
+
     private Constr preventTheSameDecisionsToBeMade() {
         IVecInt clause = new VecInt(nVars());
         int p;
@@ -1445,6 +2045,7 @@ public class Solver<D extends DataStructureFactory>
     protected int[] prime;
 
     public int[] primeImplicant() {
+        releaseAssumptionLevels();
         String primeApproach = System.getProperty("prime");
         PrimeImplicantStrategy strategy;
         if ("OLD".equals(primeApproach)) {
@@ -1484,12 +2085,15 @@ public class Solver<D extends DataStructureFactory>
     }
 
     public void clearLearntClauses() {
+        releaseAssumptionLevels();
         for (Iterator<Constr> iterator = this.learnts.iterator(); iterator
                 .hasNext();) {
             iterator.next().remove(this);
         }
         this.learnts.clear();
         this.learnedLiterals.clear();
+        this.toVivify.clear();
+        this.vivified.clear();
     }
 
     protected final void reduceDB() {
@@ -1498,28 +2102,367 @@ public class Solver<D extends DataStructureFactory>
         this.learnedConstraintsDeletionStrategy.reduce(this.learnts);
     }
 
-    protected void sortOnActivity() {
-        this.learnts.sort(this.comparator);
-    }
-
     /**
+     * Ask the solver to vivify some learned clauses at the next restart.
+     * Called by the learned constraints deletion strategies on the learned
+     * clauses they consider the best ones.
      * 
-     */
-    protected void decayActivities() {
-        this.order.varDecayActivity();
-        claDecayActivity();
+     * @param learnedConstrs
+     *            the learned constraints
+     * @param from
+     *            index of the first constraint to vivify
+     * @param to
+     *            index of the last constraint to vivify (excluded)
+     */
+    void vivifyAtNextRestart(IVec<Constr> learnedConstrs, int from, int to) {
+        if (this.vivificationBudget > 0) {
+            for (int i = from; i < to; i++) {
+                this.toVivify.add(learnedConstrs.get(i));
+            }
+        }
     }
 
     /**
-     * 
-     */
-    private void claDecayActivity() {
-        this.claInc *= this.claDecay;
+     * Vivification of the selected learned clauses: the negation of the
+     * literals of each clause are propagated one by one at decision level 0.
+     * If a conflict occurs or a literal of the clause is propagated before
+     * all of them are assigned, the remaining literals can be removed from
+     * the clause. The number of propagations is limited to a percentage of the
+     * propagations performed by the search since the previous vivification.
+     */
+    private void vivifyLearnedClauses() {
+        long before = this.stats.propagations;
+        long budget = before + (before - this.propagationsAtLastVivification)
+                * this.vivificationBudget / 100;
+        Set<Constr> unchanged = Collections
+                .newSetFromMap(new IdentityHashMap<Constr, Boolean>());
+        IVecInt literals = new VecInt();
+        boolean unit = false;
+        for (int i = 0; i < this.learnts.size() && !unit
+                && this.stats.propagations < budget; i++) {
+            Constr c = this.learnts.get(i);
+            if (!this.toVivify.contains(c)) {
+                continue;
+            }
+            if (this.vivified.contains(c) || c.size() <= 2
+                    || !c.canBeSatisfiedByCountingLiterals()
+                    || c.requiredNumberOfSatisfiedLiterals() != 1
+                    || !vivify(c, literals)) {
+                unchanged.add(c);
+                continue;
+            }
+            this.stats.vivifiedClauses++;
+            this.stats.vivifiedLiterals += c.size() - literals.size();
+            if (literals.size() == 1) {
+                // the clause is replaced by a fact, no need to vivify further
+                // before propagating it.
+                int p = literals.get(0);
+                if ((this.eventMask & MaskedSearchListener.LEARNING) != 0) {
+                    this.slistener.learnUnit(toDimacs(p));
+                }
+                c.remove(this);
+                learntDeleted(c);
+                this.learnts.remove(c);
+                this.stats.learnedliterals++;
+                enqueue(p);
+                unit = true;
+            } else {
+                Constr shorter = this.dsfactory
+                        .createUnregisteredClause(literals);
+                shorter.setLearnt();
+                shorter.register();
+                shorter.setActivity(c.getActivity());
+                if ((this.eventMask & MaskedSearchListener.LEARNING) != 0) {
+                    this.slistener.learn(shorter);
+                }
+                c.remove(this);
+                learntDeleted(c);
+                this.learnts.set(i, shorter);
+            }
+        }
+        this.toVivify.clear();
+        this.vivified = unchanged;
+        this.stats.vivificationPropagations += this.stats.propagations - before;
+        this.propagationsAtLastVivification = this.stats.propagations;
     }
 
     /**
-     * @return true iff the set of constraints is satisfiable, else false.
-     */
+     * Vivify a single clause.
+     * 
+     * @param c
+     *            a learned clause, not satisfied at decision level 0.
+     * @param outLiterals
+     *            the literals of the shortened clause.
+     * @return true iff the clause can be shortened.
+     */
+    private boolean vivify(Constr c, IVecInt outLiterals) {
+        assert decisionLevel() == 0;
+        for (int i = 0; i < c.size(); i++) {
+            if (this.voc.isSatisfied(c.get(i))) {
+                // satisfied at decision level 0
+                return false;
+            }
+        }
+        // the literals are copied because their order in the clause changes
+        // during propagation
+        IVecInt literals = new VecInt(c.size());
+        for (int i = 0; i < c.size(); i++) {
+            literals.push(c.get(i));
+        }
+        outLiterals.clear();
+        for (int i = 0; i < literals.size(); i++) {
+            int p = literals.get(i);
+            if (this.voc.isFalsified(p)) {
+                continue;
+            }
+            outLiterals.push(p);
+            if (this.voc.isSatisfied(p) || i == literals.size() - 1) {
+                break;
+            }
+            assume(p ^ 1);
+            if (propagate() != null) {
+                break;
+            }
+        }
+        cancelUntil(0);
+        return outLiterals.size() < literals.size();
+    }
+
+    /**
+     * Set the effort spent in vivifying the learned clauses, as a percentage
+     * of the propagations performed during search. Vivification is disabled
+     * by default.
+     * 
+     * @param percent
+     *            a percentage of propagations, 0 to disable vivification.
+     * @since 2.3.6
+     */
+    public void setVivificationBudget(int percent) {
+        this.vivificationBudget = percent;
+    }
+
+    /**
+     * @return the percentage of propagations devoted to learned clauses
+     *         vivification.
+     * @since 2.3.6
+     */
+    public int getVivificationBudget() {
+        return this.vivificationBudget;
+    }
+
+    /**
+     * Set the effort spent in inprocessing (failed literal probing and
+     * equivalent literal substitution), as a percentage of the propagations
+     * performed during search. Inprocessing is disabled by default.
+     * 
+     * Note that once equivalent literals have been substituted in the
+     * original constraints, those constraints can no longer be removed from
+     * the solver.
+     * 
+     * @param percent
+     *            a percentage of propagations, 0 to disable inprocessing.
+     * @since 2.3.6
+     */
+    public void setInprocessingBudget(int percent) {
+        this.inprocessor.setBudget(percent);
+    }
+
+    /**
+     * @return the percentage of propagations devoted to inprocessing.
+     * @since 2.3.6
+     */
+    public int getInprocessingBudget() {
+        return this.inprocessor.getBudget();
+    }
+
+    /**
+     * Run a stochastic local search on the original clauses before the first
+     * search and then from time to time between restarts. The best
+     * assignment found is used to set the phases of the variables, and
+     * directly as a model when it satisfies all the clauses. The local search
+     * is not performed when the solver contains constraints which are not
+     * clauses. Disabled by default.
+     * 
+     * @param flips
+     *            the number of flips of each local search round, 0 to disable
+     *            local search.
+     * @since 2.3.6
+     */
+    public void setLocalSearchFlips(int flips) {
+        if (flips < 0) {
+            throw new IllegalArgumentException(
+                    "The number of flips must be positive: " + flips);
+        }
+        this.localSearch.setFlips(flips);
+    }
+
+    /**
+     * @return the number of flips of each local search round.
+     * @since 2.3.6
+     */
+    public int getLocalSearchFlips() {
+        return this.localSearch.getFlips();
+    }
+
+    /**
+     * Set the maximum size of the matrices used to propagate the parity
+     * constraints. The sets of parity constraints sharing variables which do
+     * not fit in a matrix are propagated one constraint at a time.
+     * 
+     * @param words
+     *            the number of rows times the number of 64 bits words of a
+     *            row, 0 to propagate each parity constraint on its own.
+     * @since 2.3.6
+     */
+    public void setMaxXorMatrixWords(int words) {
+        this.gauss.setMaxMatrixWords(words);
+    }
+
+    /**
+     * @return the maximum size of the matrices used to propagate the parity
+     *         constraints.
+     * @since 2.3.6
+     */
+    public int getMaxXorMatrixWords() {
+        return this.gauss.getMaxMatrixWords();
+    }
+
+    /**
+     * Backtrack chronologically, i.e. only undo the last decision level,
+     * when the backjump level computed by conflict analysis is more than
+     * threshold levels below the current decision level. The asserting
+     * literal of the learned clause is still assigned at its assertion level,
+     * on top of the trail: each propagated literal gets the highest level of
+     * its reason, the literals of the lower levels are kept when backtracking
+     * and conflicts are analyzed at the highest level of the conflicting
+     * constraint.
+     * 
+     * Chronological backtracking is disabled by default. It is only used when
+     * all the constraints are clauses watched by two literals, and never by
+     * the pseudo-boolean solvers: the solver backjumps as usual otherwise.
+     * 
+     * @param threshold
+     *            the maximal number of decision levels to backjump, 0 to
+     *            always backtrack chronologically, {@link Integer#MAX_VALUE}
+     *            to disable chronological backtracking.
+     * @since 2.3.6
+     */
+    public void setChronologicalBacktrackingThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException(
+                    "The threshold must be positive: " + threshold);
+        }
+        this.chronoBacktrackingThreshold = threshold;
+    }
+
+    /**
+     * Keep the part of the trail that would be reproduced by the heuristics
+     * when restarting: the solver only backtracks to the first decision
+     * level whose decision variable is not preferred to the next variable to
+     * branch on. Disabled by default.
+     * 
+     * @param trailReuse
+     *            true to perform partial restarts.
+     * @since 2.3.6
+     */
+    public void setTrailReuse(boolean trailReuse) {
+        this.trailReuse = trailReuse;
+    }
+
+    /**
+     * Keep the decision levels of the assumptions on the trail once a model
+     * is found: the next call to {@link #isSatisfiable(IVecInt)} only
+     * backtracks to the first level whose assumption is no longer part of
+     * the new assumptions, instead of propagating them all again. The kept
+     * levels are cancelled as soon as the formula is modified. Enabled by
+     * default.
+     * 
+     * @param assumptionsReuse
+     *            true to reuse the assumptions shared by consecutive calls.
+     * @since 2.3.6
+     */
+    public void setAssumptionsReuse(boolean assumptionsReuse) {
+        this.assumptionsReuse = assumptionsReuse;
+        if (!assumptionsReuse) {
+            releaseAssumptionLevels();
+        }
+    }
+
+    /**
+     * @return true iff the assumptions shared by consecutive calls are not
+     *         propagated again.
+     * @since 2.3.6
+     */
+    public boolean isAssumptionsReuse() {
+        return this.assumptionsReuse;
+    }
+
+    /**
+     * @return true iff the solver performs partial restarts.
+     * @since 2.3.6
+     */
+    public boolean isTrailReuse() {
+        return this.trailReuse;
+    }
+
+    /**
+     * @return the maximal number of decision levels the solver backjumps
+     *         before using chronological backtracking.
+     * @since 2.3.6
+     */
+    public int getChronologicalBacktrackingThreshold() {
+        return this.chronoBacktrackingThreshold;
+    }
+
+    /**
+     * Chronological backtracking keeps the literals of the lower levels on
+     * the trail and propagates them again: only the clauses watched by two
+     * literals support that. Conflict analysis must also take into account
+     * that the levels are not monotone along the trail.
+     * 
+     * @return true iff the solver can backtrack chronologically on the current
+     *         formula.
+     * @since 2.3.6
+     */
+    protected boolean supportsChronologicalBacktracking() {
+        return watchedClausesOnly(this.constrs)
+                && watchedClausesOnly(this.learnts);
+    }
+
+    private static boolean watchedClausesOnly(IVec<Constr> constrs) {
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr c = constrs.get(i);
+            if (!(c instanceof WLClause || c instanceof SharedWLClause
+                    || c instanceof ArenaClause || c instanceof BinaryClause
+                    || c instanceof UnitClause)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected void sortOnActivity() {
+        this.learnts.sort(this.comparator);
+    }
+
+    /**
+     * 
+     */
+    protected void decayActivities() {
+        this.order.varDecayActivity();
+        claDecayActivity();
+    }
+
+    /**
+     * 
+     */
+    private void claDecayActivity() {
+        this.claInc *= this.claDecay;
+    }
+
+    /**
+     * @return true iff the set of constraints is satisfiable, else false.
+     */
     public boolean isSatisfiable() throws TimeoutException {
         return isSatisfiable(VecInt.EMPTY);
     }
@@ -1594,6 +2537,10 @@ public class Solver<D extends DataStructureFactory>
 
             }
 
+            public void onClauseImported(Constr imported, int lbd) {
+                // do nothing
+            }
+
             @Override
             public String toString() {
                 return "Fixed size (" + maxsize
@@ -1649,6 +2596,12 @@ public class Solver<D extends DataStructureFactory>
     public final LearnedConstraintsDeletionStrategy size_based = new SizeLCDS(
             this, this.lbdTimer);
 
+    /**
+     * @since 2.3.6
+     */
+    public final LearnedConstraintsDeletionStrategy tier_based = new ThreeTierLCDS(
+            this, this.lbdTimer);
+
     protected LearnedConstraintsDeletionStrategy learnedConstraintsDeletionStrategy = this.lbd_based;
 
     /*
@@ -1675,6 +2628,10 @@ public class Solver<D extends DataStructureFactory>
             throws TimeoutException {
         Lbool status = Lbool.UNDEFINED;
         boolean alreadylaunched = this.conflictCount != null;
+        this.outOfOrderLevels = false;
+        if (this.chronoBacktrackingThreshold < Integer.MAX_VALUE) {
+            this.outOfOrderLevels = supportsChronologicalBacktracking();
+        }
         final int howmany = this.voc.nVars();
         if (this.mseen.length <= howmany) {
             this.mseen = new boolean[howmany + 1];
@@ -1701,38 +2658,42 @@ public class Solver<D extends DataStructureFactory>
         if (!alreadylaunched || !this.keepHot) {
             this.order.init();
         }
+        if (this.warmStart != null) {
+            this.warmStart.restoreHeuristics(this.order, this.voc);
+            this.warmStart = null;
+        }
         this.learnedConstraintsDeletionStrategy.init();
-        int learnedLiteralsLimit = this.trail.size();
-
-        // Fix for Bug SAT37
-        this.qhead = 0;
-        // Apply undos on unit literals because they are getting propagated
-        // again now that qhead is 0.
-        for (int i = learnedLiteralsLimit - 1; i >= 0; i--) {
-            int p = this.trail.get(i);
-            IVec<Undoable> undos = this.voc.undos(p);
-            assert undos != null;
-            for (int size = undos.size(); size > 0; size--) {
-                undos.last().undo(p);
-                undos.pop();
+        int learnedLiteralsLimit;
+        Constr confl = null;
+        int reused = reusableAssumptionLevels(localAssumps);
+        if (reused > 0) {
+            // the formula did not change since the previous call: only the
+            // assumptions that differ have to be propagated
+            learnedLiteralsLimit = this.keptLearnedLiteralsLimit;
+            this.keptAssumptionLevels = 0;
+            cancelUntil(reused);
+            this.stats.reusedAssumptionLevels += reused;
+            this.stats.reusedAssumptionLiterals += this.trail.size()
+                    - this.trailLim.get(0);
+        } else {
+            releaseAssumptionLevels();
+            learnedLiteralsLimit = this.trail.size();
+            confl = propagateRootLevel();
+            if (confl != null) {
+                analyzeAtRootLevel(confl);
+                if ((this.eventMask & MaskedSearchListener.CONFLICTS) != 0) {
+                    this.slistener.conflictFound(confl, 0, 0);
+                }
+                if (this.proof != null) {
+                    this.proof.refute(confl);
+                    this.proof.end(Lbool.FALSE);
+                }
+                this.slistener.end(Lbool.FALSE);
+                cancelUntil(0);
+                cancelLearntLiterals(learnedLiteralsLimit);
+                return false;
             }
         }
-        // push previously learned literals
-        for (IteratorInt iterator = this.learnedLiterals.iterator(); iterator
-                .hasNext();) {
-            enqueue(iterator.next());
-        }
-
-        // propagate constraints
-        Constr confl = propagate();
-        if (confl != null) {
-            analyzeAtRootLevel(confl);
-            this.slistener.conflictFound(confl, 0, 0);
-            this.slistener.end(Lbool.FALSE);
-            cancelUntil(0);
-            cancelLearntLiterals(learnedLiteralsLimit);
-            return false;
-        }
 
         // push incremental assumptions
         for (IteratorInt iterator = localAssumps.iterator(); iterator
@@ -1740,18 +2701,26 @@ public class Solver<D extends DataStructureFactory>
             int p = iterator.next();
             if (!this.voc.isSatisfied(p) && !assume(p)
                     || (confl = propagate()) != null) {
+                boolean conflictEvents = (this.eventMask
+                        & MaskedSearchListener.CONFLICTS) != 0;
                 if (confl == null) {
-                    this.slistener.conflictFound(p);
+                    if (conflictEvents) {
+                        this.slistener.conflictFound(p);
+                    }
                     this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
                             null, assumps, p);
                     this.unsatExplanationInTermsOfAssumptions.push(toDimacs(p));
                 } else {
-                    this.slistener.conflictFound(confl, decisionLevel(),
-                            this.trail.size());
+                    if (conflictEvents) {
+                        this.slistener.conflictFound(confl, decisionLevel(),
+                                this.trail.size());
+                    }
                     this.unsatExplanationInTermsOfAssumptions = analyzeFinalConflictInTermsOfAssumptions(
                             confl, assumps, ILits.UNDEFINED);
                 }
-
+                if (this.proof != null) {
+                    this.proof.end(Lbool.FALSE);
+                }
                 this.slistener.end(Lbool.FALSE);
                 cancelUntil(0);
                 cancelLearntLiterals(learnedLiteralsLimit);
@@ -1816,6 +2785,9 @@ public class Solver<D extends DataStructureFactory>
             int before = this.trail.size();
             unitClauseProvider.provideUnitClauses(this);
             this.stats.importedUnits += this.trail.size() - before;
+            if (decisionLevel() > 0) {
+                justifyImportedUnits(before);
+            }
             status = search(assumps);
             if (status == Lbool.UNDEFINED) {
                 this.restarter.onRestart();
@@ -1823,13 +2795,24 @@ public class Solver<D extends DataStructureFactory>
             }
         }
 
-        cancelUntil(0);
-        cancelLearntLiterals(learnedLiteralsLimit);
+        if (status == Lbool.TRUE && this.assumptionsReuse
+                && this.rootLevel > 0 && this.undertimeout) {
+            // keep the assumptions for the next call
+            cancelUntil(this.rootLevel);
+            this.keptAssumptionLevels = this.rootLevel;
+            this.keptLearnedLiteralsLimit = learnedLiteralsLimit;
+        } else {
+            cancelUntil(0);
+            cancelLearntLiterals(learnedLiteralsLimit);
+        }
         if (!global && this.timeBasedTimeout && this.timer != null) {
             this.timer.cancel();
             this.timer = null;
         }
         this.slistener.end(status);
+        if (this.proof != null) {
+            this.proof.end(status);
+        }
         if (!this.undertimeout) {
             String message = " Timeout (" + this.timeout
                     + (this.timeBasedTimeout ? "s" : " conflicts")
@@ -1845,6 +2828,94 @@ public class Solver<D extends DataStructureFactory>
         return model != null;
     }
 
+    /**
+     * Propagate again the literals satisfied at decision level 0, including
+     * the learned ones.
+     * 
+     * @return a conflicting constraint if the formula is found inconsistent,
+     *         else null.
+     */
+    private Constr propagateRootLevel() {
+        // Fix for Bug SAT37
+        this.qhead = 0;
+        // Apply undos on unit literals because they are getting
+        // propagated again now that qhead is 0.
+        for (int i = this.trail.size() - 1; i >= 0; i--) {
+            int p = this.trail.get(i);
+            IVec<Undoable> undos = this.voc.undos(p);
+            assert undos != null;
+            for (int size = undos.size(); size > 0; size--) {
+                undos.last().undo(p);
+                undos.pop();
+            }
+        }
+        // push previously learned literals
+        for (IteratorInt iterator = this.learnedLiterals.iterator(); iterator
+                .hasNext();) {
+            enqueue(iterator.next());
+        }
+
+        // propagate constraints
+        Constr confl = this.gauss.prepare(this.voc, this);
+        if (confl == null) {
+            confl = propagate();
+        }
+        return confl;
+    }
+
+    /**
+     * Compute the number of decision levels kept from the previous call
+     * which can be reused by the current one: the decision literals of
+     * those levels must all belong to the new assumptions.
+     * 
+     * @param localAssumps
+     *            the new assumptions, in internal representation.
+     * @return the number of decision levels to keep, 0 if the trail must be
+     *         fully cancelled.
+     */
+    private int reusableAssumptionLevels(IVecInt localAssumps) {
+        if (this.keptAssumptionLevels == 0) {
+            return 0;
+        }
+        final boolean[] seen = this.mseen;
+        for (int level = 0; level < this.keptAssumptionLevels; level++) {
+            seen[this.trail.get(this.trailLim.get(level)) >> 1] = false;
+        }
+        int p;
+        for (int i = 0; i < localAssumps.size(); i++) {
+            p = localAssumps.get(i);
+            if ((p >> 1) < seen.length) {
+                // variables created by the assumptions are not assigned
+                seen[p >> 1] = this.voc.isSatisfied(p);
+            }
+        }
+        int level = 0;
+        while (level < this.keptAssumptionLevels
+                && seen[this.trail.get(this.trailLim.get(level)) >> 1]) {
+            level++;
+        }
+        for (int i = 0; i < localAssumps.size(); i++) {
+            p = localAssumps.get(i);
+            if ((p >> 1) < seen.length) {
+                seen[p >> 1] = false;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Cancel the assumption levels kept by the last call to isSatisfiable(),
+     * before the formula is modified or when the next assumptions do not
+     * share any of them.
+     */
+    private void releaseAssumptionLevels() {
+        if (this.keptAssumptionLevels > 0) {
+            this.keptAssumptionLevels = 0;
+            cancelUntil(0);
+            cancelLearntLiterals(this.keptLearnedLiteralsLimit);
+        }
+    }
+
     public void printInfos(PrintWriter out) {
         printInfos(out, prefix);
     }
@@ -1887,6 +2958,18 @@ public class Solver<D extends DataStructureFactory>
         return this.stats;
     }
 
+    /**
+     * Tell whether the formula has been modified, e.g. to know whether the
+     * forks of that solver are still solving the same formula.
+     * 
+     * @return a number that changes each time a constraint or a variable is
+     *         added, a constraint is removed, or the solver is reset.
+     * @since 2.3.6
+     */
+    public int getFormulaVersion() {
+        return this.formulaVersion;
+    }
+
     /**
      * 
      * @param myStats
@@ -1927,6 +3010,8 @@ public class Solver<D extends DataStructureFactory>
         this.trail.clear();
         this.trailLim.clear();
         this.qhead = 0;
+        this.keptAssumptionLevels = 0;
+        this.gauss.reset();
         for (Iterator<Constr> iterator = this.constrs.iterator(); iterator
                 .hasNext();) {
             iterator.next().remove(this);
@@ -1937,8 +3022,15 @@ public class Solver<D extends DataStructureFactory>
         this.dsfactory.reset();
         this.stats.reset();
         this.constrTypes.clear();
+        this.inprocessor.reset();
+        this.localSearch.reset();
         this.undertimeout = true;
         this.declaredMaxVarId = 0;
+        this.formulaVersion++;
+        if (this.proof != null) {
+            // the clauses of the next problem are numbered from 1 again
+            this.proof = new Proof(this, this.proof.getTracer());
+        }
     }
 
     public int nVars() {
@@ -1954,6 +3046,8 @@ public class Solver<D extends DataStructureFactory>
      * @return a reference to the constraint for external use.
      */
     public IConstr addConstr(Constr constr) {
+        releaseAssumptionLevels();
+        this.formulaVersion++;
         if (constr == null) {
             Counter count = this.constrTypes
                     .get("ignored satisfied constraints");
@@ -1964,6 +3058,10 @@ public class Solver<D extends DataStructureFactory>
                 count.inc();
             }
         } else {
+            if (this.proof != null && !this.proof.isTraced(constr)) {
+                throw new UnsupportedOperationException(
+                        "Cannot trace a proof with " + constr);
+            }
             this.constrs.push(constr);
             String type = constr.getClass().getName();
             Counter count = this.constrTypes.get(type);
@@ -2050,6 +3148,30 @@ public class Solver<D extends DataStructureFactory>
         stb.append(this.isDBSimplificationAllowed);
         stb.append("\n");
         stb.append(prefix);
+        stb.append("Learned clauses vivification budget=");
+        stb.append(this.vivificationBudget);
+        stb.append("% of propagations\n");
+        stb.append(prefix);
+        stb.append("Inprocessing (probing, equivalent literals) budget=");
+        stb.append(this.inprocessor.getBudget());
+        stb.append("% of propagations\n");
+        if (this.chronoBacktrackingThreshold < Integer.MAX_VALUE) {
+            stb.append(prefix);
+            stb.append("Chronological backtracking above ");
+            stb.append(this.chronoBacktrackingThreshold);
+            stb.append(" levels\n");
+        }
+        if (this.localSearch.getFlips() > 0) {
+            stb.append(prefix);
+            stb.append("Local search rounds of ");
+            stb.append(this.localSearch.getFlips());
+            stb.append(" flips\n");
+        }
+        if (this.trailReuse) {
+            stb.append(prefix);
+            stb.append("Partial restarts reusing the trail\n");
+        }
+        stb.append(prefix);
         if (isSolverKeptHot()) {
             stb.append(
                     "Heuristics kept accross calls (keep the solver \"hot\")\n");
@@ -2091,6 +3213,9 @@ public class Solver<D extends DataStructureFactory>
 
     public void setExpectedNumberOfClauses(int nb) {
         this.constrs.ensure(nb);
+        if (this.proof != null) {
+            this.proof.expectOriginals(nb);
+        }
     }
 
     public Map<String, Number> getStat() {
@@ -2323,6 +3448,161 @@ public class Solver<D extends DataStructureFactory>
         return this.learnts;
     }
 
+    boolean isLaunched() {
+        return this.conflictCount != null;
+    }
+
+    /**
+     * Save what the solver learned about the formula in a binary file: the
+     * learned clauses, the literals satisfied at decision level 0, and the
+     * heuristics and phase of each variable. Only learned clauses are saved,
+     * not other learned constraints.
+     * 
+     * @param filename
+     *            the name of the snapshot file.
+     * @throws IOException
+     *             if the file cannot be written.
+     * @see #loadSnapshot(String)
+     * @since 2.3.6
+     */
+    public void saveSnapshot(String filename) throws IOException {
+        Snapshot.write(this, new File(filename));
+    }
+
+    /**
+     * Warm start the solver with a snapshot saved by another solver. The
+     * constraints of the formula must have been added first. The learned
+     * clauses and the literals satisfied at decision level 0 are only
+     * restored if the snapshot comes from the same formula, since they may
+     * not be implied by another one, and if that formula contains only
+     * clauses, cardinality and parity constraints. The heuristics and the
+     * phases are always restored, at the beginning of the next search.
+     * 
+     * @param filename
+     *            the name of a snapshot file.
+     * @return true if the learned clauses have been restored, false if only
+     *         the heuristics and the phases will be.
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot.
+     * @see #saveSnapshot(String)
+     * @since 2.3.6
+     */
+    public boolean loadSnapshot(String filename) throws IOException {
+        checkNoProof("a snapshot");
+        Snapshot snapshot = Snapshot.read(new File(filename));
+        this.warmStart = snapshot;
+        if (!snapshot.matches(this)) {
+            if (this.verbose) {
+                this.out.log(getLogPrefix()
+                        + "snapshot of another formula, learned clauses ignored"); //$NON-NLS-1$
+            }
+            return false;
+        }
+        releaseAssumptionLevels();
+        snapshot.restoreLearnts(this);
+        if (this.verbose) {
+            this.out.log(getLogPrefix() + "restored " + snapshot.nLearnts() //$NON-NLS-1$
+                    + " learned clauses from snapshot"); //$NON-NLS-1$
+        }
+        return true;
+    }
+
+    /**
+     * Look ahead on the formula under a cube to find the variable that
+     * splits it best: both polarities of the unassigned variables having the
+     * highest heuristics are propagated, and the variable maximizing the
+     * product of the number of literals implied by each polarity is chosen.
+     * The literals whose negation is found to be a failed literal are
+     * necessary under the cube: they are added to it.
+     * 
+     * That method must not be called while the solver is searching.
+     * 
+     * @param cube
+     *            some literals in Dimacs format. The necessary literals found
+     *            are appended to it.
+     * @param candidates
+     *            the maximum number of variables to look ahead.
+     * @return the variable to split the formula on, or 0 if every variable
+     *         is assigned by the cube.
+     * @throws ContradictionException
+     *             if the formula is found unsatisfiable under the cube.
+     * @since 2.3.6
+     */
+    public int lookahead(IVecInt cube, int candidates)
+            throws ContradictionException {
+        releaseAssumptionLevels();
+        if (!isLaunched()) {
+            this.order.init();
+        }
+        int learnedLiteralsLimit = this.trail.size();
+        try {
+            if (propagateRootLevel() != null) {
+                throw new ContradictionException("Formula is unsatisfiable"); //$NON-NLS-1$
+            }
+            return new Lookahead(this).split(cube, candidates);
+        } finally {
+            cancelUntil(0);
+            cancelLearntLiterals(learnedLiteralsLimit);
+        }
+    }
+
+    /**
+     * Give a reason to the unit clauses provided above decision level 0, i.e.
+     * under assumptions. Without a reason, they would be taken for
+     * assumptions when explaining an inconsistency.
+     * 
+     * @param from
+     *            the position on the trail of the first provided literal.
+     */
+    private void justifyImportedUnits(int from) {
+        for (int i = from; i < this.trail.size(); i++) {
+            int p = this.trail.get(i);
+            if (this.voc.getReason(p) == null) {
+                this.voc.setReason(p, new UnitClause(p));
+            }
+        }
+    }
+
+    /**
+     * Create an independent solver in the same state as that one: same
+     * constraints, learned constraints, literals satisfied at decision level
+     * 0, heuristics and settings. The fork can then be used in another thread,
+     * to solve the formula under other assumptions or to add other
+     * constraints, without any impact on that solver.
+     * 
+     * The original clauses are shared: the literals of each clause are copied
+     * only once, the first time the solver is forked, in an immutable clause
+     * shared by all the forks of that solver and their own forks. The solver
+     * keeps its own clauses. When all the constraints are clauses, the
+     * vocabulary (assignment, reasons, watches) and the learned clauses are
+     * copied directly, and only the rest of the solver (trail, heuristics,
+     * strategies) is copied through serialization. Else the whole solver
+     * but the shared clauses is serialized. The fork does not keep the search
+     * listener, but shares the logger and the unit clause provider.
+     * 
+     * That method must not be called while that solver is searching. It is
+     * not available when a proof is traced.
+     * 
+     * @return a new solver in the same state as that one.
+     * @throws UnsupportedOperationException
+     *             if one of the components of the solver cannot be copied,
+     *             or if a proof is traced.
+     * @since 2.3.6
+     */
+    public Solver<D> fork() {
+        checkNoProof("a fork");
+        releaseAssumptionLevels();
+        if (this.forks == null) {
+            this.forks = new SolverFork();
+        }
+        Solver<D> fork = this.forks.copy(this, this.voc, this.constrs,
+                this.learnts, this.slistener, this.out,
+                this.unitClauseProvider);
+        fork.setSearchListener(new VoidTracing());
+        fork.warmStart = this.warmStart;
+        return fork;
+    }
+
     /**
      * @since 2.3.2
      */
@@ -2386,12 +3666,6 @@ public class Solver<D extends DataStructureFactory>
         this.keepHot = keepHot;
     }
 
-    private final Comparator<Integer> dimacsLevel = new Comparator<Integer>() {
-        public int compare(Integer i1, Integer i2) {
-            return voc.getLevel(Math.abs(i2)) - voc.getLevel(Math.abs(i1));
-        }
-    };
-
     private final Comparator<Integer> trailComparator() {
         return new Comparator<Integer>() {
 
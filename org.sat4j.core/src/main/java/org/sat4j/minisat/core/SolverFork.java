@@ -0,0 +1,456 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.BinaryClause;
+import org.sat4j.minisat.constraints.cnf.LearntBinaryClause;
+import org.sat4j.minisat.constraints.cnf.LearntWLClause;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.constraints.cnf.OriginalBinaryClause;
+import org.sat4j.minisat.constraints.cnf.OriginalWLClause;
+import org.sat4j.minisat.constraints.cnf.SharedClauses;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
+import org.sat4j.minisat.constraints.cnf.UnitClause;
+import org.sat4j.minisat.constraints.cnf.WLClause;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * Copy the state of a solver into an independent solver, sharing the original
+ * clauses.
+ * 
+ * The original clauses that can be shared, i.e. the {@link SharedWLClause}s,
+ * are not copied. Each {@link OriginalWLClause} is turned into a
+ * {@link SharedWLClause}, on an immutable copy of its literals, the first time
+ * the solver is forked: that clause is then shared by all the forks of that
+ * solver, and the forks of those forks. The positions of its watched literals
+ * in each fork are the ones of the original clause at the time of the copy.
+ * 
+ * When all the constraints of the solver are clauses, the bulk of its state
+ * is copied directly: the vocabulary (assignment, reasons and watch lists)
+ * and the learned clauses. The rest of the solver (heuristics, strategies,
+ * trail, statistics) is then copied through an in memory object stream, in
+ * which the vocabulary and the clauses are replaced by their copies. Else the
+ * whole solver is copied through the object stream. In both cases, a few
+ * objects given by the solver (its logger for instance) are shared by
+ * identity.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class SolverFork {
+
+    /**
+     * The shared versions of the original clauses.
+     */
+    private Map<Constr, SharedWLClause> frozen = new IdentityHashMap<Constr, SharedWLClause>();
+
+    /**
+     * The group of the shared clauses, that of the vocabulary of the solver.
+     */
+    private SharedClauses group;
+
+    /**
+     * Copy a solver.
+     * 
+     * @param solver
+     *            the solver to copy, which must not be searching.
+     * @param voc
+     *            the vocabulary of that solver.
+     * @param constrs
+     *            the original constraints of that solver.
+     * @param learnts
+     *            the learned constraints of that solver.
+     * @param shared
+     *            the objects that must be shared by the copy.
+     * @return a copy of the solver.
+     * @throws UnsupportedOperationException
+     *             if one of the components of the solver cannot be copied.
+     */
+    <T extends VocabularyProvider> T copy(T solver, ILits voc,
+            IVec<Constr> constrs, IVec<Constr> learnts, Object... shared) {
+        forgetRemovedClauses(constrs);
+        boolean share = chooseGroup(voc, constrs);
+        T copy = copy(solver, voc, constrs, learnts, share, true, shared);
+        if (copy == null) {
+            copy = copy(solver, voc, constrs, learnts, share, false, shared);
+        }
+        return copy;
+    }
+
+    /**
+     * @param direct
+     *            true to copy the vocabulary and the clauses directly.
+     * @return null iff the clauses cannot be copied directly.
+     */
+    private <T extends VocabularyProvider> T copy(T solver, ILits voc,
+            IVec<Constr> constrs, IVec<Constr> learnts, boolean share,
+            boolean direct, Object... shared) {
+        List<Object> sharedObjects = new ArrayList<Object>();
+        for (Object o : shared) {
+            sharedObjects.add(o);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ForkOutputStream out = new ForkOutputStream(bytes, sharedObjects,
+                    share);
+            if (direct && !out.copyClauses(voc, constrs, learnts)) {
+                return null;
+            }
+            out.writeObject(solver);
+            out.close();
+            ForkInputStream in = new ForkInputStream(new ByteArrayInputStream(
+                    bytes.toByteArray()), sharedObjects, solver.getClass()
+                    .getClassLoader());
+            @SuppressWarnings("unchecked")
+            T copy = (T) in.readObject();
+            in.close();
+            ILits copyVoc = copy.getVocabulary();
+            for (int i = 0; i < out.watched.size(); i++) {
+                boolean watched = out.watched.get(i).setWatches(copyVoc,
+                        out.positions.get(2 * i), out.positions.get(2 * i + 1));
+                assert watched;
+            }
+            return copy;
+        } catch (IOException e) {
+            throw new UnsupportedOperationException("Cannot fork the solver",
+                    e);
+        } catch (ClassNotFoundException e) {
+            throw new UnsupportedOperationException("Cannot fork the solver",
+                    e);
+        }
+    }
+
+    /**
+     * The new shared clauses must belong to the group of the shared clauses
+     * already watched by the solver, if any.
+     * 
+     * @return false iff the original clauses cannot be shared.
+     */
+    private boolean chooseGroup(ILits voc, IVec<Constr> constrs) {
+        if (this.group == null) {
+            for (int i = 0; i < constrs.size(); i++) {
+                if (constrs.get(i) instanceof SharedWLClause) {
+                    this.group = ((SharedWLClause) constrs.get(i)).getGroup();
+                    break;
+                }
+            }
+            if (this.group == null) {
+                this.group = new SharedClauses();
+            }
+        }
+        return voc.reserveSharedWatches(this.group, 0);
+    }
+
+    private void forgetRemovedClauses(IVec<Constr> constrs) {
+        int alive = 0;
+        for (int i = 0; i < constrs.size(); i++) {
+            if (this.frozen.containsKey(constrs.get(i))) {
+                alive++;
+            }
+        }
+        if (alive == this.frozen.size()) {
+            return;
+        }
+        Map<Constr, SharedWLClause> live = new IdentityHashMap<Constr, SharedWLClause>(
+                alive);
+        for (int i = 0; i < constrs.size(); i++) {
+            Constr constr = constrs.get(i);
+            SharedWLClause clause = this.frozen.get(constr);
+            if (clause != null) {
+                live.put(constr, clause);
+            }
+        }
+        this.frozen = live;
+    }
+
+    private SharedWLClause share(OriginalWLClause clause) {
+        SharedWLClause shared = this.frozen.get(clause);
+        if (shared == null) {
+            shared = this.group.newClause(clause.getLits());
+            this.frozen.put(clause, shared);
+        }
+        return shared;
+    }
+
+    private static int indexOf(int[] lits, int p) {
+        for (int i = 0; i < lits.length; i++) {
+            if (lits[i] == p) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Literal " + p + " not found"); //$NON-NLS-1$
+    }
+
+    /**
+     * What is written in place of a shared object.
+     */
+    private static final class SharedRef implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        SharedRef(int index) {
+            this.index = index;
+        }
+    }
+
+    private final class ForkOutputStream extends ObjectOutputStream {
+
+        private final List<Object> shared;
+
+        /**
+         * The index in shared of the object replacing a given object.
+         */
+        private final Map<Object, Integer> indexes = new IdentityHashMap<Object, Integer>();
+
+        private final boolean share;
+
+        /**
+         * The copy of each constraint copied directly, null if the clauses are
+         * not copied directly.
+         */
+        private Map<Constr, Constr> copies;
+
+        /**
+         * The original clauses turned into shared clauses.
+         */
+        final List<SharedWLClause> watched = new ArrayList<SharedWLClause>();
+
+        /**
+         * The positions of the watched literals of those clauses.
+         */
+        final IVecInt positions = new VecInt();
+
+        ForkOutputStream(OutputStream out, List<Object> shared, boolean share)
+                throws IOException {
+            super(out);
+            this.shared = shared;
+            this.share = share;
+            for (int i = 0; i < shared.size(); i++) {
+                this.indexes.put(shared.get(i), i);
+            }
+            enableReplaceObject(true);
+        }
+
+        /**
+         * Write target in place of source.
+         */
+        private SharedRef substitute(Object source, Object target) {
+            Integer index = this.indexes.get(target);
+            if (index == null) {
+                index = this.shared.size();
+                this.indexes.put(target, index);
+                this.shared.add(target);
+            }
+            this.indexes.put(source, index);
+            return new SharedRef(index);
+        }
+
+        private SharedWLClause convert(OriginalWLClause original) {
+            SharedWLClause clause = share(original);
+            int[] lits = clause.getSharedLiterals();
+            this.watched.add(clause);
+            this.positions.push(indexOf(lits, original.get(0)));
+            this.positions.push(indexOf(lits, original.get(1)));
+            return clause;
+        }
+
+        /**
+         * Copy the vocabulary and the clauses of the solver, for that copy to
+         * be written instead of them.
+         * 
+         * @return false iff a constraint cannot be copied directly.
+         */
+        boolean copyClauses(ILits voc, IVec<Constr> constrs,
+                IVec<Constr> learnts) {
+            if (!(voc instanceof Lits)) {
+                return false;
+            }
+            Lits target = new Lits();
+            this.copies = new IdentityHashMap<Constr, Constr>(constrs.size()
+                    + learnts.size() + 2 * voc.nVars());
+            IVec<Constr> constrsCopy = copyAll(constrs, target);
+            IVec<Constr> learntsCopy = copyAll(learnts, target);
+            if (constrsCopy == null || learntsCopy == null) {
+                return false;
+            }
+            // the reasons of the imported unit clauses are not in the
+            // constraints
+            for (int v = 1; v <= voc.nVars(); v++) {
+                Constr reason = voc.getReason(v << 1);
+                if (reason != null && !(reason instanceof SharedWLClause)
+                        && !(reason instanceof BinaryImplications)
+                        && !this.copies.containsKey(reason)) {
+                    Constr copy = copyOf(reason, target);
+                    if (copy == null) {
+                        return false;
+                    }
+                    this.copies.put(reason, copy);
+                }
+            }
+            if (!((Lits) voc).copyTo(target, this.copies)) {
+                return false;
+            }
+            substitute(voc, target);
+            substitute(constrs, constrsCopy);
+            substitute(learnts, learntsCopy);
+            return true;
+        }
+
+        private IVec<Constr> copyAll(IVec<Constr> constrs, ILits target) {
+            IVec<Constr> copy = new Vec<Constr>(constrs.size());
+            for (int i = 0; i < constrs.size(); i++) {
+                Constr constr = constrs.get(i);
+                if (constr instanceof SharedWLClause) {
+                    copy.push(constr);
+                    continue;
+                }
+                Constr c = copyOf(constr, target);
+                if (c == null) {
+                    return null;
+                }
+                this.copies.put(constr, c);
+                copy.push(c);
+            }
+            return copy;
+        }
+
+        /**
+         * Copy a clause for the vocabulary of the fork, keeping the order of
+         * its literals, hence its watched literals.
+         * 
+         * @return the copy, or null if that constraint cannot be copied
+         *         directly.
+         */
+        private Constr copyOf(Constr constr, ILits target) {
+            Class<?> type = constr.getClass();
+            Constr copy;
+            if (type == OriginalWLClause.class) {
+                if (this.share) {
+                    return convert((OriginalWLClause) constr);
+                }
+                copy = new OriginalWLClause(new VecInt(
+                        ((WLClause) constr).getLits()), target);
+            } else if (type == LearntWLClause.class) {
+                copy = new LearntWLClause(new VecInt(
+                        ((WLClause) constr).getLits()), target);
+            } else if (type == OriginalBinaryClause.class) {
+                copy = new OriginalBinaryClause(new VecInt(
+                        ((BinaryClause) constr).getLits()), target);
+                // the activity of an original binary clause cannot be set
+                copy.forwardActivity(constr.getActivity());
+                return copy;
+            } else if (type == LearntBinaryClause.class) {
+                copy = new LearntBinaryClause(new VecInt(
+                        ((BinaryClause) constr).getLits()), target);
+            } else if (type == UnitClause.class) {
+                copy = new UnitClause(constr.get(0));
+            } else {
+                return null;
+            }
+            copy.setActivity(constr.getActivity());
+            return copy;
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            Integer index = this.indexes.get(obj);
+            if (index != null) {
+                return new SharedRef(index);
+            }
+            if (this.copies != null && obj instanceof Constr) {
+                Constr copy = this.copies.get(obj);
+                if (copy != null) {
+                    return substitute(obj, copy);
+                }
+            }
+            if (this.share && obj instanceof OriginalWLClause) {
+                return substitute(obj, convert((OriginalWLClause) obj));
+            }
+            if (obj instanceof SharedWLClause || obj instanceof SharedClauses) {
+                return substitute(obj, obj);
+            }
+            return obj;
+        }
+    }
+
+    private static final class ForkInputStream extends ObjectInputStream {
+
+        private final List<Object> shared;
+
+        private final ClassLoader loader;
+
+        ForkInputStream(InputStream in, List<Object> shared,
+                ClassLoader loader) throws IOException {
+            super(in);
+            this.shared = shared;
+            this.loader = loader;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof SharedRef) {
+                return this.shared.get(((SharedRef) obj).index);
+            }
+            return obj;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            try {
+                return super.resolveClass(desc);
+            } catch (ClassNotFoundException e) {
+                // the solver may come from another class loader (OSGi)
+                return Class.forName(desc.getName(), false, this.loader);
+            }
+        }
+    }
+}
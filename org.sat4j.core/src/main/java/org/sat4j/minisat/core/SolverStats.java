@@ -74,16 +74,65 @@ public class SolverStats implements Serializable {
 
     public int shortcuts;
 
+    public long binaryInspects;
+
     public long updateLBD;
 
+    public long vivifiedClauses;
+
+    public long vivifiedLiterals;
+
+    public long vivificationPropagations;
+
+    public long inprocessings;
+
+    public long failedLiterals;
+
+    public long necessaryAssignments;
+
+    public long equivalentLiterals;
+
+    public long substitutedClauses;
+
+    public long probingPropagations;
+
+    public long chronoBacktracks;
+
+    public long partialRestarts;
+
+    public long localSearches;
+
+    public long localSearchFlips;
+
+    public long localSearchModels;
+
+    public long reusedTrailLiterals;
+
+    public long gaussPivots;
+
+    public long gaussPropagations;
+
+    public long gaussConflicts;
+
+    public long reusedAssumptionLevels;
+
+    public long reusedAssumptionLiterals;
+
     public int importedUnits;
 
+    public long exportedClauses;
+
+    public long importedClauses;
+
+    public long duplicatedClauses;
+
     public void reset() {
         this.starts = 0;
         this.decisions = 0;
         this.propagations = 0;
         this.inspects = 0;
         this.shortcuts = 0;
+        this.binaryInspects = 0;
         this.conflicts = 0;
         this.learnedliterals = 0;
         this.learnedclauses = 0;
@@ -95,7 +144,30 @@ public class SolverStats implements Serializable {
         this.changedreason = 0;
         this.reduceddb = 0;
         this.updateLBD = 0;
+        this.vivifiedClauses = 0;
+        this.vivifiedLiterals = 0;
+        this.vivificationPropagations = 0;
+        this.inprocessings = 0;
+        this.failedLiterals = 0;
+        this.necessaryAssignments = 0;
+        this.equivalentLiterals = 0;
+        this.substitutedClauses = 0;
+        this.probingPropagations = 0;
+        this.chronoBacktracks = 0;
+        this.partialRestarts = 0;
+        this.localSearches = 0;
+        this.localSearchFlips = 0;
+        this.localSearchModels = 0;
+        this.reusedTrailLiterals = 0;
+        this.gaussPivots = 0;
+        this.gaussPropagations = 0;
+        this.gaussConflicts = 0;
+        this.reusedAssumptionLevels = 0;
+        this.reusedAssumptionLiterals = 0;
         this.importedUnits = 0;
+        this.exportedClauses = 0;
+        this.importedClauses = 0;
+        this.duplicatedClauses = 0;
     }
 
     public void printStat(PrintWriter out, String prefix) {
@@ -105,6 +177,8 @@ public class SolverStats implements Serializable {
         out.println(prefix + "propagations\t\t: " + this.propagations);
         out.println(prefix + "inspects\t\t: " + this.inspects);
         out.println(prefix + "shortcuts\t\t: " + this.shortcuts);
+        out.println(prefix + "binary implications inspects\t: "
+                + this.binaryInspects);
         out.println(prefix + "learnt literals\t: " + this.learnedliterals);
         out.println(prefix + "learnt binary clauses\t: "
                 + this.learnedbinaryclauses);
@@ -121,8 +195,51 @@ public class SolverStats implements Serializable {
         out.println(prefix + "Calls to reduceDB\t: " + this.reduceddb);
         out.println(prefix + "Number of update (reduction) of LBD\t: "
                 + this.updateLBD);
+        out.println(prefix + "learnt clauses shortened by vivification\t: "
+                + this.vivifiedClauses);
+        out.println(prefix + "literals removed by vivification\t: "
+                + this.vivifiedLiterals);
+        out.println(prefix + "propagations for vivification\t: "
+                + this.vivificationPropagations);
+        out.println(prefix + "inprocessing rounds\t: " + this.inprocessings);
+        out.println(prefix + "failed literals\t: " + this.failedLiterals);
+        out.println(prefix + "necessary assignments (double lookahead)\t: "
+                + this.necessaryAssignments);
+        out.println(prefix + "equivalent literals substituted\t: "
+                + this.equivalentLiterals);
+        out.println(prefix + "clauses rewritten by substitution\t: "
+                + this.substitutedClauses);
+        out.println(prefix + "propagations for probing\t: "
+                + this.probingPropagations);
+        out.println(prefix + "chronological backtracks\t: "
+                + this.chronoBacktracks);
+        out.println(prefix + "partial restarts (trail reuse)\t: "
+                + this.partialRestarts);
+        out.println(prefix + "propagations saved by trail reuse\t: "
+                + this.reusedTrailLiterals);
+        out.println(prefix + "local search rounds\t: " + this.localSearches);
+        out.println(prefix + "local search flips\t: "
+                + this.localSearchFlips);
+        out.println(prefix + "models found by local search\t: "
+                + this.localSearchModels);
+        out.println(prefix + "pivots of the xor matrices\t: "
+                + this.gaussPivots);
+        out.println(prefix + "propagations of the xor matrices\t: "
+                + this.gaussPropagations);
+        out.println(prefix + "conflicts of the xor matrices\t: "
+                + this.gaussConflicts);
+        out.println(prefix + "assumption levels reused\t: "
+                + this.reusedAssumptionLevels);
+        out.println(prefix + "propagations saved by assumption reuse\t: "
+                + this.reusedAssumptionLiterals);
         out.println(prefix + "Imported unit clauses\t: "
                 + this.importedUnits);
+        out.println(prefix + "Exported learned clauses\t: "
+                + this.exportedClauses);
+        out.println(prefix + "Imported learned clauses\t: "
+                + this.importedClauses);
+        out.println(prefix + "Duplicated shared clauses\t: "
+                + this.duplicatedClauses);
     }
 
     public Map<String, Number> toMap() {
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.sat4j.core.Vec;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IVec;
+
+/**
+ * A deletion strategy keeping the learned clauses in three tiers according
+ * to their LBD, as in recent CDCL solvers:
+ * <ul>
+ * <li>the core clauses (LBD at most 2) are never deleted,</li>
+ * <li>the tier 2 clauses (LBD at most 6) are kept while they are used in
+ * conflict analysis between two reductions, and demoted to the local tier
+ * otherwise,</li>
+ * <li>half of the local clauses, those with the lowest activity, are removed
+ * at each reduction.</li>
+ * </ul>
+ * 
+ * The LBD and the usage of the learned clauses are updated during conflict
+ * analysis, and a clause moves to a better tier as soon as its LBD decreases.
+ * The reduction only performs a linear time selection on the activity of the
+ * local clauses, instead of sorting all the learned clauses.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class ThreeTierLCDS implements LearnedConstraintsDeletionStrategy {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int CORE_LBD = 2;
+
+    static final int TIER2_LBD = 6;
+
+    private static final int CORE = 0;
+
+    private static final int TIER2 = 1;
+
+    private static final int LOCAL = 2;
+
+    /**
+     * Information stored for each learned clause.
+     */
+    private static final class Info implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        int lbd;
+        int tier;
+        int used;
+
+        Info(int lbd) {
+            setLBD(lbd);
+        }
+
+        void setLBD(int lbd) {
+            this.lbd = lbd;
+            if (lbd <= CORE_LBD) {
+                this.tier = CORE;
+            } else if (lbd <= TIER2_LBD) {
+                this.tier = TIER2;
+            } else {
+                this.tier = LOCAL;
+            }
+        }
+    }
+
+    private final ConflictTimer timer;
+
+    private final Solver<? extends DataStructureFactory> solver;
+
+    private Map<Constr, Info> infos = new IdentityHashMap<Constr, Info>();
+
+    private int[] flags = new int[0];
+
+    private int flag = 0;
+
+    ThreeTierLCDS(Solver<? extends DataStructureFactory> solver,
+            ConflictTimer timer) {
+        this.timer = timer;
+        this.solver = solver;
+    }
+
+    public void reduce(IVec<Constr> learnedConstrs) {
+        IVec<Constr> kept = new Vec<Constr>(learnedConstrs.size());
+        IVec<Constr> local = new Vec<Constr>(learnedConstrs.size());
+        IVec<Constr> candidates = new Vec<Constr>(learnedConstrs.size());
+        Map<Constr, Info> ninfos = new IdentityHashMap<Constr, Info>();
+        int core = 0, tier2 = 0;
+        for (int i = 0; i < learnedConstrs.size(); i++) {
+            Constr c = learnedConstrs.get(i);
+            Info info = this.infos.get(c);
+            if (info == null) {
+                // learned clause replaced by a simplified one
+                info = new Info(c.size());
+            }
+            ninfos.put(c, info);
+            if (info.tier == TIER2) {
+                if (info.used > 0) {
+                    info.used--;
+                } else {
+                    info.tier = LOCAL;
+                }
+            }
+            if (info.tier != LOCAL) {
+                kept.push(c);
+                if (info.tier == CORE) {
+                    core++;
+                } else {
+                    tier2++;
+                }
+            } else if (c.locked() || c.size() == 2) {
+                local.push(c);
+            } else {
+                candidates.push(c);
+            }
+        }
+        // remove the half of the candidates with the lowest activity
+        int toRemove = candidates.size() / 2;
+        double threshold = Double.NEGATIVE_INFINITY;
+        if (toRemove > 0) {
+            double[] activities = new double[candidates.size()];
+            for (int i = 0; i < activities.length; i++) {
+                activities[i] = candidates.get(i).getActivity();
+            }
+            threshold = select(activities, toRemove);
+        }
+        int removed = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Constr c = candidates.get(i);
+            if (removed < toRemove && c.getActivity() <= threshold) {
+                c.remove(this.solver);
+                this.solver.learntDeleted(c);
+                ninfos.remove(c);
+                removed++;
+            } else {
+                local.push(c);
+            }
+        }
+        if (this.solver.isVerbose()) {
+            this.solver.out.log(this.solver.getLogPrefix() + "cleaning " //$NON-NLS-1$
+                    + removed + " clauses out of " + learnedConstrs.size() //$NON-NLS-1$
+                    + " (core " + core + ", tier2 " + tier2 + ", local " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    + local.size() + ")"); //$NON-NLS-1$
+        }
+        this.infos = ninfos;
+        // core and tier 2 clauses first, then local ones
+        learnedConstrs.clear();
+        kept.moveTo(learnedConstrs);
+        int nbKept = learnedConstrs.size();
+        for (int i = 0; i < local.size(); i++) {
+            learnedConstrs.push(local.get(i));
+        }
+        this.solver.vivifyAtNextRestart(learnedConstrs, 0, nbKept);
+    }
+
+    /**
+     * Linear time selection (quickselect).
+     * 
+     * @param values
+     *            some values, modified by the method.
+     * @param k
+     *            a number between 1 and values.length
+     * @return the k-th smallest value.
+     */
+    static double select(double[] values, int k) {
+        int from = 0, to = values.length - 1;
+        int target = k - 1;
+        while (from < to) {
+            double pivot = values[(from + to) >>> 1];
+            int i = from, j = to;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j) {
+                to = j;
+            } else if (target >= i) {
+                from = i;
+            } else {
+                break;
+            }
+        }
+        return values[target];
+    }
+
+    /**
+     * The literals not assigned yet (the literal being propagated by a reason
+     * or the asserting literal of a new clause) are at the current decision
+     * level.
+     */
+    private int computeLBD(Constr constr) {
+        int nblevel = 0;
+        this.flag++;
+        int level;
+        for (int i = 0; i < constr.size(); i++) {
+            level = this.solver.voc.getLevel(constr.get(i));
+            if (level < 0) {
+                level = this.solver.decisionLevel();
+            }
+            if (this.flags[level] != this.flag) {
+                this.flags[level] = this.flag;
+                nblevel++;
+            }
+        }
+        return nblevel;
+    }
+
+    public ConflictTimer getTimer() {
+        return this.timer;
+    }
+
+    @Override
+    public String toString() {
+        return "Three tiers (core LBD<=" + CORE_LBD + ", tier2 LBD<=" //$NON-NLS-1$ //$NON-NLS-2$
+                + TIER2_LBD
+                + ", local) learned constraints deletion strategy with timer " //$NON-NLS-1$
+                + this.timer;
+    }
+
+    public void init() {
+        final int howmany = this.solver.voc.nVars();
+        if (this.flags.length <= howmany) {
+            this.flags = new int[howmany + 1];
+        }
+        this.flag = 0;
+        this.timer.reset();
+    }
+
+    public void onClauseLearning(Constr constr) {
+        Info info = new Info(computeLBD(constr));
+        // new clauses are not demoted at the next reduction
+        info.used = 1;
+        this.infos.put(constr, info);
+    }
+
+    public void onClauseImported(Constr imported, int lbd) {
+        Info info = new Info(lbd);
+        // like a new clause, not demoted at the next reduction
+        info.used = 1;
+        this.infos.put(imported, info);
+    }
+
+    public void onConflictAnalysis(Constr reason) {
+        if (!reason.learnt()) {
+            return;
+        }
+        this.solver.claBumpActivity(reason);
+        Info info = this.infos.get(reason);
+        if (info == null) {
+            return;
+        }
+        if (info.tier != CORE) {
+            int lbd = computeLBD(reason);
+            if (lbd < info.lbd) {
+                // a demoted clause moves back to tier 2 only if its LBD
+                // decreases
+                this.solver.stats.updateLBD++;
+                info.setLBD(lbd);
+            }
+        }
+        info.used = 1;
+    }
+
+    public void onPropagation(Constr from) {
+        // the LBD is only updated during conflict analysis, to avoid looking
+        // up the clause information on each propagation
+    }
+}
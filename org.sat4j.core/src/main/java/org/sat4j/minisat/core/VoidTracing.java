@@ -42,4 +42,8 @@ import org.sat4j.specs.SearchListenerAdapter;
 final class VoidTracing extends SearchListenerAdapter<ISolverService> {
     private static final long serialVersionUID = 1L;
 
+    @Override
+    public int getEventMask() {
+        return NONE;
+    }
 }
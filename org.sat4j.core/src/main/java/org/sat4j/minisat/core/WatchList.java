@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.Propagatable;
+
+/**
+ * Watch list storing next to each watcher a "blocker" literal, i.e. a literal
+ * of the watching constraint whose satisfaction means that the constraint does
+ * not need to be visited during propagation. This is the blocking literal
+ * scheme of MiniSAT 2.2: the blocker is checked in the watch list itself,
+ * without touching the constraint.
+ * 
+ * Watchers and blockers are kept in two parallel arrays. A watcher pushed
+ * without blocker receives {@link ILits#UNDEFINED}, so constraints unaware of
+ * the scheme keep working as before.
+ * 
+ * Like {@link org.sat4j.core.Vec}, the elements are compared using their
+ * references, not using the equals method.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class WatchList implements IVec<Propagatable> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Propagatable[] watchers;
+
+    private int[] blockers;
+
+    private int nbelem;
+
+    /**
+     * Create a watch list with an initial capacity of 5 elements.
+     */
+    public WatchList() {
+        this(5);
+    }
+
+    /**
+     * Create a watch list with a given capacity.
+     * 
+     * @param size
+     *            the capacity of the watch list.
+     */
+    public WatchList(int size) {
+        this.watchers = new Propagatable[size];
+        this.blockers = new int[size];
+    }
+
+    public int size() {
+        return this.nbelem;
+    }
+
+    public void shrink(int nofelems) {
+        while (nofelems-- > 0) {
+            this.watchers[--this.nbelem] = null;
+        }
+    }
+
+    public void shrinkTo(final int newsize) {
+        for (int i = this.nbelem; i > newsize; i--) {
+            this.watchers[i - 1] = null;
+        }
+        this.nbelem = newsize;
+    }
+
+    public void pop() {
+        this.watchers[--this.nbelem] = null;
+    }
+
+    public void growTo(final int newsize, final Propagatable pad) {
+        ensure(newsize);
+        for (int i = this.nbelem; i < newsize; i++) {
+            this.watchers[i] = pad;
+            this.blockers[i] = ILits.UNDEFINED;
+        }
+        this.nbelem = newsize;
+    }
+
+    public void ensure(final int nsize) {
+        if (nsize >= this.watchers.length) {
+            int ncapacity = Math.max(nsize, this.nbelem * 2);
+            Propagatable[] nwatchers = new Propagatable[ncapacity];
+            System.arraycopy(this.watchers, 0, nwatchers, 0, this.nbelem);
+            this.watchers = nwatchers;
+            int[] nblockers = new int[ncapacity];
+            System.arraycopy(this.blockers, 0, nblockers, 0, this.nbelem);
+            this.blockers = nblockers;
+        }
+    }
+
+    public IVec<Propagatable> push(final Propagatable elem) {
+        return push(elem, ILits.UNDEFINED);
+    }
+
+    /**
+     * Add a watcher together with its blocker.
+     * 
+     * @param elem
+     *            the watching constraint
+     * @param blocker
+     *            a literal of that constraint, in internal representation, or
+     *            {@link ILits#UNDEFINED} if there is no such literal.
+     * @return this
+     */
+    public IVec<Propagatable> push(final Propagatable elem, final int blocker) {
+        ensure(this.nbelem + 1);
+        this.watchers[this.nbelem] = elem;
+        this.blockers[this.nbelem++] = blocker;
+        return this;
+    }
+
+    public void unsafePush(final Propagatable elem) {
+        this.watchers[this.nbelem] = elem;
+        this.blockers[this.nbelem++] = ILits.UNDEFINED;
+    }
+
+    public void insertFirst(final Propagatable elem) {
+        if (this.nbelem > 0) {
+            push(this.watchers[0], this.blockers[0]);
+            this.watchers[0] = elem;
+            this.blockers[0] = ILits.UNDEFINED;
+            return;
+        }
+        push(elem);
+    }
+
+    public void insertFirstWithShifting(final Propagatable elem) {
+        if (this.nbelem > 0) {
+            ensure(this.nbelem + 1);
+            System.arraycopy(this.watchers, 0, this.watchers, 1, this.nbelem);
+            System.arraycopy(this.blockers, 0, this.blockers, 1, this.nbelem);
+            this.watchers[0] = elem;
+            this.blockers[0] = ILits.UNDEFINED;
+            this.nbelem++;
+            return;
+        }
+        push(elem);
+    }
+
+    public void clear() {
+        Arrays.fill(this.watchers, 0, this.nbelem, null);
+        this.nbelem = 0;
+    }
+
+    public Propagatable last() {
+        return this.watchers[this.nbelem - 1];
+    }
+
+    public Propagatable get(final int index) {
+        return this.watchers[index];
+    }
+
+    /**
+     * The blocker associated to the ith watcher.
+     * 
+     * @param index
+     *            the index of the watcher in the list
+     * @return a literal in internal representation, or {@link ILits#UNDEFINED}
+     *         .
+     */
+    public int blocker(final int index) {
+        return this.blockers[index];
+    }
+
+    public void set(int index, Propagatable elem) {
+        this.watchers[index] = elem;
+        this.blockers[index] = ILits.UNDEFINED;
+    }
+
+    public void remove(Propagatable elem) {
+        int j = 0;
+        for (; this.watchers[j] != elem; j++) {
+            if (j == size())
+                throw new NoSuchElementException();
+        }
+        removeAt(j);
+    }
+
+    public void removeFromLast(Propagatable elem) {
+        int j = this.nbelem - 1;
+        for (; this.watchers[j] != elem; j--) {
+            if (j == -1)
+                throw new NoSuchElementException();
+        }
+        removeAt(j);
+    }
+
+    private void removeAt(int j) {
+        System.arraycopy(this.watchers, j + 1, this.watchers, j, this.nbelem
+                - j - 1);
+        System.arraycopy(this.blockers, j + 1, this.blockers, j, this.nbelem
+                - j - 1);
+        this.watchers[--this.nbelem] = null;
+    }
+
+    public Propagatable delete(int index) {
+        Propagatable ith = this.watchers[index];
+        this.watchers[index] = this.watchers[--this.nbelem];
+        this.blockers[index] = this.blockers[this.nbelem];
+        this.watchers[this.nbelem] = null;
+        return ith;
+    }
+
+    /**
+     * Copy the content of the watch list to another vector. The blockers are
+     * only kept if the destination is a watch list.
+     * 
+     * @param copy
+     *            a non null vector
+     */
+    public void copyTo(IVec<Propagatable> copy) {
+        if (copy instanceof WatchList) {
+            final WatchList ncopy = (WatchList) copy;
+            final int nsize = this.nbelem + ncopy.nbelem;
+            ncopy.ensure(nsize);
+            System.arraycopy(this.watchers, 0, ncopy.watchers, ncopy.nbelem,
+                    this.nbelem);
+            System.arraycopy(this.blockers, 0, ncopy.blockers, ncopy.nbelem,
+                    this.nbelem);
+            ncopy.nbelem = nsize;
+        } else {
+            copy.ensure(copy.size() + this.nbelem);
+            for (int i = 0; i < this.nbelem; i++) {
+                copy.unsafePush(this.watchers[i]);
+            }
+        }
+    }
+
+    public <E> void copyTo(E[] dest) {
+        System.arraycopy(this.watchers, 0, dest, 0, this.nbelem);
+    }
+
+    public Propagatable[] toArray() {
+        return this.watchers;
+    }
+
+    public void moveTo(IVec<Propagatable> dest) {
+        copyTo(dest);
+        clear();
+    }
+
+    public void moveTo(int dest, int source) {
+        if (dest != source) {
+            this.watchers[dest] = this.watchers[source];
+            this.blockers[dest] = this.blockers[source];
+            this.watchers[source] = null;
+        }
+    }
+
+    /**
+     * Not supported: the order of the watchers is not meaningful.
+     */
+    public void sort(Comparator<Propagatable> comparator) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported: the order of the watchers is not meaningful.
+     */
+    public void sortUnique(Comparator<Propagatable> comparator) {
+        throw new UnsupportedOperationException();
+    }
+
+    public boolean isEmpty() {
+        return this.nbelem == 0;
+    }
+
+    public Iterator<Propagatable> iterator() {
+        return new Iterator<Propagatable>() {
+            private int i = 0;
+
+            public boolean hasNext() {
+                return this.i < WatchList.this.nbelem;
+            }
+
+            public Propagatable next() {
+                if (this.i == WatchList.this.nbelem) {
+                    throw new NoSuchElementException();
+                }
+                return WatchList.this.watchers[this.i++];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public boolean contains(Propagatable e) {
+        return indexOf(e) >= 0;
+    }
+
+    public int indexOf(Propagatable element) {
+        for (int i = 0; i < this.nbelem; i++) {
+            if (this.watchers[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public WatchList clone() {
+        WatchList cloned = new WatchList(this.nbelem);
+        this.copyTo(cloned);
+        return cloned;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stb = new StringBuilder();
+        for (int i = 0; i < this.nbelem; i++) {
+            if (i > 0) {
+                stb.append(","); //$NON-NLS-1$
+            }
+            stb.append(this.watchers[i]);
+        }
+        return stb.toString();
+    }
+}
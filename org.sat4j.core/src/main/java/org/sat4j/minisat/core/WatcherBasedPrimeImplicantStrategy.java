@@ -54,10 +54,12 @@ import org.sat4j.specs.Propagatable;
  * 
  */
 public class WatcherBasedPrimeImplicantStrategy implements
-        PrimeImplicantStrategy, MandatoryLiteralListener {
+        PrimeImplicantStrategy, MandatoryLiteralListener, VocabularyProvider {
 
     private int[] prime;
 
+    private ILits voc;
+
     private final Comparator<Integer> comparator;
 
     public WatcherBasedPrimeImplicantStrategy(Comparator<Integer> comparator) {
@@ -68,6 +70,10 @@ public class WatcherBasedPrimeImplicantStrategy implements
         this(null);
     }
 
+    public ILits getVocabulary() {
+        return this.voc;
+    }
+
     public void isMandatory(int p) {
         prime[var(p)] = toDimacs(p);
     }
@@ -76,6 +82,7 @@ public class WatcherBasedPrimeImplicantStrategy implements
         assert solver.qhead == solver.trail.size()
                 + solver.learnedLiterals.size();
         long begin = System.currentTimeMillis();
+        this.voc = solver.voc;
         if (solver.learnedLiterals.size() > 0) {
             solver.qhead = solver.trail.size();
         }
@@ -148,6 +155,10 @@ public class WatcherBasedPrimeImplicantStrategy implements
             solver.stats.inspects++;
             lwatched.get(i).propagatePI(this, p);
         }
+        BinaryImplications implications = solver.voc.binaryImplications(p);
+        for (int i = 0; i < implications.nbImplied; i++) {
+            isMandatory(implications.implied[i]);
+        }
         return null;
     }
 
@@ -29,6 +29,7 @@
  *******************************************************************************/
 package org.sat4j.minisat.learning;
 
+import org.sat4j.minisat.constraints.cnf.ArenaClause;
 import org.sat4j.minisat.constraints.cnf.WLClause;
 import org.sat4j.minisat.core.DataStructureFactory;
 import org.sat4j.specs.Constr;
@@ -51,7 +52,7 @@ public final class ClauseOnlyLearning<D extends DataStructureFactory>
 
     @Override
     protected boolean learningCondition(Constr constr) {
-        return constr instanceof WLClause;
+        return constr instanceof WLClause || constr instanceof ArenaClause;
     }
 
     @Override
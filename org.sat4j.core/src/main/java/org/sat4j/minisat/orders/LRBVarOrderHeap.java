@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.orders;
+
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.PrintWriter;
+
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+
+/**
+ * Learning Rate Branching heuristics.
+ * 
+ * The score of a variable is an exponential moving average of its learning
+ * rate, i.e. the ratio of conflicts in which the variable participated while it
+ * was assigned. The score is only updated when the variable gets unassigned,
+ * the step size of the average decreasing from 0.4 to 0.06 as the search
+ * progresses.
+ * 
+ * The variables are kept in the same heap as the VSIDS heuristics.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class LRBVarOrderHeap extends VarOrderHeap {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final double INITIAL_STEP_SIZE = 0.4;
+
+    private static final double MIN_STEP_SIZE = 0.06;
+
+    private static final double STEP_SIZE_DECREMENT = 1e-6;
+
+    private double stepSize = INITIAL_STEP_SIZE;
+
+    /**
+     * number of conflicts so far, including the one being analyzed.
+     */
+    private long learntCounter;
+
+    private boolean analyzing;
+
+    /**
+     * value of learntCounter when the variable got assigned, or -1 if it is not
+     * assigned.
+     */
+    private long[] assignedAt = new long[1];
+
+    private long[] participatedAt = new long[1];
+
+    private int[] participated = new int[1];
+
+    private long rewards;
+
+    public LRBVarOrderHeap() {
+    }
+
+    public LRBVarOrderHeap(IPhaseSelectionStrategy strategy) {
+        super(strategy);
+    }
+
+    /**
+     * Count the participation of the variable in the current conflict.
+     */
+    @Override
+    public void updateVar(int p) {
+        int v = var(p);
+        this.phaseStrategy.updateVar(p);
+        if (!this.analyzing) {
+            this.analyzing = true;
+            this.learntCounter++;
+        }
+        if (this.participatedAt[v] != this.learntCounter) {
+            this.participatedAt[v] = this.learntCounter;
+            this.participated[v]++;
+        }
+    }
+
+    @Override
+    public void varDecayActivity() {
+        this.analyzing = false;
+        if (this.stepSize > MIN_STEP_SIZE) {
+            this.stepSize -= STEP_SIZE_DECREMENT;
+        }
+    }
+
+    @Override
+    public void assignLiteral(int p) {
+        super.assignLiteral(p);
+        int v = var(p);
+        this.assignedAt[v] = this.learntCounter;
+        this.participated[v] = 0;
+    }
+
+    @Override
+    public void undo(int x) {
+        long start = this.assignedAt[x];
+        if (start >= 0) {
+            this.assignedAt[x] = -1;
+            long interval = this.learntCounter - start;
+            if (interval > 0) {
+                double old = this.activity[x];
+                double reward = (double) this.participated[x] / interval;
+                this.activity[x] = (1.0 - this.stepSize) * old
+                        + this.stepSize * reward;
+                this.rewards++;
+                if (this.heap.inHeap(x)) {
+                    if (this.activity[x] > old) {
+                        this.heap.increase(x);
+                    } else {
+                        this.heap.decrease(x);
+                    }
+                    return;
+                }
+            }
+        }
+        super.undo(x);
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        int nlength = this.lits.nVars() + 1;
+        if (this.assignedAt.length < nlength) {
+            this.assignedAt = new long[nlength];
+            this.participatedAt = new long[nlength];
+            this.participated = new int[nlength];
+        }
+        for (int i = 0; i < nlength; i++) {
+            this.assignedAt[i] = -1;
+            this.participatedAt[i] = -1;
+            this.participated[i] = 0;
+        }
+        this.learntCounter = 0;
+        this.analyzing = false;
+        this.stepSize = INITIAL_STEP_SIZE;
+    }
+
+    @Override
+    public void printStat(PrintWriter out, String prefix) {
+        super.printStat(out, prefix);
+        out.println(prefix + "LRB rewards\t" + this.rewards); //$NON-NLS-1$
+        out.println(prefix + "LRB step size\t" + this.stepSize); //$NON-NLS-1$
+    }
+
+    @Override
+    public String toString() {
+        return "LRB heuristics using a heap " + this.phaseStrategy; //$NON-NLS-1$
+    }
+}
@@ -53,9 +53,14 @@ public final class RandomLiteralSelectionStrategy implements
 
     /**
      * @since 2.2
+     * @deprecated each strategy now uses its own generator, for the solvers
+     *             of a portfolio to be independent of each other.
      */
+    @Deprecated
     public static final Random RAND = new Random(123456789);
 
+    private final Random rand = new Random(123456789);
+
     public void assignLiteral(int p) {
     }
 
@@ -66,7 +71,7 @@ public final class RandomLiteralSelectionStrategy implements
     }
 
     public int select(int var) {
-        if (RAND.nextBoolean()) {
+        if (this.rand.nextBoolean()) {
             return posLit(var);
         }
         return negLit(var);
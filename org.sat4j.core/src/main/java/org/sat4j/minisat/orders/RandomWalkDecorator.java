@@ -51,7 +51,9 @@ public class RandomWalkDecorator implements IOrder, Serializable {
 
     private double p;
 
-    private static final Random RAND = new Random(123456789);
+    // one generator per solver, for the solvers of a portfolio to be
+    // independent of each other
+    private final Random rand = new Random(123456789);
     private ILits voc;
     private int nbRandomWalks;
 
@@ -90,12 +92,12 @@ public class RandomWalkDecorator implements IOrder, Serializable {
     }
 
     public int select() {
-        if (RAND.nextDouble() < this.p) {
+        if (this.rand.nextDouble() < this.p) {
             int var, lit, max;
 
             while (!this.decorated.heap.empty()) {
                 max = this.decorated.heap.size();
-                var = this.decorated.heap.get(RAND.nextInt(max) + 1);
+                var = this.decorated.heap.get(this.rand.nextInt(max) + 1);
                 lit = getPhaseSelectionStrategy().select(var);
                 if (this.voc.isUnassigned(lit)) {
                     this.nbRandomWalks++;
@@ -128,6 +130,10 @@ public class RandomWalkDecorator implements IOrder, Serializable {
         this.decorated.updateVar(q);
     }
 
+    public int peek() {
+        return this.decorated.peek();
+    }
+
     public double varActivity(int q) {
         return this.decorated.varActivity(q);
     }
@@ -149,4 +155,8 @@ public class RandomWalkDecorator implements IOrder, Serializable {
         return this.decorated.getVariableHeuristics();
     }
 
+    public void setVariableHeuristics(double[] heuristics) {
+        this.decorated.setVariableHeuristics(heuristics);
+    }
+
 }
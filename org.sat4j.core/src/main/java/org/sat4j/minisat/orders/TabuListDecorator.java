@@ -125,6 +125,10 @@ public class TabuListDecorator implements IOrder {
         this.decorated.updateVar(q);
     }
 
+    public int peek() {
+        return this.decorated.peek();
+    }
+
     public double varActivity(int q) {
         return this.decorated.varActivity(q);
     }
@@ -147,4 +151,8 @@ public class TabuListDecorator implements IOrder {
         return this.decorated.getVariableHeuristics();
     }
 
+    public void setVariableHeuristics(double[] heuristics) {
+        this.decorated.setVariableHeuristics(heuristics);
+    }
+
 }
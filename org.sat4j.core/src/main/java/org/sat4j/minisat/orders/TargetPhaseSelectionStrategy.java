@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.orders;
+
+import static org.sat4j.core.LiteralsUtils.negLit;
+import static org.sat4j.core.LiteralsUtils.posLit;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.util.Random;
+
+/**
+ * Keeps track of the phase of the latest assignment, like
+ * {@link RSATPhaseSelectionStrategy}, but also of target and best phases, i.e.
+ * the phases of the longest trails found without conflict since the last
+ * restart and since the last rephasing. In stable mode, the target phases
+ * are used for branching.
+ * 
+ * The saved phases can be reset to the original, inverted, best or random
+ * phases from time to time (rephasing). That strategy is driven by
+ * {@link org.sat4j.minisat.restarts.StableFocusedRestarts}.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public final class TargetPhaseSelectionStrategy extends
+        AbstractPhaserecordingSelectionStrategy {
+
+    private static final long serialVersionUID = 1L;
+
+    private int[] original;
+
+    private int[] target;
+
+    private int[] best;
+
+    private boolean stable;
+
+    @Override
+    public void init(int nlength) {
+        super.init(nlength);
+        if (this.original == null || this.original.length < nlength) {
+            this.original = new int[nlength];
+            this.target = new int[nlength];
+            this.best = new int[nlength];
+        }
+        System.arraycopy(this.phase, 0, this.original, 0, nlength);
+        System.arraycopy(this.phase, 0, this.target, 0, nlength);
+        System.arraycopy(this.phase, 0, this.best, 0, nlength);
+    }
+
+    @Override
+    public void init(int var, int p) {
+        super.init(var, p);
+        this.original[var] = p;
+        this.target[var] = p;
+        this.best[var] = p;
+    }
+
+    public void assignLiteral(int p) {
+        this.phase[var(p)] = p;
+    }
+
+    @Override
+    public int select(int var) {
+        return this.stable ? this.target[var] : this.phase[var];
+    }
+
+    public void updateVar(int p) {
+    }
+
+    public void updateVarAtDecisionLevel(int p) {
+    }
+
+    /**
+     * Branch on the target phases (stable mode) or on the latest phases
+     * (focused mode).
+     * 
+     * @param stable
+     *            true to use the target phases.
+     */
+    public void setStable(boolean stable) {
+        this.stable = stable;
+    }
+
+    public boolean isStable() {
+        return this.stable;
+    }
+
+    /**
+     * Record the latest phases as target phases.
+     */
+    public void saveTarget() {
+        System.arraycopy(this.phase, 0, this.target, 0, this.phase.length);
+    }
+
+    /**
+     * Record the latest phases as best phases.
+     */
+    public void saveBest() {
+        System.arraycopy(this.phase, 0, this.best, 0, this.phase.length);
+    }
+
+    /**
+     * Reset the phases to their initial value.
+     */
+    public void rephaseOriginal() {
+        System.arraycopy(this.original, 0, this.phase, 0, this.phase.length);
+        saveTarget();
+    }
+
+    /**
+     * Reset the phases to the opposite of their initial value.
+     */
+    public void rephaseInverted() {
+        for (int i = 1; i < this.phase.length; i++) {
+            this.phase[i] = this.original[i] ^ 1;
+        }
+        saveTarget();
+    }
+
+    /**
+     * Reset the phases to the best phases.
+     */
+    public void rephaseBest() {
+        System.arraycopy(this.best, 0, this.phase, 0, this.phase.length);
+        saveTarget();
+    }
+
+    /**
+     * Reset the phases randomly.
+     * 
+     * @param rand
+     *            the random number generator to use.
+     */
+    public void rephaseRandom(Random rand) {
+        for (int i = 1; i < this.phase.length; i++) {
+            this.phase[i] = rand.nextBoolean() ? posLit(i) : negLit(i);
+        }
+        saveTarget();
+    }
+
+    @Override
+    public String toString() {
+        return "phase saving with target and best phases";
+    }
+}
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.orders;
+
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+
+/**
+ * Variable Move To Front heuristics.
+ * 
+ * The variables are kept in a doubly linked queue, the most recently bumped
+ * variable being at the end of the queue. Each variable receives a timestamp
+ * when it is moved, so that the search for an unassigned variable can start
+ * from the most recently moved variable still unassigned instead of scanning
+ * the whole queue. Bumping a variable is thus done in constant time, without
+ * any heap.
+ * 
+ * The variables involved in a conflict are collected during conflict analysis
+ * and moved to the end of the queue in the order of their previous timestamp
+ * when the conflict is over, in order to keep their relative order.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class VMTFVarOrder implements IOrder, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int NONE = 0;
+
+    protected ILits lits;
+
+    protected IPhaseSelectionStrategy phaseStrategy;
+
+    /**
+     * previous variable in the queue (towards the oldest).
+     */
+    private int[] prev = new int[1];
+
+    /**
+     * next variable in the queue (towards the most recent).
+     */
+    private int[] next = new int[1];
+
+    private int[] stamps = new int[1];
+
+    private int[] bumpedAt = new int[1];
+
+    private int first;
+
+    private int last;
+
+    private int stamp;
+
+    /**
+     * the variable from which the search for an unassigned variable starts.
+     * All the variables more recent than that one are assigned.
+     */
+    private int searchPtr;
+
+    private int conflicts;
+
+    private long[] toBump = new long[1];
+
+    private int nbToBump;
+
+    private long steps;
+
+    private long bumps;
+
+    public VMTFVarOrder() {
+        this(new PhaseInLastLearnedClauseSelectionStrategy());
+    }
+
+    public VMTFVarOrder(IPhaseSelectionStrategy strategy) {
+        this.phaseStrategy = strategy;
+    }
+
+    public void setLits(ILits lits) {
+        this.lits = lits;
+    }
+
+    public int select() {
+        int v = this.searchPtr;
+        while (v != NONE) {
+            if (this.lits.isUnassigned(v << 1)) {
+                this.searchPtr = v;
+                return this.phaseStrategy.select(v);
+            }
+            v = this.prev[v];
+            this.steps++;
+        }
+        this.searchPtr = NONE;
+        return ILits.UNDEFINED;
+    }
+
+    public int peek() {
+        int v = this.searchPtr;
+        while (v != NONE) {
+            if (this.lits.isUnassigned(v << 1)) {
+                this.searchPtr = v;
+                return v;
+            }
+            v = this.prev[v];
+            this.steps++;
+        }
+        this.searchPtr = NONE;
+        return ILits.UNDEFINED;
+    }
+
+    public void undo(int x) {
+        if (this.searchPtr == NONE
+                || this.stamps[x] > this.stamps[this.searchPtr]) {
+            this.searchPtr = x;
+        }
+    }
+
+    /**
+     * Collect the variable to be moved to the front of the queue at the end of
+     * the current conflict.
+     */
+    public void updateVar(int p) {
+        int v = var(p);
+        this.phaseStrategy.updateVar(p);
+        if (this.bumpedAt[v] != this.conflicts) {
+            this.bumpedAt[v] = this.conflicts;
+            if (this.nbToBump == this.toBump.length) {
+                this.toBump = Arrays.copyOf(this.toBump, this.nbToBump << 1);
+            }
+            this.toBump[this.nbToBump++] = (long) this.stamps[v] << 32 | v;
+        }
+    }
+
+    /**
+     * Move the variables collected during the conflict to the front of the
+     * queue, keeping their relative order.
+     */
+    public void varDecayActivity() {
+        if (this.nbToBump > 0) {
+            Arrays.sort(this.toBump, 0, this.nbToBump);
+            if (this.stamp > Integer.MAX_VALUE - this.nbToBump) {
+                renumber();
+                for (int i = 0; i < this.nbToBump; i++) {
+                    int v = (int) this.toBump[i];
+                    this.toBump[i] = (long) this.stamps[v] << 32 | v;
+                }
+            }
+            for (int i = 0; i < this.nbToBump; i++) {
+                moveToFront((int) this.toBump[i]);
+            }
+            this.bumps += this.nbToBump;
+            this.nbToBump = 0;
+        }
+        this.conflicts++;
+        if (this.conflicts == Integer.MAX_VALUE) {
+            this.conflicts = 1;
+            Arrays.fill(this.bumpedAt, 0);
+        }
+    }
+
+    private void moveToFront(int v) {
+        if (v != this.last) {
+            // unlink
+            if (this.prev[v] == NONE) {
+                this.first = this.next[v];
+            } else {
+                this.next[this.prev[v]] = this.next[v];
+            }
+            this.prev[this.next[v]] = this.prev[v];
+            // append
+            this.prev[v] = this.last;
+            this.next[v] = NONE;
+            this.next[this.last] = v;
+            this.last = v;
+        }
+        this.stamps[v] = ++this.stamp;
+        if (this.lits.isUnassigned(v << 1)) {
+            this.searchPtr = v;
+        }
+    }
+
+    private void renumber() {
+        this.stamp = 0;
+        for (int v = this.first; v != NONE; v = this.next[v]) {
+            this.stamps[v] = ++this.stamp;
+        }
+    }
+
+    private void append(int v) {
+        this.prev[v] = this.last;
+        this.next[v] = NONE;
+        if (this.last == NONE) {
+            this.first = v;
+        } else {
+            this.next[this.last] = v;
+        }
+        this.last = v;
+        this.stamps[v] = ++this.stamp;
+    }
+
+    public void init() {
+        int nlength = this.lits.nVars() + 1;
+        if (this.prev.length < nlength) {
+            this.prev = new int[nlength];
+            this.next = new int[nlength];
+            this.stamps = new int[nlength];
+            this.bumpedAt = new int[nlength];
+        } else {
+            Arrays.fill(this.bumpedAt, 0);
+        }
+        this.phaseStrategy.init(nlength);
+        this.first = NONE;
+        this.last = NONE;
+        this.stamp = 0;
+        this.conflicts = 1;
+        this.nbToBump = 0;
+        for (int i = 1; i < nlength; i++) {
+            this.stamps[i] = 0;
+            if (this.lits.belongsToPool(i)) {
+                append(i);
+            }
+        }
+        this.searchPtr = this.last;
+    }
+
+    public void setVarDecay(double d) {
+        // no decay in VMTF
+    }
+
+    public double varActivity(int p) {
+        return this.stamps[var(p)];
+    }
+
+    public void assignLiteral(int p) {
+        this.phaseStrategy.assignLiteral(p);
+    }
+
+    public void setPhaseSelectionStrategy(IPhaseSelectionStrategy strategy) {
+        this.phaseStrategy = strategy;
+    }
+
+    public IPhaseSelectionStrategy getPhaseSelectionStrategy() {
+        return this.phaseStrategy;
+    }
+
+    public void updateVarAtDecisionLevel(int q) {
+        this.phaseStrategy.updateVarAtDecisionLevel(q);
+    }
+
+    public double[] getVariableHeuristics() {
+        double[] heuristics = new double[this.stamps.length];
+        for (int i = 1; i < this.stamps.length; i++) {
+            heuristics[i] = this.stamps[i];
+        }
+        return heuristics;
+    }
+
+    /**
+     * Move the variables to the front of the queue by increasing value of
+     * their heuristics, so that the queue follows that order.
+     */
+    public void setVariableHeuristics(final double[] heuristics) {
+        int n = Math.min(heuristics.length, this.stamps.length);
+        Integer[] vars = new Integer[n - 1];
+        for (int i = 1; i < n; i++) {
+            vars[i - 1] = i;
+        }
+        Arrays.sort(vars, new Comparator<Integer>() {
+            public int compare(Integer v1, Integer v2) {
+                return Double.compare(heuristics[v1], heuristics[v2]);
+            }
+        });
+        for (Integer v : vars) {
+            if (this.lits.belongsToPool(v)) {
+                moveToFront(v);
+            }
+        }
+    }
+
+    public void printStat(PrintWriter out, String prefix) {
+        out.println(prefix + "queue steps\t" + this.steps); //$NON-NLS-1$
+        out.println(prefix + "bumped variables\t" + this.bumps); //$NON-NLS-1$
+    }
+
+    @Override
+    public String toString() {
+        return "VMTF heuristics using a doubly linked queue " + this.phaseStrategy; //$NON-NLS-1$
+    }
+}
@@ -120,6 +120,17 @@ public class VarOrderHeap implements IOrder, Serializable {
         return ILits.UNDEFINED;
     }
 
+    public int peek() {
+        while (!this.heap.empty()) {
+            int var = this.heap.get(1);
+            if (this.lits.isUnassigned(var << 1)) {
+                return var;
+            }
+            this.heap.getmin();
+        }
+        return ILits.UNDEFINED;
+    }
+
     /**
      * Change la valeur de varDecay.
      * 
@@ -248,4 +259,19 @@ public class VarOrderHeap implements IOrder, Serializable {
     public double[] getVariableHeuristics() {
         return this.activity;
     }
+
+    public void setVariableHeuristics(double[] heuristics) {
+        int n = Math.min(heuristics.length, this.activity.length);
+        for (int i = 1; i < n; i++) {
+            double old = this.activity[i];
+            this.activity[i] = heuristics[i];
+            if (this.heap.inHeap(i)) {
+                if (heuristics[i] > old) {
+                    this.heap.increase(i);
+                } else if (heuristics[i] < old) {
+                    this.heap.decrease(i);
+                }
+            }
+        }
+    }
 }
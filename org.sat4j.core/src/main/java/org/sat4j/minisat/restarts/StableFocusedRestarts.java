@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.restarts;
+
+import java.util.Random;
+
+import org.sat4j.minisat.core.RestartStrategy;
+import org.sat4j.minisat.core.SearchParams;
+import org.sat4j.minisat.core.SolverStats;
+import org.sat4j.minisat.orders.TargetPhaseSelectionStrategy;
+import org.sat4j.specs.Constr;
+
+/**
+ * Alternate between a focused mode, with frequent Glucose-style restarts and
+ * phase saving, and a stable mode, with Luby restarts and target phases. Each
+ * mode lasts twice as many conflicts as the previous one, starting with 1000
+ * conflicts in focused mode.
+ * 
+ * The target phases (in stable mode) and the best phases of the phase
+ * selection strategy are updated after each conflict from the size of the
+ * trail when the conflict occurred.
+ * The phases are periodically reset at restart time, using in turn the
+ * original, inverted, best and random phases. The delay between two
+ * rephasings grows arithmetically.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class StableFocusedRestarts implements RestartStrategy {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long FIRST_MODE_LENGTH = 1000;
+
+    private static final long REPHASE_INTERVAL = 1000;
+
+    private static final int STABLE_LUBY_FACTOR = 512;
+
+    private final RestartStrategy focused;
+
+    private final RestartStrategy stable;
+
+    private final TargetPhaseSelectionStrategy phases;
+
+    private final Random rand = new Random(123456789);
+
+    private RestartStrategy current;
+
+    private SearchParams params;
+
+    private SolverStats stats;
+
+    private long conflicts;
+
+    private long modeLength;
+
+    private long nextSwitch;
+
+    private int rephases;
+
+    private long nextRephase;
+
+    private int targetTrail;
+
+    private int bestTrail;
+
+    public StableFocusedRestarts(TargetPhaseSelectionStrategy phases) {
+        this(new Glucose21Restarts(), new LubyRestarts(STABLE_LUBY_FACTOR),
+                phases);
+    }
+
+    /**
+     * @param focused
+     *            the restart strategy used in focused mode.
+     * @param stable
+     *            the restart strategy used in stable mode.
+     * @param phases
+     *            the phase selection strategy of the solver.
+     */
+    public StableFocusedRestarts(RestartStrategy focused,
+            RestartStrategy stable, TargetPhaseSelectionStrategy phases) {
+        this.focused = focused;
+        this.stable = stable;
+        this.phases = phases;
+        this.current = focused;
+    }
+
+    public void init(SearchParams params, SolverStats stats) {
+        this.params = params;
+        this.stats = stats;
+        this.focused.init(params, stats);
+        this.stable.init(params, stats);
+        this.current = this.focused;
+        this.phases.setStable(false);
+        this.conflicts = 0;
+        this.modeLength = FIRST_MODE_LENGTH;
+        this.nextSwitch = FIRST_MODE_LENGTH;
+        this.rephases = 0;
+        this.nextRephase = REPHASE_INTERVAL;
+        this.targetTrail = 0;
+        this.bestTrail = 0;
+    }
+
+    @Deprecated
+    public long nextRestartNumberOfConflict() {
+        return this.current.nextRestartNumberOfConflict();
+    }
+
+    public boolean shouldRestart() {
+        return this.conflicts >= this.nextSwitch
+                || this.current.shouldRestart();
+    }
+
+    public void onRestart() {
+        if (this.conflicts >= this.nextSwitch) {
+            switchMode();
+        } else {
+            this.current.onRestart();
+        }
+        if (this.conflicts >= this.nextRephase) {
+            rephase();
+        }
+        this.targetTrail = 0;
+    }
+
+    private void switchMode() {
+        if (this.current == this.focused) {
+            this.current = this.stable;
+        } else {
+            this.current = this.focused;
+        }
+        this.current.init(this.params, this.stats);
+        this.current.reset();
+        this.phases.setStable(this.current == this.stable);
+        this.modeLength *= 2;
+        this.nextSwitch = this.conflicts + this.modeLength;
+    }
+
+    private void rephase() {
+        this.rephases++;
+        this.nextRephase = this.conflicts + REPHASE_INTERVAL
+                * (this.rephases + 1);
+        if (this.rephases == 1) {
+            this.phases.rephaseOriginal();
+        } else if (this.rephases == 2) {
+            this.phases.rephaseInverted();
+        } else {
+            switch (this.rephases % 6) {
+            case 1:
+                this.phases.rephaseRandom(this.rand);
+                break;
+            case 3:
+                this.phases.rephaseOriginal();
+                break;
+            case 5:
+                this.phases.rephaseInverted();
+                break;
+            default:
+                this.phases.rephaseBest();
+                this.bestTrail = 0;
+            }
+        }
+    }
+
+    public void onBackjumpToRootLevel() {
+        this.current.onBackjumpToRootLevel();
+    }
+
+    public void reset() {
+        this.focused.reset();
+        this.stable.reset();
+    }
+
+    public void newConflict() {
+        this.conflicts++;
+        this.current.newConflict();
+    }
+
+    public void newLearnedClause(Constr learned, int trailLevel) {
+        // the LBD statistics of the focused mode are kept up to date
+        this.focused.newLearnedClause(learned, trailLevel);
+        if (this.current != this.focused) {
+            this.current.newLearnedClause(learned, trailLevel);
+        }
+        if (this.current == this.stable && trailLevel > this.targetTrail) {
+            this.targetTrail = trailLevel;
+            this.phases.saveTarget();
+        }
+        if (trailLevel > this.bestTrail) {
+            this.bestTrail = trailLevel;
+            this.phases.saveBest();
+        }
+    }
+
+    public boolean isStable() {
+        return this.current == this.stable;
+    }
+
+    @Override
+    public String toString() {
+        return "Stable (" + this.stable + ") / focused (" + this.focused
+                + ") modes switching with target phases and rephasing";
+    }
+}
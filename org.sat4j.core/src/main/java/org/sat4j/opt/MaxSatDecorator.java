@@ -30,6 +30,7 @@
 package org.sat4j.opt;
 
 import org.sat4j.core.ConstrGroup;
+import org.sat4j.core.FlatClauses;
 import org.sat4j.core.VecInt;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -173,4 +174,11 @@ public final class MaxSatDecorator extends AbstractSelectorVariablesDecorator {
         // TODO
         throw new UnsupportedOperationException("No implemented yet");
     }
+
+    @Override
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        // each clause gets its own selector variable
+        FlatClauses.addClauses(this, literals, from, to);
+    }
 }
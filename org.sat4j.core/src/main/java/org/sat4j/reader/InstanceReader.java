@@ -54,6 +54,8 @@ public class InstanceReader extends Reader {
 
     private LecteurDimacs dimacs;
 
+    private MappedDimacsReader mapped;
+
     private Reader reader = null;
 
     private final ISolver solver;
@@ -71,6 +73,13 @@ public class InstanceReader extends Reader {
         return this.dimacs;
     }
 
+    private Reader getMappedSATReader() {
+        if (this.mapped == null) {
+            this.mapped = new MappedDimacsReader(this.solver);
+        }
+        return this.mapped;
+    }
+
     private Reader getEZSATReader() {
         if (this.ezdimacs == null) {
             this.ezdimacs = new DimacsReader(this.solver);// new
@@ -130,6 +139,10 @@ public class InstanceReader extends Reader {
         if (fname.endsWith(".aig")) {
             return getAIGReader();
         }
+        if (fname.endsWith(".cnf") && !isUsingMapping()) {
+            // compressed files are still read by LecteurDimacs
+            return getMappedSATReader();
+        }
         return getDefaultSATReader();
     }
 
@@ -0,0 +1,441 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.sat4j.core.FlatClauses;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IProblem;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * A Dimacs reader for large uncompressed files.
+ * 
+ * The file is memory mapped and split into chunks starting at the beginning
+ * of a line. The chunks are tokenized in parallel into arrays of literals,
+ * each clause being terminated by a 0 as in the file, and the arrays are
+ * given to the solver in the order of the file with
+ * {@link ISolver#addClauses(int[], int, int)}. A clause may span several
+ * chunks. Only a few chunks are tokenized ahead of the solver, so
+ * the memory needed does not depend on the size of the file.
+ * 
+ * Compressed files, URLs and streams are read by a {@link LecteurDimacs}.
+ * The special comments of LecteurDimacs (p-minimal models, mapping) are
+ * ignored in memory mapped files.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class MappedDimacsReader extends Reader implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Default size of a chunk: 8MB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 23;
+
+    private static final int NEWLINE_WINDOW = 1 << 16;
+
+    private final ISolver solver;
+
+    private final int chunkSize;
+
+    private final int nbThreads;
+
+    private int nbVars = -1;
+
+    private int nbClauses = -1;
+
+    public MappedDimacsReader(ISolver solver) {
+        this(solver, DEFAULT_CHUNK_SIZE,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 
+     * @param solver
+     *            the solver to feed.
+     * @param chunkSize
+     *            the approximate number of bytes tokenized by a thread at
+     *            once.
+     * @param nbThreads
+     *            the number of threads tokenizing the file.
+     */
+    public MappedDimacsReader(ISolver solver, int chunkSize, int nbThreads) {
+        if (chunkSize <= 0 || nbThreads <= 0) {
+            throw new IllegalArgumentException(
+                    "The chunk size and the number of threads must be positive");
+        }
+        this.solver = solver;
+        this.chunkSize = chunkSize;
+        this.nbThreads = nbThreads;
+    }
+
+    @Override
+    public IProblem parseInstance(final String filename)
+            throws ParseFormatException, IOException, ContradictionException {
+        if (filename.startsWith("http://") || filename.endsWith(".gz")
+                || filename.endsWith(".bz2") || filename.endsWith(".lzma")) {
+            return super.parseInstance(filename);
+        }
+        RandomAccessFile file = new RandomAccessFile(filename, "r");
+        try {
+            return parseInstance(file.getChannel());
+        } finally {
+            file.close();
+        }
+    }
+
+    @Override
+    public IProblem parseInstance(final InputStream in)
+            throws ParseFormatException, ContradictionException, IOException {
+        return new LecteurDimacs(this.solver).parseInstance(in);
+    }
+
+    private IProblem parseInstance(FileChannel channel)
+            throws ParseFormatException, ContradictionException, IOException {
+        long size = channel.size();
+        long start = readHeader(channel, size);
+        this.solver.reset();
+        this.solver.newVar(this.nbVars);
+        this.solver.setExpectedNumberOfClauses(this.nbClauses);
+        ExecutorService pool = Executors.newFixedThreadPool(this.nbThreads,
+                new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "MappedDimacsReader"); //$NON-NLS-1$
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        try {
+            LinkedList<Future<Chunk>> pending = new LinkedList<Future<Chunk>>();
+            IVecInt clause = new VecInt();
+            long from = start;
+            boolean more = true;
+            while (more) {
+                // keep the threads busy while the solver is fed
+                while (from < size && pending.size() < 2 * this.nbThreads) {
+                    long to = nextLine(channel, Math.min(size, from
+                            + this.chunkSize), size);
+                    pending.add(pool.submit(new Chunk(channel, from, to)));
+                    from = to;
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                more = addClauses(get(pending.removeFirst()), clause);
+            }
+            if (!clause.isEmpty()) {
+                // no 0 ends the last clause
+                this.solver.addClause(clause);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return this.solver;
+    }
+
+    private static Chunk get(Future<Chunk> future)
+            throws ParseFormatException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the file");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ParseFormatException) {
+                throw (ParseFormatException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Feed the solver with the clauses of a chunk.
+     * 
+     * @param clause
+     *            the beginning of a clause started in the previous chunks, the
+     *            end of the last clause of the chunk on return.
+     * @return false iff the end of the formula is reached.
+     */
+    private boolean addClauses(Chunk chunk, IVecInt clause)
+            throws ContradictionException {
+        int[] literals = chunk.literals;
+        int first = 0;
+        if (!clause.isEmpty()) {
+            while (first < chunk.size && literals[first] != 0) {
+                clause.push(literals[first++]);
+            }
+            if (first == chunk.size) {
+                return !chunk.endOfFormula;
+            }
+            this.solver.addClause(clause);
+            clause.clear();
+            first++;
+        }
+        int last = FlatClauses.endOfLastClause(literals, first, chunk.size);
+        this.solver.addClauses(literals, first, last);
+        for (int i = last; i < chunk.size; i++) {
+            clause.push(literals[i]);
+        }
+        return !chunk.endOfFormula;
+    }
+
+    /**
+     * Read the comments and the problem line. The file is mapped by windows
+     * of {@link #NEWLINE_WINDOW} bytes, each one starting at the beginning of
+     * a line.
+     * 
+     * @return the position of the first clause.
+     */
+    private long readHeader(FileChannel channel, long size)
+            throws IOException, ParseFormatException {
+        long position = 0;
+        while (position < size) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(NEWLINE_WINDOW, size - position));
+            int limit = buffer.limit();
+            boolean lastWindow = position + limit == size;
+            int i = 0;
+            int end;
+            byte b;
+            for (;;) {
+                while (i < limit && isSpace(buffer.get(i))) {
+                    i++;
+                }
+                if (i == limit) {
+                    break;
+                }
+                b = buffer.get(i);
+                if (b != 'p' && b != 'c') {
+                    checkProblemLine();
+                    return position + i;
+                }
+                end = skipLine(buffer, i);
+                if (end == limit && !lastWindow) {
+                    // the line does not end in that window
+                    break;
+                }
+                if (b == 'p') {
+                    readProblemLine(buffer, i + 1, end);
+                }
+                i = end;
+            }
+            if (i == 0) {
+                // a comment longer than the window
+                if (buffer.get(0) == 'p') {
+                    throw new ParseFormatException(
+                            "DIMACS error: problem line too long");
+                }
+                position = nextLine(channel, position, size);
+            } else {
+                position += i;
+            }
+        }
+        checkProblemLine();
+        return size;
+    }
+
+    private void checkProblemLine() throws ParseFormatException {
+        if (this.nbVars < 0) {
+            throw new ParseFormatException(
+                    "DIMACS error: wrong max number of variables");
+        }
+    }
+
+    private void readProblemLine(MappedByteBuffer buffer, int from, int end)
+            throws ParseFormatException {
+        StringBuilder line = new StringBuilder(end - from);
+        for (int i = from; i < end; i++) {
+            line.append((char) buffer.get(i));
+        }
+        String[] tokens = line.toString().trim().split("\\s+");
+        if (tokens.length < 3 || !"cnf".equals(tokens[0])) {
+            throw new ParseFormatException("Expecting file in cnf format.");
+        }
+        try {
+            this.nbVars = Integer.parseInt(tokens[1]);
+            this.nbClauses = Integer.parseInt(tokens[2]);
+        } catch (NumberFormatException e) {
+            throw new ParseFormatException(e);
+        }
+    }
+
+    private static int skipLine(MappedByteBuffer buffer, int from) {
+        int i = from;
+        int limit = buffer.limit();
+        while (i < limit && buffer.get(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * The position following the first end of line after a given position.
+     */
+    private static long nextLine(FileChannel channel, long from, long size)
+            throws IOException {
+        long position = from;
+        while (position < size) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(NEWLINE_WINDOW, size - position));
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += buffer.limit();
+        }
+        return size;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * The literals of a part of the file, the clauses being terminated by 0.
+     */
+    private static final class Chunk implements Callable<Chunk> {
+
+        private final FileChannel channel;
+
+        private final long from;
+
+        private final long to;
+
+        private int[] literals;
+
+        private int size;
+
+        private boolean endOfFormula;
+
+        Chunk(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Chunk call() throws IOException, ParseFormatException {
+            MappedByteBuffer buffer = this.channel.map(
+                    FileChannel.MapMode.READ_ONLY, this.from, this.to
+                            - this.from);
+            int limit = buffer.limit();
+            this.literals = new int[limit / 4 + 1];
+            int i = 0;
+            byte b;
+            boolean neg;
+            int val;
+            while (i < limit) {
+                b = buffer.get(i);
+                if (isSpace(b)) {
+                    i++;
+                    continue;
+                }
+                if (b == 'c') {
+                    i = skipLine(buffer, i);
+                    continue;
+                }
+                if (b == '%') {
+                    // SATLIB format: the rest of the file is not a formula
+                    this.endOfFormula = true;
+                    break;
+                }
+                neg = b == '-';
+                if (neg || b == '+') {
+                    i++;
+                }
+                if (i == limit || (b = buffer.get(i)) < '0' || b > '9') {
+                    throw new ParseFormatException("Unknown character "
+                            + (i == limit ? "EOF" : String.valueOf((char) b)));
+                }
+                val = 0;
+                while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+                    val = val * 10 + b - '0';
+                    i++;
+                }
+                push(neg ? -val : val);
+            }
+            return this;
+        }
+
+        private void push(int lit) {
+            if (this.size == this.literals.length) {
+                int[] bigger = new int[this.size * 2];
+                System.arraycopy(this.literals, 0, bigger, 0, this.size);
+                this.literals = bigger;
+            }
+            this.literals[this.size++] = lit;
+        }
+    }
+
+    @Override
+    public String decode(int[] model) {
+        StringBuilder stb = new StringBuilder();
+        for (int element : model) {
+            stb.append(element);
+            stb.append(" ");
+        }
+        stb.append("0");
+        return stb.toString();
+    }
+
+    @Override
+    public void decode(int[] model, PrintWriter out) {
+        for (int element : model) {
+            out.print(element);
+            out.print(" ");
+        }
+        out.print("0");
+    }
+}
@@ -198,6 +198,33 @@ public interface ISolver extends IProblem, Serializable {
      */
     void addAllClauses(IVec<IVecInt> clauses) throws ContradictionException;
 
+    /**
+     * Create clauses stored one after the other in an array of Dimacs
+     * literals, each clause being terminated by a 0 as in a Dimacs file. It
+     * allows readers and generators to feed the solver with many clauses
+     * without creating one vector per clause. The constraints created that
+     * way cannot be removed one by one.
+     * 
+     * @param literals
+     *            the clauses, e.g. <code>1 -2 3 0 -1 2 0</code>. The array can
+     *            be reused since the solver is not supposed to keep a
+     *            reference to that array.
+     * @param from
+     *            the index of the first literal of the first clause.
+     * @param to
+     *            the index following the 0 ending the last clause.
+     * @throws ContradictionException
+     *             iff a clause is empty or contains only falsified literals
+     *             after unit propagation
+     * @throws IllegalArgumentException
+     *             if the last clause is not terminated by a 0.
+     * @see #addClause(IVecInt)
+     * @see org.sat4j.core.FlatClauses
+     * @since 2.3.6
+     */
+    void addClauses(int[] literals, int from, int to)
+            throws ContradictionException;
+
     /**
      * Create a cardinality constraint of the type "at most n of those literals
      * must be satisfied"
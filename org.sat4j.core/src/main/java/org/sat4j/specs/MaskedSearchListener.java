@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.specs;
+
+/**
+ * A search listener which only needs some categories of events. The solver
+ * does not notify the events of the other categories at all, so that
+ * listening to the outcome of the search does not slow down propagation and
+ * conflict analysis.
+ * 
+ * The events {@link #init(ISolverService)}, {@link #start()},
+ * {@link #end(Lbool)}, {@link #solutionFound(int[], RandomAccessModel)},
+ * {@link #restarting()} and {@link #cleaning()} are always notified. A
+ * listener which does not implement that interface receives all the events.
+ * 
+ * @author leberre
+ * 
+ * @param <S>
+ *            a solver service
+ * @since 2.3.6
+ */
+public interface MaskedSearchListener<S extends ISolverService>
+        extends SearchListener<S> {
+
+    /**
+     * {@link #propagating(int)} and {@link #enqueueing(int, IConstr)}.
+     */
+    int PROPAGATION = 1;
+
+    /**
+     * {@link #beginLoop()}, {@link #assuming(int)} and
+     * {@link #backtracking(int)}.
+     */
+    int DECISIONS = 2;
+
+    /**
+     * {@link #adding(int)}, {@link #learn(IConstr)}, {@link #learnUnit(int)}
+     * and {@link #delete(IConstr)}.
+     */
+    int LEARNING = 4;
+
+    /**
+     * {@link #conflictFound(IConstr, int, int)}, {@link #conflictFound(int)}
+     * and {@link #backjump(int)}.
+     */
+    int CONFLICTS = 8;
+
+    int NONE = 0;
+
+    int ALL = PROPAGATION | DECISIONS | LEARNING | CONFLICTS;
+
+    /**
+     * The categories of events the listener needs. The solver reads it when
+     * the listener is set, so it must not change afterwards.
+     * 
+     * @return a combination of {@link #PROPAGATION}, {@link #DECISIONS},
+     *         {@link #LEARNING} and {@link #CONFLICTS}.
+     */
+    int getEventMask();
+}
@@ -30,7 +30,7 @@
 package org.sat4j.specs;
 
 public abstract class SearchListenerAdapter<S extends ISolverService>
-        implements SearchListener<S> {
+        implements MaskedSearchListener<S> {
 
     /**
 	 * 
@@ -91,4 +91,11 @@ public abstract class SearchListenerAdapter<S extends ISolverService>
     public void cleaning() {
     }
 
+    /**
+     * By default, an adapter receives all the events. Subclasses which only
+     * override some of the methods should restrict the mask accordingly.
+     */
+    public int getEventMask() {
+        return ALL;
+    }
 }
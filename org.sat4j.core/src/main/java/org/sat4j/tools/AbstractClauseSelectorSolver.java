@@ -31,7 +31,9 @@ package org.sat4j.tools;
 
 import java.util.Collection;
 
+import org.sat4j.core.FlatClauses;
 import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.ISolver;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.IteratorInt;
@@ -183,4 +185,11 @@ public abstract class AbstractClauseSelectorSolver<T extends ISolver> extends
     public void externalState() {
         this.selectedState = external;
     }
+
+    @Override
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        // the subclasses add a selector variable to each clause
+        FlatClauses.addClauses(this, literals, from, to);
+    }
 }
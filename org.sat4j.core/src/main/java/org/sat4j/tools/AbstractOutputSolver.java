@@ -33,6 +33,7 @@ import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.util.Map;
 
+import org.sat4j.core.FlatClauses;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -70,6 +71,11 @@ public abstract class AbstractOutputSolver implements ISolver {
         throw new UnsupportedOperationException();
     }
 
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        FlatClauses.addClauses(this, literals, from, to);
+    }
+
     public void setTimeout(int t) {
         // TODO Auto-generated method stub
 
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An output stream writing its data from a background thread, so that the
+ * solver does not wait for the disk while writing a proof.
+ * 
+ * The data is gathered in fixed size chunks which are handed over to the
+ * writer thread once full. The number of chunks waiting to be written is
+ * bounded: the solver is slowed down instead of filling the memory when the
+ * disk cannot keep up. An error of the writer thread is reported by the next
+ * call to the stream.
+ * 
+ * This stream must be used by a single thread.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int MAX_PENDING_CHUNKS = 64;
+
+    /**
+     * Marks the end of the data in the queue of chunks to write.
+     */
+    private static final Chunk END = new Chunk(0);
+
+    private static final class Chunk {
+        final byte[] data;
+        int size;
+
+        Chunk(int capacity) {
+            this.data = new byte[capacity];
+        }
+    }
+
+    private final OutputStream out;
+
+    private final BlockingQueue<Chunk> pending = new ArrayBlockingQueue<Chunk>(
+            MAX_PENDING_CHUNKS);
+
+    private final ConcurrentLinkedQueue<Chunk> recycled = new ConcurrentLinkedQueue<Chunk>();
+
+    private final Thread writer;
+
+    private volatile IOException failure;
+
+    private Chunk current = new Chunk(CHUNK_SIZE);
+
+    private boolean closed;
+
+    public AsyncOutputStream(OutputStream out) {
+        this.out = out;
+        this.writer = new Thread(new Runnable() {
+            public void run() {
+                writeChunks();
+            }
+        }, "sat4j-proof-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private void writeChunks() {
+        try {
+            Chunk chunk;
+            while ((chunk = this.pending.take()) != END) {
+                if (this.failure == null) {
+                    try {
+                        this.out.write(chunk.data, 0, chunk.size);
+                    } catch (IOException e) {
+                        this.failure = e;
+                    }
+                }
+                chunk.size = 0;
+                this.recycled.offer(chunk);
+            }
+            if (this.failure == null) {
+                this.out.flush();
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        } catch (InterruptedException e) {
+            this.failure = new IOException("Proof writer interrupted");
+        }
+    }
+
+    private void checkState() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    private void handOver() throws IOException {
+        checkState();
+        if (this.current.size == 0) {
+            return;
+        }
+        try {
+            this.pending.put(this.current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the proof");
+        }
+        this.current = this.recycled.poll();
+        if (this.current == null) {
+            this.current = new Chunk(CHUNK_SIZE);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (this.current.size == CHUNK_SIZE) {
+            handOver();
+        }
+        this.current.data[this.current.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int from = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.current.size == CHUNK_SIZE) {
+                handOver();
+            }
+            int n = Math.min(remaining, CHUNK_SIZE - this.current.size);
+            System.arraycopy(b, from, this.current.data, this.current.size,
+                    n);
+            this.current.size += n;
+            from += n;
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Write the decimal representation of an integer.
+     * 
+     * @param value
+     *            an integer.
+     * @throws IOException
+     *             if the data cannot be written.
+     */
+    public void writeDecimal(int value) throws IOException {
+        if (this.current.size > CHUNK_SIZE - 11) {
+            handOver();
+        }
+        byte[] data = this.current.data;
+        long v = value;
+        if (v < 0) {
+            data[this.current.size++] = '-';
+            v = -v;
+        }
+        int start = this.current.size;
+        do {
+            data[this.current.size++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        // the digits have been written backwards
+        for (int i = start, j = this.current.size - 1; i < j; i++, j--) {
+            byte tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+    }
+
+    /**
+     * Write a non negative integer as a variable length sequence of bytes,
+     * seven bits at a time starting with the least significant ones, as in
+     * the binary DRAT and LRAT formats.
+     * 
+     * @param value
+     *            a non negative integer.
+     * @throws IOException
+     *             if the data cannot be written.
+     */
+    public void writeVarint(long value) throws IOException {
+        if (this.current.size > CHUNK_SIZE - 10) {
+            handOver();
+        }
+        byte[] data = this.current.data;
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            data[this.current.size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[this.current.size++] = (byte) v;
+    }
+
+    /**
+     * Hand over the data written so far to the writer thread, without
+     * waiting for it to be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        handOver();
+    }
+
+    /**
+     * Write all the remaining data then close the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            handOver();
+        } finally {
+            this.closed = true;
+            try {
+                this.pending.put(END);
+                this.writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.out.close();
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+}
@@ -102,4 +102,9 @@ public class ConflictDepthTracing extends SearchListenerAdapter<ISolverService>
         this.conflictDepthCleanVisu.addPoint(this.counter, this.nVar);
         this.conflictDepthVisu.addInvisiblePoint(this.counter, this.nVar);
     }
+
+    @Override
+    public int getEventMask() {
+        return CONFLICTS;
+    }
 }
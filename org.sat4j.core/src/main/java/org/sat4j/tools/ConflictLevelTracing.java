@@ -108,4 +108,9 @@ public class ConflictLevelTracing extends SearchListenerAdapter<ISolverService>
         this.cleanTool.addPoint(this.counter, this.maxDLevel);
         this.visuTool.addInvisiblePoint(this.counter, this.nVar);
     }
+
+    @Override
+    public int getEventMask() {
+        return CONFLICTS;
+    }
 }
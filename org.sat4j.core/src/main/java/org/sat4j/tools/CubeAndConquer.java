@@ -0,0 +1,628 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * A parallel solver splitting the formula into cubes, solved independently by
+ * several CDCL workers (cube and conquer).
+ * 
+ * The decorated solver first splits the formula using a lookahead procedure
+ * (see {@link Solver#lookahead(IVecInt, int)}) until there are enough cubes
+ * for all the workers. Each worker then solves the cubes taken from a shared
+ * queue with its own fork of the decorated solver (see {@link Solver#fork()})
+ * using the cube as assumptions. All the workers stop as soon as one of them
+ * finds a model. A cube that cannot be solved within a given number of
+ * conflicts is split again by the worker, which puts the two new cubes in
+ * front of the queue. The formula is unsatisfiable when all the cubes are
+ * refuted.
+ * 
+ * The forks are kept, with their learned clauses, from one call to the next.
+ * They are created again only once the formula of the decorated solver has
+ * changed (see {@link Solver#getFormulaVersion()}).
+ * 
+ * Only the model is available once the formula is solved.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class CubeAndConquer extends SolverDecorator<Solver<?>> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Time to wait for a cube before checking whether the search is over.
+     */
+    private static final int POLL_TIME = 10;
+
+    private final int nbThreads;
+
+    private int cubesPerThread = 8;
+
+    private int lookaheadCandidates = 20;
+
+    private int conflictsPerCube = 2000;
+
+    private int[] model;
+
+    private boolean[] truthValues;
+
+    private transient volatile Conquest current;
+
+    /**
+     * The forks of the decorated solver used by the workers, null if they have
+     * to be created again.
+     */
+    private transient List<Solver<?>> forks;
+
+    /**
+     * The version of the formula of the decorated solver when it was forked.
+     */
+    private transient int forksVersion;
+
+    private int createdForks;
+
+    private int cubes;
+
+    private int refutedCubes;
+
+    private int splitCubes;
+
+    /**
+     * Create a cube and conquer solver with one worker per available
+     * processor.
+     * 
+     * @param solver
+     *            the solver to split the formula and to fork the workers from.
+     */
+    public CubeAndConquer(Solver<?> solver) {
+        this(solver, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a cube and conquer solver.
+     * 
+     * @param solver
+     *            the solver to split the formula and to fork the workers from.
+     * @param nbThreads
+     *            the number of workers.
+     */
+    public CubeAndConquer(Solver<?> solver, int nbThreads) {
+        super(solver);
+        if (nbThreads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread is required");
+        }
+        this.nbThreads = nbThreads;
+    }
+
+    public int getCubesPerThread() {
+        return this.cubesPerThread;
+    }
+
+    /**
+     * Set the number of cubes per worker produced by the initial split.
+     * 
+     * @param cubesPerThread
+     *            a positive number.
+     */
+    public void setCubesPerThread(int cubesPerThread) {
+        this.cubesPerThread = cubesPerThread;
+    }
+
+    public int getLookaheadCandidates() {
+        return this.lookaheadCandidates;
+    }
+
+    /**
+     * Set the maximum number of variables looked ahead to split a cube.
+     * 
+     * @param lookaheadCandidates
+     *            a positive number.
+     */
+    public void setLookaheadCandidates(int lookaheadCandidates) {
+        this.lookaheadCandidates = lookaheadCandidates;
+    }
+
+    public int getConflictsPerCube() {
+        return this.conflictsPerCube;
+    }
+
+    /**
+     * Set the number of conflicts after which a worker gives up a cube and
+     * splits it again.
+     * 
+     * @param conflictsPerCube
+     *            a positive number.
+     */
+    public void setConflictsPerCube(int conflictsPerCube) {
+        this.conflictsPerCube = conflictsPerCube;
+    }
+
+    @Override
+    public boolean isSatisfiable() throws TimeoutException {
+        return isSatisfiable(VecInt.EMPTY, false);
+    }
+
+    @Override
+    public boolean isSatisfiable(boolean global) throws TimeoutException {
+        return isSatisfiable(VecInt.EMPTY, global);
+    }
+
+    @Override
+    public boolean isSatisfiable(IVecInt assumps) throws TimeoutException {
+        return isSatisfiable(assumps, false);
+    }
+
+    @Override
+    public synchronized boolean isSatisfiable(IVecInt assumps,
+            boolean global) throws TimeoutException {
+        this.model = null;
+        this.truthValues = null;
+        this.cubes = 0;
+        this.refutedCubes = 0;
+        this.splitCubes = 0;
+        List<IVecInt> leaves = split(assumps);
+        this.cubes = leaves.size();
+        if (leaves.isEmpty()) {
+            logCubes();
+            return false;
+        }
+        long timeout;
+        try {
+            timeout = decorated().getTimeoutMs();
+        } catch (UnsupportedOperationException e) {
+            // conflict based timeouts are not supported
+            timeout = Long.MAX_VALUE;
+        }
+        Conquest conquest = new Conquest(leaves, forks());
+        this.current = conquest;
+        try {
+            int[] found = conquest.run(timeout);
+            if (found != null) {
+                setModel(found);
+            }
+            return found != null;
+        } finally {
+            this.current = null;
+            if (!conquest.leftForksReusable()) {
+                this.forks = null;
+            }
+            this.refutedCubes += conquest.refuted.get();
+            this.splitCubes += conquest.split.get();
+            this.cubes += 2 * conquest.split.get();
+            logCubes();
+        }
+    }
+
+    private void logCubes() {
+        if (isVerbose()) {
+            System.out.println(getLogPrefix() + this.cubes + " cubes, " //$NON-NLS-1$
+                    + this.refutedCubes + " refuted by lookahead, " //$NON-NLS-1$
+                    + this.splitCubes + " split again"); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Split the formula in cubes using the decorated solver.
+     * 
+     * @return the cubes not refuted by the lookahead.
+     */
+    private List<IVecInt> split(IVecInt assumps) {
+        Solver<?> solver = decorated();
+        int target = this.nbThreads * this.cubesPerThread;
+        LinkedList<IVecInt> toSplit = new LinkedList<IVecInt>();
+        List<IVecInt> leaves = new ArrayList<IVecInt>();
+        IVecInt root = new VecInt(assumps.size());
+        assumps.copyTo(root);
+        toSplit.add(root);
+        while (!toSplit.isEmpty() && toSplit.size() + leaves.size() < target) {
+            IVecInt cube = toSplit.removeFirst();
+            int var;
+            try {
+                var = solver.lookahead(cube, this.lookaheadCandidates);
+            } catch (ContradictionException e) {
+                this.refutedCubes++;
+                continue;
+            }
+            if (var == 0) {
+                leaves.add(cube);
+            } else {
+                toSplit.addLast(extend(cube, var));
+                toSplit.addLast(extend(cube, -var));
+            }
+        }
+        leaves.addAll(toSplit);
+        return leaves;
+    }
+
+    /**
+     * Fork the decorated solver for the workers, unless its formula is the
+     * one of the forks of the previous call.
+     * 
+     * @return one fork per worker.
+     */
+    private List<Solver<?>> forks() {
+        Solver<?> solver = decorated();
+        if (this.forks == null
+                || this.forksVersion != solver.getFormulaVersion()) {
+            this.forks = null;
+            List<Solver<?>> created = new ArrayList<Solver<?>>(this.nbThreads);
+            for (int i = 0; i < this.nbThreads; i++) {
+                created.add(solver.fork());
+            }
+            this.createdForks += this.nbThreads;
+            this.forks = created;
+            this.forksVersion = solver.getFormulaVersion();
+        }
+        return this.forks;
+    }
+
+    private static IVecInt extend(IVecInt cube, int p) {
+        IVecInt extended = new VecInt(cube.size() + 1);
+        cube.copyTo(extended);
+        extended.push(p);
+        return extended;
+    }
+
+    private void setModel(int[] found) {
+        this.model = found;
+        this.truthValues = new boolean[decorated().nVars() + 1];
+        for (int p : found) {
+            if (p > 0 && p < this.truthValues.length) {
+                this.truthValues[p] = true;
+            }
+        }
+    }
+
+    @Override
+    public int[] findModel() throws TimeoutException {
+        return findModel(VecInt.EMPTY);
+    }
+
+    @Override
+    public int[] findModel(IVecInt assumps) throws TimeoutException {
+        if (isSatisfiable(assumps)) {
+            return model();
+        }
+        // A zero length array would mean that the formula is a tautology.
+        return null;
+    }
+
+    @Override
+    public int[] model() {
+        if (this.model == null) {
+            throw new UnsupportedOperationException(
+                    "Call the solve method first!!!"); //$NON-NLS-1$
+        }
+        int[] nmodel = new int[this.model.length];
+        System.arraycopy(this.model, 0, nmodel, 0, this.model.length);
+        return nmodel;
+    }
+
+    @Override
+    public boolean model(int var) {
+        if (this.truthValues == null) {
+            throw new UnsupportedOperationException(
+                    "Call the solve method first!!!"); //$NON-NLS-1$
+        }
+        if (var <= 0 || var >= this.truthValues.length) {
+            throw new IllegalArgumentException(
+                    "Use a valid Dimacs var id as argument!"); //$NON-NLS-1$
+        }
+        return this.truthValues[var];
+    }
+
+    @Override
+    public int[] modelWithInternalVariables() {
+        return model();
+    }
+
+    @Override
+    public void expireTimeout() {
+        Conquest conquest = this.current;
+        if (conquest != null) {
+            conquest.stop();
+        }
+        super.expireTimeout();
+    }
+
+    @Override
+    public Map<String, Number> getStat() {
+        Map<String, Number> stats = new HashMap<String, Number>(
+                super.getStat());
+        stats.put("cubes", this.cubes); //$NON-NLS-1$
+        stats.put("refutedCubes", this.refutedCubes); //$NON-NLS-1$
+        stats.put("splitCubes", this.splitCubes); //$NON-NLS-1$
+        stats.put("forks", this.createdForks); //$NON-NLS-1$
+        return stats;
+    }
+
+    @Override
+    public String toString(String prefix) {
+        return prefix + "Cube and conquer with " + this.nbThreads //$NON-NLS-1$
+                + " workers on\n" + super.toString(prefix); //$NON-NLS-1$
+    }
+
+    /**
+     * The resolution of a set of cubes by the workers.
+     */
+    private final class Conquest {
+
+        private final LinkedBlockingDeque<IVecInt> queue = new LinkedBlockingDeque<IVecInt>();
+
+        /**
+         * number of cubes not solved yet, in the queue or being solved.
+         */
+        private final AtomicInteger pending;
+
+        private final AtomicInteger refuted = new AtomicInteger();
+
+        private final AtomicInteger split = new AtomicInteger();
+
+        private final CountDownLatch over = new CountDownLatch(1);
+
+        private final List<Solver<?>> forks;
+
+        private volatile boolean done;
+
+        /**
+         * true once all the workers are over.
+         */
+        private boolean terminated;
+
+        private volatile int[] found;
+
+        /**
+         * the first exception or error thrown by a worker.
+         */
+        private volatile Throwable failure;
+
+        Conquest(List<IVecInt> cubes, List<Solver<?>> forks) {
+            this.forks = forks;
+            this.queue.addAll(cubes);
+            this.pending = new AtomicInteger(cubes.size());
+        }
+
+        int[] run(long timeout) throws TimeoutException {
+            List<Worker> workers = new ArrayList<Worker>(nbThreads);
+            for (Solver<?> fork : this.forks) {
+                workers.add(new Worker(this, fork));
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    nbThreads, new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "CubeAndConquer"); //$NON-NLS-1$
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            try {
+                for (Worker worker : workers) {
+                    executor.execute(worker);
+                }
+                if (!this.over.await(timeout, TimeUnit.MILLISECONDS)) {
+                    stop();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+            } finally {
+                this.done = true;
+                executor.shutdownNow();
+                for (Solver<?> fork : this.forks) {
+                    // releases the timer of the fork
+                    fork.expireTimeout();
+                }
+                this.terminated = awaitTermination(executor);
+            }
+            Throwable thrown = this.failure;
+            if (thrown instanceof RuntimeException) {
+                throw (RuntimeException) thrown;
+            }
+            if (thrown instanceof Error) {
+                throw (Error) thrown;
+            }
+            if (this.found == null && this.pending.get() > 0) {
+                throw new TimeoutException();
+            }
+            return this.found;
+        }
+
+        /**
+         * Wait for the workers to leave their forks, which are stopped.
+         * 
+         * @return false if the caller was interrupted before.
+         */
+        private boolean awaitTermination(ExecutorService executor) {
+            try {
+                return executor.awaitTermination(Long.MAX_VALUE,
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * @return true iff the forks can solve the cubes of the next call: no
+         *         worker is still using them and none of them failed.
+         */
+        boolean leftForksReusable() {
+            return this.terminated && this.failure == null;
+        }
+
+        void stop() {
+            this.done = true;
+            for (Solver<?> fork : this.forks) {
+                fork.expireTimeout();
+            }
+            this.over.countDown();
+        }
+
+        void satisfiable(int[] model) {
+            synchronized (this) {
+                if (this.found == null) {
+                    this.found = model;
+                }
+            }
+            stop();
+        }
+
+        void failed(Throwable thrown) {
+            synchronized (this) {
+                if (this.failure == null) {
+                    this.failure = thrown;
+                }
+            }
+            stop();
+        }
+
+        void solved() {
+            if (this.pending.decrementAndGet() == 0) {
+                this.over.countDown();
+            }
+        }
+    }
+
+    /**
+     * A worker solving cubes with its own fork of the decorated solver.
+     */
+    private final class Worker extends SearchListenerAdapter<ISolverService>
+            implements Runnable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Conquest conquest;
+
+        private final Solver<?> solver;
+
+        private int conflicts;
+
+        Worker(Conquest conquest, Solver<?> solver) {
+            this.conquest = conquest;
+            this.solver = solver;
+            solver.setSearchListener(this);
+        }
+
+        public void run() {
+            try {
+                while (!this.conquest.done) {
+                    IVecInt cube = this.conquest.queue.pollFirst(POLL_TIME,
+                            TimeUnit.MILLISECONDS);
+                    if (cube != null) {
+                        solve(cube);
+                    } else if (this.conquest.pending.get() == 0) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the search is over
+            } catch (RuntimeException e) {
+                this.conquest.failed(e);
+            } catch (Error e) {
+                this.conquest.failed(e);
+            } finally {
+                // releases the timer of the fork
+                this.solver.expireTimeout();
+            }
+        }
+
+        private void solve(IVecInt cube) {
+            this.conflicts = 0;
+            try {
+                if (this.solver.isSatisfiable(cube, true)) {
+                    this.conquest.satisfiable(this.solver.model());
+                } else {
+                    this.conquest.solved();
+                }
+            } catch (TimeoutException e) {
+                if (!this.conquest.done) {
+                    splitAgain(cube);
+                }
+            }
+        }
+
+        /**
+         * Split a hard cube and put the new cubes in front of the queue.
+         */
+        private void splitAgain(IVecInt cube) {
+            int var;
+            try {
+                var = this.solver.lookahead(cube, lookaheadCandidates);
+            } catch (ContradictionException e) {
+                this.conquest.refuted.incrementAndGet();
+                this.conquest.solved();
+                return;
+            }
+            if (var == 0) {
+                this.conquest.queue.addLast(cube);
+                return;
+            }
+            this.conquest.split.incrementAndGet();
+            this.conquest.pending.incrementAndGet();
+            this.conquest.queue.addFirst(extend(cube, -var));
+            this.conquest.queue.addFirst(extend(cube, var));
+        }
+
+        @Override
+        public void conflictFound(IConstr confl, int dlevel, int trailLevel) {
+            if (++this.conflicts >= conflictsPerCube || this.conquest.done) {
+                this.solver.expireTimeout();
+            }
+        }
+
+        @Override
+        public int getEventMask() {
+            return CONFLICTS;
+        }
+    }
+}
@@ -74,4 +74,8 @@ public class DecisionLevelTracing extends SearchListenerAdapter<ISolverService>
         this.visuTool.addPoint(this.counter, backjumpLevel);
     }
 
+    @Override
+    public int getEventMask() {
+        return CONFLICTS;
+    }
 }
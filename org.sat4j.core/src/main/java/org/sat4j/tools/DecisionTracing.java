@@ -115,4 +115,8 @@ public class DecisionTracing extends SearchListenerAdapter<ISolverService> {
         this.negativeVisu.addInvisiblePoint(this.counter, 0);
     }
 
+    @Override
+    public int getEventMask() {
+        return DECISIONS;
+    }
 }
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.SearchListenerAdapter;
+
+/**
+ * Output an unsat proof in the DRAT format, either as text or in its more
+ * compact binary encoding. The proof is written by a background thread.
+ * 
+ * @author leberre
+ * 
+ * @param <S>
+ *            a solver service
+ * @since 2.3.6
+ */
+public class DratSearchListener<S extends ISolverService>
+        extends SearchListenerAdapter<S> {
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = 1L;
+
+    private transient AsyncOutputStream out;
+
+    private final File file;
+
+    private final boolean binary;
+
+    /**
+     * 
+     * @param filename
+     *            the name of the proof file.
+     * @param binary
+     *            true to use the binary DRAT format, false for the text one.
+     */
+    public DratSearchListener(String filename, boolean binary) {
+        this.file = new File(filename);
+        this.binary = binary;
+    }
+
+    @Override
+    public void init(S solverService) {
+        OutputStream stream;
+        try {
+            stream = new FileOutputStream(this.file);
+        } catch (FileNotFoundException e) {
+            stream = new BufferedOutputStream(System.out) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        this.out = new AsyncOutputStream(stream);
+    }
+
+    @Override
+    public void end(Lbool result) {
+        if (this.out == null) {
+            return;
+        }
+        try {
+            if (result == Lbool.FALSE) {
+                // the empty clause
+                startLine('a');
+                endLine();
+            }
+            this.out.close();
+        } catch (IOException e) {
+            Logger.getLogger("org.sat4j.core")
+                    .warning("Cannot write proof: " + e.getMessage());
+        }
+        this.out = null;
+        if (result != Lbool.FALSE && !this.file.delete()) {
+            Logger.getLogger("org.sat4j.core")
+                    .info("Cannot delete file " + this.file.getName());
+        }
+    }
+
+    @Override
+    public void learn(IConstr c) {
+        printConstr('a', c);
+    }
+
+    @Override
+    public void delete(IConstr c) {
+        printConstr('d', c);
+    }
+
+    @Override
+    public void learnUnit(int p) {
+        if (this.out == null) {
+            return;
+        }
+        try {
+            startLine('a');
+            printLiteral(p);
+            endLine();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void printConstr(char type, IConstr c) {
+        if (this.out == null) {
+            return;
+        }
+        try {
+            startLine(type);
+            for (int i = 0; i < c.size(); i++) {
+                printLiteral(LiteralsUtils.toDimacs(c.get(i)));
+            }
+            endLine();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void startLine(char type) throws IOException {
+        if (this.binary) {
+            this.out.write(type);
+        } else if (type == 'd') {
+            this.out.write('d');
+            this.out.write(' ');
+        }
+    }
+
+    private void printLiteral(int p) throws IOException {
+        if (this.binary) {
+            this.out.writeVarint(p > 0 ? 2L * p : -2L * p + 1);
+        } else {
+            this.out.writeDecimal(p);
+            this.out.write(' ');
+        }
+    }
+
+    private void endLine() throws IOException {
+        if (this.binary) {
+            this.out.write(0);
+        } else {
+            this.out.write('0');
+            this.out.write('\n');
+        }
+    }
+
+    private void failed(IOException e) {
+        Logger.getLogger("org.sat4j.core")
+                .warning("Cannot write proof: " + e.getMessage());
+        try {
+            this.out.close();
+        } catch (IOException e1) {
+            // already reported
+        }
+        this.out = null;
+    }
+
+    @Override
+    public int getEventMask() {
+        return LEARNING;
+    }
+}
@@ -33,6 +33,7 @@ import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.util.Map;
 
+import org.sat4j.core.FlatClauses;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -202,6 +203,11 @@ public abstract class EmptySolver implements ISolver {
         throw new UnsupportedOperationException("Not implemented yet!");
     }
 
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        FlatClauses.addClauses(this, literals, from, to);
+    }
+
     public IConstr addAtMost(IVecInt literals, int degree)
             throws ContradictionException {
         return FAKECONSTR;
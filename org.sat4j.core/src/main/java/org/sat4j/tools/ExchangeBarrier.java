@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.IVecInt;
+
+/**
+ * The rounds of a deterministic {@link ManyCore} solver.
+ * 
+ * Each member runs a fixed number of conflicts per round, then waits at the
+ * barrier with the clauses it exported during the round. When all the
+ * running members have arrived, the exports of the round are published at
+ * once, and the members import them in the order of their index. A member
+ * finding an answer leaves the barrier: once the round is complete, the
+ * answer of the member of smallest index is the answer of the portfolio, and
+ * the waiting members are stopped. The outcome of a round thus depends only
+ * on the number of conflicts, never on the speed of the threads.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class ExchangeBarrier {
+
+    /**
+     * The unit clauses and the clauses exported by a member during a round,
+     * in Dimacs format. The last element of each clause is its LBD.
+     */
+    static final class Exports {
+        final IVecInt units = new VecInt();
+        final List<int[]> clauses = new ArrayList<int[]>();
+    }
+
+    private static final int RUNNING = 0;
+
+    private static final int WAITING = 1;
+
+    private static final int DONE = 2;
+
+    private final ManyCore<?> manycore;
+
+    private final int conflictsPerRound;
+
+    private final int[] states;
+
+    private final Exports[] pending;
+
+    private Exports[] published;
+
+    private int running;
+
+    private int round;
+
+    private int generation;
+
+    private int winner;
+
+    private boolean winnerResult;
+
+    private boolean over;
+
+    ExchangeBarrier(ManyCore<?> manycore, int parties, int conflictsPerRound) {
+        this.manycore = manycore;
+        this.conflictsPerRound = conflictsPerRound;
+        this.states = new int[parties];
+        this.pending = new Exports[parties];
+        this.published = new Exports[parties];
+    }
+
+    int getConflictsPerRound() {
+        return this.conflictsPerRound;
+    }
+
+    /**
+     * Prepare the barrier for a new call to isSatisfiable().
+     */
+    synchronized void start() {
+        this.generation++;
+        this.round = 0;
+        this.running = this.states.length;
+        for (int i = 0; i < this.states.length; i++) {
+            this.states[i] = RUNNING;
+            this.pending[i] = null;
+            this.published[i] = null;
+        }
+        this.winner = -1;
+        this.over = false;
+    }
+
+    /**
+     * The call to isSatisfiable() the members are working on, for the
+     * members to notice a new call.
+     */
+    synchronized int getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Wait for the other members at the end of a round.
+     * 
+     * @param index
+     *            the index of the member
+     * @param exported
+     *            what the member exported during the round
+     * @return the exports of all the members during the round, indexed by
+     *         member, or null if the member must stop.
+     * @throws InterruptedException
+     *             if the thread of the member is interrupted while waiting.
+     */
+    synchronized Exports[] await(int index, Exports exported)
+            throws InterruptedException {
+        if (this.over) {
+            return null;
+        }
+        this.pending[index] = exported;
+        this.states[index] = WAITING;
+        this.running--;
+        if (this.running == 0) {
+            complete();
+        } else {
+            int current = this.round;
+            while (current == this.round && !this.over) {
+                wait();
+            }
+        }
+        return this.over ? null : this.published;
+    }
+
+    /**
+     * Notify that a member stopped, with or without an answer.
+     */
+    synchronized void finish(int index, boolean finished, boolean result) {
+        if (this.states[index] == DONE) {
+            return;
+        }
+        if (finished && !this.over
+                && (this.winner < 0 || index < this.winner)) {
+            this.winner = index;
+            this.winnerResult = result;
+        }
+        if (this.states[index] == RUNNING) {
+            this.running--;
+        }
+        this.states[index] = DONE;
+        this.pending[index] = null;
+        if (this.running == 0 && !this.over) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        this.published = this.pending.clone();
+        for (int i = 0; i < this.states.length; i++) {
+            this.pending[i] = null;
+            if (this.states[i] == WAITING) {
+                this.states[i] = RUNNING;
+                this.running++;
+            }
+        }
+        this.round++;
+        if (this.winner >= 0) {
+            this.over = true;
+            this.manycore.answerFound(this.winner, this.winnerResult);
+        } else if (this.running == 0) {
+            this.over = true;
+        }
+        notifyAll();
+    }
+}
@@ -52,10 +52,60 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Clauses waiting to be added to the solver, terminated by 0 (see
+     * {@link ISolver#addClauses(int[], int, int)}), for the gates that do not
+     * return their constraints.
+     */
+    private int[] buffer = new int[64];
+
+    private int bufferSize;
+
     public GateTranslator(ISolver solver) {
         super(solver);
     }
 
+    private void ensureBuffer(int extra) {
+        if (this.bufferSize + extra > this.buffer.length) {
+            int[] nbuffer = new int[Math.max(this.buffer.length * 2,
+                    this.bufferSize + extra)];
+            System.arraycopy(this.buffer, 0, nbuffer, 0, this.bufferSize);
+            this.buffer = nbuffer;
+        }
+    }
+
+    private void buffer(int a, int b, int c) {
+        ensureBuffer(4);
+        int[] buf = this.buffer;
+        int i = this.bufferSize;
+        buf[i++] = a;
+        buf[i++] = b;
+        buf[i++] = c;
+        buf[i++] = 0;
+        this.bufferSize = i;
+    }
+
+    private void buffer(int a, int b, int c, int d) {
+        ensureBuffer(5);
+        int[] buf = this.buffer;
+        int i = this.bufferSize;
+        buf[i++] = a;
+        buf[i++] = b;
+        buf[i++] = c;
+        buf[i++] = d;
+        buf[i++] = 0;
+        this.bufferSize = i;
+    }
+
+    /**
+     * Add the buffered clauses to the solver in one call.
+     */
+    private void flush() throws ContradictionException {
+        int size = this.bufferSize;
+        this.bufferSize = 0;
+        addClauses(this.buffer, 0, size);
+    }
+
     /**
      * translate <code>y &lt;=&gt; FALSE</code> into a clause.
      * 
@@ -312,7 +362,7 @@ public class GateTranslator extends SolverDecorator<ISolver> {
         int[] f = new int[literals.size()];
         literals.copyTo(f);
         IVec<IConstr> vconstrs = new Vec<IConstr>();
-        xor2Clause(f, 0, false, vconstrs);
+        xor2Clause(f, 0, false, vconstrs, new VecInt(f.length));
         IConstr[] constrs = new IConstr[vconstrs.size()];
         vconstrs.copyTo(constrs);
         return constrs;
@@ -335,6 +385,7 @@ public class GateTranslator extends SolverDecorator<ISolver> {
         literals.copyTo(f);
         IVec<IConstr> vconstrs = new Vec<IConstr>();
         iff2Clause(f, 0, false, vconstrs);
+        flush();
         IConstr[] constrs = new IConstr[vconstrs.size()];
         vconstrs.copyTo(constrs);
         return constrs;
@@ -344,25 +395,18 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      * @since 2.2
      */
     public void xor(int x, int a, int b) throws ContradictionException {
-        IVecInt clause = new VecInt(3);
-        clause.push(-a).push(b).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(-b).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(b).push(-x);
-        processClause(clause);
-        clause.clear();
+        buffer(-a, b, x);
+        buffer(a, -b, x);
+        buffer(-a, -b, -x);
+        buffer(a, b, -x);
+        flush();
     }
 
     private void xor2Clause(int[] f, int prefix, boolean negation,
-            IVec<IConstr> constrs) throws ContradictionException {
+            IVec<IConstr> constrs, IVecInt clause)
+            throws ContradictionException {
         if (prefix == f.length - 1) {
-            IVecInt clause = new VecInt(f.length + 1);
+            clause.clear();
             for (int i = 0; i < f.length - 1; ++i) {
                 clause.push(f[i]);
             }
@@ -373,15 +417,15 @@ public class GateTranslator extends SolverDecorator<ISolver> {
 
         if (negation) {
             f[prefix] = -f[prefix];
-            xor2Clause(f, prefix + 1, false, constrs);
+            xor2Clause(f, prefix + 1, false, constrs, clause);
             f[prefix] = -f[prefix];
 
-            xor2Clause(f, prefix + 1, true, constrs);
+            xor2Clause(f, prefix + 1, true, constrs, clause);
         } else {
-            xor2Clause(f, prefix + 1, false, constrs);
+            xor2Clause(f, prefix + 1, false, constrs, clause);
 
             f[prefix] = -f[prefix];
-            xor2Clause(f, prefix + 1, true, constrs);
+            xor2Clause(f, prefix + 1, true, constrs, clause);
             f[prefix] = -f[prefix];
         }
     }
@@ -389,12 +433,11 @@ public class GateTranslator extends SolverDecorator<ISolver> {
     private void iff2Clause(int[] f, int prefix, boolean negation,
             IVec<IConstr> constrs) throws ContradictionException {
         if (prefix == f.length - 1) {
-            IVecInt clause = new VecInt(f.length + 1);
-            for (int i = 0; i < f.length - 1; ++i) {
-                clause.push(f[i]);
-            }
-            clause.push(f[f.length - 1] * (negation ? -1 : 1));
-            processClause(clause);
+            ensureBuffer(f.length + 1);
+            System.arraycopy(f, 0, this.buffer, this.bufferSize, f.length);
+            this.bufferSize += f.length;
+            this.buffer[this.bufferSize - 1] *= negation ? -1 : 1;
+            this.buffer[this.bufferSize++] = 0;
             return;
         }
 
@@ -418,33 +461,17 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     public void fullAdderSum(int x, int a, int b, int c)
             throws ContradictionException {
-        IVecInt clause = new VecInt(4);
         // -a /\ -b /\ -c -> -x
-        clause.push(a).push(b).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
+        buffer(a, b, c, -x);
         // -a /\ b /\ c -> -x
-        clause.push(a).push(-b).push(-c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(b).push(-c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(b).push(c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(-b).push(c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(b).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
+        buffer(a, -b, -c, -x);
+        buffer(-a, b, -c, -x);
+        buffer(-a, -b, c, -x);
+        buffer(-a, -b, -c, x);
+        buffer(-a, b, c, x);
+        buffer(a, -b, c, x);
+        buffer(a, b, -c, x);
+        flush();
     }
 
     /**
@@ -452,25 +479,13 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     public void fullAdderCarry(int x, int a, int b, int c)
             throws ContradictionException {
-        IVecInt clause = new VecInt(3);
-        clause.push(-b).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-c).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(-a).push(-b).push(x);
-        processClause(clause);
-        clause.clear();
-        clause.push(b).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(c).push(-x);
-        processClause(clause);
-        clause.clear();
-        clause.push(a).push(b).push(-x);
-        processClause(clause);
-        clause.clear();
+        buffer(-b, -c, x);
+        buffer(-a, -c, x);
+        buffer(-a, -b, x);
+        buffer(b, c, -x);
+        buffer(a, c, -x);
+        buffer(a, b, -x);
+        flush();
     }
 
     /**
@@ -478,19 +493,13 @@ public class GateTranslator extends SolverDecorator<ISolver> {
      */
     public void additionalFullAdderConstraints(int xcarry, int xsum, int a,
             int b, int c) throws ContradictionException {
-        IVecInt clause = new VecInt(3);
-        clause.push(-xcarry).push(-xsum).push(a);
-        processClause(clause);
-        clause.push(-xcarry).push(-xsum).push(b);
-        processClause(clause);
-        clause.push(-xcarry).push(-xsum).push(c);
-        processClause(clause);
-        clause.push(xcarry).push(xsum).push(-a);
-        processClause(clause);
-        clause.push(xcarry).push(xsum).push(-b);
-        processClause(clause);
-        clause.push(xcarry).push(xsum).push(-c);
-        processClause(clause);
+        buffer(-xcarry, -xsum, a);
+        buffer(-xcarry, -xsum, b);
+        buffer(-xcarry, -xsum, c);
+        buffer(xcarry, xsum, -a);
+        buffer(xcarry, xsum, -b);
+        buffer(xcarry, xsum, -c);
+        flush();
     }
 
     /**
@@ -71,4 +71,9 @@ public class HeuristicsTracing extends SearchListenerAdapter<ISolverService> {
     public void init(ISolverService solverService) {
         this.solverService = solverService;
     }
+
+    @Override
+    public int getEventMask() {
+        return NONE;
+    }
 }
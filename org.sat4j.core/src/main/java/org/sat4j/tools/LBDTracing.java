@@ -66,4 +66,9 @@ public class LBDTracing extends SearchListenerAdapter<ISolverService> {
     public void end(Lbool result) {
         this.visuTool.end();
     }
+
+    @Override
+    public int getEventMask() {
+        return CONFLICTS;
+    }
 }
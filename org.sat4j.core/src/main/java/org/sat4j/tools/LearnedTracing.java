@@ -80,4 +80,9 @@ public class LearnedTracing extends SearchListenerAdapter<ISolverService> {
     public void cleaning() {
         trace();
     }
+
+    @Override
+    public int getEventMask() {
+        return NONE;
+    }
 }
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.RestartStrategy;
+import org.sat4j.minisat.core.SearchParams;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.minisat.core.SolverStats;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.UnitClauseProvider;
+import org.sat4j.specs.UnitPropagationListener;
+
+/**
+ * Exchange of the learned clauses of one member of a {@link ManyCore} solver
+ * with the other members.
+ * 
+ * The clauses learned by the member with few literals and a small literal
+ * block distance (LBD) are exported into a ring buffer owned by the member:
+ * only the thread of the member writes into it, the other members read it
+ * without locking, each one with its own cursor. A reader too slow to follow
+ * the writer simply misses the overwritten clauses. The clauses exported by
+ * the other members are imported at each restart, and a set of hash codes
+ * avoids importing several times the same clause.
+ * 
+ * In deterministic mode (see {@link ExchangeBarrier}), the member restarts
+ * every given number of conflicts instead, and exchanges its clauses and
+ * unit clauses with the other members at the barrier.
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+final class LearntClauseExchange extends SearchListenerAdapter<ISolverService>
+        implements UnitClauseProvider {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int CAPACITY = 1024;
+
+    private static final int MAX_KNOWN_CLAUSES = 1 << 16;
+
+    private final ManyCore<?> manycore;
+
+    private final Solver<?> solver;
+
+    private final boolean shareUnits;
+
+    private final int maxSize;
+
+    private final int maxLBD;
+
+    private final AtomicReferenceArray<int[]> exported = new AtomicReferenceArray<int[]>(
+            CAPACITY);
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final Set<Long> known = new HashSet<Long>();
+
+    private List<LearntClauseExchange> members;
+
+    private long[] cursors;
+
+    private int[] levels = new int[0];
+
+    private int stamp;
+
+    private ExchangeBarrier barrier;
+
+    private int index;
+
+    private int generation;
+
+    private long nextRound;
+
+    private ExchangeBarrier.Exports exports = new ExchangeBarrier.Exports();
+
+    private final IVecInt importedUnits = new VecInt();
+
+    LearntClauseExchange(ManyCore<?> manycore, Solver<?> solver,
+            boolean shareUnits, int maxSize, int maxLBD) {
+        this.manycore = manycore;
+        this.solver = solver;
+        this.shareUnits = shareUnits;
+        this.maxSize = maxSize;
+        this.maxLBD = maxLBD;
+    }
+
+    /**
+     * Set the members of the portfolio sharing their clauses.
+     * 
+     * @param allMembers
+     *            the exchanges of all the members, including this one.
+     */
+    void setMembers(List<LearntClauseExchange> allMembers) {
+        this.members = allMembers;
+        this.cursors = new long[allMembers.size()];
+        clear();
+    }
+
+    /**
+     * Exchange the clauses in rounds synchronized by a barrier rather than
+     * as soon as possible. The restart strategy of the member is decorated to
+     * end each round with a restart.
+     * 
+     * @param roundBarrier
+     *            the barrier shared by the members, null for the
+     *            asynchronous exchange.
+     * @param memberIndex
+     *            the index of the member in the portfolio.
+     */
+    void setBarrier(ExchangeBarrier roundBarrier, int memberIndex) {
+        this.barrier = roundBarrier;
+        this.index = memberIndex;
+        this.generation = 0;
+        RestartStrategy restarter = this.solver.getRestartStrategy();
+        if (restarter instanceof RoundRestarts) {
+            restarter = ((RoundRestarts) restarter).decorated;
+        }
+        this.solver.setRestartStrategy(roundBarrier == null ? restarter
+                : new RoundRestarts(restarter, this));
+    }
+
+    /**
+     * Forget the exported clauses, e.g. when the formula changes.
+     */
+    void clear() {
+        for (int i = 0; i < CAPACITY; i++) {
+            this.exported.set(i, null);
+        }
+        this.written.set(0);
+        if (this.cursors != null) {
+            for (int i = 0; i < this.cursors.length; i++) {
+                this.cursors[i] = 0;
+            }
+        }
+        this.known.clear();
+        this.importedUnits.clear();
+        this.exports = new ExchangeBarrier.Exports();
+    }
+
+    @Override
+    public void learnUnit(int p) {
+        if (!this.shareUnits) {
+            return;
+        }
+        if (this.barrier == null) {
+            this.manycore.learnUnit(p);
+        } else {
+            this.exports.units.push(p);
+        }
+    }
+
+    @Override
+    public void learn(IConstr c) {
+        if (c.size() < 2 || c.size() > this.maxSize || !(c instanceof Constr)
+                || !((Constr) c).canBeSatisfiedByCountingLiterals()
+                || ((Constr) c).requiredNumberOfSatisfiedLiterals() != 1) {
+            return;
+        }
+        int lbd = computeLBD(c);
+        if (lbd > this.maxLBD) {
+            return;
+        }
+        int[] clause = new int[c.size() + 1];
+        for (int i = 0; i < c.size(); i++) {
+            clause[i] = LiteralsUtils.toDimacs(c.get(i));
+        }
+        clause[c.size()] = lbd;
+        this.known.add(hash(clause));
+        if (this.barrier == null) {
+            long next = this.written.get();
+            this.exported.set((int) (next % CAPACITY), clause);
+            this.written.lazySet(next + 1);
+        } else {
+            this.exports.clauses.add(clause);
+        }
+        this.solver.getStats().exportedClauses++;
+    }
+
+    /**
+     * Count the decision levels of the literals of a clause just learned,
+     * the unassigned asserting literal being at its own level.
+     */
+    private int computeLBD(IConstr c) {
+        ILits voc = this.solver.getVocabulary();
+        int top = this.solver.decisionLevel() + 2;
+        if (this.levels.length < top) {
+            this.levels = new int[top];
+            this.stamp = 0;
+        }
+        this.stamp++;
+        int lbd = 0;
+        int level;
+        for (int i = 0; i < c.size(); i++) {
+            level = voc.getLevel(c.get(i)) + 1;
+            if (level >= 0 && level < top && this.levels[level] != this.stamp) {
+                this.levels[level] = this.stamp;
+                lbd++;
+            }
+        }
+        return lbd;
+    }
+
+    @Override
+    public int getEventMask() {
+        return LEARNING;
+    }
+
+    public void provideUnitClauses(UnitPropagationListener upl) {
+        if (this.barrier != null) {
+            provideRoundClauses(upl);
+            return;
+        }
+        if (this.shareUnits) {
+            this.manycore.provideUnitClauses(upl);
+        }
+        if (this.members == null) {
+            return;
+        }
+        VecInt literals = new VecInt(this.maxSize);
+        for (int i = 0; i < this.members.size(); i++) {
+            LearntClauseExchange other = this.members.get(i);
+            if (other == this) {
+                continue;
+            }
+            long end = other.written.get();
+            for (long k = Math.max(this.cursors[i], end - CAPACITY); k < end; k++) {
+                int[] clause = other.exported.get((int) (k % CAPACITY));
+                if (clause == null) {
+                    continue;
+                }
+                if (!this.known.add(hash(clause))) {
+                    this.solver.getStats().duplicatedClauses++;
+                    continue;
+                }
+                literals.clear();
+                for (int j = 0; j < clause.length - 1; j++) {
+                    literals.push(clause[j]);
+                }
+                this.solver.importLearnt(literals, clause[clause.length - 1]);
+            }
+            this.cursors[i] = end;
+        }
+        if (this.known.size() > MAX_KNOWN_CLAUSES) {
+            this.known.clear();
+        }
+    }
+
+    /**
+     * Whether the member reached the number of conflicts ending its round.
+     */
+    boolean isRoundOver() {
+        return this.barrier != null
+                && this.solver.getStats().conflicts >= this.nextRound;
+    }
+
+    private void provideRoundClauses(UnitPropagationListener upl) {
+        SolverStats stats = this.solver.getStats();
+        int current = this.barrier.getGeneration();
+        if (current != this.generation) {
+            // a new call to isSatisfiable(): the first round starts
+            this.generation = current;
+            this.exports = new ExchangeBarrier.Exports();
+            this.nextRound = stats.conflicts
+                    + this.barrier.getConflictsPerRound();
+        } else if (stats.conflicts >= this.nextRound) {
+            ExchangeBarrier.Exports[] round;
+            try {
+                round = this.barrier.await(this.index, this.exports);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                round = null;
+            }
+            this.exports = new ExchangeBarrier.Exports();
+            this.nextRound = stats.conflicts
+                    + this.barrier.getConflictsPerRound();
+            if (round == null) {
+                // another member found the answer
+                this.solver.expireTimeout();
+                return;
+            }
+            importRound(round);
+        }
+        for (int i = 0; i < this.importedUnits.size(); i++) {
+            upl.enqueue(LiteralsUtils.toInternal(this.importedUnits.get(i)));
+        }
+    }
+
+    /**
+     * Import the exports of the other members in the order of their index.
+     */
+    private void importRound(ExchangeBarrier.Exports[] round) {
+        VecInt literals = new VecInt(this.maxSize);
+        for (int i = 0; i < round.length; i++) {
+            if (i == this.index || round[i] == null) {
+                continue;
+            }
+            for (int j = 0; j < round[i].units.size(); j++) {
+                this.importedUnits.push(round[i].units.get(j));
+            }
+            for (int[] clause : round[i].clauses) {
+                if (!this.known.add(hash(clause))) {
+                    this.solver.getStats().duplicatedClauses++;
+                    continue;
+                }
+                literals.clear();
+                for (int j = 0; j < clause.length - 1; j++) {
+                    literals.push(clause[j]);
+                }
+                this.solver.importLearnt(literals, clause[clause.length - 1]);
+            }
+        }
+        if (this.known.size() > MAX_KNOWN_CLAUSES) {
+            this.known.clear();
+        }
+    }
+
+    /**
+     * A hash code of the literals of an exported clause which does not depend
+     * on their order.
+     */
+    static long hash(int[] clause) {
+        long h = clause.length;
+        long x;
+        for (int i = 0; i < clause.length - 1; i++) {
+            x = clause[i] * 0x9E3779B97F4A7C15L;
+            h += x ^ (x >>> 29);
+        }
+        return h;
+    }
+
+    /**
+     * The restart strategy of a member decorated to restart at the end of
+     * each round.
+     */
+    static final class RoundRestarts implements RestartStrategy {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RestartStrategy decorated;
+
+        private final LearntClauseExchange exchange;
+
+        RoundRestarts(RestartStrategy decorated, LearntClauseExchange exchange) {
+            this.decorated = decorated;
+            this.exchange = exchange;
+        }
+
+        public void reset() {
+            this.decorated.reset();
+        }
+
+        public void newConflict() {
+            this.decorated.newConflict();
+        }
+
+        public void init(SearchParams params, SolverStats stats) {
+            this.decorated.init(params, stats);
+        }
+
+        @Deprecated
+        public long nextRestartNumberOfConflict() {
+            return this.decorated.nextRestartNumberOfConflict();
+        }
+
+        public boolean shouldRestart() {
+            // the decorated strategy must see each call
+            return this.decorated.shouldRestart()
+                    || this.exchange.isRoundOver();
+        }
+
+        public void onRestart() {
+            this.decorated.onRestart();
+        }
+
+        public void onBackjumpToRootLevel() {
+            this.decorated.onBackjumpToRootLevel();
+        }
+
+        public void newLearnedClause(Constr learned, int trailLevel) {
+            this.decorated.newLearnedClause(learned, trailLevel);
+        }
+
+        @Override
+        public String toString() {
+            return this.decorated.toString();
+        }
+    }
+}
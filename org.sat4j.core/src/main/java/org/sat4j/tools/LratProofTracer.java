@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import org.sat4j.minisat.core.ProofTracer;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.Lbool;
+
+/**
+ * Output an unsat proof in the LRAT format, either as text or in its binary
+ * encoding. Each derived clause comes with the clauses needed to check it, so
+ * the proof can be checked in linear time, e.g. by a formally verified
+ * checker. The proof is written by a background thread.
+ * 
+ * Only the proof of a single call to the solver is kept: the file is deleted
+ * when that call does not derive the empty clause.
+ * 
+ * @author leberre
+ * @see org.sat4j.minisat.core.Solver#setProofTracer(ProofTracer)
+ * @since 2.3.6
+ */
+public class LratProofTracer implements ProofTracer {
+
+    private final File file;
+
+    private final boolean binary;
+
+    private AsyncOutputStream out;
+
+    private boolean ended;
+
+    private int lastId;
+
+    /**
+     * 
+     * @param filename
+     *            the name of the proof file.
+     * @param binary
+     *            true to use the binary LRAT format, false for the text one.
+     */
+    public LratProofTracer(String filename, boolean binary) {
+        this.file = new File(filename);
+        this.binary = binary;
+    }
+
+    private AsyncOutputStream out() throws IOException {
+        if (this.out == null) {
+            this.out = new AsyncOutputStream(new FileOutputStream(this.file));
+        }
+        return this.out;
+    }
+
+    public void add(int id, IVecInt literals, IVecInt hints) {
+        if (this.ended) {
+            return;
+        }
+        this.lastId = id;
+        try {
+            AsyncOutputStream stream = out();
+            if (this.binary) {
+                stream.write('a');
+                stream.writeVarint(2L * id);
+                for (int i = 0; i < literals.size(); i++) {
+                    int p = literals.get(i);
+                    stream.writeVarint(p > 0 ? 2L * p : -2L * p + 1);
+                }
+                stream.write(0);
+                for (int i = 0; i < hints.size(); i++) {
+                    stream.writeVarint(2L * hints.get(i));
+                }
+                stream.write(0);
+            } else {
+                stream.writeDecimal(id);
+                stream.write(' ');
+                for (int i = 0; i < literals.size(); i++) {
+                    stream.writeDecimal(literals.get(i));
+                    stream.write(' ');
+                }
+                stream.write('0');
+                for (int i = 0; i < hints.size(); i++) {
+                    stream.write(' ');
+                    stream.writeDecimal(hints.get(i));
+                }
+                stream.write(' ');
+                stream.write('0');
+                stream.write('\n');
+            }
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    public void delete(int id) {
+        if (this.ended) {
+            return;
+        }
+        try {
+            AsyncOutputStream stream = out();
+            if (this.binary) {
+                stream.write('d');
+                stream.writeVarint(2L * id);
+                stream.write(0);
+            } else {
+                stream.writeDecimal(this.lastId);
+                stream.write(' ');
+                stream.write('d');
+                stream.write(' ');
+                stream.writeDecimal(id);
+                stream.write(' ');
+                stream.write('0');
+                stream.write('\n');
+            }
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    public void end(Lbool result) {
+        if (this.ended) {
+            return;
+        }
+        this.ended = true;
+        try {
+            out().close();
+        } catch (IOException e) {
+            Logger.getLogger("org.sat4j.core")
+                    .warning("Cannot write proof: " + e.getMessage());
+        }
+        if (result != Lbool.FALSE && !this.file.delete()) {
+            Logger.getLogger("org.sat4j.core")
+                    .info("Cannot delete file " + this.file.getName());
+        }
+    }
+
+    private void failed(IOException e) {
+        Logger.getLogger("org.sat4j.core")
+                .warning("Cannot write proof: " + e.getMessage());
+        this.ended = true;
+        if (this.out != null) {
+            try {
+                this.out.close();
+            } catch (IOException e1) {
+                // already reported
+            }
+        }
+    }
+}
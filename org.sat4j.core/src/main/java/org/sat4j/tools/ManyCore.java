@@ -32,16 +32,27 @@ package org.sat4j.tools;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.sat4j.core.ASolverFactory;
 import org.sat4j.core.ConstrGroup;
+import org.sat4j.core.FlatClauses;
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.SharedClauses;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
 import org.sat4j.minisat.core.Counter;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
@@ -58,9 +69,19 @@ import org.sat4j.specs.UnitPropagationListener;
 /**
  * A class allowing to run several solvers in parallel.
  * 
- * Note that each solver will have its own copy of the CNF, so it is not a
- * memory efficient implementation. There is no sharing of information yet
- * between the solvers.
+ * The clauses of three literals or more added to the solvers which are
+ * plain {@link Solver} instances share the same immutable array of literals:
+ * only the clause objects, the watches and the learned clauses are specific
+ * to each solver. The other constraints are copied in each solver. The
+ * solvers may share the unit clauses
+ * they learn, and the short learned clauses with a small literal block
+ * distance (see {@link #shareLearnedClauses(int, int)}).
+ * 
+ * The solvers are run by a pool of threads kept between the calls to
+ * isSatisfiable(). The answer is available as soon as one solver finds it:
+ * the other solvers are then interrupted, and stop at their next conflict.
+ * The answer then depends on the scheduling of the threads, unless the
+ * solvers run in rounds (see {@link #setDeterministic(int)}).
  * 
  * @author leberre
  * 
@@ -71,9 +92,7 @@ public class ManyCore<S extends ISolver>
         extends SearchListenerAdapter<ISolverService>
         implements ISolver, OutcomeListener, UnitClauseProvider {
 
-    private static final int NORMAL_SLEEP = 500;
-
-    private static final int FAST_SLEEP = 50;
+    private static final long IDLE_THREAD_TIMEOUT = 60;
 
     /**
      * 
@@ -86,12 +105,19 @@ public class ManyCore<S extends ISolver>
     protected final int numberOfSolvers;
     protected int winnerId;
     private boolean resultFound;
-    private AtomicInteger remainingSolvers;
-    private volatile int sleepTime;
-    private volatile boolean solved;
+    private final AtomicBoolean solved = new AtomicBoolean();
+    private transient CountDownLatch answered;
+    private transient CountDownLatch stopped;
+    private transient ExecutorService executor;
     private final IVecInt sharedUnitClauses = new VecInt();
+    private final boolean shareLearnedUnitClauses;
+    private final List<LearntClauseExchange> exchanges = new ArrayList<LearntClauseExchange>();
+    private int maxSharedSize;
+    private int maxSharedLBD;
+    private ExchangeBarrier barrier;
 
     private final IVec<Counter> solversStats = new Vec<Counter>();
+    private SharedClauses sharedClauses = new SharedClauses();
 
     public ManyCore(ASolverFactory<S> factory, String... solverNames) {
         this(factory, false, solverNames);
@@ -100,6 +126,7 @@ public class ManyCore<S extends ISolver>
     public ManyCore(ASolverFactory<S> factory, boolean shareLearnedUnitClauses,
             String... solverNames) {
         this.availableSolvers = solverNames;
+        this.shareLearnedUnitClauses = shareLearnedUnitClauses;
         this.numberOfSolvers = solverNames.length;
         this.solvers = new ArrayList<S>(this.numberOfSolvers);
         S solver;
@@ -139,6 +166,7 @@ public class ManyCore<S extends ISolver>
     }
 
     public ManyCore(boolean shareLearnedUnitClauses, S... solverObjects) {
+        this.shareLearnedUnitClauses = shareLearnedUnitClauses;
         this.availableSolvers = new String[solverObjects.length];
         for (int i = 0; i < solverObjects.length; i++) {
             this.availableSolvers[i] = "solver" + i;
@@ -155,6 +183,100 @@ public class ManyCore<S extends ISolver>
         }
     }
 
+    /**
+     * Share between the solvers the clauses they learn with at most maxSize
+     * literals and at most maxLBD distinct decision levels. Each solver
+     * exports those clauses into its own buffer and imports the clauses
+     * exported by the other solvers when it restarts. Only the solvers built
+     * on a {@link Solver} take part in the exchange. The unit clauses are
+     * still shared if requested in the constructor.
+     * 
+     * @param maxSize
+     *            the maximal number of literals of a shared clause.
+     * @param maxLBD
+     *            the maximal literal block distance of a shared clause.
+     * @since 2.3.6
+     */
+    public void shareLearnedClauses(int maxSize, int maxLBD) {
+        this.maxSharedSize = maxSize;
+        this.maxSharedLBD = maxLBD;
+        installExchanges();
+    }
+
+    /**
+     * Make the outcome of the solver independent of the scheduling of the
+     * threads. The solvers run in rounds of conflictsPerRound conflicts: at
+     * the end of each round, each solver restarts and waits for the others,
+     * then imports the clauses shared during the round in the order of the
+     * solvers. The answer is the one of the first solver, in that order,
+     * finding an answer during a round. Two runs on the same formula thus
+     * give the same model and the same statistics, at the price of the time
+     * spent by the fastest solvers waiting for the slowest ones. All the
+     * solvers must be built on a {@link Solver}.
+     * 
+     * @param conflictsPerRound
+     *            the number of conflicts of each solver per round, 0 to let
+     *            the solvers run freely.
+     * @since 2.3.6
+     */
+    public void setDeterministic(int conflictsPerRound) {
+        if (conflictsPerRound <= 0) {
+            this.barrier = null;
+        } else {
+            for (int i = 0; i < this.numberOfSolvers; i++) {
+                if (!(this.solvers.get(i)
+                        .getSolvingEngine() instanceof Solver<?>)) {
+                    throw new UnsupportedOperationException(
+                            "Deterministic mode requires solvers built on Solver");
+                }
+            }
+            this.barrier = new ExchangeBarrier(this, this.numberOfSolvers,
+                    conflictsPerRound);
+        }
+        installExchanges();
+    }
+
+    public boolean isDeterministic() {
+        return this.barrier != null;
+    }
+
+    private void installExchanges() {
+        for (LearntClauseExchange exchange : this.exchanges) {
+            exchange.setBarrier(null, 0);
+        }
+        this.exchanges.clear();
+        boolean exchange = this.maxSharedSize > 0 || this.barrier != null;
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            S solver = this.solvers.get(i);
+            if (!exchange
+                    || !(solver.getSolvingEngine() instanceof Solver<?>)) {
+                solver.setSearchListener(this);
+                solver.setUnitClauseProvider(this.shareLearnedUnitClauses
+                        ? this : UnitClauseProvider.VOID);
+                continue;
+            }
+            LearntClauseExchange member = new LearntClauseExchange(this,
+                    (Solver<?>) solver.getSolvingEngine(),
+                    this.shareLearnedUnitClauses, this.maxSharedSize,
+                    this.maxSharedLBD);
+            solver.setSearchListener(member);
+            solver.setUnitClauseProvider(member);
+            this.exchanges.add(member);
+        }
+        for (int i = 0; i < this.exchanges.size(); i++) {
+            // in deterministic mode, all the solvers are members
+            this.exchanges.get(i).setMembers(this.exchanges);
+            this.exchanges.get(i).setBarrier(this.barrier, i);
+        }
+    }
+
+    private void clearSharedClauses() {
+        this.sharedUnitClauses.clear();
+        for (LearntClauseExchange exchange : this.exchanges) {
+            exchange.clear();
+        }
+    }
+
     public void addAllClauses(IVec<IVecInt> clauses)
             throws ContradictionException {
         for (int i = 0; i < this.numberOfSolvers; i++) {
@@ -190,25 +312,102 @@ public class ManyCore<S extends ISolver>
     }
 
     public IConstr addClause(IVecInt literals) throws ContradictionException {
+        SharedWLClause shared = sharedClause(literals);
         ConstrGroup group = new ConstrGroup(false);
+        S solver;
         for (int i = 0; i < this.numberOfSolvers; i++) {
-            group.add(this.solvers.get(i).addClause(literals));
+            solver = this.solvers.get(i);
+            if (shared != null && solver.getClass() == Solver.class) {
+                group.add(((Solver<?>) solver).addSharedClause(shared));
+            } else {
+                group.add(solver.addClause(literals));
+            }
         }
         return group;
     }
 
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        FlatClauses.checkTerminated(literals, from, to);
+        S solver;
+        boolean plainSolvers = false;
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            solver = this.solvers.get(i);
+            if (solver.getClass() == Solver.class) {
+                plainSolvers = true;
+            } else {
+                solver.addClauses(literals, from, to);
+            }
+        }
+        if (!plainSolvers) {
+            return;
+        }
+        // the plain solvers share the clauses
+        IVecInt clause = new VecInt();
+        SharedWLClause shared;
+        int p;
+        for (int k = from; k < to; k++) {
+            p = literals[k];
+            if (p != 0) {
+                clause.push(p);
+                continue;
+            }
+            shared = sharedClause(clause);
+            for (int i = 0; i < this.numberOfSolvers; i++) {
+                solver = this.solvers.get(i);
+                if (solver.getClass() != Solver.class) {
+                    continue;
+                }
+                if (shared == null) {
+                    solver.addClause(clause);
+                } else {
+                    ((Solver<?>) solver).addSharedClause(shared);
+                }
+            }
+            clause.clear();
+        }
+    }
+
+    /**
+     * Create once for all the solvers a clause on internal literals.
+     * 
+     * @return the shared clause, or null if the clause is too short to be
+     *         worth sharing, or contains twice the same variable.
+     */
+    private SharedWLClause sharedClause(IVecInt literals) {
+        if (literals.size() < 3) {
+            return null;
+        }
+        int[] shared = new int[literals.size()];
+        int p;
+        for (int i = 0; i < shared.length; i++) {
+            p = literals.get(i);
+            if (p == 0) {
+                return null;
+            }
+            shared[i] = LiteralsUtils.toInternal(p);
+        }
+        int[] sorted = shared.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] >> 1 == sorted[i - 1] >> 1) {
+                return null;
+            }
+        }
+        return this.sharedClauses.newClause(shared);
+    }
+
     public void clearLearntClauses() {
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).clearLearntClauses();
         }
-        sharedUnitClauses.clear();
+        clearSharedClauses();
     }
 
     public void expireTimeout() {
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).expireTimeout();
         }
-        this.sleepTime = FAST_SLEEP;
     }
 
     public Map<String, Number> getStat() {
@@ -267,7 +466,7 @@ public class ManyCore<S extends ISolver>
                             & this.solvers.get(i).removeConstr(toRemove);
                 }
             }
-            sharedUnitClauses.clear();
+            clearSharedClauses();
             return removed;
         }
         throw new IllegalArgumentException(
@@ -278,7 +477,8 @@ public class ManyCore<S extends ISolver>
         for (int i = 0; i < this.numberOfSolvers; i++) {
             this.solvers.get(i).reset();
         }
-        sharedUnitClauses.clear();
+        clearSharedClauses();
+        this.sharedClauses = new SharedClauses();
     }
 
     public void setExpectedNumberOfClauses(int nb) {
@@ -347,34 +547,98 @@ public class ManyCore<S extends ISolver>
 
     public synchronized boolean isSatisfiable(IVecInt assumps,
             boolean globalTimeout) throws TimeoutException {
-        this.remainingSolvers = new AtomicInteger(this.numberOfSolvers);
-        this.solved = false;
+        this.solved.set(false);
+        this.answered = new CountDownLatch(1);
+        this.stopped = new CountDownLatch(this.numberOfSolvers);
+        if (this.barrier != null) {
+            this.barrier.start();
+        }
+        RunnableSolver[] runners = new RunnableSolver[this.numberOfSolvers];
         for (int i = 0; i < this.numberOfSolvers; i++) {
-            new Thread(new RunnableSolver(i, this.solvers.get(i), assumps,
-                    globalTimeout, this)).start();
+            // each solver gets its own copy of the assumptions
+            IVecInt copy = new VecInt(assumps.size());
+            assumps.copyTo(copy);
+            runners[i] = new RunnableSolver(i, this.solvers.get(i), copy,
+                    globalTimeout, this);
         }
+        ExecutorService pool = getExecutor();
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            pool.execute(runners[i]);
+        }
+        boolean interrupted = false;
         try {
-            this.sleepTime = NORMAL_SLEEP;
-            do {
-                wait(this.sleepTime);
-            } while (this.remainingSolvers.get() > 0);
+            this.answered.await();
         } catch (InterruptedException e) {
-            // will happen when one solver found a solution
+            interrupted = true;
         }
-        if (!this.solved) {
-            assert this.remainingSolvers.get() == 0;
+        for (int i = 0; i < this.numberOfSolvers; i++) {
+            if (i != this.winnerId || !this.solved.get()) {
+                runners[i].cancel();
+            }
+        }
+        // the solvers are reused by the next call
+        while (this.stopped.getCount() > 0) {
+            try {
+                this.stopped.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        rethrowFailure(runners);
+        if (!this.solved.get()) {
             throw new TimeoutException();
         }
         return this.resultFound;
     }
 
+    /**
+     * Hand the failures of the solvers to the caller: errors are always
+     * thrown, exceptions only when no other solver found an answer.
+     */
+    private void rethrowFailure(RunnableSolver[] runners) {
+        RuntimeException exception = null;
+        for (RunnableSolver runner : runners) {
+            Throwable failure = runner.getFailure();
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (exception == null && failure instanceof RuntimeException) {
+                exception = (RuntimeException) failure;
+            }
+        }
+        if (exception != null && !this.solved.get()) {
+            throw exception;
+        }
+    }
+
+    private ExecutorService getExecutor() {
+        if (this.executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    this.numberOfSolvers, this.numberOfSolvers,
+                    IDLE_THREAD_TIMEOUT, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "ManyCore"); //$NON-NLS-1$
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+        return this.executor;
+    }
+
     public boolean isSatisfiable(boolean globalTimeout)
             throws TimeoutException {
-        throw new UnsupportedOperationException();
+        return isSatisfiable(VecInt.EMPTY, globalTimeout);
     }
 
     public boolean isSatisfiable(IVecInt assumps) throws TimeoutException {
-        throw new UnsupportedOperationException();
+        return isSatisfiable(assumps, false);
     }
 
     public int[] model() {
@@ -401,25 +665,38 @@ public class ManyCore<S extends ISolver>
         }
     }
 
-    public synchronized void onFinishWithAnswer(boolean finished,
-            boolean result, int index) {
-        if (finished && !this.solved) {
+    public void onFinishWithAnswer(boolean finished, boolean result,
+            int index) {
+        // the next call cannot replace the latches before that solver stops
+        CountDownLatch answer = this.answered;
+        CountDownLatch stop = this.stopped;
+        if (this.barrier != null) {
+            // the barrier chooses the answer at the end of the round
+            this.barrier.finish(index, finished, result);
+        } else if (finished) {
+            answerFound(index, result);
+        }
+        stop.countDown();
+        if (stop.getCount() == 0) {
+            // no solver found an answer
+            answer.countDown();
+        }
+    }
+
+    /**
+     * Keep the answer of a solver if no other solver answered first.
+     */
+    void answerFound(int index, boolean result) {
+        if (this.solved.compareAndSet(false, true)) {
             this.winnerId = index;
             this.solversStats.get(index).inc();
-            this.solved = true;
             this.resultFound = result;
-            for (int i = 0; i < this.numberOfSolvers; i++) {
-                if (i != this.winnerId) {
-                    this.solvers.get(i).expireTimeout();
-                }
-            }
-            this.sleepTime = FAST_SLEEP;
             if (isVerbose()) {
                 System.out.println(getLogPrefix() + "And the winner is "
                         + this.availableSolvers[this.winnerId]);
             }
+            this.answered.countDown();
         }
-        this.remainingSolvers.getAndDecrement();
     }
 
     public boolean isDBSimplificationAllowed() {
@@ -592,13 +869,22 @@ public class ManyCore<S extends ISolver>
     }
 
     @Override
-    public synchronized void learnUnit(int p) {
-        sharedUnitClauses.push(LiteralsUtils.toInternal(p));
+    public void learnUnit(int p) {
+        synchronized (this.sharedUnitClauses) {
+            this.sharedUnitClauses.push(LiteralsUtils.toInternal(p));
+        }
+    }
+
+    @Override
+    public int getEventMask() {
+        return LEARNING;
     }
 
-    public synchronized void provideUnitClauses(UnitPropagationListener upl) {
-        for (int i = 0; i < sharedUnitClauses.size(); i++) {
-            upl.enqueue(sharedUnitClauses.get(i));
+    public void provideUnitClauses(UnitPropagationListener upl) {
+        synchronized (this.sharedUnitClauses) {
+            for (int i = 0; i < this.sharedUnitClauses.size(); i++) {
+                upl.enqueue(this.sharedUnitClauses.get(i));
+            }
         }
     }
 
@@ -629,6 +915,9 @@ class RunnableSolver implements Runnable {
     private final OutcomeListener ol;
     private final IVecInt assumps;
     private final boolean globalTimeout;
+    private volatile boolean cancelled;
+    private volatile Thread runner;
+    private volatile Throwable failure;
 
     public RunnableSolver(int i, ISolver solver, IVecInt assumps,
             boolean globalTimeout, OutcomeListener ol) {
@@ -640,12 +929,44 @@ class RunnableSolver implements Runnable {
     }
 
     public void run() {
+        this.runner = Thread.currentThread();
+        boolean finished = false;
+        boolean result = false;
         try {
-            boolean result = this.solver.isSatisfiable(this.assumps,
-                    this.globalTimeout);
-            this.ol.onFinishWithAnswer(true, result, this.index);
-        } catch (Exception e) {
-            this.ol.onFinishWithAnswer(false, false, this.index);
+            if (!this.cancelled) {
+                result = this.solver.isSatisfiable(this.assumps,
+                        this.globalTimeout);
+                finished = true;
+            }
+        } catch (TimeoutException e) {
+            // stopped before finding an answer
+        } catch (Throwable e) {
+            this.failure = e;
+        } finally {
+            this.runner = null;
+            // the caller waits for all the solvers to stop
+            this.ol.onFinishWithAnswer(finished, result, this.index);
+        }
+    }
+
+    /**
+     * @return the exception or error thrown by the solver, null if it
+     *         stopped normally.
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Stop the solver: it is interrupted, and will not start if it is not
+     * running yet.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.solver.expireTimeout();
+        Thread thread = this.runner;
+        if (thread != null) {
+            thread.interrupt();
         }
     }
 
@@ -37,6 +37,7 @@ import java.util.List;
 import org.sat4j.specs.IConstr;
 import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.Lbool;
+import org.sat4j.specs.MaskedSearchListener;
 import org.sat4j.specs.RandomAccessModel;
 import org.sat4j.specs.SearchListener;
 
@@ -47,7 +48,7 @@ import org.sat4j.specs.SearchListener;
  * 
  */
 public class MultiTracing<T extends ISolverService> implements
-        SearchListener<T> {
+        MaskedSearchListener<T> {
 
     /**
 	 * 
@@ -182,4 +183,18 @@ public class MultiTracing<T extends ISolverService> implements
         }
     }
 
+    /**
+     * The events needed by at least one of the listeners.
+     */
+    public int getEventMask() {
+        int mask = NONE;
+        for (SearchListener<T> sl : this.listeners) {
+            if (sl instanceof MaskedSearchListener<?>) {
+                mask |= ((MaskedSearchListener<T>) sl).getEventMask();
+            } else {
+                mask |= ALL;
+            }
+        }
+        return mask;
+    }
 }
@@ -0,0 +1,1005 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.sat4j.core.LiteralsUtils.neg;
+import static org.sat4j.core.LiteralsUtils.toDimacs;
+import static org.sat4j.core.LiteralsUtils.toInternal;
+import static org.sat4j.core.LiteralsUtils.var;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+import org.sat4j.core.FlatClauses;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.FakeConstr;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IteratorInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * SatELite like preprocessor: the clauses are kept aside until the first call
+ * to one of the isSatisfiable() methods or the first non clausal constraint.
+ * At that point, the formula is simplified using unit propagation,
+ * subsumption, self subsuming resolution and bounded variable elimination
+ * before being given to the decorated solver.
+ * 
+ * The eliminated variables are kept on a stack with the clauses they appeared
+ * in, which is used to extend the models of the decorated solver to the
+ * original formula in {@link #model()}.
+ * 
+ * Variables which must be kept in the decorated solver (e.g. used as
+ * assumptions) should be declared using {@link #freeze(int)}. The variables
+ * appearing in non clausal constraints are frozen automatically, and the
+ * preprocessing takes place as soon as such a constraint is added. An
+ * eliminated variable appearing in a clause added after the preprocessing or
+ * in assumptions is put back in the decorated solver with the clauses it
+ * appeared in, so incremental usage remains correct.
+ * 
+ * Note that the clauses added before the preprocessing are not available as
+ * constraints: addClause() returns {@link FakeConstr} for those clauses, which
+ * cannot be removed.
+ * 
+ * <pre>
+ * ISolver solver = new PreprocessingDecorator&lt;ISolver&gt;(
+ *         SolverFactory.newDefault());
+ * </pre>
+ * 
+ * @author leberre
+ * @since 2.3.6
+ */
+public class PreprocessingDecorator<T extends ISolver> extends
+        SolverDecorator<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int NO_LITERAL = 0;
+
+    private IVec<IVecInt> pending = new Vec<IVecInt>();
+
+    private boolean preprocessed = false;
+
+    private boolean trivialfalsity = false;
+
+    private boolean[] frozen = new boolean[1];
+
+    private boolean[] eliminated = new boolean[1];
+
+    private final IVecInt elimVars = new VecInt();
+
+    private final IVec<int[][]> elimClauses = new Vec<int[][]>();
+
+    private int maxVarId = 0;
+
+    private int[] fullmodel;
+
+    private int maxResolventSize = 20;
+
+    private int maxOccurrences = 40;
+
+    private long subsumptionBudget = 100000000L;
+
+    private int nbEliminated;
+
+    private int nbRestored;
+
+    private int nbSubsumed;
+
+    private int nbStrengthened;
+
+    private int nbFixed;
+
+    private long preprocessingTime;
+
+    public PreprocessingDecorator(T solver) {
+        super(solver);
+    }
+
+    /**
+     * Prevent a variable to be eliminated.
+     * 
+     * @param var
+     *            a variable in Dimacs format.
+     */
+    public void freeze(int var) {
+        ensureVar(var);
+        this.frozen[var] = true;
+    }
+
+    /**
+     * @param var
+     *            a variable in Dimacs format.
+     * @return true iff the variable was eliminated by the preprocessor and is
+     *         not known by the decorated solver.
+     */
+    public boolean isEliminated(int var) {
+        return var < this.eliminated.length && this.eliminated[var];
+    }
+
+    /**
+     * Set the maximal size of the resolvents created when eliminating a
+     * variable (default is 20).
+     * 
+     * @param size
+     *            a number of literals
+     */
+    public void setMaxResolventSize(int size) {
+        this.maxResolventSize = size;
+    }
+
+    /**
+     * Set the maximal number of occurrences of a variable to be considered for
+     * elimination (default is 40).
+     * 
+     * @param occurrences
+     *            a number of clauses
+     */
+    public void setMaxOccurrences(int occurrences) {
+        this.maxOccurrences = occurrences;
+    }
+
+    private void ensureVar(int var) {
+        if (var >= this.frozen.length) {
+            int nsize = Math.max(var + 1, this.frozen.length * 2);
+            this.frozen = Arrays.copyOf(this.frozen, nsize);
+            this.eliminated = Arrays.copyOf(this.eliminated, nsize);
+        }
+        if (var > this.maxVarId) {
+            this.maxVarId = var;
+        }
+    }
+
+    private void freezeAll(IVecInt literals) {
+        for (IteratorInt it = literals.iterator(); it.hasNext();) {
+            freeze(Math.abs(it.next()));
+        }
+    }
+
+    @Override
+    public IConstr addClause(IVecInt literals) throws ContradictionException {
+        if (this.preprocessed) {
+            restoreEliminatedVariables(literals);
+            return super.addClause(literals);
+        }
+        if (literals.isEmpty()) {
+            throw new ContradictionException("Creating Empty clause ?");
+        }
+        IVecInt clause = new VecInt(literals.size());
+        for (IteratorInt it = literals.iterator(); it.hasNext();) {
+            int p = it.next();
+            ensureVar(Math.abs(p));
+            clause.push(p);
+        }
+        this.pending.push(clause);
+        return FakeConstr.instance();
+    }
+
+    @Override
+    public boolean removeConstr(IConstr c) {
+        if (c == FakeConstr.instance()) {
+            throw new UnsupportedOperationException(
+                    "Clauses given to the preprocessor cannot be removed");
+        }
+        return super.removeConstr(c);
+    }
+
+    @Override
+    public void addAllClauses(IVec<IVecInt> clauses)
+            throws ContradictionException {
+        for (int i = 0; i < clauses.size(); i++) {
+            addClause(clauses.get(i));
+        }
+    }
+
+    @Override
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        // the clauses are kept for the preprocessing
+        FlatClauses.addClauses(this, literals, from, to);
+    }
+
+    @Override
+    public IConstr addBlockingClause(IVecInt literals)
+            throws ContradictionException {
+        if (this.preprocessed) {
+            restoreEliminatedVariables(literals);
+        }
+        return super.addBlockingClause(literals);
+    }
+
+    @Override
+    public IConstr discardCurrentModel() throws ContradictionException {
+        return addBlockingClause(createBlockingClauseForCurrentModel());
+    }
+
+    @Override
+    public IVecInt createBlockingClauseForCurrentModel() {
+        int[] model = model();
+        IVecInt clause = new VecInt(model.length);
+        for (int p : model) {
+            clause.push(-p);
+        }
+        return clause;
+    }
+
+    @Override
+    public IConstr addAtMost(IVecInt literals, int degree)
+            throws ContradictionException {
+        beforeConstraint(literals);
+        return super.addAtMost(literals, degree);
+    }
+
+    @Override
+    public IConstr addAtLeast(IVecInt literals, int degree)
+            throws ContradictionException {
+        beforeConstraint(literals);
+        return super.addAtLeast(literals, degree);
+    }
+
+    @Override
+    public IConstr addExactly(IVecInt literals, int n)
+            throws ContradictionException {
+        beforeConstraint(literals);
+        return super.addExactly(literals, n);
+    }
+
+    @Override
+    public IConstr addParity(IVecInt literals, boolean even) {
+        beforeConstraint(literals);
+        return super.addParity(literals, even);
+    }
+
+    @Override
+    public IConstr addConstr(Constr constr) {
+        IVecInt literals = new VecInt(constr.size());
+        for (int i = 0; i < constr.size(); i++) {
+            literals.push(toDimacs(constr.get(i)));
+        }
+        beforeConstraint(literals);
+        return super.addConstr(constr);
+    }
+
+    /**
+     * The non clausal constraints are given directly to the decorated solver,
+     * so the clauses added before them are simplified first, to keep the
+     * order in which the constraints are given to the decorated solver.
+     */
+    private void beforeConstraint(IVecInt literals) {
+        freezeAll(literals);
+        if (this.preprocessed) {
+            restoreEliminatedVariables(literals);
+        } else {
+            preprocess();
+        }
+    }
+
+    @Override
+    public boolean isSatisfiable() throws TimeoutException {
+        return isSatisfiable(VecInt.EMPTY, false);
+    }
+
+    @Override
+    public boolean isSatisfiable(boolean global) throws TimeoutException {
+        return isSatisfiable(VecInt.EMPTY, global);
+    }
+
+    @Override
+    public boolean isSatisfiable(IVecInt assumps) throws TimeoutException {
+        return isSatisfiable(assumps, false);
+    }
+
+    @Override
+    public boolean isSatisfiable(IVecInt assumps, boolean global)
+            throws TimeoutException {
+        if (!this.preprocessed) {
+            freezeAll(assumps);
+            preprocess();
+        } else {
+            restoreEliminatedVariables(assumps);
+        }
+        this.fullmodel = null;
+        if (this.trivialfalsity) {
+            return false;
+        }
+        return super.isSatisfiable(assumps, global);
+    }
+
+    @Override
+    public int[] findModel() throws TimeoutException {
+        if (isSatisfiable()) {
+            return model();
+        }
+        return null;
+    }
+
+    @Override
+    public int[] findModel(IVecInt assumps) throws TimeoutException {
+        if (isSatisfiable(assumps)) {
+            return model();
+        }
+        return null;
+    }
+
+    @Override
+    public int[] model() {
+        if (this.fullmodel == null) {
+            this.fullmodel = extendModel(super.model());
+        }
+        return this.fullmodel;
+    }
+
+    @Override
+    public boolean model(int var) {
+        int[] model = model();
+        if (var <= 0 || var > model.length) {
+            throw new IllegalArgumentException("Variable " + var
+                    + " not in the model");
+        }
+        return model[var - 1] > 0;
+    }
+
+    @Override
+    public int[] modelWithInternalVariables() {
+        return extendModel(super.modelWithInternalVariables());
+    }
+
+    @Override
+    public int[] primeImplicant() {
+        if (this.elimVars.size() > 0) {
+            throw new UnsupportedOperationException(
+                    "Prime implicants are not available once variables have been eliminated");
+        }
+        return super.primeImplicant();
+    }
+
+    @Override
+    public int nConstraints() {
+        return this.pending.size() + super.nConstraints();
+    }
+
+    @Override
+    public int nVars() {
+        return Math.max(this.maxVarId, super.nVars());
+    }
+
+    @Override
+    public void reset() {
+        this.pending.clear();
+        this.fullmodel = null;
+        this.preprocessed = false;
+        this.trivialfalsity = false;
+        this.frozen = new boolean[1];
+        this.eliminated = new boolean[1];
+        this.elimVars.clear();
+        this.elimClauses.clear();
+        this.maxVarId = 0;
+        this.nbEliminated = 0;
+        this.nbRestored = 0;
+        this.nbSubsumed = 0;
+        this.nbStrengthened = 0;
+        this.nbFixed = 0;
+        this.preprocessingTime = 0;
+        super.reset();
+    }
+
+    @Override
+    public void printStat(PrintWriter out, String prefix) {
+        super.printStat(out, prefix);
+        out.println(prefix + "preprocessing time (ms)\t: "
+                + this.preprocessingTime);
+        out.println(prefix + "fixed variables\t: " + this.nbFixed);
+        out.println(prefix + "eliminated variables\t: " + this.nbEliminated);
+        out.println(prefix + "restored variables\t: " + this.nbRestored);
+        out.println(prefix + "subsumed clauses\t: " + this.nbSubsumed);
+        out.println(prefix + "strengthened clauses\t: " + this.nbStrengthened);
+    }
+
+    @Override
+    public Map<String, Number> getStat() {
+        Map<String, Number> stats = super.getStat();
+        stats.put("preprocessingTime", this.preprocessingTime);
+        stats.put("fixedVariables", this.nbFixed);
+        stats.put("eliminatedVariables", this.nbEliminated);
+        stats.put("restoredVariables", this.nbRestored);
+        stats.put("subsumedClauses", this.nbSubsumed);
+        stats.put("strengthenedClauses", this.nbStrengthened);
+        return stats;
+    }
+
+    @Override
+    public String toString(String prefix) {
+        return prefix + "SatELite like preprocessing (max resolvent size "
+                + this.maxResolventSize + ", max occurrences "
+                + this.maxOccurrences + ")\n" + super.toString(prefix);
+    }
+
+    /**
+     * Extends a model of the decorated solver to the eliminated variables, by
+     * going through the elimination stack from the last eliminated variable.
+     * The variables unknown from the decorated solver which were not
+     * eliminated can take any value, they are set to false.
+     */
+    private int[] extendModel(int[] model) {
+        int nvars = this.maxVarId;
+        for (int p : model) {
+            nvars = Math.max(nvars, Math.abs(p));
+        }
+        int[] values = new int[nvars + 1];
+        for (int i = 1; i <= nvars; i++) {
+            values[i] = -i;
+        }
+        for (int p : model) {
+            values[Math.abs(p)] = p;
+        }
+        for (int i = this.elimVars.size() - 1; i >= 0; i--) {
+            int x = this.elimVars.get(i);
+            values[x] = -x;
+            for (int[] clause : this.elimClauses.get(i)) {
+                if (clause[0] == x && !isSatisfiedBesidesFirst(clause, values)) {
+                    values[x] = x;
+                    break;
+                }
+            }
+        }
+        int[] result = new int[nvars];
+        System.arraycopy(values, 1, result, 0, nvars);
+        return result;
+    }
+
+    private static boolean isSatisfiedBesidesFirst(int[] clause, int[] values) {
+        for (int i = 1; i < clause.length; i++) {
+            if (values[Math.abs(clause[i])] == clause[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Give back to the decorated solver the eliminated variables appearing in
+     * the literals, together with the clauses they appeared in.
+     */
+    private void restoreEliminatedVariables(IVecInt literals) {
+        if (this.elimVars.isEmpty()) {
+            return;
+        }
+        for (IteratorInt it = literals.iterator(); it.hasNext();) {
+            int x = Math.abs(it.next());
+            if (isEliminated(x)) {
+                restore(x);
+            }
+        }
+    }
+
+    private void restore(int x) {
+        int index = -1;
+        for (int i = 0; i < this.elimVars.size(); i++) {
+            if (this.elimVars.get(i) == x) {
+                index = i;
+                break;
+            }
+        }
+        assert index >= 0;
+        int[][] clauses = this.elimClauses.get(index);
+        this.elimVars.remove(x);
+        this.elimClauses.remove(clauses);
+        this.eliminated[x] = false;
+        this.nbRestored++;
+        for (int[] clause : clauses) {
+            for (int p : clause) {
+                if (isEliminated(Math.abs(p))) {
+                    restore(Math.abs(p));
+                }
+            }
+        }
+        for (int[] clause : clauses) {
+            try {
+                super.addClause(new VecInt(clause));
+            } catch (ContradictionException e) {
+                this.trivialfalsity = true;
+            }
+        }
+    }
+
+    private void preprocess() {
+        long begin = System.currentTimeMillis();
+        this.preprocessed = true;
+        ensureVar(super.nVars());
+        Simplifier simplifier = new Simplifier(this.maxVarId);
+        for (int i = 0; i < this.pending.size(); i++) {
+            simplifier.addClause(this.pending.get(i));
+        }
+        this.pending = new Vec<IVecInt>();
+        if (simplifier.propagateUnits()) {
+            simplifier.subsume();
+            boolean eliminatedSome;
+            int round = 0;
+            do {
+                eliminatedSome = simplifier.eliminate();
+                if (eliminatedSome) {
+                    simplifier.subsume();
+                }
+            } while (eliminatedSome && !simplifier.unsat && ++round < 3);
+        }
+        if (simplifier.unsat) {
+            this.trivialfalsity = true;
+        } else {
+            simplifier.giveClausesToSolver();
+        }
+        this.preprocessingTime = System.currentTimeMillis() - begin;
+        if (isVerbose()) {
+            System.out.printf(
+                    "%s preprocessing: %d fixed, %d eliminated, %d subsumed, %d strengthened in %d ms%n",
+                    getLogPrefix(), this.nbFixed, this.nbEliminated,
+                    this.nbSubsumed, this.nbStrengthened,
+                    this.preprocessingTime);
+        }
+    }
+
+    private static final class PClause {
+        int[] lits;
+        long signature;
+        boolean deleted;
+        boolean queued;
+
+        PClause(int[] lits) {
+            setLiterals(lits);
+        }
+
+        /**
+         * The signature is an abstraction of the set of variables in the
+         * clause: a clause cannot subsume (or strengthen) another one if its
+         * signature is not included in the signature of the other one.
+         */
+        void setLiterals(int[] lits) {
+            this.lits = lits;
+            this.signature = 0L;
+            for (int p : lits) {
+                this.signature |= 1L << (var(p) & 63);
+            }
+        }
+
+        int size() {
+            return this.lits.length;
+        }
+    }
+
+    /**
+     * The simplification of the formula itself. Literals are represented
+     * internally as in the solver, so that the occurrence lists can be
+     * indexed by literals.
+     */
+    private final class Simplifier {
+
+        private final IVec<PClause> clauses = new Vec<PClause>();
+
+        private final IVec<PClause>[] occurrences;
+
+        private final int[] nbOccurrences;
+
+        private final int[] value;
+
+        private final IVecInt units = new VecInt();
+
+        private final int[] marks;
+
+        private int stamp;
+
+        private final IVec<PClause> queue = new Vec<PClause>();
+
+        private int qhead;
+
+        private long steps;
+
+        boolean unsat;
+
+        @SuppressWarnings("unchecked")
+        Simplifier(int nvars) {
+            this.occurrences = new IVec[2 * nvars + 2];
+            for (int i = 2; i < this.occurrences.length; i++) {
+                this.occurrences[i] = new Vec<PClause>();
+            }
+            this.nbOccurrences = new int[2 * nvars + 2];
+            this.value = new int[2 * nvars + 2];
+            this.marks = new int[2 * nvars + 2];
+        }
+
+        private boolean isSatisfied(int p) {
+            return this.value[p] > 0;
+        }
+
+        private boolean isFalsified(int p) {
+            return this.value[p] < 0;
+        }
+
+        void addClause(IVecInt dimacs) {
+            this.stamp++;
+            IVecInt lits = new VecInt(dimacs.size());
+            for (IteratorInt it = dimacs.iterator(); it.hasNext();) {
+                int p = toInternal(it.next());
+                if (this.marks[neg(p)] == this.stamp) {
+                    // tautology
+                    return;
+                }
+                if (this.marks[p] != this.stamp) {
+                    this.marks[p] = this.stamp;
+                    lits.push(p);
+                }
+            }
+            int[] tmp = new int[lits.size()];
+            lits.copyTo(tmp);
+            attach(new PClause(tmp));
+        }
+
+        private void attach(PClause c) {
+            if (c.size() == 0) {
+                this.unsat = true;
+                return;
+            }
+            if (c.size() == 1) {
+                enqueue(c.lits[0]);
+                return;
+            }
+            this.clauses.push(c);
+            for (int p : c.lits) {
+                this.occurrences[p].push(c);
+                this.nbOccurrences[p]++;
+            }
+            touch(c);
+        }
+
+        private void detach(PClause c) {
+            c.deleted = true;
+            for (int p : c.lits) {
+                this.nbOccurrences[p]--;
+            }
+        }
+
+        private void touch(PClause c) {
+            if (!c.queued) {
+                c.queued = true;
+                this.queue.push(c);
+            }
+        }
+
+        private void enqueue(int p) {
+            if (isFalsified(p)) {
+                this.unsat = true;
+            } else if (!isSatisfied(p)) {
+                this.value[p] = 1;
+                this.value[neg(p)] = -1;
+                this.units.push(p);
+            }
+        }
+
+        /**
+         * Removes the clauses satisfied by the units and the falsified
+         * literals from the other clauses.
+         * 
+         * @return false iff the formula is found unsatisfiable.
+         */
+        boolean propagateUnits() {
+            while (!this.unsat && this.qhead < this.units.size()) {
+                int p = this.units.get(this.qhead++);
+                IVec<PClause> occ = this.occurrences[p];
+                for (int i = 0; i < occ.size(); i++) {
+                    PClause c = occ.get(i);
+                    if (!c.deleted && contains(c, p)) {
+                        detach(c);
+                    }
+                }
+                occ.clear();
+                occ = this.occurrences[neg(p)];
+                for (int i = 0; i < occ.size() && !this.unsat; i++) {
+                    PClause c = occ.get(i);
+                    if (!c.deleted && contains(c, neg(p))) {
+                        removeLiteral(c, neg(p));
+                    }
+                }
+                occ.clear();
+            }
+            return !this.unsat;
+        }
+
+        private void removeLiteral(PClause c, int p) {
+            int[] nlits = new int[c.size() - 1];
+            int j = 0;
+            for (int q : c.lits) {
+                if (q != p) {
+                    nlits[j++] = q;
+                }
+            }
+            assert j == nlits.length;
+            this.nbOccurrences[p]--;
+            c.setLiterals(nlits);
+            if (nlits.length == 1) {
+                detach(c);
+                enqueue(nlits[0]);
+            } else {
+                touch(c);
+            }
+        }
+
+        /**
+         * Removes the deleted clauses, and optionally the clauses that no
+         * longer contain p, from the occurrence list of p.
+         */
+        private void cleanOccurrences(int p, boolean strict) {
+            IVec<PClause> occ = this.occurrences[p];
+            int j = 0;
+            for (int i = 0; i < occ.size(); i++) {
+                PClause c = occ.get(i);
+                if (!c.deleted && (!strict || contains(c, p))) {
+                    occ.set(j++, c);
+                }
+            }
+            occ.shrinkTo(j);
+        }
+
+        private boolean contains(PClause c, int p) {
+            for (int q : c.lits) {
+                if (q == p) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Backward subsumption and self subsuming resolution from the
+         * clauses in the queue.
+         */
+        void subsume() {
+            while (!this.queue.isEmpty() && !this.unsat
+                    && this.steps < PreprocessingDecorator.this.subsumptionBudget) {
+                PClause c = this.queue.last();
+                this.queue.pop();
+                c.queued = false;
+                if (c.deleted) {
+                    continue;
+                }
+                int best = c.lits[0];
+                for (int p : c.lits) {
+                    if (this.nbOccurrences[p] + this.nbOccurrences[neg(p)] < this.nbOccurrences[best]
+                            + this.nbOccurrences[neg(best)]) {
+                        best = p;
+                    }
+                }
+                subsumeWith(c, best);
+                if (!c.deleted && !this.unsat) {
+                    subsumeWith(c, neg(best));
+                }
+                propagateUnits();
+            }
+            this.queue.clear();
+        }
+
+        private void subsumeWith(PClause c, int p) {
+            this.stamp++;
+            for (int q : c.lits) {
+                this.marks[q] = this.stamp;
+            }
+            cleanOccurrences(p, false);
+            IVec<PClause> occ = this.occurrences[p];
+            for (int i = 0; i < occ.size(); i++) {
+                PClause d = occ.get(i);
+                if (d == c || d.deleted || d.size() < c.size()
+                        || (c.signature & ~d.signature) != 0) {
+                    continue;
+                }
+                this.steps += d.size();
+                int found = 0;
+                int flipped = NO_LITERAL;
+                for (int q : d.lits) {
+                    if (this.marks[q] == this.stamp) {
+                        found++;
+                    } else if (this.marks[neg(q)] == this.stamp) {
+                        if (flipped != NO_LITERAL) {
+                            flipped = NO_LITERAL;
+                            found = -1;
+                            break;
+                        }
+                        flipped = q;
+                    }
+                }
+                if (found == c.size()) {
+                    detach(d);
+                    PreprocessingDecorator.this.nbSubsumed++;
+                } else if (flipped != NO_LITERAL
+                        && found == c.size() - 1) {
+                    removeLiteral(d, flipped);
+                    PreprocessingDecorator.this.nbStrengthened++;
+                    if (this.unsat) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Try to eliminate each non frozen variable, cheapest first.
+         * 
+         * @return true iff at least one variable was eliminated.
+         */
+        boolean eliminate() {
+            IVecInt candidates = new VecInt();
+            for (int x = 1; x < this.value.length / 2; x++) {
+                int p = x << 1;
+                if (!PreprocessingDecorator.this.frozen[x]
+                        && !PreprocessingDecorator.this.eliminated[x]
+                        && this.value[p] == 0
+                        && this.nbOccurrences[p] + this.nbOccurrences[p ^ 1] > 0) {
+                    candidates.push(x);
+                }
+            }
+            final int[] cost = new int[this.value.length / 2];
+            for (IteratorInt it = candidates.iterator(); it.hasNext();) {
+                int x = it.next();
+                cost[x] = this.nbOccurrences[x << 1]
+                        * this.nbOccurrences[x << 1 | 1];
+            }
+            candidates.sort(new Comparator<Integer>() {
+                public int compare(Integer x, Integer y) {
+                    return cost[x] - cost[y];
+                }
+            });
+            boolean eliminatedSome = false;
+            for (IteratorInt it = candidates.iterator(); it.hasNext()
+                    && !this.unsat;) {
+                int x = it.next();
+                if (this.value[x << 1] == 0 && tryToEliminate(x)) {
+                    eliminatedSome = true;
+                    propagateUnits();
+                }
+            }
+            return eliminatedSome;
+        }
+
+        private boolean tryToEliminate(int x) {
+            int p = x << 1;
+            int nbPos = this.nbOccurrences[p];
+            int nbNeg = this.nbOccurrences[neg(p)];
+            if (nbPos + nbNeg > PreprocessingDecorator.this.maxOccurrences) {
+                return false;
+            }
+            cleanOccurrences(p, true);
+            cleanOccurrences(neg(p), true);
+            IVec<PClause> pos = this.occurrences[p];
+            IVec<PClause> negs = this.occurrences[neg(p)];
+            IVec<int[]> resolvents = new Vec<int[]>();
+            int limit = pos.size() + negs.size();
+            for (int i = 0; i < pos.size(); i++) {
+                for (int j = 0; j < negs.size(); j++) {
+                    int[] resolvent = resolve(pos.get(i), negs.get(j), p);
+                    if (resolvent == null) {
+                        continue;
+                    }
+                    if (resolvent.length > PreprocessingDecorator.this.maxResolventSize
+                            || resolvents.size() >= limit) {
+                        return false;
+                    }
+                    resolvents.push(resolvent);
+                }
+            }
+            int[][] removed = new int[pos.size() + negs.size()][];
+            int k = 0;
+            for (int i = 0; i < pos.size(); i++) {
+                removed[k++] = toDimacsWithFirst(pos.get(i), p);
+                detach(pos.get(i));
+            }
+            for (int i = 0; i < negs.size(); i++) {
+                removed[k++] = toDimacsWithFirst(negs.get(i), neg(p));
+                detach(negs.get(i));
+            }
+            this.occurrences[p].clear();
+            this.occurrences[neg(p)].clear();
+            PreprocessingDecorator.this.eliminated[x] = true;
+            PreprocessingDecorator.this.elimVars.push(x);
+            PreprocessingDecorator.this.elimClauses.push(removed);
+            PreprocessingDecorator.this.nbEliminated++;
+            for (int i = 0; i < resolvents.size() && !this.unsat; i++) {
+                attach(new PClause(resolvents.get(i)));
+            }
+            return true;
+        }
+
+        private int[] resolve(PClause c, PClause d, int p) {
+            this.stamp++;
+            IVecInt resolvent = new VecInt(c.size() + d.size() - 2);
+            for (int q : c.lits) {
+                if (q != p) {
+                    this.marks[q] = this.stamp;
+                    resolvent.push(q);
+                }
+            }
+            for (int q : d.lits) {
+                if (q == neg(p)) {
+                    continue;
+                }
+                if (this.marks[neg(q)] == this.stamp) {
+                    // tautology
+                    return null;
+                }
+                if (this.marks[q] != this.stamp) {
+                    resolvent.push(q);
+                }
+            }
+            int[] result = new int[resolvent.size()];
+            resolvent.copyTo(result);
+            return result;
+        }
+
+        private int[] toDimacsWithFirst(PClause c, int p) {
+            int[] dimacs = new int[c.size()];
+            dimacs[0] = toDimacs(p);
+            int j = 1;
+            for (int q : c.lits) {
+                if (q != p) {
+                    dimacs[j++] = toDimacs(q);
+                }
+            }
+            return dimacs;
+        }
+
+        void giveClausesToSolver() {
+            try {
+                for (IteratorInt it = this.units.iterator(); it.hasNext();) {
+                    int p = it.next();
+                    if (!PreprocessingDecorator.this.eliminated[var(p)]) {
+                        PreprocessingDecorator.this.nbFixed++;
+                        PreprocessingDecorator.super.addClause(new VecInt(
+                                new int[] { toDimacs(p) }));
+                    }
+                }
+                for (int i = 0; i < this.clauses.size(); i++) {
+                    PClause c = this.clauses.get(i);
+                    if (!c.deleted) {
+                        IVecInt clause = new VecInt(c.size());
+                        for (int q : c.lits) {
+                            clause.push(toDimacs(q));
+                        }
+                        PreprocessingDecorator.super.addClause(clause);
+                    }
+                }
+            } catch (ContradictionException e) {
+                PreprocessingDecorator.this.trivialfalsity = true;
+            }
+        }
+    }
+
+}
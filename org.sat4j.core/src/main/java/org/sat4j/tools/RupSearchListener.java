@@ -29,88 +29,29 @@
  *******************************************************************************/
 package org.sat4j.tools;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
-import java.util.logging.Logger;
-
-import org.sat4j.core.LiteralsUtils;
-import org.sat4j.specs.IConstr;
 import org.sat4j.specs.ISolverService;
-import org.sat4j.specs.Lbool;
-import org.sat4j.specs.SearchListenerAdapter;
 
 /**
- * Output an unsat proof using the reverse unit propagation (RUP) format.
+ * Output an unsat proof using the reverse unit propagation (RUP) format, i.e.
+ * the text DRAT format.
  * 
  * @author daniel
  * 
  * @param <S>
  *            a solver service
  * @since 2.3.4
+ * @see DratSearchListener
  */
 public class RupSearchListener<S extends ISolverService>
-        extends SearchListenerAdapter<S> {
+        extends DratSearchListener<S> {
 
     /**
      * 
      */
     private static final long serialVersionUID = 1L;
 
-    private PrintStream out;
-    private final File file;
-
     public RupSearchListener(String filename) {
-        file = new File(filename);
-    }
-
-    @Override
-    public void init(S solverService) {
-        try {
-            out = new PrintStream(new FileOutputStream(file));
-        } catch (FileNotFoundException e) {
-            out = System.out;
-        }
-    }
-
-    @Override
-    public void end(Lbool result) {
-        if (result == Lbool.FALSE) {
-            out.println("0");
-            out.close();
-        } else {
-            out.close();
-            if (!file.delete()) {
-                Logger.getLogger("org.sat4j.core")
-                        .info("Cannot delete file " + file.getName());
-            }
-        }
-    }
-
-    @Override
-    public void learn(IConstr c) {
-        printConstr(c);
-    }
-
-    @Override
-    public void delete(IConstr c) {
-        out.print("d ");
-        printConstr(c);
-    }
-
-    private void printConstr(IConstr c) {
-        for (int i = 0; i < c.size(); i++) {
-            out.print(LiteralsUtils.toDimacs(c.get(i)));
-            out.print(" ");
-        }
-        out.println("0");
-    }
-
-    @Override
-    public void learnUnit(int p) {
-        out.print(p);
-        out.println(" 0");
+        super(filename, false);
     }
 
 }
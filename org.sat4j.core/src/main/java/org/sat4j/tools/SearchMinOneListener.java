@@ -82,4 +82,9 @@ public class SearchMinOneListener extends SearchListenerAdapter<ISolverService>
     public void end(Lbool result) {
         assert result != Lbool.TRUE;
     }
+
+    @Override
+    public int getEventMask() {
+        return NONE;
+    }
 }
@@ -241,6 +241,14 @@ public abstract class SolverDecorator<T extends ISolver> implements ISolver {
         this.solver.addAllClauses(clauses);
     }
 
+    /**
+     * @since 2.3.6
+     */
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        this.solver.addClauses(literals, from, to);
+    }
+
     /**
      * @since 2.1
      */
@@ -123,4 +123,9 @@ public class SpeedTracing extends SearchListenerAdapter<ISolverService> {
         this.counter = 0;
         this.index = 0;
     }
+
+    @Override
+    public int getEventMask() {
+        return PROPAGATION;
+    }
 }
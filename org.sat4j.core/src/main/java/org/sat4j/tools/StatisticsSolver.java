@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
+import org.sat4j.core.FlatClauses;
 import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.core.Counter;
@@ -248,6 +249,11 @@ public class StatisticsSolver implements ISolver {
         throw new UnsupportedOperationException(NOT_IMPLEMENTED_YET);
     }
 
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        FlatClauses.addClauses(this, literals, from, to);
+    }
+
     public IConstr addAtMost(IVecInt literals, int degree)
             throws ContradictionException {
         throw new UnsupportedOperationException(NOT_IMPLEMENTED_YET);
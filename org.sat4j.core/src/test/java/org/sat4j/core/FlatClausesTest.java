@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.opt.MaxSatDecorator;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.DimacsStringSolver;
+import org.sat4j.tools.ManyCore;
+import org.sat4j.tools.ModelIterator;
+
+public class FlatClausesTest {
+
+    private static final int[] CLAUSES = { 1, -2, 3, 0, -1, 2, 0, 2, 3, 0,
+            -3, 4, 1, 0 };
+
+    @Test
+    public void testEndOfLastClause() {
+        assertEquals(14, FlatClauses.endOfLastClause(CLAUSES, 0, 14));
+        assertEquals(10, FlatClauses.endOfLastClause(CLAUSES, 0, 13));
+        assertEquals(4, FlatClauses.endOfLastClause(CLAUSES, 4, 6));
+    }
+
+    @Test
+    public void testSameConstraintsAsAddClause() throws ContradictionException {
+        DimacsStringSolver expected = new DimacsStringSolver();
+        FlatClauses.addClauses(expected, CLAUSES, 0, CLAUSES.length);
+        DimacsStringSolver solver = new DimacsStringSolver();
+        solver.addClauses(CLAUSES, 0, CLAUSES.length);
+        assertEquals(expected.toString(), solver.toString());
+        assertEquals(4, solver.nConstraints());
+    }
+
+    @Test
+    public void testSolverAddsTheClausesOfTheRange()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.newVar(4);
+        solver.addClauses(CLAUSES, 4, CLAUSES.length);
+        assertEquals(3, solver.nConstraints());
+        assertTrue(solver.isSatisfiable());
+        solver.addClauses(new int[] { -2, 0, 0 }, 0, 2);
+        assertTrue(solver.isSatisfiable());
+        assertFalse(solver.model(1));
+        assertTrue(solver.model(3));
+    }
+
+    @Test
+    public void testUnterminatedClause() throws ContradictionException {
+        ISolver solver = SolverFactory.newDefault();
+        try {
+            solver.addClauses(CLAUSES, 0, 13);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, solver.nConstraints());
+        }
+    }
+
+    @Test(expected = ContradictionException.class)
+    public void testEmptyClause() throws ContradictionException {
+        ISolver solver = SolverFactory.newDefault();
+        solver.addClauses(new int[] { 1, 2, 0, 0 }, 0, 4);
+    }
+
+    @Test
+    public void testDecorators() throws ContradictionException,
+            TimeoutException {
+        ISolver solver = new ModelIterator(SolverFactory.newDefault());
+        solver.addClauses(CLAUSES, 0, CLAUSES.length);
+        int count = 0;
+        while (solver.isSatisfiable()) {
+            solver.model();
+            count++;
+        }
+        assertEquals(6, count);
+        ManyCore<ISolver> parallel = new ManyCore<ISolver>(
+                SolverFactory.newDefault(), SolverFactory.newGlucose21(),
+                new MaxSatDecorator(SolverFactory.newDefault()));
+        parallel.addClauses(CLAUSES, 0, CLAUSES.length);
+        assertEquals(4, parallel.getSolvers().get(0).nConstraints());
+        assertEquals(4, parallel.getSolvers().get(2).nConstraints());
+        assertTrue(parallel.isSatisfiable());
+    }
+}
@@ -69,7 +69,7 @@ public class GenericM2Test extends AbstractM2Test<ISolver> {
         String[] names = FACTORY.solverNames();
         for (String name : names) {
             if (!"Mini3SAT".equals(name) && !"DimacsOutput".equals(name)
-                    && !"Statistics".equals(name) && !"Concise".equals(name)
+                    && !"Statistics".equals(name)
                     && !"DimacsStringSolver".equals(name)) {
                 suite.addTest(new GenericM2Test(name));
             }
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.minisat.core.SearchParams;
+import org.sat4j.minisat.core.SolverStats;
+import org.sat4j.minisat.orders.TargetPhaseSelectionStrategy;
+import org.sat4j.minisat.restarts.StableFocusedRestarts;
+
+public class TestStableFocusedRestarts {
+
+    private TargetPhaseSelectionStrategy phases;
+
+    private StableFocusedRestarts restarts;
+
+    @Before
+    public void setUp() {
+        phases = new TargetPhaseSelectionStrategy();
+        phases.init(4);
+        restarts = new StableFocusedRestarts(phases);
+        restarts.init(new SearchParams(), new SolverStats());
+    }
+
+    @Test
+    public void testTargetPhasesOnlyUsedInStableMode() {
+        phases.assignLiteral(2);
+        phases.saveTarget();
+        phases.assignLiteral(3);
+        assertEquals(3, phases.select(1));
+        phases.setStable(true);
+        assertEquals(2, phases.select(1));
+    }
+
+    @Test
+    public void testRephasing() {
+        assertEquals(3, phases.select(1));
+        phases.rephaseInverted();
+        assertEquals(2, phases.select(1));
+        phases.assignLiteral(5);
+        phases.saveBest();
+        phases.rephaseOriginal();
+        assertEquals(3, phases.select(1));
+        assertEquals(7, phases.select(3));
+        phases.rephaseBest();
+        assertEquals(2, phases.select(1));
+        assertEquals(5, phases.select(2));
+    }
+
+    @Test
+    public void testModesSwitching() {
+        assertFalse(restarts.isStable());
+        assertFalse(phases.isStable());
+        for (int i = 0; i < 1000; i++) {
+            restarts.newConflict();
+        }
+        assertTrue(restarts.shouldRestart());
+        restarts.onRestart();
+        assertTrue(restarts.isStable());
+        assertTrue(phases.isStable());
+        // stable mode lasts twice as long
+        for (int i = 0; i < 1999; i++) {
+            restarts.newConflict();
+            if (restarts.shouldRestart()) {
+                restarts.onRestart();
+            }
+        }
+        assertTrue(restarts.isStable());
+        restarts.newConflict();
+        assertTrue(restarts.shouldRestart());
+        restarts.onRestart();
+        assertFalse(restarts.isStable());
+        assertFalse(phases.isStable());
+    }
+}
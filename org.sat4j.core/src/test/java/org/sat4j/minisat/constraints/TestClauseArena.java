@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.constraints.cnf.ArenaClause;
+import org.sat4j.minisat.constraints.cnf.ClauseArena;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.core.ILits;
+
+public class TestClauseArena {
+
+    private ILits voc;
+
+    private ClauseArena arena;
+
+    @Before
+    public void setUp() {
+        this.voc = new Lits();
+        for (int i = 1; i <= 10; i++) {
+            this.voc.getFromPool(i);
+        }
+        this.arena = new ClauseArena(this.voc);
+    }
+
+    private ArenaClause newClause(boolean learnt, int... dimacs) {
+        VecInt lits = new VecInt(dimacs.length);
+        for (int p : dimacs) {
+            lits.push(this.voc.getFromPool(p));
+        }
+        ArenaClause c = new ArenaClause(this.arena, lits, learnt);
+        c.register();
+        return c;
+    }
+
+    @Test
+    public void testHeaderIsStoredInTheArena() {
+        ArenaClause c = newClause(true, 1, -2, 3);
+        assertEquals(3, c.size());
+        assertTrue(c.learnt());
+        assertEquals(0.0, c.getActivity(), 0.0);
+        c.setActivity(12.5);
+        assertEquals(12.5, c.getActivity(), 0.0);
+        c.incActivity(1.0);
+        assertEquals(13.5, c.getActivity(), 0.0);
+        ArenaClause d = newClause(false, 4, 5, 6, 7);
+        assertFalse(d.learnt());
+        d.incActivity(1.0);
+        assertEquals(0.0, d.getActivity(), 0.0);
+        assertEquals(2, this.arena.nClauses());
+    }
+
+    @Test
+    public void testCompactionKeepsLiveClauses() {
+        ArenaClause c1 = newClause(false, 1, 2, 3);
+        ArenaClause c2 = newClause(true, -1, 4, 5, 6);
+        ArenaClause c3 = newClause(true, 7, -8, 9);
+        c3.setActivity(3.0);
+        int used = this.arena.used();
+        c2.remove(null);
+        // literals of removed clauses remain readable until compaction
+        assertEquals(4, c2.size());
+        this.arena.compact();
+        assertEquals(2, this.arena.nClauses());
+        assertTrue(this.arena.used() < used);
+        assertEquals(0, c2.size());
+        assertTrue(c2.learnt());
+        assertEquals(this.voc.getFromPool(1), c1.get(0));
+        assertEquals(this.voc.getFromPool(7), c3.get(0));
+        assertEquals(this.voc.getFromPool(-8), c3.get(1));
+        assertEquals(this.voc.getFromPool(9), c3.get(2));
+        assertEquals(3.0, c3.getActivity(), 0.0);
+        assertTrue(this.voc.watches(c3.get(0) ^ 1).contains(c3));
+        assertFalse(this.voc.watches(this.voc.getFromPool(-1) ^ 1)
+                .contains(c2));
+    }
+
+    @Test
+    public void testReclaimedClausesDoNotWriteInTheArena() {
+        ArenaClause c1 = newClause(false, 1, 2, 3);
+        ArenaClause c2 = newClause(true, 4, 5, 6);
+        ArenaClause c3 = newClause(true, 7, 8, 9);
+        c3.setActivity(2.0);
+        c1.remove(null);
+        c2.remove(null);
+        this.arena.compact();
+        // c3 now starts the arena, where the header of c1 used to be
+        c1.setActivity(42.0);
+        c1.setLearnt();
+        c2.rescaleBy(1e-20);
+        c2.incActivity(1.0);
+        assertEquals(0.0, c1.getActivity(), 0.0);
+        assertTrue(c1.learnt());
+        assertEquals(3, c3.size());
+        assertTrue(c3.learnt());
+        assertEquals(2.0, c3.getActivity(), 0.0);
+        assertEquals(this.voc.getFromPool(7), c3.get(0));
+    }
+
+    @Test
+    public void testArenaGrows() {
+        for (int i = 0; i < 50000; i++) {
+            newClause(i % 2 == 0, 1, 2, 3, 4, 5);
+        }
+        assertEquals(50000, this.arena.nClauses());
+        assertTrue(this.arena.capacity() >= this.arena.used());
+    }
+}
@@ -0,0 +1,187 @@
+package org.sat4j.minisat.constraints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.ModelIterator;
+
+public class TestGaussianElimination {
+
+    private Solver<?> solver;
+
+    @Before
+    public void setUp() {
+        solver = (Solver<?>) SolverFactory.newDefault();
+    }
+
+    @Test
+    public void inconsistentChainIsDetectedWithoutConflict()
+            throws TimeoutException {
+        int n = 50;
+        solver.newVar(n);
+        for (int i = 1; i < n; i++) {
+            solver.addParity(new VecInt(new int[] { i, i + 1 }), false);
+        }
+        // an odd cycle of odd parity constraints cannot be satisfied
+        solver.addParity(new VecInt(new int[] { 1, n }), n % 2 == 0);
+        assertFalse(solver.isSatisfiable());
+        assertEquals(0, solver.getStats().conflicts);
+    }
+
+    @Test
+    public void randomSystemIsSolvedWithoutConflict()
+            throws TimeoutException {
+        int n = 300;
+        Random rand = new Random(12);
+        boolean[] solution = new boolean[n + 1];
+        for (int v = 1; v <= n; v++) {
+            solution[v] = rand.nextBoolean();
+        }
+        solver.newVar(n);
+        int[][] xors = new int[n][];
+        boolean[] even = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            xors[i] = new int[3];
+            int nbTrue = 0;
+            for (int j = 0; j < 3; j++) {
+                int v = 1 + rand.nextInt(n);
+                xors[i][j] = rand.nextBoolean() ? v : -v;
+                if (solution[v] == xors[i][j] > 0) {
+                    nbTrue++;
+                }
+            }
+            even[i] = nbTrue % 2 == 0;
+            solver.addParity(new VecInt(xors[i]), even[i]);
+        }
+        assertTrue(solver.isSatisfiable());
+        assertEquals(0, solver.getStats().conflicts);
+        for (int i = 0; i < n; i++) {
+            int nbTrue = 0;
+            for (int p : xors[i]) {
+                if (solver.model(Math.abs(p)) == p > 0) {
+                    nbTrue++;
+                }
+            }
+            assertEquals(even[i], nbTrue % 2 == 0);
+        }
+    }
+
+    @Test
+    public void removedParityConstraintsAreForgotten()
+            throws TimeoutException {
+        solver.newVar(4);
+        IVecInt lits = new VecInt(new int[] { 1, 2, 3, 4 });
+        solver.addParity(lits, true);
+        IConstr odd = solver.addParity(lits, false);
+        assertFalse(solver.isSatisfiable());
+        solver.removeConstr(odd);
+        assertTrue(solver.isSatisfiable());
+    }
+
+    @Test
+    public void duplicatedLiteralsCancelEachOther() throws TimeoutException {
+        solver.newVar(2);
+        // 1 xor -1 is always true: an odd number of literals is satisfied
+        solver.addParity(new VecInt(new int[] { 1, -1, 2 }), true);
+        assertTrue(solver.isSatisfiable());
+        assertTrue(solver.model(2));
+    }
+
+    @Test
+    public void numberOfModelsWithClauses()
+            throws TimeoutException, ContradictionException {
+        for (int seed = 0; seed < 30; seed++) {
+            long matrix = countModels(seed, Integer.MAX_VALUE);
+            long watches = countModels(seed, 0);
+            assertEquals(watches, matrix);
+            assertEquals(bruteForce(seed), matrix);
+        }
+    }
+
+    private long countModels(int seed, int maxWords)
+            throws TimeoutException, ContradictionException {
+        Solver<?> s = (Solver<?>) SolverFactory.newDefault();
+        s.setMaxXorMatrixWords(maxWords);
+        Random rand = new Random(seed);
+        int n = 10;
+        s.newVar(n);
+        for (int v = 1; v <= n; v++) {
+            // make sure that all the variables appear in the models
+            s.addClause(new VecInt(new int[] { v, -v }));
+        }
+        for (int i = 0; i < 6; i++) {
+            s.addParity(randomLiterals(rand, n, 1 + rand.nextInt(4)),
+                    rand.nextBoolean());
+        }
+        for (int i = 0; i < 5; i++) {
+            s.addClause(randomLiterals(rand, n, 3));
+        }
+        ModelIterator iterator = new ModelIterator(s);
+        while (iterator.isSatisfiable()) {
+            iterator.model();
+        }
+        return iterator.numberOfModelsFoundSoFar();
+    }
+
+    private long bruteForce(int seed) {
+        Random rand = new Random(seed);
+        int n = 10;
+        IVecInt[] xors = new IVecInt[6];
+        boolean[] even = new boolean[6];
+        for (int i = 0; i < 6; i++) {
+            xors[i] = randomLiterals(rand, n, 1 + rand.nextInt(4));
+            even[i] = rand.nextBoolean();
+        }
+        IVecInt[] clauses = new IVecInt[5];
+        for (int i = 0; i < 5; i++) {
+            clauses[i] = randomLiterals(rand, n, 3);
+        }
+        long count = 0;
+        for (int m = 0; m < 1 << n; m++) {
+            boolean ok = true;
+            for (int i = 0; i < 6 && ok; i++) {
+                ok = (nbSatisfied(xors[i], m) % 2 == 0) == even[i];
+            }
+            for (int i = 0; i < 5 && ok; i++) {
+                ok = nbSatisfied(clauses[i], m) > 0;
+            }
+            if (ok) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int nbSatisfied(IVecInt literals, int model) {
+        int nb = 0;
+        for (int i = 0; i < literals.size(); i++) {
+            int p = literals.get(i);
+            boolean value = (model >> Math.abs(p) - 1 & 1) == 1;
+            if (value == p > 0) {
+                nb++;
+            }
+        }
+        return nb;
+    }
+
+    private static IVecInt randomLiterals(Random rand, int n, int size) {
+        IVecInt literals = new VecInt(size);
+        for (int j = 0; j < size; j++) {
+            int v = 1 + rand.nextInt(n);
+            literals.push(rand.nextBoolean() ? v : -v);
+        }
+        return literals;
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.constraints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.constraints.cnf.ImplicitBinaryClause;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.core.BinaryImplications;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestImplicitBinaryClause {
+
+    private ILits voc;
+
+    @Before
+    public void setUp() {
+        this.voc = new Lits();
+        for (int i = 1; i <= 10; i++) {
+            this.voc.getFromPool(i);
+        }
+    }
+
+    private ImplicitBinaryClause newClause(int p, int q) {
+        VecInt lits = new VecInt();
+        lits.push(this.voc.getFromPool(p)).push(this.voc.getFromPool(q));
+        return ImplicitBinaryClause.brandNewClause(this.voc, lits);
+    }
+
+    @Test
+    public void testClauseIsStoredAsTwoImplications() {
+        ImplicitBinaryClause c = newClause(1, -2);
+        BinaryImplications fromNot1 = this.voc.binaryImplications(this.voc
+                .getFromPool(-1));
+        BinaryImplications from2 = this.voc.binaryImplications(this.voc
+                .getFromPool(2));
+        assertEquals(1, fromNot1.nbImplied());
+        assertEquals(this.voc.getFromPool(-2), fromNot1.getImplied(0));
+        assertEquals(1, from2.nbImplied());
+        assertEquals(this.voc.getFromPool(1), from2.getImplied(0));
+        assertTrue(this.voc.watches(this.voc.getFromPool(-1)).isEmpty());
+        assertTrue(this.voc.watches(this.voc.getFromPool(2)).isEmpty());
+        c.remove(null);
+        assertEquals(0, fromNot1.nbImplied());
+        assertEquals(0, from2.nbImplied());
+    }
+
+    @Test
+    public void testRemoveOnlyTheGivenClause() {
+        newClause(1, 2);
+        ImplicitBinaryClause c = newClause(1, 3);
+        newClause(1, 4);
+        c.remove(null);
+        BinaryImplications fromNot1 = this.voc.binaryImplications(this.voc
+                .getFromPool(-1));
+        assertEquals(2, fromNot1.nbImplied());
+        assertFalse(fromNot1.getImplied(0) == this.voc.getFromPool(3));
+        assertFalse(fromNot1.getImplied(1) == this.voc.getFromPool(3));
+        assertEquals(0,
+                this.voc.binaryImplications(this.voc.getFromPool(-3))
+                        .nbImplied());
+    }
+
+    @Test
+    public void testReasonIsTheImplyingLiteral() {
+        BinaryImplications from1 = this.voc.binaryImplications(this.voc
+                .getFromPool(1));
+        IVecInt reason = new VecInt();
+        from1.calcReason(this.voc.getFromPool(2), reason);
+        assertEquals(1, reason.size());
+        assertEquals(this.voc.getFromPool(1), reason.get(0));
+        assertEquals(from1.get(0), reason.get(0));
+    }
+
+    @Test
+    public void testPropagationAndConflictOnImplications()
+            throws ContradictionException, TimeoutException {
+        ISolver solver = SolverFactory.newConcise();
+        IVecInt clause = new VecInt();
+        for (int i = 1; i < 10; i++) {
+            clause.push(-i).push(i + 1);
+            solver.addClause(clause);
+            clause.clear();
+        }
+        clause.push(-10).push(-1);
+        solver.addClause(clause);
+        clause.clear();
+        assertTrue(solver.isSatisfiable());
+        assertFalse(solver.model(1));
+        clause.push(1);
+        assertFalse(solver.isSatisfiable(clause));
+        assertTrue(solver.isSatisfiable());
+    }
+}
@@ -10,10 +10,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.constraints.cnf.Lits;
+import org.sat4j.minisat.constraints.xor.Xor;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.Constr;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.ISolver;
 import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
+import org.sat4j.specs.UnitPropagationListener;
 import org.sat4j.tools.ModelIterator;
 
 public class TestXor {
@@ -125,4 +131,67 @@ public class TestXor {
         assertEquals(3, iterator.numberOfModelsFoundSoFar());
         System.out.println(new VecInt(solver.model()));
     }
+
+    private static void checkPrimeImplicant(int maxWords)
+            throws TimeoutException {
+        Solver<?> s = (Solver<?>) SolverFactory.newDefault();
+        s.setMaxXorMatrixWords(maxWords);
+        s.newVar(4);
+        s.addParity(new VecInt(new int[] { 1, 2, 3 }), false);
+        s.addParity(new VecInt(new int[] { 3, 4 }), true);
+        assertTrue(s.isSatisfiable());
+        int[] model = s.model();
+        int[] implicant = s.primeImplicant();
+        // a parity constraint needs all its variables
+        assertEquals(4, implicant.length);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(s.primeImplicant(model[i]));
+        }
+    }
+
+    @Test
+    public void primeImplicantWithParity() throws TimeoutException {
+        checkPrimeImplicant(Integer.MAX_VALUE);
+        checkPrimeImplicant(0);
+    }
+
+    @Test
+    public void assertParityConstraint() {
+        final ILits voc = new Lits();
+        for (int i = 1; i <= 4; i++) {
+            voc.getFromPool(i);
+        }
+        IVecInt lits = new VecInt();
+        for (int i = 1; i <= 4; i++) {
+            lits.push(voc.getFromPool(i));
+        }
+        Xor xor = new Xor(lits, true, voc);
+        final IVecInt enqueued = new VecInt();
+        UnitPropagationListener s = new UnitPropagationListener() {
+            public boolean enqueue(int p) {
+                return enqueue(p, null);
+            }
+
+            public boolean enqueue(int p, Constr from) {
+                enqueued.push(p);
+                return true;
+            }
+
+            public void unset(int p) {
+                // nothing to undo
+            }
+        };
+        voc.satisfies(voc.getFromPool(1));
+        voc.satisfies(voc.getFromPool(-2));
+        xor.assertConstraintIfNeeded(s);
+        assertTrue(enqueued.isEmpty());
+        voc.satisfies(voc.getFromPool(3));
+        IVecInt trail = new VecInt(new int[] { voc.getFromPool(1),
+                voc.getFromPool(-2), voc.getFromPool(3) });
+        // 1 and 3 are satisfied: 4 must be false for an even parity
+        assertEquals(2, xor.getAssertionLevel(trail, 3));
+        xor.assertConstraint(s);
+        assertEquals(1, enqueued.size());
+        assertEquals(voc.getFromPool(-4), enqueued.get(0));
+    }
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Time needed by Glucose21 to solve Dimacs files with several chronological
+ * backtracking thresholds, the first one being the usual backjumping.
+ * 
+ * Usage:
+ * <code>ChronologicalBacktrackingBenchmark [-runs n] [-timeout s] file.cnf...</code>
+ * . The median time of the runs is printed, in milliseconds, with the number
+ * of conflicts and of chronological backtracks of the median run.
+ */
+public class ChronologicalBacktrackingBenchmark {
+
+    private static final int[] THRESHOLDS = { Integer.MAX_VALUE, 100, 10, 0 };
+
+    public static void main(String[] args) throws Exception {
+        int runs = 3;
+        int timeout = 300;
+        int first = 0;
+        while (first < args.length && args[first].startsWith("-")) {
+            if ("-runs".equals(args[first])) {
+                runs = Integer.parseInt(args[first + 1]);
+            } else if ("-timeout".equals(args[first])) {
+                timeout = Integer.parseInt(args[first + 1]);
+            }
+            first += 2;
+        }
+        if (first == args.length) {
+            System.out.println("Usage: ChronologicalBacktrackingBenchmark"
+                    + " [-runs n] [-timeout s] file.cnf...");
+            return;
+        }
+        for (int f = first; f < args.length; f++) {
+            for (int threshold : THRESHOLDS) {
+                long[][] results = new long[runs][];
+                String answer = null;
+                for (int run = 0; run < runs; run++) {
+                    Solver<?> solver = (Solver<?>) SolverFactory
+                            .newGlucose21();
+                    solver.setChronologicalBacktrackingThreshold(threshold);
+                    solver.setTimeout(timeout);
+                    new DimacsReader(solver).parseInstance(args[f]);
+                    long begin = System.nanoTime();
+                    try {
+                        answer = solver.isSatisfiable() ? "SAT" : "UNSAT";
+                    } catch (TimeoutException e) {
+                        answer = "TIMEOUT";
+                    }
+                    results[run] = new long[] {
+                            (System.nanoTime() - begin) / 1000000,
+                            solver.getStats().conflicts,
+                            solver.getStats().chronoBacktracks };
+                }
+                Arrays.sort(results, new Comparator<long[]>() {
+                    public int compare(long[] r1, long[] r2) {
+                        return r1[0] < r2[0] ? -1 : r1[0] == r2[0] ? 0 : 1;
+                    }
+                });
+                long[] median = results[runs / 2];
+                System.out.println(args[f].replaceAll(".*/", "") + " "
+                        + (threshold == Integer.MAX_VALUE ? "backjumping"
+                                : "threshold " + threshold)
+                        + ": " + answer + ", median " + median[0] + " ms, "
+                        + median[1] + " conflicts, " + median[2]
+                        + " chronological backtracks");
+            }
+        }
+    }
+}
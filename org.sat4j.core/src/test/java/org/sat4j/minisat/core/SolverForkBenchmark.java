@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Time needed to fork the default solver on a random 3-SAT formula, after a
+ * search bounded by a number of conflicts, compared to the time needed to
+ * build that solver.
+ * 
+ * Usage:
+ * <code>SolverForkBenchmark [-vars n] [-clauses m] [-conflicts c] [-runs r] [-seed s]</code>
+ * . The time of the first fork, which shares the original clauses, and the
+ * median time of the following forks are printed, in milliseconds.
+ */
+public class SolverForkBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int nbVars = 200000;
+        int nbClauses = 800000;
+        int conflicts = 10000;
+        int runs = 5;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-vars".equals(args[i])) {
+                nbVars = Integer.parseInt(args[i + 1]);
+            } else if ("-clauses".equals(args[i])) {
+                nbClauses = Integer.parseInt(args[i + 1]);
+            } else if ("-conflicts".equals(args[i])) {
+                conflicts = Integer.parseInt(args[i + 1]);
+            } else if ("-runs".equals(args[i])) {
+                runs = Integer.parseInt(args[i + 1]);
+            } else if ("-seed".equals(args[i])) {
+                seed = Long.parseLong(args[i + 1]);
+            }
+        }
+        Random random = new Random(seed);
+        long begin = System.nanoTime();
+        Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
+        solver.newVar(nbVars);
+        IVecInt clause = new VecInt(3);
+        for (int i = 0; i < nbClauses; i++) {
+            clause.clear();
+            while (clause.size() < 3) {
+                int lit = 1 + random.nextInt(nbVars);
+                if (!clause.contains(lit) && !clause.contains(-lit)) {
+                    clause.push(random.nextBoolean() ? lit : -lit);
+                }
+            }
+            solver.addClause(clause);
+        }
+        long build = (System.nanoTime() - begin) / 1000000;
+        solver.setTimeoutOnConflicts(conflicts);
+        String answer;
+        try {
+            answer = solver.isSatisfiable() ? "SAT" : "UNSAT";
+        } catch (TimeoutException e) {
+            answer = "UNKNOWN";
+        }
+        System.out.println(nbVars + " variables, " + nbClauses
+                + " clauses: built in " + build + " ms, " + answer
+                + " after " + solver.getStats().conflicts + " conflicts, "
+                + solver.getLearnedConstraints().size()
+                + " learned constraints");
+        long[] times = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            begin = System.nanoTime();
+            solver.fork();
+            times[run] = (System.nanoTime() - begin) / 1000000;
+        }
+        long first = times[0];
+        Arrays.sort(times, 1, runs);
+        System.out.println("first fork " + first + " ms, median fork "
+                + times[(runs + 1) / 2] + " ms");
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestAssumptionsReuse {
+
+    private static final int NVARS = 150;
+
+    private static final int NASSUMPS = 40;
+
+    private Solver<DataStructureFactory> solver;
+
+    private IVec<IVecInt> clauses;
+
+    private IVecInt assumps;
+
+    @Before
+    public void setUp() throws ContradictionException, TimeoutException {
+        solver = SolverFactory.newMiniLearningHeap();
+        Random rand = new Random(7);
+        clauses = new Vec<IVecInt>();
+        for (int i = 0; i < NVARS * 3; i++) {
+            IVecInt clause = new VecInt();
+            for (int j = 0; j < 3; j++) {
+                int var = rand.nextInt(NVARS) + 1;
+                clause.push(rand.nextBoolean() ? var : -var);
+            }
+            clauses.push(clause);
+        }
+        solver.newVar(NVARS);
+        for (int i = 0; i < clauses.size(); i++) {
+            solver.addClause(clauses.get(i));
+        }
+        assertTrue(solver.isSatisfiable());
+        int[] model = solver.model();
+        assumps = new VecInt();
+        for (int i = 0; i < NASSUMPS; i++) {
+            assumps.push(model[i]);
+        }
+    }
+
+    @Test
+    public void testCommonPrefixIsReused() throws TimeoutException {
+        assertTrue(solver.isAssumptionsReuse());
+        assertTrue(solver.isSatisfiable(assumps));
+        assertEquals(0, solver.getStats().reusedAssumptionLevels);
+        IVecInt more = new VecInt();
+        assumps.copyTo(more);
+        more.push(NVARS);
+        solver.isSatisfiable(more);
+        assertTrue(solver.getStats().reusedAssumptionLevels > 0);
+        assertTrue(solver.isSatisfiable(assumps));
+        assertModel(solver.model(), assumps);
+    }
+
+    @Test
+    public void testBacktrackToTheFirstDivergentAssumption()
+            throws TimeoutException {
+        assertTrue(solver.isSatisfiable(assumps));
+        long before = solver.getStats().reusedAssumptionLevels;
+        IVecInt other = new VecInt();
+        assumps.copyTo(other);
+        other.set(NASSUMPS / 2, -other.get(NASSUMPS / 2));
+        if (solver.isSatisfiable(other)) {
+            assertModel(solver.model(), other);
+        } else {
+            assertTrue(solver.unsatExplanation()
+                    .contains(other.get(NASSUMPS / 2)));
+        }
+        long reused = solver.getStats().reusedAssumptionLevels - before;
+        assertTrue(reused > 0);
+        assertTrue(reused <= NASSUMPS / 2);
+    }
+
+    @Test
+    public void testNewClauseCancelsTheAssumptions()
+            throws TimeoutException, ContradictionException {
+        assertTrue(solver.isSatisfiable(assumps));
+        IVecInt clause = new VecInt(new int[] { -assumps.get(0),
+                -assumps.get(NASSUMPS - 1) });
+        solver.addClause(clause);
+        clauses.push(clause);
+        assertFalse(solver.isSatisfiable(assumps));
+        assertTrue(solver.isSatisfiable());
+        assertModel(solver.model(), new VecInt());
+        assertEquals(0, solver.getStats().reusedAssumptionLevels);
+    }
+
+    @Test
+    public void testNoReuseWhenDisabled() throws TimeoutException {
+        solver.setAssumptionsReuse(false);
+        assertTrue(solver.isSatisfiable(assumps));
+        assertTrue(solver.isSatisfiable(assumps));
+        assertModel(solver.model(), assumps);
+        assertEquals(0, solver.getStats().reusedAssumptionLevels);
+        assertEquals(0, solver.getStats().reusedAssumptionLiterals);
+    }
+
+    private void assertModel(int[] model, IVecInt assumptions) {
+        boolean[] value = new boolean[NVARS + 1];
+        for (int p : model) {
+            value[Math.abs(p)] = p > 0;
+        }
+        for (int i = 0; i < assumptions.size(); i++) {
+            int p = assumptions.get(i);
+            assertTrue(value[Math.abs(p)] == p > 0);
+        }
+        for (int i = 0; i < clauses.size(); i++) {
+            IVecInt clause = clauses.get(i);
+            boolean satisfied = false;
+            for (int j = 0; j < clause.size(); j++) {
+                int p = clause.get(j);
+                satisfied |= value[Math.abs(p)] == p > 0;
+            }
+            assertTrue(satisfied);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.Constr;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Check that the clauses imported from another solver are ranked by the
+ * learned constraints deletion strategy of the solver.
+ */
+public class TestClauseImport {
+
+    private static Solver<?> newSolver(boolean activity, boolean tiers)
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        if (activity) {
+            solver.setLearnedConstraintsDeletionStrategy(solver.activity_based);
+        } else if (tiers) {
+            solver.setLearnedConstraintsDeletionStrategy(solver.tier_based);
+        } else {
+            solver.setLearnedConstraintsDeletionStrategy(solver.lbd_based);
+        }
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        solver.addClause(new VecInt(new int[] { -1, 2, 3 }));
+        solver.addClause(new VecInt(new int[] { 4, 5, 6 }));
+        assertTrue(solver.isSatisfiable());
+        return solver;
+    }
+
+    private static Constr importClause(Solver<?> solver, int p, int lbd) {
+        // implied by the first two clauses
+        assertTrue(solver.importLearnt(new VecInt(new int[] { 2, 3, p }), lbd));
+        return solver.getLearnedConstraints().last();
+    }
+
+    @Test
+    public void testActivityOfAnImportedClause()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = newSolver(true, false);
+        Constr c = importClause(solver, 4, 3);
+        // the activity increment is still 1 since there was no conflict
+        assertEquals(1.0, c.getActivity(), 0.0);
+    }
+
+    @Test
+    public void testLBDOfAnImportedClause() throws ContradictionException,
+            TimeoutException {
+        Solver<?> solver = newSolver(false, false);
+        Constr c = importClause(solver, 4, 3);
+        assertEquals(3.0, c.getActivity(), 0.0);
+    }
+
+    @Test
+    public void testTierOfAnImportedClause() throws ContradictionException,
+            TimeoutException {
+        Solver<?> solver = newSolver(false, true);
+        Constr core = importClause(solver, 4, ThreeTierLCDS.CORE_LBD);
+        Constr local1 = importClause(solver, 5, 8);
+        Constr local2 = importClause(solver, 6, 8);
+        solver.tier_based.reduce(solver.learnts);
+        assertEquals(2, solver.learnts.size());
+        assertTrue(solver.learnts.contains(core));
+        assertFalse(solver.learnts.contains(local1)
+                && solver.learnts.contains(local2));
+    }
+}
@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Check that forks of a solver are independent solvers sharing the literals
+ * of the original clauses.
+ */
+public class TestFork {
+
+    private static int[][] random3Sat(int nVars, int nClauses, long seed) {
+        Random rand = new Random(seed);
+        int[][] clauses = new int[nClauses][];
+        for (int i = 0; i < nClauses; i++) {
+            int a = rand.nextInt(nVars) + 1;
+            int b, c;
+            do {
+                b = rand.nextInt(nVars) + 1;
+            } while (b == a);
+            do {
+                c = rand.nextInt(nVars) + 1;
+            } while (c == a || c == b);
+            clauses[i] = new int[] { rand.nextBoolean() ? a : -a,
+                    rand.nextBoolean() ? b : -b, rand.nextBoolean() ? c : -c };
+        }
+        return clauses;
+    }
+
+    private static Solver<?> newSolver(int[][] clauses)
+            throws ContradictionException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newGlucose21();
+        for (int[] clause : clauses) {
+            solver.addClause(new VecInt(clause));
+        }
+        return solver;
+    }
+
+    private static void pigeonHole(Solver<?> solver, int holes)
+            throws ContradictionException {
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            IVecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p * holes + h), -(q * holes + h) }));
+                }
+            }
+        }
+    }
+
+    private static boolean satisfies(int[] model, int[][] clauses) {
+        boolean[] value = new boolean[model.length + 1];
+        for (int p : model) {
+            if (p > 0) {
+                value[p] = true;
+            }
+        }
+        for (int[] clause : clauses) {
+            boolean sat = false;
+            for (int p : clause) {
+                sat |= p > 0 ? value[p] : !value[-p];
+            }
+            if (!sat) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testForksSolveUnderOtherAssumptions()
+            throws ContradictionException, TimeoutException {
+        int[][] clauses = random3Sat(150, 500, 42);
+        Solver<?> solver = newSolver(clauses);
+        assertTrue(solver.isSatisfiable());
+        for (int var = 1; var <= 10; var++) {
+            for (int p : new int[] { var, -var }) {
+                Solver<?> fork = solver.fork();
+                IVecInt assumps = new VecInt(new int[] { p });
+                boolean sat = fork.isSatisfiable(assumps);
+                assertEquals(newSolver(clauses).isSatisfiable(assumps), sat);
+                if (sat) {
+                    assertTrue(satisfies(fork.model(), clauses));
+                    assertTrue(fork.model(Math.abs(p)) == p > 0);
+                }
+            }
+        }
+        assertTrue(solver.isSatisfiable());
+        assertTrue(satisfies(solver.model(), clauses));
+    }
+
+    @Test
+    public void testForksAreIndependent() throws ContradictionException,
+            TimeoutException {
+        int[][] clauses = random3Sat(100, 350, 7);
+        Solver<?> solver = newSolver(clauses);
+        assertTrue(solver.isSatisfiable());
+        int[] model = solver.model();
+        Solver<?> fork = solver.fork();
+        IVecInt blocking = new VecInt();
+        for (int p : model) {
+            blocking.push(-p);
+        }
+        fork.addClause(blocking);
+        try {
+            for (int p : model) {
+                fork.addClause(new VecInt(new int[] { p }));
+            }
+            assertFalse(fork.isSatisfiable());
+        } catch (ContradictionException e) {
+            // the fork is trivially unsatisfiable
+        }
+        assertEquals(clauses.length, solver.nConstraints());
+        assertTrue(solver.isSatisfiable(new VecInt(model)));
+        Solver<?> other = solver.fork();
+        assertTrue(other.isSatisfiable(new VecInt(model)));
+        assertTrue(satisfies(other.model(), clauses));
+    }
+
+    @Test
+    public void testForksShareTheLiteralsOfTheOriginalClauses()
+            throws ContradictionException, TimeoutException {
+        int[][] clauses = random3Sat(100, 350, 13);
+        Solver<?> solver = newSolver(clauses);
+        assertTrue(solver.isSatisfiable());
+        Solver<?> fork1 = solver.fork();
+        Solver<?> fork2 = solver.fork();
+        Solver<?> fork3 = fork1.fork();
+        assertTrue(fork1.isSatisfiable());
+        assertEquals(solver.nConstraints(), fork3.nConstraints());
+        int shared = 0;
+        for (int i = 0; i < solver.nConstraints(); i++) {
+            IConstr c1 = fork1.getIthConstr(i);
+            IConstr c2 = fork2.getIthConstr(i);
+            IConstr c3 = fork3.getIthConstr(i);
+            if (c1 instanceof SharedWLClause) {
+                assertSame(c1, c2);
+                assertSame(c1, c3);
+                shared++;
+            } else {
+                assertNotSame(c1, c2);
+            }
+        }
+        assertTrue(shared > 0);
+    }
+
+    @Test
+    public void testForksCanRunInParallel() throws ContradictionException,
+            InterruptedException {
+        final Solver<?> solver = (Solver<?>) SolverFactory.newGlucose21();
+        pigeonHole(solver, 7);
+        final Lbool[] results = new Lbool[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            final Solver<?> fork = solver.fork();
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        IVecInt assumps = new VecInt(new int[] { index + 1 });
+                        results[index] = fork.isSatisfiable(assumps) ? Lbool.TRUE
+                                : Lbool.FALSE;
+                    } catch (TimeoutException e) {
+                        results[index] = Lbool.UNDEFINED;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Lbool result : results) {
+            assertEquals(Lbool.FALSE, result);
+        }
+    }
+
+    @Test
+    public void testForkWithUnitClauses() throws ContradictionException,
+            TimeoutException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        solver.addClause(new VecInt(new int[] { -1 }));
+        Solver<?> fork = solver.fork();
+        assertTrue(fork.isSatisfiable());
+        assertFalse(fork.model(1));
+        assertTrue(solver.isSatisfiable());
+        assertFalse(solver.fork().isSatisfiable(new VecInt(new int[] { 1 })));
+    }
+
+    @Test
+    public void testForkWithDuplicateLiterals() throws ContradictionException,
+            TimeoutException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        solver.addClause(new VecInt(new int[] { 2, 2 }));
+        solver.addClause(new VecInt(new int[] { -3, 1, -3 }));
+        Solver<?> fork = solver.fork();
+        assertTrue(fork.isSatisfiable());
+        assertTrue(fork.model(2));
+        assertFalse(fork.isSatisfiable(new VecInt(new int[] { -2 })));
+        assertFalse(fork.isSatisfiable(new VecInt(new int[] { 3, -1 })));
+    }
+
+    @Test
+    public void testForkEveryConstraintType() throws ContradictionException,
+            TimeoutException {
+        int[][] clauses = random3Sat(60, 200, 3);
+        Solver<?>[] solvers = { (Solver<?>) SolverFactory.newDefault(),
+                SolverFactory.newMiniSATHeap(),
+                (Solver<?>) SolverFactory.newConcise(),
+                SolverFactory.newArena() };
+        for (Solver<?> solver : solvers) {
+            for (int[] clause : clauses) {
+                solver.addClause(new VecInt(clause));
+            }
+            solver.addClause(new VecInt(new int[] { 61 }));
+            solver.addClause(new VecInt(new int[] { -62, -62 }));
+            solver.addClause(new VecInt(new int[] { 63, 64 }));
+            solver.addAtLeast(new VecInt(new int[] { 65, 66 }), 2);
+            solver.addAtMost(new VecInt(new int[] { 1, 2, 3, 4 }), 2);
+            solver.addParity(new VecInt(new int[] { 5, 6, 7 }), true);
+            Solver<?> fork = solver.fork();
+            for (int var = 1; var <= 66; var++) {
+                for (int p : new int[] { var, -var }) {
+                    IVecInt assumps = new VecInt(new int[] { p });
+                    boolean sat = solver.isSatisfiable(assumps);
+                    assertEquals(sat, fork.isSatisfiable(assumps));
+                    if (sat) {
+                        assertTrue(satisfies(fork.model(), clauses));
+                    }
+                }
+            }
+            assertFalse(fork.isSatisfiable(new VecInt(new int[] { -61 })));
+            assertFalse(fork.isSatisfiable(new VecInt(new int[] { 62 })));
+            assertFalse(fork.isSatisfiable(new VecInt(new int[] { -65 })));
+        }
+    }
+
+    @Test
+    public void testCannotForkWhileTracingAProof() {
+        Solver<?> solver = (Solver<?>) SolverFactory.newGlucose21();
+        solver.setProofTracer(new ProofTracer() {
+            public void add(int id, IVecInt literals, IVecInt hints) {
+            }
+
+            public void delete(int id) {
+            }
+
+            public void end(Lbool result) {
+            }
+        });
+        try {
+            solver.fork();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
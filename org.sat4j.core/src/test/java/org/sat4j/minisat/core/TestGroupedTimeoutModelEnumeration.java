@@ -48,7 +48,7 @@ public class TestGroupedTimeoutModelEnumeration {
     public void setUp() throws ContradictionException {
         this.solver = new ModelIterator(SolverFactory.newDefault());
         IVecInt clause = new VecInt();
-        for (int i = 1; i <= 15; i++) {
+        for (int i = 1; i <= 20; i++) {
             clause.push(-i);
         }
         this.solver.addClause(clause);
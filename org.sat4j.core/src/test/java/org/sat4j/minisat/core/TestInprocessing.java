@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.TimeoutException;
+
+public class TestInprocessing {
+
+    private Solver<DataStructureFactory> solver;
+
+    @Before
+    public void setUp() {
+        solver = SolverFactory.newInprocessing();
+        solver.newVar(6);
+    }
+
+    @Test
+    public void testEquivalentLiteralsAreSubstituted()
+            throws ContradictionException, TimeoutException {
+        // 1 <-> 2 <-> -3
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { -2, -3 }));
+        solver.addClause(new VecInt(new int[] { 3, 1 }));
+        solver.addClause(new VecInt(new int[] { 2, 4, 5 }));
+        solver.addClause(new VecInt(new int[] { 3, 4, -5 }));
+        solver.addClause(new VecInt(new int[] { -1, -4, 6 }));
+        assertTrue(solver.isSatisfiable());
+        assertEquals(2, solver.getStats().equivalentLiterals);
+        int[] model = solver.model();
+        assertEquals(model[0] > 0, model[1] > 0);
+        assertEquals(model[0] > 0, model[2] < 0);
+        assertTrue(model[1] > 0 || model[3] > 0 || model[4] > 0);
+        assertTrue(model[2] > 0 || model[3] > 0 || model[4] < 0);
+        assertTrue(model[0] < 0 || model[3] < 0 || model[5] > 0);
+    }
+
+    @Test
+    public void testFailedLiteral() throws ContradictionException,
+            TimeoutException {
+        // 1 -> 2, 1 -> 3, 2 & 3 -> -1
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { -1, 3 }));
+        solver.addClause(new VecInt(new int[] { -1, -2, -3 }));
+        solver.addClause(new VecInt(new int[] { 4, 5, 6 }));
+        assertTrue(solver.isSatisfiable());
+        assertEquals(1, solver.getStats().failedLiterals);
+        assertTrue(solver.model(1) == false);
+    }
+
+    @Test
+    public void testEquivalenceToItsNegation() throws ContradictionException,
+            TimeoutException {
+        // 1 <-> 2 <-> -1
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { 1, -2 }));
+        solver.addClause(new VecInt(new int[] { -2, -1 }));
+        solver.addClause(new VecInt(new int[] { 2, 1 }));
+        solver.addClause(new VecInt(new int[] { 3, 4, 5 }));
+        assertTrue(!solver.isSatisfiable());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testNoRemovalAfterSubstitution()
+            throws ContradictionException, TimeoutException {
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { 1, -2 }));
+        IConstr constr = solver.addClause(new VecInt(new int[] { 2, 3, 4 }));
+        assertTrue(solver.isSatisfiable());
+        solver.removeConstr(constr);
+    }
+
+    @Test
+    public void testRemovalWithoutInprocessing()
+            throws ContradictionException, TimeoutException {
+        solver.setInprocessingBudget(0);
+        solver.addClause(new VecInt(new int[] { -1, 2 }));
+        solver.addClause(new VecInt(new int[] { 1, -2 }));
+        IConstr constr = solver.addClause(new VecInt(new int[] { 2, 3, 4 }));
+        assertTrue(solver.isSatisfiable());
+        assertTrue(solver.removeConstr(constr));
+        assertEquals(0, solver.getStats().equivalentLiterals);
+    }
+}
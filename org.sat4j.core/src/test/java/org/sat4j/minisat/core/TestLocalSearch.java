@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestLocalSearch {
+
+    private static final int NVARS = 2000;
+
+    private Solver<DataStructureFactory> solver;
+
+    private IVec<IVecInt> clauses;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        solver = (Solver<DataStructureFactory>) SolverFactory.newGlucose21();
+        solver.setLocalSearchFlips(100000);
+        // under constrained random 3-SAT instance
+        Random rand = new Random(4);
+        clauses = new Vec<IVecInt>();
+        for (int i = 0; i < NVARS * 35 / 10; i++) {
+            IVecInt clause = new VecInt();
+            for (int j = 0; j < 3; j++) {
+                int var = rand.nextInt(NVARS) + 1;
+                clause.push(rand.nextBoolean() ? var : -var);
+            }
+            clauses.push(clause);
+        }
+    }
+
+    @Test
+    public void testModelFoundByLocalSearch() throws ContradictionException,
+            TimeoutException {
+        solver.newVar(NVARS);
+        for (int i = 0; i < clauses.size(); i++) {
+            solver.addClause(clauses.get(i));
+        }
+        assertTrue(solver.isSatisfiable());
+        assertModel(solver.model());
+        assertEquals(1, solver.getStats().localSearchModels);
+        assertEquals(0, solver.getStats().conflicts);
+    }
+
+    @Test
+    public void testNoLocalSearchWithCardinalityConstraints()
+            throws ContradictionException, TimeoutException {
+        solver.newVar(3);
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        solver.addClause(new VecInt(new int[] { -1, 3 }));
+        solver.addAtMost(new VecInt(new int[] { 1, 2, 3 }), 1);
+        assertTrue(solver.isSatisfiable());
+        assertEquals(0, solver.getStats().localSearches);
+    }
+
+    @Test
+    public void testNoLocalSearchWithParityConstraints()
+            throws ContradictionException, TimeoutException {
+        solver.newVar(4);
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        solver.addAtLeast(new VecInt(new int[] { 3, 4 }), 2);
+        solver.addParity(new VecInt(new int[] { 1, 2, 3 }), true);
+        assertTrue(solver.isSatisfiable());
+        assertEquals(0, solver.getStats().localSearches);
+    }
+
+    @Test
+    public void testUnsatisfiableFormula() throws ContradictionException,
+            TimeoutException {
+        int holes = 6;
+        // variable (p,h) is p * holes + h + 1
+        solver.newVar((holes + 1) * holes);
+        for (int p = 0; p <= holes; p++) {
+            IVecInt clause = new VecInt();
+            for (int h = 0; h < holes; h++) {
+                clause.push(p * holes + h + 1);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 0; h < holes; h++) {
+            for (int p1 = 0; p1 <= holes; p1++) {
+                for (int p2 = p1 + 1; p2 <= holes; p2++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p1 * holes + h + 1), -(p2 * holes + h + 1) }));
+                }
+            }
+        }
+        assertFalse(solver.isSatisfiable());
+        assertTrue(solver.getStats().localSearches > 0);
+        assertEquals(0, solver.getStats().localSearchModels);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeFlips() {
+        solver.setLocalSearchFlips(-1);
+    }
+
+    private void assertModel(int[] model) {
+        boolean[] value = new boolean[NVARS + 1];
+        for (int p : model) {
+            value[Math.abs(p)] = p > 0;
+        }
+        for (int i = 0; i < clauses.size(); i++) {
+            IVecInt clause = clauses.get(i);
+            boolean satisfied = false;
+            for (int j = 0; j < clause.size(); j++) {
+                int p = clause.get(j);
+                satisfied |= value[Math.abs(p)] == p > 0;
+            }
+            assertTrue(satisfied);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Check the hints given to the proof tracer with a LRAT checker.
+ */
+public class TestProofTracing {
+
+    /**
+     * Checks each derived clause as it is traced.
+     */
+    static class LratChecker implements ProofTracer {
+
+        private final Map<Integer, int[]> clauses = new HashMap<Integer, int[]>();
+
+        private int lastId;
+
+        boolean refuted;
+
+        Lbool result;
+
+        int derived;
+
+        int firstDerived;
+
+        void original(IVecInt clause) {
+            int[] literals = new int[clause.size()];
+            clause.copyTo(literals);
+            this.clauses.put(++this.lastId, literals);
+        }
+
+        public void add(int id, IVecInt literals, IVecInt hints) {
+            assertTrue("increasing ids", id > this.lastId);
+            this.lastId = id;
+            Set<Integer> falsified = new HashSet<Integer>();
+            for (int i = 0; i < literals.size(); i++) {
+                falsified.add(literals.get(i));
+            }
+            boolean conflict = false;
+            for (int i = 0; i < hints.size() && !conflict; i++) {
+                int[] hint = this.clauses.get(hints.get(i));
+                assertTrue("unknown hint " + hints.get(i), hint != null);
+                int unassigned = 0;
+                int unit = 0;
+                for (int p : hint) {
+                    if (falsified.contains(-p)) {
+                        fail("satisfied hint " + hints.get(i) + " for " + id);
+                    }
+                    if (!falsified.contains(p)) {
+                        unassigned++;
+                        unit = p;
+                    }
+                }
+                if (unassigned == 0) {
+                    conflict = true;
+                } else if (unassigned == 1) {
+                    falsified.add(-unit);
+                } else {
+                    fail("hint " + hints.get(i) + " is not unit for " + id);
+                }
+            }
+            assertTrue("no conflict for " + id, conflict);
+            int[] clause = new int[literals.size()];
+            literals.copyTo(clause);
+            this.clauses.put(id, clause);
+            if (this.derived++ == 0) {
+                this.firstDerived = id;
+            }
+            if (clause.length == 0) {
+                this.refuted = true;
+            }
+        }
+
+        public void delete(int id) {
+            assertTrue("unknown clause " + id,
+                    this.clauses.remove(id) != null);
+        }
+
+        public void end(Lbool status) {
+            this.result = status;
+        }
+    }
+
+    private static IVecInt clause(int... literals) {
+        return new VecInt(literals);
+    }
+
+    private static void addClause(Solver<?> solver, LratChecker checker,
+            IVecInt clause) throws ContradictionException {
+        checker.original(clause);
+        solver.addClause(clause);
+    }
+
+    private static void pigeonHole(Solver<?> solver, LratChecker checker,
+            int holes) throws ContradictionException {
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            IVecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            addClause(solver, checker, clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    addClause(solver, checker,
+                            clause(-(p * holes + h), -(q * holes + h)));
+                }
+            }
+        }
+    }
+
+    private static boolean random3Sat(Solver<?> solver, LratChecker checker,
+            int nVars, int nClauses, long seed) throws TimeoutException {
+        Random rand = new Random(seed);
+        try {
+            for (int i = 0; i < nClauses; i++) {
+                IVecInt clause = new VecInt();
+                for (int j = 0; j < 3; j++) {
+                    int var = rand.nextInt(nVars) + 1;
+                    clause.push(rand.nextBoolean() ? var : -var);
+                }
+                addClause(solver, checker, clause);
+            }
+        } catch (ContradictionException e) {
+            return false;
+        }
+        return solver.isSatisfiable();
+    }
+
+    @Test
+    public void testPigeonHole() throws ContradictionException,
+            TimeoutException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        LratChecker checker = new LratChecker();
+        solver.setProofTracer(checker);
+        pigeonHole(solver, checker, 6);
+        assertFalse(solver.isSatisfiable());
+        assertTrue(checker.refuted);
+        assertEquals(Lbool.FALSE, checker.result);
+        assertTrue(checker.derived > 1);
+    }
+
+    @Test
+    public void testRandomInstances() throws TimeoutException {
+        String[] factories = { "newDefault", "newGlucose21",
+                "newMiniLearningHeap", "newMiniSATHeapExpSimp", "newBestHT",
+                "newChronologicalBacktracking", "newStableFocused", "newVMTF",
+                "newLRB", "newSizeLCDS", "newThreeTierLCDS" };
+        int unsat = 0;
+        for (String factory : factories) {
+            for (long seed = 0; seed < 10; seed++) {
+                Solver<?> solver = newSolver(factory);
+                LratChecker checker = new LratChecker();
+                solver.setProofTracer(checker);
+                if (random3Sat(solver, checker, 60, 270, seed)) {
+                    assertEquals(Lbool.TRUE, checker.result);
+                    assertFalse(checker.refuted);
+                } else {
+                    assertTrue(factory + " " + seed, checker.refuted);
+                    unsat++;
+                }
+            }
+        }
+        assertTrue(unsat > 0);
+    }
+
+    @Test
+    public void testContradictionWhileAddingClauses() {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        LratChecker checker = new LratChecker();
+        solver.setProofTracer(checker);
+        try {
+            addClause(solver, checker, clause(-1));
+            addClause(solver, checker, clause(1, 2, -3));
+            addClause(solver, checker, clause(3));
+            addClause(solver, checker, clause(1, -2, -1));
+            addClause(solver, checker, clause(-2, 1, 1));
+            addClause(solver, checker, clause(1, 2, -3));
+            fail();
+        } catch (ContradictionException e) {
+            assertTrue(checker.refuted);
+        }
+    }
+
+    @Test
+    public void testSimplifiedInputClausesAreTracedAfterTheInput()
+            throws ContradictionException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        LratChecker checker = new LratChecker();
+        solver.setProofTracer(checker);
+        solver.setExpectedNumberOfClauses(6);
+        addClause(solver, checker, clause(-1));
+        addClause(solver, checker, clause(1, 2, 2));
+        addClause(solver, checker, clause(-2, 3, 1));
+        addClause(solver, checker, clause(-3, 4));
+        addClause(solver, checker, clause(-4, -2, 5));
+        assertEquals(0, checker.derived);
+        try {
+            // the last input clause is falsified by unit propagation
+            addClause(solver, checker, clause(-5, -3));
+            fail();
+        } catch (ContradictionException e) {
+            assertTrue(checker.refuted);
+            assertTrue(checker.firstDerived > 6);
+        }
+    }
+
+    @Test
+    public void testUnsatUnderAssumptionsIsNotARefutation()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        LratChecker checker = new LratChecker();
+        solver.setProofTracer(checker);
+        addClause(solver, checker, clause(1, 2));
+        addClause(solver, checker, clause(-1, 2));
+        assertFalse(solver.isSatisfiable(clause(-2)));
+        assertFalse(checker.refuted);
+        assertEquals(Lbool.UNDEFINED, checker.result);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTracerMustBeSetFirst() throws ContradictionException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        solver.addClause(clause(1, 2));
+        solver.setProofTracer(new LratChecker());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCardinalitiesCannotBeTraced()
+            throws ContradictionException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        solver.setProofTracer(new LratChecker());
+        solver.addAtMost(clause(1, 2, 3), 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testConciseBinaryClausesCannotBeTraced() {
+        Solver<?> solver = SolverFactory.newConcise();
+        solver.setProofTracer(new LratChecker());
+    }
+
+    private static Solver<?> newSolver(String factory) {
+        try {
+            return (Solver<?>) SolverFactory.class.getMethod(factory)
+                    .invoke(null);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(factory, e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.MaskedSearchListener;
+import org.sat4j.specs.SearchListener;
+import org.sat4j.specs.SearchListenerAdapter;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.MultiTracing;
+import org.sat4j.tools.TextOutputTracing;
+
+/**
+ * Check that the solver only notifies the events needed by the listener.
+ */
+public class TestSearchListenerEvents {
+
+    static class CountingListener extends SearchListenerAdapter<ISolverService> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int mask;
+
+        int propagations;
+
+        int decisions;
+
+        int learned;
+
+        int conflicts;
+
+        int ends;
+
+        CountingListener(int mask) {
+            this.mask = mask;
+        }
+
+        @Override
+        public void propagating(int p) {
+            this.propagations++;
+        }
+
+        @Override
+        public void assuming(int p) {
+            this.decisions++;
+        }
+
+        @Override
+        public void learn(IConstr c) {
+            this.learned++;
+        }
+
+        @Override
+        public void conflictFound(IConstr confl, int dlevel, int trailLevel) {
+            this.conflicts++;
+        }
+
+        @Override
+        public void end(Lbool result) {
+            this.ends++;
+        }
+
+        @Override
+        public int getEventMask() {
+            return this.mask;
+        }
+    }
+
+    private static Solver<?> pigeonHole(int holes)
+            throws ContradictionException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            VecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p * holes + h), -(q * holes + h) }));
+                }
+            }
+        }
+        return solver;
+    }
+
+    @Test
+    public void testOnlyTheCategoriesOfTheMaskAreNotified()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = pigeonHole(5);
+        CountingListener listener = new CountingListener(
+                MaskedSearchListener.CONFLICTS);
+        solver.setSearchListener(listener);
+        assertFalse(solver.isSatisfiable());
+        assertTrue(listener.conflicts > 0);
+        assertEquals(0, listener.propagations);
+        assertEquals(0, listener.decisions);
+        assertEquals(0, listener.learned);
+        assertEquals(1, listener.ends);
+    }
+
+    @Test
+    public void testAdaptersReceiveAllTheEventsByDefault()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = pigeonHole(5);
+        CountingListener listener = new CountingListener(
+                MaskedSearchListener.ALL);
+        solver.setSearchListener(listener);
+        assertFalse(solver.isSatisfiable());
+        assertTrue(listener.conflicts > 0);
+        assertTrue(listener.propagations > 0);
+        assertTrue(listener.decisions > 0);
+        assertTrue(listener.learned > 0);
+    }
+
+    @Test
+    public void testMultiTracingCombinesTheMasks()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = pigeonHole(5);
+        CountingListener conflicts = new CountingListener(
+                MaskedSearchListener.CONFLICTS);
+        CountingListener decisions = new CountingListener(
+                MaskedSearchListener.DECISIONS);
+        solver.setSearchListener(new MultiTracing<ISolverService>(conflicts,
+                decisions));
+        assertFalse(solver.isSatisfiable());
+        assertTrue(decisions.decisions > 0);
+        assertTrue(conflicts.conflicts > 0);
+        assertEquals(0, conflicts.propagations);
+        assertEquals(0, decisions.learned);
+    }
+
+    @Test
+    public void testUnmaskedListenersReceiveAllTheEvents() {
+        SearchListener<ISolverService> unmasked = new TextOutputTracing<Object>(
+                null);
+        MultiTracing<ISolverService> multi = new MultiTracing<ISolverService>(
+                unmasked, new CountingListener(MaskedSearchListener.NONE));
+        assertEquals(MaskedSearchListener.ALL, multi.getEventMask());
+    }
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Check that a solver can be warm started from the snapshot of another one.
+ */
+public class TestSnapshot {
+
+    private static void pigeonHole(Solver<?> solver, int holes)
+            throws ContradictionException {
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            IVecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p * holes + h), -(q * holes + h) }));
+                }
+            }
+        }
+    }
+
+    private static int[][] random3Sat(int nVars, int nClauses, long seed) {
+        Random rand = new Random(seed);
+        int[][] clauses = new int[nClauses][3];
+        for (int i = 0; i < nClauses; i++) {
+            for (int j = 0; j < 3; j++) {
+                int var = rand.nextInt(nVars) + 1;
+                clauses[i][j] = rand.nextBoolean() ? var : -var;
+            }
+        }
+        return clauses;
+    }
+
+    private static Solver<?> newSolver(int[][] clauses)
+            throws ContradictionException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newGlucose21();
+        for (int[] clause : clauses) {
+            solver.addClause(new VecInt(clause));
+        }
+        return solver;
+    }
+
+    private static boolean satisfies(int[] model, int[][] clauses) {
+        boolean[] value = new boolean[model.length + 1];
+        for (int p : model) {
+            if (p > 0) {
+                value[p] = true;
+            }
+        }
+        for (int[] clause : clauses) {
+            boolean sat = false;
+            for (int p : clause) {
+                sat |= p > 0 ? value[p] : !value[-p];
+            }
+            if (!sat) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("sat4j", ".snapshot");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testLearnedClausesSpeedUpTheNextRun()
+            throws ContradictionException, TimeoutException, IOException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        pigeonHole(solver, 7);
+        assertFalse(solver.isSatisfiable());
+        long conflicts = solver.getStats().conflicts;
+        File file = tempFile();
+        solver.saveSnapshot(file.getPath());
+
+        Solver<?> warm = SolverFactory.newMiniLearningHeap();
+        pigeonHole(warm, 7);
+        assertTrue(warm.loadSnapshot(file.getPath()));
+        assertFalse(warm.getLearnedConstraints().isEmpty());
+        assertFalse(warm.isSatisfiable());
+        assertTrue(warm.getStats().conflicts < conflicts);
+    }
+
+    @Test
+    public void testRestoredSolverFindsModels()
+            throws ContradictionException, TimeoutException, IOException {
+        for (long seed = 0; seed < 10; seed++) {
+            int[][] clauses = random3Sat(100, 420, seed);
+            Solver<?> solver = newSolver(clauses);
+            boolean sat = solver.isSatisfiable();
+            File file = tempFile();
+            solver.saveSnapshot(file.getPath());
+            Solver<?> warm = newSolver(clauses);
+            assertTrue(warm.loadSnapshot(file.getPath()));
+            assertEquals(sat, warm.isSatisfiable());
+            if (sat) {
+                assertTrue(satisfies(warm.model(), clauses));
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyHeuristicsAreRestoredForAnotherFormula()
+            throws ContradictionException, TimeoutException, IOException {
+        int[][] clauses = random3Sat(100, 420, 1);
+        Solver<?> solver = newSolver(clauses);
+        solver.isSatisfiable();
+        File file = tempFile();
+        solver.saveSnapshot(file.getPath());
+        int[][] variant = random3Sat(100, 400, 2);
+        Solver<?> other = newSolver(variant);
+        assertFalse(other.loadSnapshot(file.getPath()));
+        assertTrue(other.getLearnedConstraints().isEmpty());
+        if (other.isSatisfiable()) {
+            assertTrue(satisfies(other.model(), variant));
+        }
+    }
+
+    @Test
+    public void testSnapshotOfAnotherOrder() throws ContradictionException,
+            TimeoutException, IOException {
+        int[][] clauses = random3Sat(100, 420, 3);
+        Solver<?> solver = newSolver(clauses);
+        boolean sat = solver.isSatisfiable();
+        File file = tempFile();
+        solver.saveSnapshot(file.getPath());
+        Solver<?> vmtf = (Solver<?>) SolverFactory.newVMTF();
+        for (int[] clause : clauses) {
+            vmtf.addClause(new VecInt(clause));
+        }
+        assertTrue(vmtf.loadSnapshot(file.getPath()));
+        assertEquals(sat, vmtf.isSatisfiable());
+    }
+
+    private static Solver<?> parityFormula(boolean even)
+            throws ContradictionException {
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        solver.addClause(new VecInt(new int[] { 1 }));
+        solver.addClause(new VecInt(new int[] { 2 }));
+        solver.addClause(new VecInt(new int[] { 3, 4 }));
+        solver.addClause(new VecInt(new int[] { -3, 4 }));
+        solver.addParity(new VecInt(new int[] { 1, 2, 3 }), even);
+        return solver;
+    }
+
+    @Test
+    public void testParityIsPartOfTheFingerprint()
+            throws ContradictionException, TimeoutException, IOException {
+        Solver<?> even = parityFormula(true);
+        assertTrue(even.isSatisfiable());
+        assertFalse(even.model(3));
+        File file = tempFile();
+        even.saveSnapshot(file.getPath());
+
+        Solver<?> same = parityFormula(true);
+        assertTrue(same.loadSnapshot(file.getPath()));
+        assertTrue(same.isSatisfiable());
+
+        Solver<?> odd = parityFormula(false);
+        assertFalse(odd.loadSnapshot(file.getPath()));
+        assertTrue(odd.isSatisfiable());
+        assertTrue(odd.model(3));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws ContradictionException,
+            IOException {
+        File file = tempFile();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 'p', ' ', 'c', 'n', 'f' });
+        out.close();
+        Solver<?> solver = SolverFactory.newMiniLearningHeap();
+        pigeonHole(solver, 3);
+        solver.loadSnapshot(file.getPath());
+    }
+}
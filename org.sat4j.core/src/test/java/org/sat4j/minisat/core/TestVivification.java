@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.minisat.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestVivification {
+
+    private static final int NVARS = 180;
+
+    private Solver<DataStructureFactory> solver;
+
+    private IVec<IVecInt> clauses;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        solver = (Solver<DataStructureFactory>) SolverFactory.newGlucose21();
+        // random 3-SAT instance close to the phase transition, large enough
+        // to go through several reduceDB and restarts
+        Random rand = new Random(4);
+        clauses = new Vec<IVecInt>();
+        for (int i = 0; i < NVARS * 426 / 100; i++) {
+            IVecInt clause = new VecInt();
+            for (int j = 0; j < 3; j++) {
+                int var = rand.nextInt(NVARS) + 1;
+                clause.push(rand.nextBoolean() ? var : -var);
+            }
+            clauses.push(clause);
+        }
+    }
+
+    @Test
+    public void testLearnedClausesAreShortened()
+            throws ContradictionException, TimeoutException {
+        solver.setVivificationBudget(10);
+        solver.newVar(NVARS);
+        for (int i = 0; i < clauses.size(); i++) {
+            solver.addClause(clauses.get(i));
+        }
+        assertTrue(solver.isSatisfiable());
+        assertModel(solver.model());
+        assertTrue(solver.getStats().vivifiedClauses > 0);
+        assertTrue(solver.getStats().vivifiedLiterals >= solver
+                .getStats().vivifiedClauses);
+    }
+
+    @Test
+    public void testNoVivificationByDefault()
+            throws ContradictionException, TimeoutException {
+        assertEquals(0, solver.getVivificationBudget());
+        solver.newVar(NVARS);
+        for (int i = 0; i < clauses.size(); i++) {
+            solver.addClause(clauses.get(i));
+        }
+        assertTrue(solver.isSatisfiable());
+        assertEquals(0, solver.getStats().vivificationPropagations);
+    }
+
+    @Test
+    public void testNamedConfiguration() {
+        assertEquals(10, ((Solver<?>) SolverFactory.newVivification())
+                .getVivificationBudget());
+    }
+
+    @Test
+    public void testNoVivificationWithoutBudget()
+            throws ContradictionException, TimeoutException {
+        solver.setVivificationBudget(0);
+        solver.newVar(NVARS);
+        for (int i = 0; i < clauses.size(); i++) {
+            solver.addClause(clauses.get(i));
+        }
+        assertTrue(solver.isSatisfiable());
+        assertModel(solver.model());
+        assertEquals(0, solver.getStats().vivifiedClauses);
+        assertEquals(0, solver.getStats().vivificationPropagations);
+    }
+
+    private void assertModel(int[] model) {
+        boolean[] value = new boolean[NVARS + 1];
+        for (int p : model) {
+            value[Math.abs(p)] = p > 0;
+        }
+        for (int i = 0; i < clauses.size(); i++) {
+            IVecInt clause = clauses.get(i);
+            boolean satisfied = false;
+            for (int j = 0; j < clause.size(); j++) {
+                int p = clause.get(j);
+                satisfied |= value[Math.abs(p)] == p > 0;
+            }
+            assertTrue(satisfied);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.reader;
+
+import java.util.Arrays;
+
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ISolver;
+
+/**
+ * Time needed to load a Dimacs file into the default solver, with
+ * {@link LecteurDimacs} and with {@link MappedDimacsReader} using one thread
+ * and one thread per processor.
+ * 
+ * Usage: <code>DimacsLoadBenchmark file.cnf [runs]</code>. The median and
+ * the minimum of the runs are printed, in milliseconds.
+ */
+public class DimacsLoadBenchmark {
+
+    private static final String[] READERS = { "LecteurDimacs",
+            "MappedDimacsReader/1", "MappedDimacsReader/n" };
+
+    private static Reader newReader(int kind, ISolver solver) {
+        switch (kind) {
+        case 0:
+            return new LecteurDimacs(solver);
+        case 1:
+            return new MappedDimacsReader(solver,
+                    MappedDimacsReader.DEFAULT_CHUNK_SIZE, 1);
+        default:
+            return new MappedDimacsReader(solver);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: DimacsLoadBenchmark file.cnf [runs]");
+            return;
+        }
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.println("c " + Runtime.getRuntime().availableProcessors()
+                + " processors");
+        for (int kind = 0; kind < READERS.length; kind++) {
+            long[] times = new long[runs];
+            int nConstraints = 0;
+            for (int run = 0; run < runs; run++) {
+                ISolver solver = SolverFactory.newDefault();
+                System.gc();
+                long begin = System.nanoTime();
+                newReader(kind, solver).parseInstance(args[0]);
+                times[run] = (System.nanoTime() - begin) / 1000000;
+                nConstraints = solver.nConstraints();
+            }
+            Arrays.sort(times);
+            System.out.println(READERS[kind] + ": median " + times[runs / 2]
+                    + " ms, min " + times[0] + " ms, " + nConstraints
+                    + " constraints");
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.junit.Test;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.tools.DimacsStringSolver;
+
+public class TestMappedDimacsReader {
+
+    private static final String PREFIX = "src/test/testfiles/";
+
+    private static File createFile(String content) throws IOException {
+        File file = File.createTempFile("sat4j", ".cnf");
+        file.deleteOnExit();
+        Writer out = new FileWriter(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static String readWithLecteurDimacs(String filename)
+            throws ParseFormatException, ContradictionException, IOException {
+        DimacsStringSolver solver = new DimacsStringSolver();
+        new LecteurDimacs(solver).parseInstance(new FileInputStream(filename));
+        return solver.toString();
+    }
+
+    private static String readMapped(String filename, int chunkSize,
+            int nbThreads) throws ParseFormatException,
+            ContradictionException, IOException {
+        DimacsStringSolver solver = new DimacsStringSolver();
+        new MappedDimacsReader(solver, chunkSize, nbThreads)
+                .parseInstance(filename);
+        return solver.toString();
+    }
+
+    @Test
+    public void testSameClausesAsLecteurDimacs()
+            throws ParseFormatException, ContradictionException, IOException {
+        String[] files = { "pigeons/hole7.cnf", "aim-50-yes-ok.cnf",
+                "Eshop-fm.dimacs", "eb42.dimacs", "test1.dimacs" };
+        for (String file : files) {
+            String expected = readWithLecteurDimacs(PREFIX + file);
+            assertEquals(expected, readMapped(PREFIX + file,
+                    MappedDimacsReader.DEFAULT_CHUNK_SIZE, 1));
+            assertEquals(expected, readMapped(PREFIX + file, 64, 3));
+            assertEquals(expected, readMapped(PREFIX + file, 1, 4));
+        }
+    }
+
+    @Test
+    public void testClausesSpanningSeveralChunks()
+            throws ParseFormatException, ContradictionException, IOException {
+        File file = createFile("c a comment\np cnf 5 3\n1 -2\n3 0 c inside\n"
+                + "-4\n  5\n-1 0\nc again\n2 3 4 5 0\n");
+        String expected = readWithLecteurDimacs(file.getPath());
+        for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+            assertEquals(expected, readMapped(file.getPath(), chunkSize, 2));
+        }
+    }
+
+    @Test
+    public void testMissingLastZeroAndSatlibEnd()
+            throws ParseFormatException, ContradictionException, IOException {
+        File file = createFile("p cnf 3 2\n1 2 0\n-3 -1");
+        assertEquals(readWithLecteurDimacs(file.getPath()),
+                readMapped(file.getPath(), 4, 2));
+        file = createFile("p cnf 3 2\n1 2 0\n-3 -1 0\n%\n0\n");
+        DimacsStringSolver solver = new DimacsStringSolver();
+        new MappedDimacsReader(solver, 3, 2).parseInstance(file.getPath());
+        assertEquals(2, solver.nConstraints());
+    }
+
+    @Test
+    public void testWrongCharacter() throws ContradictionException,
+            IOException {
+        File file = createFile("p cnf 3 2\n1 2 0\n-3 x 0\n");
+        try {
+            readMapped(file.getPath(), 5, 2);
+            fail();
+        } catch (ParseFormatException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = ParseFormatException.class)
+    public void testMissingProblemLine() throws ParseFormatException,
+            ContradictionException, IOException {
+        File file = createFile("c no problem line\n1 2 0\n");
+        readMapped(file.getPath(), 5, 2);
+    }
+
+    @Test
+    public void testHeaderLongerThanAWindow() throws ParseFormatException,
+            ContradictionException, IOException {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            header.append("c comment ").append(i).append('\n');
+        }
+        header.append("c ");
+        for (int i = 0; i < 100000; i++) {
+            header.append('x');
+        }
+        header.append("\np cnf 3 2\n1 2 0\n-3 -1 0\n");
+        File file = createFile(header.toString());
+        assertEquals(readWithLecteurDimacs(file.getPath()),
+                readMapped(file.getPath(), 7, 2));
+    }
+
+    @Test
+    public void testPlainCnfFilesAreMapped() throws ParseFormatException,
+            ContradictionException, IOException {
+        DimacsStringSolver solver = new DimacsStringSolver();
+        InstanceReader reader = new InstanceReader(solver);
+        Reader chosen = reader.handleFileName("a.cnf", "");
+        assertTrue(chosen instanceof MappedDimacsReader);
+        reader.parseInstance(PREFIX + "pigeons/hole7.cnf");
+        assertEquals(readWithLecteurDimacs(PREFIX + "pigeons/hole7.cnf"),
+                solver.toString());
+    }
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.Lbool;
+import org.sat4j.specs.SearchListener;
+import org.sat4j.specs.SearchListenerAdapter;
+
+/**
+ * Cost of the deterministic mode of {@link ManyCore}, compared to members
+ * running freely, on Dimacs files.
+ * 
+ * Usage:
+ * <code>ManyCoreDeterministicBenchmark [-runs n] [-periods p1,p2,...] file.cnf...</code>
+ * . A period of 0 lets the members run freely, the other periods are numbers
+ * of conflicts per round. For each file and period, the median of the runs is
+ * printed for:
+ * <ul>
+ * <li>the wall time on that machine, in milliseconds;</li>
+ * <li>an estimate of the wall time with one core per member, from the CPU time
+ * of the member threads: the CPU time of the winner when the members run
+ * freely, else the sum over the rounds of the CPU time of the slowest member
+ * in the round;</li>
+ * <li>the share of that estimate the members would spend waiting at the end
+ * of the rounds;</li>
+ * <li>the total number of conflicts of the members.</li>
+ * </ul>
+ * The runs are identical when they give the same answer, model and number of
+ * conflicts.
+ */
+public class ManyCoreDeterministicBenchmark {
+
+    private static final ThreadMXBean THREADS = ManagementFactory
+            .getThreadMXBean();
+
+    /**
+     * Record the CPU time of a member in each round.
+     */
+    private static final class RoundTimer extends
+            SearchListenerAdapter<ISolverService> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int period;
+
+        private final List<Long> rounds = new ArrayList<Long>();
+
+        private long conflicts;
+
+        private long nextRound;
+
+        private long roundStart = -1;
+
+        private boolean won;
+
+        RoundTimer(int period) {
+            this.period = period;
+            this.nextRound = period;
+        }
+
+        @Override
+        public void conflictFound(IConstr confl, int dlevel, int trailLevel) {
+            if (this.roundStart < 0) {
+                this.roundStart = THREADS.getCurrentThreadCpuTime();
+            }
+            this.conflicts++;
+        }
+
+        @Override
+        public void restarting() {
+            if (this.period > 0 && this.conflicts >= this.nextRound) {
+                // the member now waits at the barrier
+                endRound();
+                this.nextRound = this.conflicts + this.period;
+            }
+        }
+
+        @Override
+        public void end(Lbool result) {
+            this.won = result != Lbool.UNDEFINED;
+            endRound();
+        }
+
+        private void endRound() {
+            if (this.roundStart >= 0) {
+                long now = THREADS.getCurrentThreadCpuTime();
+                this.rounds.add(now - this.roundStart);
+                this.roundStart = now;
+            }
+        }
+
+        @Override
+        public int getEventMask() {
+            return CONFLICTS;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 3;
+        int[] periods = { 0, 100, 1000, 10000 };
+        int first = 0;
+        while (first < args.length && args[first].startsWith("-")) {
+            if ("-runs".equals(args[first])) {
+                runs = Integer.parseInt(args[first + 1]);
+            } else if ("-periods".equals(args[first])) {
+                String[] values = args[first + 1].split(",");
+                periods = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    periods[i] = Integer.parseInt(values[i]);
+                }
+            }
+            first += 2;
+        }
+        if (first == args.length) {
+            System.out.println("Usage: ManyCoreDeterministicBenchmark"
+                    + " [-runs n] [-periods p1,p2,...] file.cnf...");
+            return;
+        }
+        THREADS.setThreadCpuTimeEnabled(true);
+        System.out.println(Runtime.getRuntime().availableProcessors()
+                + " processors");
+        for (int f = first; f < args.length; f++) {
+            for (int period : periods) {
+                long[] wall = new long[runs];
+                long[] estimate = new long[runs];
+                long[] waiting = new long[runs];
+                long[] conflicts = new long[runs];
+                String[] outcomes = new String[runs];
+                for (int run = 0; run < runs; run++) {
+                    long[] result = run(args[f], period, outcomes, run);
+                    wall[run] = result[0];
+                    estimate[run] = result[1];
+                    waiting[run] = result[2];
+                    conflicts[run] = result[3];
+                }
+                boolean identical = true;
+                for (int run = 1; run < runs; run++) {
+                    identical &= outcomes[run].equals(outcomes[0]);
+                }
+                long[] share = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    share[run] = estimate[run] == 0 ? 0 : 100 * waiting[run]
+                            / estimate[run];
+                }
+                System.out.println(args[f].replaceAll(".*/", "") + " "
+                        + (period == 0 ? "free" : "period " + period) + ": "
+                        + outcomes[0].substring(0, outcomes[0].indexOf(' '))
+                        + ", median wall " + median(wall) + " ms, median "
+                        + "estimate " + median(estimate) + " ms, waiting "
+                        + median(share) + "%, median "
+                        + median(conflicts) + " conflicts, runs "
+                        + (identical ? "identical" : "different"));
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return the wall time, the estimated wall time with one core per member
+     *         and the time spent waiting in that estimate, in milliseconds,
+     *         and the number of conflicts.
+     */
+    @SuppressWarnings("unchecked")
+    private static long[] run(String file, int period, String[] outcomes,
+            int run) throws Exception {
+        ManyCore<ISolver> solver = (ManyCore<ISolver>) SolverFactory
+                .newParallelSharing();
+        solver.setDeterministic(period);
+        new DimacsReader(solver).parseInstance(file);
+        List<RoundTimer> timers = new ArrayList<RoundTimer>();
+        for (ISolver member : solver.getSolvers()) {
+            RoundTimer timer = new RoundTimer(period);
+            List<SearchListener<ISolverService>> listeners = new ArrayList<SearchListener<ISolverService>>();
+            listeners.add((SearchListener<ISolverService>) member
+                    .getSearchListener());
+            listeners.add(timer);
+            member.setSearchListener(new MultiTracing<ISolverService>(
+                    listeners));
+            timers.add(timer);
+        }
+        long begin = System.nanoTime();
+        boolean sat = solver.isSatisfiable();
+        long wall = (System.nanoTime() - begin) / 1000000;
+        long conflicts = 0;
+        for (ISolver member : solver.getSolvers()) {
+            conflicts += ((Solver<?>) member.getSolvingEngine()).getStats().conflicts;
+        }
+        long estimate = 0;
+        long waiting = 0;
+        if (period == 0) {
+            for (RoundTimer timer : timers) {
+                if (timer.won && timer.rounds.size() > 0) {
+                    estimate = timer.rounds.get(0);
+                }
+            }
+        } else {
+            for (int round = 0;; round++) {
+                long slowest = 0;
+                long total = 0;
+                int running = 0;
+                for (RoundTimer timer : timers) {
+                    if (round < timer.rounds.size()) {
+                        slowest = Math.max(slowest, timer.rounds.get(round));
+                        total += timer.rounds.get(round);
+                        running++;
+                    }
+                }
+                if (running == 0) {
+                    break;
+                }
+                estimate += slowest;
+                waiting += (running * slowest - total) / running;
+            }
+        }
+        outcomes[run] = (sat ? "SAT " + Arrays.hashCode(solver.model())
+                : "UNSAT") + " " + conflicts;
+        return new long[] { wall, estimate / 1000000, waiting / 1000000,
+                conflicts };
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+import org.sat4j.specs.UnitClauseProvider;
+import org.sat4j.specs.UnitPropagationListener;
+
+public class TestCubeAndConquer {
+
+    private static int[][] random3Sat(int nVars, int nClauses, long seed) {
+        Random rand = new Random(seed);
+        int[][] clauses = new int[nClauses][];
+        for (int i = 0; i < nClauses; i++) {
+            int a = rand.nextInt(nVars) + 1;
+            int b, c;
+            do {
+                b = rand.nextInt(nVars) + 1;
+            } while (b == a);
+            do {
+                c = rand.nextInt(nVars) + 1;
+            } while (c == a || c == b);
+            clauses[i] = new int[] { rand.nextBoolean() ? a : -a,
+                    rand.nextBoolean() ? b : -b, rand.nextBoolean() ? c : -c };
+        }
+        return clauses;
+    }
+
+    private static void addClauses(ISolver solver, int[][] clauses)
+            throws ContradictionException {
+        for (int[] clause : clauses) {
+            solver.addClause(new VecInt(clause));
+        }
+    }
+
+    private static void pigeonHole(ISolver solver, int holes)
+            throws ContradictionException {
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            IVecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p * holes + h), -(q * holes + h) }));
+                }
+            }
+        }
+    }
+
+    private static boolean satisfies(int[] model, int[][] clauses) {
+        boolean[] value = new boolean[model.length + 1];
+        for (int p : model) {
+            if (p > 0) {
+                value[p] = true;
+            }
+        }
+        for (int[] clause : clauses) {
+            boolean sat = false;
+            for (int p : clause) {
+                sat |= p > 0 ? value[p] : !value[-p];
+            }
+            if (!sat) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testSameAnswersAsASequentialSolver()
+            throws ContradictionException, TimeoutException {
+        for (long seed = 0; seed < 10; seed++) {
+            int[][] clauses = random3Sat(60, 256, seed);
+            ISolver sequential = SolverFactory.newDefault();
+            addClauses(sequential, clauses);
+            CubeAndConquer solver = new CubeAndConquer(
+                    (Solver<?>) SolverFactory.newDefault(), 3);
+            addClauses(solver, clauses);
+            boolean sat = solver.isSatisfiable();
+            assertEquals(sequential.isSatisfiable(), sat);
+            if (sat) {
+                int[] model = solver.model();
+                assertTrue(satisfies(model, clauses));
+                for (int p : model) {
+                    assertEquals(p > 0, solver.model(Math.abs(p)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFormulasWithUnitClauses() throws ContradictionException,
+            TimeoutException {
+        for (long seed = 0; seed < 10; seed++) {
+            int[][] clauses = random3Sat(60, 240, seed);
+            int[][] units = { { 1 }, { -2, -2 }, { 3, 3, 3 } };
+            ISolver sequential = SolverFactory.newDefault();
+            CubeAndConquer solver = new CubeAndConquer(
+                    (Solver<?>) SolverFactory.newDefault(), 3);
+            try {
+                addClauses(sequential, units);
+                addClauses(sequential, clauses);
+                addClauses(solver, units);
+                addClauses(solver, clauses);
+            } catch (ContradictionException e) {
+                continue;
+            }
+            boolean sat = solver.isSatisfiable();
+            assertEquals(sequential.isSatisfiable(), sat);
+            if (sat) {
+                assertTrue(satisfies(solver.model(), clauses));
+                assertTrue(satisfies(solver.model(), units));
+            }
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWorkerFailuresAreThrownToTheCaller()
+            throws ContradictionException, TimeoutException {
+        Solver<?> decorated = (Solver<?>) SolverFactory.newDefault();
+        // shared by the forks, and only used when solving the cubes
+        decorated.setUnitClauseProvider(new UnitClauseProvider() {
+            public void provideUnitClauses(UnitPropagationListener upl) {
+                throw new IllegalStateException("failing worker");
+            }
+        });
+        decorated.setTimeoutOnConflicts(1000000);
+        CubeAndConquer solver = new CubeAndConquer(decorated, 2);
+        pigeonHole(solver, 5);
+        try {
+            solver.isSatisfiable();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("failing worker", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testHardCubesAreSplitAgain() throws ContradictionException,
+            TimeoutException {
+        CubeAndConquer solver = new CubeAndConquer(
+                (Solver<?>) SolverFactory.newDefault(), 2);
+        solver.setCubesPerThread(1);
+        solver.setConflictsPerCube(5);
+        pigeonHole(solver, 6);
+        assertFalse(solver.isSatisfiable());
+        assertTrue(solver.getStat().get("splitCubes").intValue() > 0);
+    }
+
+    @Test
+    public void testAssumptionsAreSatisfied() throws ContradictionException,
+            TimeoutException {
+        int[][] clauses = random3Sat(80, 300, 3);
+        CubeAndConquer solver = new CubeAndConquer(
+                (Solver<?>) SolverFactory.newDefault(), 2);
+        addClauses(solver, clauses);
+        assertTrue(solver.isSatisfiable());
+        int[] model = solver.model();
+        IVecInt assumps = new VecInt(new int[] { -model[0], -model[1] });
+        if (solver.isSatisfiable(assumps)) {
+            assertEquals(model[0] < 0, solver.model(Math.abs(model[0])));
+            assertEquals(model[1] < 0, solver.model(Math.abs(model[1])));
+            assertTrue(satisfies(solver.model(), clauses));
+        }
+        assertTrue(solver.isSatisfiable(new VecInt(model)));
+    }
+
+    @Test
+    public void testLookaheadRefutesInconsistentCubes()
+            throws ContradictionException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
+        pigeonHole(solver, 3);
+        IVecInt cube = new VecInt(new int[] { 1, 4 });
+        try {
+            // pigeons 0 and 1 both in hole 1
+            solver.lookahead(cube, 10);
+            fail();
+        } catch (ContradictionException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLookaheadSelectsAnUnassignedVariable()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
+        addClauses(solver, random3Sat(80, 300, 3));
+        IVecInt cube = new VecInt(new int[] { 1 });
+        int var = solver.lookahead(cube, 10);
+        assertTrue(var > 1);
+        assertEquals(1, cube.get(0));
+        for (int i = 0; i < cube.size(); i++) {
+            assertTrue(Math.abs(cube.get(i)) != var);
+        }
+        // the solver is not modified by the lookahead
+        assertTrue(solver.isSatisfiable(cube));
+    }
+
+    @Test
+    public void testTheWorkersAreReusedAcrossCalls()
+            throws ContradictionException, TimeoutException {
+        int[][] clauses = random3Sat(80, 300, 3);
+        CubeAndConquer solver = new CubeAndConquer(
+                (Solver<?>) SolverFactory.newDefault(), 2);
+        addClauses(solver, clauses);
+        assertTrue(solver.isSatisfiable());
+        int[] model = solver.model();
+        assertTrue(solver.isSatisfiable(new VecInt(new int[] { model[0] })));
+        solver.isSatisfiable(new VecInt(new int[] { -model[0] }));
+        assertEquals(2, solver.getStat().get("forks").intValue());
+    }
+
+    @Test
+    public void testTheWorkersAreForkedAgainOnceTheFormulaChanges()
+            throws ContradictionException, TimeoutException {
+        int[][] clauses = random3Sat(80, 300, 3);
+        CubeAndConquer solver = new CubeAndConquer(
+                (Solver<?>) SolverFactory.newDefault(), 2);
+        addClauses(solver, clauses);
+        assertTrue(solver.isSatisfiable());
+        int[] model = solver.model();
+        IVecInt blocking = new VecInt(model.length);
+        for (int p : model) {
+            blocking.push(-p);
+        }
+        IConstr constr = solver.addClause(blocking);
+        assertEquals(2, solver.getStat().get("forks").intValue());
+        if (solver.isSatisfiable()) {
+            assertFalse(Arrays.equals(model, solver.model()));
+        }
+        assertEquals(4, solver.getStat().get("forks").intValue());
+        solver.removeConstr(constr);
+        assertTrue(solver.isSatisfiable(new VecInt(model)));
+        assertEquals(6, solver.getStat().get("forks").intValue());
+    }
+}
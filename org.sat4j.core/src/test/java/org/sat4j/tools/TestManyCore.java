@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.constraints.cnf.SharedWLClause;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestManyCore {
+
+    private ManyCore<ISolver> solver;
+
+    @Before
+    public void setUp() {
+        this.solver = new ManyCore<ISolver>(SolverFactory.newDefault(),
+                SolverFactory.newGlucose21(), SolverFactory.newMiniSATHeap());
+    }
+
+    private static void pigeonHole(ISolver solver, int holes)
+            throws ContradictionException {
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            IVecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p * holes + h), -(q * holes + h) }));
+                }
+            }
+        }
+    }
+
+    /**
+     * A random 3-SAT formula satisfied by a hidden model.
+     */
+    private static void plantedFormula(ISolver solver, int nbVars,
+            int nbClauses) throws ContradictionException {
+        Random rand = new Random(42);
+        boolean[] planted = new boolean[nbVars + 1];
+        for (int v = 1; v <= nbVars; v++) {
+            planted[v] = rand.nextBoolean();
+        }
+        IVecInt clause = new VecInt();
+        while (nbClauses > 0) {
+            clause.clear();
+            boolean satisfied = false;
+            for (int i = 0; i < 3; i++) {
+                int v = rand.nextInt(nbVars) + 1;
+                int p = rand.nextBoolean() ? v : -v;
+                satisfied |= planted[v] == p > 0;
+                clause.push(p);
+            }
+            if (satisfied) {
+                solver.addClause(clause);
+                nbClauses--;
+            }
+        }
+    }
+
+    private static ManyCore<ISolver> deterministicSolver() {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(true,
+                SolverFactory.newDefault(), SolverFactory.newGlucose21(),
+                SolverFactory.newMiniSATHeap(),
+                SolverFactory.newMiniLearningHeapRsatExpSimpLuby());
+        solver.shareLearnedClauses(8, 4);
+        solver.setDeterministic(50);
+        return solver;
+    }
+
+    private static int countThreads(String name) {
+        Thread[] threads = new Thread[Thread.activeCount() + 16];
+        int n = Thread.enumerate(threads);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (name.equals(threads[i].getName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testSatisfiabilityUnderAssumptions()
+            throws ContradictionException, TimeoutException {
+        this.solver.newVar(3);
+        this.solver.addClause(new VecInt(new int[] { 1, 2 }));
+        this.solver.addClause(new VecInt(new int[] { -1, 3 }));
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { 1 })));
+        assertTrue(this.solver.model(3));
+        IVecInt assumps = new VecInt(new int[] { 1, -3 });
+        assertFalse(this.solver.isSatisfiable(assumps));
+        assertEquals(2, assumps.size());
+        IVecInt explanation = this.solver.unsatExplanation();
+        assertTrue(explanation.contains(-3));
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { -1 })));
+        assertTrue(this.solver.model(2));
+        assertTrue(this.solver.isSatisfiable());
+    }
+
+    @Test(timeout = 60000)
+    public void testSharedUnitsUnderAssumptions()
+            throws ContradictionException, TimeoutException {
+        ManyCore<ISolver> sharing = new ManyCore<ISolver>(true,
+                SolverFactory.newDefault(), SolverFactory.newGlucose21());
+        // 3 is implied by the formula, but not by unit propagation
+        sharing.addClause(new VecInt(new int[] { 3, 4 }));
+        sharing.addClause(new VecInt(new int[] { 3, -4 }));
+        sharing.addClause(new VecInt(new int[] { -1, -3, 5 }));
+        sharing.addClause(new VecInt(new int[] { -1, -3, -5 }));
+        // as if a member had learned it
+        sharing.learnUnit(3);
+        for (int i = 0; i < 10; i++) {
+            IVecInt assumps = new VecInt(new int[] { 2, 1 });
+            assertFalse(sharing.isSatisfiable(assumps));
+            IVecInt explanation = sharing.unsatExplanation();
+            assertTrue(explanation.contains(1));
+            assertFalse(explanation.contains(3));
+            assertTrue(sharing.isSatisfiable(new VecInt(new int[] { -1 })));
+            assertTrue(sharing.model(3));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testFailuresOfTheSolversAreThrownToTheCaller()
+            throws ContradictionException, TimeoutException {
+        ISolver[] members = new ISolver[2];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new SolverDecorator<ISolver>(
+                    SolverFactory.newDefault()) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public boolean isSatisfiable(IVecInt assumps, boolean global) {
+                    throw new IllegalStateException("failing solver");
+                }
+            };
+        }
+        ManyCore<ISolver> failing = new ManyCore<ISolver>(members);
+        failing.addClause(new VecInt(new int[] { 1, 2 }));
+        for (int i = 0; i < 3; i++) {
+            try {
+                failing.isSatisfiable(new VecInt(new int[] { 1 }));
+                fail();
+            } catch (IllegalStateException e) {
+                assertEquals("failing solver", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testTheThreadsAreReusedBetweenCalls()
+            throws ContradictionException, TimeoutException {
+        this.solver.newVar(2);
+        this.solver.addClause(new VecInt(new int[] { 1, 2 }));
+        int before = countThreads("ManyCore");
+        for (int i = 0; i < 200; i++) {
+            assertTrue(this.solver.isSatisfiable(new VecInt(
+                    new int[] { i % 2 == 0 ? 1 : -1 })));
+        }
+        assertTrue(countThreads("ManyCore") <= before + 3);
+    }
+
+    @Test
+    public void testAnInterruptedCallerStopsTheSolvers()
+            throws ContradictionException {
+        pigeonHole(this.solver, 11);
+        Thread.currentThread().interrupt();
+        try {
+            this.solver.isSatisfiable();
+            fail();
+        } catch (TimeoutException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testAnInterruptedSolverStopsAtTheNextConflict()
+            throws ContradictionException {
+        ISolver single = SolverFactory.newDefault();
+        pigeonHole(single, 11);
+        Thread.currentThread().interrupt();
+        try {
+            single.isSatisfiable();
+            fail();
+        } catch (TimeoutException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testTheClausesAreShared()
+            throws ContradictionException, TimeoutException {
+        this.solver.newVar(4);
+        this.solver.addClause(new VecInt(new int[] { 1, -2, 3 }));
+        this.solver.addClause(new VecInt(new int[] { 1, 2 }));
+        this.solver.addClause(new VecInt(new int[] { -1, 2, 3, -4 }));
+        this.solver.addClause(new VecInt(new int[] { 2, -4, 2 }));
+        Solver<?> first = (Solver<?>) this.solver.getSolvers().get(0);
+        for (ISolver member : this.solver.getSolvers()) {
+            Solver<?> other = (Solver<?>) member;
+            assertEquals(4, other.nConstraints());
+            assertTrue(other.getIthConstr(0) instanceof SharedWLClause);
+            assertSame(first.getIthConstr(0), other.getIthConstr(0));
+            assertSame(first.getIthConstr(2), other.getIthConstr(2));
+            assertFalse(other.getIthConstr(3) instanceof SharedWLClause);
+        }
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { -3, 4 })));
+        assertTrue(this.solver.model(1));
+        assertTrue(this.solver.model(2));
+        assertFalse(this.solver.isSatisfiable(new VecInt(
+                new int[] { -3, 4, -2 })));
+    }
+
+    @Test
+    public void testAForkOfAMemberSharesItsClauses()
+            throws ContradictionException, TimeoutException {
+        this.solver.newVar(4);
+        this.solver.addClause(new VecInt(new int[] { 1, -2, 3 }));
+        this.solver.addClause(new VecInt(new int[] { -1, 2, 3, -4 }));
+        Solver<?> member = (Solver<?>) this.solver.getSolvers().get(0);
+        member.addClause(new VecInt(new int[] { -1, -2, -3 }));
+        Solver<?> fork = member.fork();
+        assertSame(member.getIthConstr(0), fork.getIthConstr(0));
+        assertSame(member.getIthConstr(1), fork.getIthConstr(1));
+        assertTrue(fork.getIthConstr(2) instanceof SharedWLClause);
+        assertTrue(fork.isSatisfiable(new VecInt(new int[] { 4, -3, 1 })));
+        assertTrue(fork.model(2));
+        assertFalse(fork.isSatisfiable(new VecInt(
+                new int[] { 4, -3, 1, -2 })));
+        assertFalse(member.isSatisfiable(new VecInt(new int[] { 1, 2, 3 })));
+        assertTrue(member.isSatisfiable(new VecInt(new int[] { 4, -3, 1 })));
+    }
+
+    @Test
+    public void testSharedClausesGiveTheSameAnswers()
+            throws ContradictionException, TimeoutException {
+        pigeonHole(this.solver, 6);
+        assertFalse(this.solver.isSatisfiable());
+    }
+
+    @Test
+    public void testDeterministicRunsGiveTheSameModelAndStatistics()
+            throws ContradictionException, TimeoutException {
+        int[] model = null;
+        Map<String, Number> stats = null;
+        for (int run = 0; run < 5; run++) {
+            ManyCore<ISolver> parallel = deterministicSolver();
+            plantedFormula(parallel, 250, 1050);
+            assertTrue(parallel.isSatisfiable());
+            if (model == null) {
+                model = parallel.model();
+                stats = parallel.getStat();
+            } else {
+                assertTrue(Arrays.equals(model, parallel.model()));
+                assertEquals(stats, parallel.getStat());
+            }
+        }
+    }
+
+    @Test
+    public void testDeterministicRunsUnderAssumptions()
+            throws ContradictionException, TimeoutException {
+        ManyCore<ISolver> first = deterministicSolver();
+        ManyCore<ISolver> second = deterministicSolver();
+        plantedFormula(first, 200, 840);
+        plantedFormula(second, 200, 840);
+        for (int i = 1; i <= 10; i++) {
+            IVecInt assumps = new VecInt(new int[] { i % 2 == 0 ? i : -i });
+            boolean satisfiable = first.isSatisfiable(assumps);
+            assertEquals(satisfiable, second.isSatisfiable(assumps));
+            if (satisfiable) {
+                assertTrue(Arrays.equals(first.model(), second.model()));
+            }
+        }
+    }
+
+    @Test
+    public void testDeterministicModeOnAnUnsatisfiableFormula()
+            throws ContradictionException, TimeoutException {
+        ManyCore<ISolver> parallel = deterministicSolver();
+        pigeonHole(parallel, 6);
+        assertFalse(parallel.isSatisfiable());
+        parallel.setDeterministic(0);
+        assertFalse(parallel.isDeterministic());
+        assertFalse(parallel.isSatisfiable());
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestManyCoreClauseSharing {
+
+    private static int[][] random3Sat(int nVars, int nClauses, long seed) {
+        Random rand = new Random(seed);
+        int[][] clauses = new int[nClauses][];
+        for (int i = 0; i < nClauses; i++) {
+            int a = rand.nextInt(nVars) + 1;
+            int b, c;
+            do {
+                b = rand.nextInt(nVars) + 1;
+            } while (b == a);
+            do {
+                c = rand.nextInt(nVars) + 1;
+            } while (c == a || c == b);
+            clauses[i] = new int[] { rand.nextBoolean() ? a : -a,
+                    rand.nextBoolean() ? b : -b, rand.nextBoolean() ? c : -c };
+        }
+        return clauses;
+    }
+
+    private static void addClauses(ISolver solver, int[][] clauses)
+            throws ContradictionException {
+        for (int[] clause : clauses) {
+            solver.addClause(new VecInt(clause));
+        }
+    }
+
+    private static ManyCore<ISolver> sharingSolver() {
+        ManyCore<ISolver> solver = new ManyCore<ISolver>(true,
+                SolverFactory.newDefault(), SolverFactory.newGlucose21(),
+                SolverFactory.newMiniLearningHeap());
+        solver.shareLearnedClauses(8, 4);
+        return solver;
+    }
+
+    @Test
+    public void testSameAnswersAsASequentialSolver()
+            throws ContradictionException, TimeoutException {
+        for (long seed = 0; seed < 10; seed++) {
+            int[][] clauses = random3Sat(100, 426, seed);
+            ISolver sequential = SolverFactory.newDefault();
+            addClauses(sequential, clauses);
+            ManyCore<ISolver> parallel = sharingSolver();
+            addClauses(parallel, clauses);
+            boolean expected = sequential.isSatisfiable();
+            assertEquals(expected, parallel.isSatisfiable());
+            if (expected) {
+                int[] model = parallel.model();
+                for (int[] clause : clauses) {
+                    boolean sat = false;
+                    for (int p : clause) {
+                        for (int q : model) {
+                            sat |= p == q;
+                        }
+                    }
+                    assertTrue(sat);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLearnedClausesAreExchanged()
+            throws ContradictionException, TimeoutException {
+        long exported = 0;
+        long imported = 0;
+        for (long seed = 0; seed < 10; seed++) {
+            ManyCore<ISolver> parallel = sharingSolver();
+            addClauses(parallel, random3Sat(150, 700, seed));
+            parallel.isSatisfiable();
+            for (ISolver solver : parallel.getSolvers()) {
+                Solver<?> engine = (Solver<?>) solver.getSolvingEngine();
+                exported += engine.getStats().exportedClauses;
+                imported += engine.getStats().importedClauses;
+            }
+        }
+        assertTrue(exported > 0);
+        assertTrue(imported > 0);
+    }
+
+    @Test
+    public void testImportedClausesAreSimplifiedAtTheRootLevel()
+            throws ContradictionException, TimeoutException {
+        Solver<?> solver = (Solver<?>) SolverFactory.newDefault();
+        solver.newVar(5);
+        solver.addClause(new VecInt(new int[] { 1, 2, 3 }));
+        solver.addClause(new VecInt(new int[] { -1 }));
+        solver.addClause(new VecInt(new int[] { 5 }));
+        assertTrue(solver.isSatisfiable());
+        // satisfied by 5 at the root level
+        assertFalse(solver.importLearnt(new VecInt(new int[] { 4, 5 }), 2));
+        // reduced to the unit clause 4
+        assertFalse(solver.importLearnt(new VecInt(new int[] { 1, 4 }), 2));
+        assertTrue(solver.importLearnt(new VecInt(new int[] { 1, 2, 4 }), 2));
+        assertEquals(1, solver.getStats().importedClauses);
+        IVecInt assumptions = new VecInt(new int[] { -2, -4 });
+        assertFalse(solver.isSatisfiable(assumptions));
+        assertTrue(solver.isSatisfiable(new VecInt(new int[] { -2, 3 })));
+        assertTrue(solver.model(4));
+    }
+
+    @Test
+    public void testTheHashDoesNotDependOnTheOrderOfTheLiterals() {
+        assertEquals(LearntClauseExchange.hash(new int[] { 1, -2, 3, 2 }),
+                LearntClauseExchange.hash(new int[] { 3, 1, -2, 2 }));
+        assertFalse(LearntClauseExchange.hash(new int[] { 1, -2, 3, 2 }) == LearntClauseExchange
+                .hash(new int[] { 1, 2, 3, 2 }));
+        assertFalse(LearntClauseExchange.hash(new int[] { 1, -2, 2 }) == LearntClauseExchange
+                .hash(new int[] { 1, -2, 3, 2 }));
+    }
+}
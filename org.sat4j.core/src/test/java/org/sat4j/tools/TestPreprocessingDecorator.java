@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVec;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+public class TestPreprocessingDecorator {
+
+    private PreprocessingDecorator<ISolver> solver;
+
+    private IVec<IVecInt> clauses;
+
+    @Before
+    public void setUp() {
+        this.solver = new PreprocessingDecorator<ISolver>(
+                SolverFactory.newDefault());
+        this.clauses = new Vec<IVecInt>();
+    }
+
+    private void addClause(int... literals) throws ContradictionException {
+        IVecInt clause = new VecInt(literals);
+        this.clauses.push(clause);
+        this.solver.addClause(clause);
+    }
+
+    private void assertModelSatisfiesClauses() {
+        int[] model = this.solver.model();
+        for (int i = 0; i < this.clauses.size(); i++) {
+            IVecInt clause = this.clauses.get(i);
+            boolean satisfied = false;
+            for (int j = 0; j < clause.size() && !satisfied; j++) {
+                int p = clause.get(j);
+                satisfied = model[Math.abs(p) - 1] == p;
+            }
+            assertTrue("clause " + clause + " falsified", satisfied);
+        }
+    }
+
+    /**
+     * Equivalence chain x1 <=> x2 <=> ... <=> x10: all the variables but the
+     * frozen one can be eliminated.
+     */
+    private void addChain(int n) throws ContradictionException {
+        for (int i = 1; i < n; i++) {
+            addClause(-i, i + 1);
+            addClause(i, -(i + 1));
+        }
+    }
+
+    @Test
+    public void testModelIsReconstructed() throws ContradictionException,
+            TimeoutException {
+        addChain(10);
+        addClause(5);
+        assertTrue(this.solver.isSatisfiable());
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(this.solver.model(i));
+        }
+        assertModelSatisfiesClauses();
+    }
+
+    @Test
+    public void testVariablesAreEliminated() throws ContradictionException,
+            TimeoutException {
+        addChain(10);
+        this.solver.freeze(1);
+        assertTrue(this.solver.isSatisfiable());
+        assertFalse(this.solver.isEliminated(1));
+        int nbEliminated = 0;
+        for (int i = 2; i <= 10; i++) {
+            if (this.solver.isEliminated(i)) {
+                nbEliminated++;
+            }
+        }
+        assertTrue(nbEliminated > 0);
+        assertModelSatisfiesClauses();
+    }
+
+    @Test
+    public void testFrozenAssumptions() throws ContradictionException,
+            TimeoutException {
+        addChain(10);
+        addClause(-1, -10);
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { -10 })));
+        assertFalse(this.solver.isEliminated(10));
+        assertModelSatisfiesClauses();
+        assertFalse(this.solver.isSatisfiable(new VecInt(new int[] { 10 })));
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { -1 })));
+    }
+
+    @Test
+    public void testAssumptionOnEliminatedVariable()
+            throws ContradictionException, TimeoutException {
+        addChain(10);
+        assertTrue(this.solver.isSatisfiable());
+        assertTrue(this.solver.isEliminated(5));
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { 5 })));
+        assertFalse(this.solver.isEliminated(5));
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(this.solver.model(i));
+        }
+        assertTrue(this.solver.isSatisfiable(new VecInt(new int[] { -5 })));
+        for (int i = 1; i <= 10; i++) {
+            assertFalse(this.solver.model(i));
+        }
+    }
+
+    @Test
+    public void testIncrementalClauseOnEliminatedVariable()
+            throws ContradictionException, TimeoutException {
+        addChain(10);
+        assertTrue(this.solver.isSatisfiable());
+        addClause(3);
+        assertTrue(this.solver.isSatisfiable());
+        assertModelSatisfiesClauses();
+        try {
+            addClause(-7);
+            assertFalse(this.solver.isSatisfiable());
+        } catch (ContradictionException e) {
+            // also fine
+        }
+    }
+
+    @Test
+    public void testUnsatisfiabilityFoundByPreprocessing()
+            throws ContradictionException, TimeoutException {
+        addChain(10);
+        addClause(1);
+        addClause(-10);
+        assertFalse(this.solver.isSatisfiable());
+    }
+
+    @Test
+    public void testRandomFormulas() throws ContradictionException,
+            TimeoutException {
+        Random rand = new Random(12345);
+        for (int k = 0; k < 50; k++) {
+            setUp();
+            ISolver reference = SolverFactory.newDefault();
+            boolean trivialfalsity = false;
+            for (int i = 0; i < 170; i++) {
+                int[] literals = new int[2 + rand.nextInt(2)];
+                for (int j = 0; j < literals.length; j++) {
+                    literals[j] = (rand.nextInt(40) + 1)
+                            * (rand.nextBoolean() ? 1 : -1);
+                }
+                addClause(literals);
+                try {
+                    reference.addClause(new VecInt(literals));
+                } catch (ContradictionException e) {
+                    trivialfalsity = true;
+                }
+            }
+            boolean expected = !trivialfalsity && reference.isSatisfiable();
+            assertEquals(expected, this.solver.isSatisfiable());
+            if (expected) {
+                assertModelSatisfiesClauses();
+            }
+        }
+    }
+}
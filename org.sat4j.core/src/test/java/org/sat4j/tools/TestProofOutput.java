@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * SAT4J: a SATisfiability library for Java Copyright (C) 2004, 2012 Artois University and CNRS
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU Lesser General Public License Version 2.1 or later (the
+ * "LGPL"), in which case the provisions of the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of the LGPL, and not to allow others to use your version of
+ * this file under the terms of the EPL, indicate your decision by deleting
+ * the provisions above and replace them with the notice and other provisions
+ * required by the LGPL. If you do not delete the provisions above, a recipient
+ * may use your version of this file under the terms of the EPL or the LGPL.
+ *
+ * Based on the original MiniSat specification from:
+ *
+ * An extensible SAT solver. Niklas Een and Niklas Sorensson. Proceedings of the
+ * Sixth International Conference on Theory and Applications of Satisfiability
+ * Testing, LNCS 2919, pp 502-518, 2003.
+ *
+ * See www.minisat.se for the original solver in C++.
+ *
+ * Contributors:
+ *   CRIL - initial API and implementation
+ *******************************************************************************/
+package org.sat4j.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.DataStructureFactory;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.TimeoutException;
+
+public class TestProofOutput {
+
+    private static void pigeonHole(Solver<?> solver, int holes)
+            throws ContradictionException {
+        int pigeons = holes + 1;
+        for (int p = 0; p < pigeons; p++) {
+            VecInt clause = new VecInt();
+            for (int h = 1; h <= holes; h++) {
+                clause.push(p * holes + h);
+            }
+            solver.addClause(clause);
+        }
+        for (int h = 1; h <= holes; h++) {
+            for (int p = 0; p < pigeons; p++) {
+                for (int q = p + 1; q < pigeons; q++) {
+                    solver.addClause(new VecInt(new int[] {
+                            -(p * holes + h), -(q * holes + h) }));
+                }
+            }
+        }
+    }
+
+    private static List<String> readText(File file) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            in.close();
+        }
+        return lines;
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String literal(long code) {
+        return String.valueOf((code & 1) == 0 ? code >> 1 : -(code >> 1));
+    }
+
+    /**
+     * Translate a binary proof into its text counterpart.
+     */
+    private static List<String> readBinary(File file, boolean lrat)
+            throws IOException {
+        List<String> lines = new ArrayList<String>();
+        InputStream in = new FileInputStream(file);
+        try {
+            int type;
+            long lastId = 0;
+            while ((type = in.read()) != -1) {
+                StringBuilder line = new StringBuilder();
+                if (lrat) {
+                    if (type == 'a') {
+                        lastId = readVarint(in) / 2;
+                        line.append(lastId).append(' ');
+                    } else {
+                        line.append(lastId).append(" d ");
+                    }
+                } else if (type == 'd') {
+                    line.append("d ");
+                }
+                long code;
+                while ((code = readVarint(in)) != 0) {
+                    line.append(literal(code)).append(' ');
+                }
+                line.append('0');
+                if (lrat && type == 'a') {
+                    while ((code = readVarint(in)) != 0) {
+                        line.append(' ').append(literal(code));
+                    }
+                    line.append(" 0");
+                }
+                lines.add(line.toString());
+            }
+        } finally {
+            in.close();
+        }
+        return lines;
+    }
+
+    private List<String> lratProof(boolean binary)
+            throws IOException, ContradictionException, TimeoutException {
+        File file = File.createTempFile("sat4j", ".lrat");
+        Solver<DataStructureFactory> solver = SolverFactory
+                .newMiniLearningHeap();
+        solver.setProofTracer(new LratProofTracer(file.getPath(), binary));
+        pigeonHole(solver, 5);
+        assertFalse(solver.isSatisfiable());
+        List<String> lines = binary ? readBinary(file, true) : readText(file);
+        assertTrue(file.delete());
+        return lines;
+    }
+
+    private List<String> dratProof(boolean binary)
+            throws IOException, ContradictionException, TimeoutException {
+        File file = File.createTempFile("sat4j", ".drat");
+        Solver<DataStructureFactory> solver = SolverFactory
+                .newMiniLearningHeap();
+        solver.setSearchListener(new DratSearchListener<ISolverService>(
+                file.getPath(), binary));
+        pigeonHole(solver, 5);
+        assertFalse(solver.isSatisfiable());
+        List<String> lines = binary ? readBinary(file, false)
+                : readText(file);
+        assertTrue(file.delete());
+        return lines;
+    }
+
+    @Test
+    public void testLratProofEndsWithTheEmptyClause() throws Exception {
+        List<String> lines = lratProof(false);
+        assertTrue(lines.size() > 1);
+        // 6 pigeons and 5 holes: 6 + 5 * 15 input clauses
+        assertTrue(lines.get(0).startsWith("82 "));
+        assertTrue(lines.get(lines.size() - 1).matches("\\d+ 0( \\d+)+ 0"));
+    }
+
+    @Test
+    public void testBinaryLratProofMatchesTheTextOne() throws Exception {
+        assertEquals(lratProof(false), lratProof(true));
+    }
+
+    @Test
+    public void testBinaryDratProofMatchesTheTextOne() throws Exception {
+        List<String> text = dratProof(false);
+        assertEquals("0", text.get(text.size() - 1));
+        assertEquals(text, dratProof(true));
+    }
+
+    @Test
+    public void testProofIsRemovedWhenSatisfiable() throws Exception {
+        File file = File.createTempFile("sat4j", ".lrat");
+        Solver<DataStructureFactory> solver = SolverFactory
+                .newMiniLearningHeap();
+        solver.setProofTracer(new LratProofTracer(file.getPath(), false));
+        solver.addClause(new VecInt(new int[] { 1, 2 }));
+        assertTrue(solver.isSatisfiable());
+        assertFalse(file.exists());
+    }
+}
@@ -196,6 +196,10 @@ public class CspSatSolverDecorator implements ICspPBSatSolver {
 		solver.addAllClauses(clauses);
 	}
 
+	public void addClauses(int[] literals, int from, int to) throws ContradictionException {
+		solver.addClauses(literals, from, to);
+	}
+
 	public void printInfos(PrintWriter out) {
 		solver.printInfos(out);
 	}
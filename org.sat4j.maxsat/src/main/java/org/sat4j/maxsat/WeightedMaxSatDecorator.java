@@ -34,6 +34,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.sat4j.core.ConstrGroup;
+import org.sat4j.core.FlatClauses;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
 import org.sat4j.pb.IPBSolver;
@@ -135,6 +136,13 @@ public class WeightedMaxSatDecorator extends PBSolverDecorator {
         return addSoftClause(1, literals);
     }
 
+    @Override
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        // each clause is a soft clause with its own selector variable
+        FlatClauses.addClauses(this, literals, from, to);
+    }
+
     /**
      * Add a hard clause in the solver, i.e. a clause that must be satisfied.
      * 
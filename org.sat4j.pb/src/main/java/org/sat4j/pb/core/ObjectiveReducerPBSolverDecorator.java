@@ -205,6 +205,11 @@ public class ObjectiveReducerPBSolverDecorator implements IPBSolver {
         }
     }
 
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        decorated.addClauses(literals, from, to);
+    }
+
     public IConstr addExactly(IVecInt literals, IVecInt coeffs, int weight)
             throws ContradictionException {
         return decorated.addExactly(literals, coeffs, weight);
@@ -204,6 +204,16 @@ public abstract class PBSolver extends Solver<PBDataStructureFactory> implements
                 BigInteger.valueOf(degree));
     }
 
+    /**
+     * The pseudo boolean constraints maintain counters, and the learned
+     * constraints are not always clauses: the literals are never kept or
+     * propagated again across backtracks.
+     */
+    @Override
+    protected boolean supportsChronologicalBacktracking() {
+        return false;
+    }
+
     @Override
     public int[] primeImplicant() {
         String primeApproach = System.getProperty("prime");
@@ -314,6 +324,10 @@ public abstract class PBSolver extends Solver<PBDataStructureFactory> implements
             }
         }
 
+        public void onClauseImported(Constr imported, int lbd) {
+            onClauseLearning(imported);
+        }
+
         public void onConflictAnalysis(Constr reason) {
             // do nothing
         }
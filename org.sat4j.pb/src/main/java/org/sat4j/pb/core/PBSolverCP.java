@@ -34,6 +34,7 @@ import org.sat4j.core.Vec;
 import org.sat4j.minisat.core.IOrder;
 import org.sat4j.minisat.core.LearningStrategy;
 import org.sat4j.minisat.core.Pair;
+import org.sat4j.minisat.core.ProofTracer;
 import org.sat4j.minisat.core.RestartStrategy;
 import org.sat4j.minisat.core.SearchParams;
 import org.sat4j.minisat.restarts.MiniSATRestarts;
@@ -42,6 +43,7 @@ import org.sat4j.pb.constraints.pb.IConflict;
 import org.sat4j.pb.constraints.pb.PBConstr;
 import org.sat4j.specs.Constr;
 import org.sat4j.specs.IVec;
+import org.sat4j.specs.MaskedSearchListener;
 import org.sat4j.specs.TimeoutException;
 
 /**
@@ -100,6 +102,18 @@ public class PBSolverCP extends PBSolver {
         this.noRemove = noRemove;
     }
 
+    /**
+     * Cutting planes derivations cannot be expressed by clausal proofs.
+     */
+    @Override
+    public void setProofTracer(ProofTracer tracer) {
+        if (tracer != null) {
+            throw new UnsupportedOperationException(
+                    "Cannot trace a proof of cutting planes derivations");
+        }
+        super.setProofTracer(tracer);
+    }
+
     @Override
     public void analyze(Constr myconfl, Pair results) throws TimeoutException {
         if (someCriteria()) {
@@ -136,7 +150,10 @@ public class PBSolverCP extends PBSolver {
             litImplied = this.trail.last();
             if (this.voc.getLevel(litImplied) != currentLevel) {
                 this.trailLim.pop();
-                slistener.backtracking(LiteralsUtils.toDimacs(litImplied));
+                if ((this.eventMask & MaskedSearchListener.DECISIONS) != 0) {
+                    slistener.backtracking(
+                            LiteralsUtils.toDimacs(litImplied));
+                }
                 confl.updateSlack(this.voc.getLevel(litImplied));
             }
             assert this.voc.getLevel(litImplied) <= currentLevel;
@@ -633,6 +633,11 @@ public class SumLeximinDecompositionOWAOptimizer
         solver.addAllClauses(clauses);
     }
 
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        solver.addClauses(literals, from, to);
+    }
+
     public void printInfos(PrintWriter out, String prefix) {
         solver.printInfos(out, prefix);
     }
@@ -21,6 +21,7 @@ import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IConstr;
 import org.sat4j.specs.IVec;
 import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.MaskedSearchListener;
 import org.sat4j.specs.SearchListenerAdapter;
 import org.sat4j.specs.TimeoutException;
 
@@ -104,6 +105,11 @@ public class InprocCardConstrLearningSolver extends PBSolverCP {
             public void conflictFound(IConstr confl, int dlevel, int trailLevel) {
                 handleConflict(confl);
             }
+
+            @Override
+            public int getEventMask() {
+                return CONFLICTS;
+            }
         });
     }
 
@@ -194,7 +200,10 @@ public class InprocCardConstrLearningSolver extends PBSolverCP {
             litImplied = this.trail.last();
             if (this.voc.getLevel(litImplied) != currentLevel) {
                 this.trailLim.pop();
-                slistener.backtracking(LiteralsUtils.toDimacs(litImplied));
+                if ((this.eventMask & MaskedSearchListener.DECISIONS) != 0) {
+                    slistener.backtracking(
+                            LiteralsUtils.toDimacs(litImplied));
+                }
                 confl.updateSlack(this.voc.getLevel(litImplied));
             }
             assert this.voc.getLevel(litImplied) <= currentLevel;
@@ -294,6 +303,13 @@ public class InprocCardConstrLearningSolver extends PBSolverCP {
         super.addAllClauses(clauses);
     }
 
+    @Override
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        this.coSolver.addClauses(literals, from, to);
+        super.addClauses(literals, from, to);
+    }
+
     @Override
     public IConstr addExactly(IVecInt literals, IVec<BigInteger> coeffs,
             BigInteger weight) throws ContradictionException {
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.sat4j.core.ASolverFactory;
+import org.sat4j.core.FlatClauses;
 import org.sat4j.minisat.orders.VarOrderHeap;
 import org.sat4j.pb.IPBSolver;
 import org.sat4j.pb.SolverFactory;
@@ -192,6 +193,13 @@ public class PreprocCardConstrLearningSolver<S extends IPBSolver>
         }
     }
 
+    @Override
+    public void addClauses(int[] literals, int from, int to)
+            throws ContradictionException {
+        // the short clauses are also given to the cardinality finder
+        FlatClauses.addClauses(this, literals, from, to);
+    }
+
     @Override
     public IConstr addPseudoBoolean(IVecInt lits, IVec<BigInteger> coeffs,
             boolean moreThan, BigInteger d) throws ContradictionException {
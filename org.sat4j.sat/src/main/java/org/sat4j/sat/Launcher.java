@@ -43,6 +43,7 @@ import org.sat4j.ExitCode;
 import org.sat4j.ILauncherMode;
 import org.sat4j.maxsat.WeightedMaxSatDecorator;
 import org.sat4j.maxsat.reader.MSInstanceReader;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.pb.ConstraintRelaxingPseudoOptDecorator;
 import org.sat4j.pb.IPBSolver;
 import org.sat4j.pb.PseudoOptDecorator;
@@ -57,6 +58,7 @@ import org.sat4j.specs.ISolver;
 import org.sat4j.specs.TimeoutException;
 import org.sat4j.tools.ConflictDepthTracing;
 import org.sat4j.tools.ConflictLevelTracing;
+import org.sat4j.tools.CubeAndConquer;
 import org.sat4j.tools.DecisionTracing;
 import org.sat4j.tools.FileBasedVisualizationTool;
 import org.sat4j.tools.LearnedClausesSizeTracing;
@@ -243,6 +245,15 @@ public class Launcher extends AbstractLauncher implements ILogAble {
                 }
             }
 
+            if (cmd.hasOption("cc") && typeProbleme == ProblemType.CNF_SAT) {
+                if (!(asolver instanceof Solver)) {
+                    log("cube and conquer needs a CDCL solver"); //$NON-NLS-1$
+                    return null;
+                }
+                asolver = new CubeAndConquer((Solver<?>) asolver,
+                        Integer.parseInt(cmd.getOptionValue("cc")));
+            }
+
             switch (typeProbleme) {
             case PB_OPT:
                 setLauncherMode(ILauncherMode.OPTIMIZATION);
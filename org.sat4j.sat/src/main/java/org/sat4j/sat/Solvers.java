@@ -233,6 +233,8 @@ public final class Solvers {
                 "incomplete mode for maxsat");
         options.addOption("n", "no solution line", false,
                 "Do not display a solution line (useful if the solution is large)");
+        options.addOption("cc", "cubeandconquer", true,
+                "solve the formula by cube and conquer using the given number of threads");
         Option op = options.getOption("l");
         op.setArgName("libname");
         op = options.getOption("s");
@@ -247,6 +249,8 @@ public final class Solvers {
         op.setArgName(NUMBER);
         op = options.getOption("k");
         op.setArgName(NUMBER);
+        op = options.getOption("cc");
+        op.setArgName(NUMBER);
         op = options.getOption("d");
         op.setArgName(FILENAME);
         op = options.getOption("f");
@@ -333,7 +337,13 @@ public final class Solvers {
                             + Arrays.asList(factory.solverNames()));
                     asolver = (Solver<?>) factory.defaultSolver();
                 } else {
-                    asolver = (Solver<?>) factory.createSolverByName(solvername);
+                    ISolver named = factory.createSolverByName(solvername);
+                    if (!(named instanceof Solver)) {
+                        logger.log(solvername
+                                + " cannot be configured from the command line");
+                        return null;
+                    }
+                    asolver = (Solver<?>) named;
                 }
             } else {
                 asolver = (Solver<?>) factory.defaultSolver();